@@ -0,0 +1,173 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Benchmarks for bean creation through
+ * {@link org.springframework.beans.factory.support.AbstractAutowireCapableBeanFactory#createBean}:
+ * singleton retrieval, prototype instantiation with property values,
+ * constructor autowiring and annotation-driven injection, plus type-based lookups.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class BeanCreationBenchmark {
+
+	@Benchmark
+	public Object singletonByName(BenchmarkData data) {
+		return data.beanFactory.getBean("singleton");
+	}
+
+	@Benchmark
+	public Object singletonByType(BenchmarkData data) {
+		return data.beanFactory.getBean(Dependency.class);
+	}
+
+	@Benchmark
+	public Object prototypeWithProperties(BenchmarkData data) {
+		return data.beanFactory.getBean("prototypeWithProperties");
+	}
+
+	@Benchmark
+	public Object prototypeWithConstructorAutowiring(BenchmarkData data) {
+		return data.beanFactory.getBean("prototypeWithConstructor");
+	}
+
+	@Benchmark
+	public Object prototypeWithAnnotationInjection(BenchmarkData data) {
+		return data.beanFactory.getBean("prototypeWithAnnotations");
+	}
+
+	@Benchmark
+	public String[] beanNamesForType(BenchmarkData data) {
+		return data.beanFactory.getBeanNamesForType(Dependency.class);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public DefaultListableBeanFactory beanFactory;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			AutowiredAnnotationBeanPostProcessor bpp = new AutowiredAnnotationBeanPostProcessor();
+			bpp.setBeanFactory(this.beanFactory);
+			this.beanFactory.addBeanPostProcessor(bpp);
+
+			this.beanFactory.registerBeanDefinition("singleton", new RootBeanDefinition(Dependency.class));
+
+			RootBeanDefinition withProperties = new RootBeanDefinition(Target.class);
+			withProperties.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			withProperties.getPropertyValues().add("name", "target").add("age", "42");
+			this.beanFactory.registerBeanDefinition("prototypeWithProperties", withProperties);
+
+			RootBeanDefinition withConstructor = new RootBeanDefinition(ConstructorTarget.class);
+			withConstructor.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			withConstructor.setAutowireMode(RootBeanDefinition.AUTOWIRE_CONSTRUCTOR);
+			this.beanFactory.registerBeanDefinition("prototypeWithConstructor", withConstructor);
+
+			RootBeanDefinition withAnnotations = new RootBeanDefinition(AnnotatedTarget.class);
+			withAnnotations.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			this.beanFactory.registerBeanDefinition("prototypeWithAnnotations", withAnnotations);
+
+			for (int i = 0; i < 200; i++) {
+				this.beanFactory.registerBeanDefinition("filler" + i, new RootBeanDefinition(Target.class));
+			}
+			this.beanFactory.freezeConfiguration();
+			this.beanFactory.preInstantiateSingletons();
+		}
+	}
+
+
+	public static class Dependency {
+	}
+
+
+	public static class Target {
+
+		private String name;
+
+		private int age;
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+	}
+
+
+	public static class ConstructorTarget {
+
+		private final Dependency dependency;
+
+		public ConstructorTarget(Dependency dependency) {
+			this.dependency = dependency;
+		}
+
+		public Dependency getDependency() {
+			return this.dependency;
+		}
+	}
+
+
+	public static class AnnotatedTarget {
+
+		@Autowired
+		private Dependency fieldDependency;
+
+		private Dependency methodDependency;
+
+		@Autowired
+		public void setMethodDependency(Dependency methodDependency) {
+			this.methodDependency = methodDependency;
+		}
+
+		public Dependency getFieldDependency() {
+			return this.fieldDependency;
+		}
+
+		public Dependency getMethodDependency() {
+			return this.methodDependency;
+		}
+	}
+
+}
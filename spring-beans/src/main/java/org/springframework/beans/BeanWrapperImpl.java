@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 
 import org.springframework.core.ResolvableType;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.convert.Property;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.lang.Nullable;
@@ -62,6 +63,19 @@ import org.springframework.util.ReflectionUtils;
  */
 public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements BeanWrapper {
 
+	/**
+	 * System property that instructs Spring to use generated property accessors
+	 * by default: "spring.beans.generated-accessors".
+	 * <p>The default is "false", invoking property methods via reflection.
+	 * @since 5.0.16
+	 * @see #setUseGeneratedAccessors
+	 */
+	public static final String GENERATED_ACCESSORS_PROPERTY_NAME = "spring.beans.generated-accessors";
+
+	private static final boolean defaultUseGeneratedAccessors =
+			SpringProperties.getFlag(GENERATED_ACCESSORS_PROPERTY_NAME);
+
+
 	/**
 	 * Cached introspections results for this object, to prevent encountering
 	 * the cost of JavaBeans introspection every time.
@@ -75,6 +89,8 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	@Nullable
 	private AccessControlContext acc;
 
+	private boolean useGeneratedAccessors = defaultUseGeneratedAccessors;
+
 
 	/**
 	 * Create a new empty BeanWrapperImpl. Wrapped instance needs to be set afterwards.
@@ -132,6 +148,7 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	private BeanWrapperImpl(Object object, String nestedPath, BeanWrapperImpl parent) {
 		super(object, nestedPath, parent);
 		setSecurityContext(parent.acc);
+		setUseGeneratedAccessors(parent.useGeneratedAccessors);
 	}
 
 
@@ -193,6 +210,42 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 		return this.acc;
 	}
 
+	/**
+	 * Set whether to invoke property read and write methods through accessor
+	 * classes generated per bean class, instead of via reflection.
+	 * <p>The accessors are generated once and cached along with the
+	 * {@link CachedIntrospectionResults} for the bean class. Reflection remains
+	 * in use for methods that generated accessors cannot invoke (e.g. non-public
+	 * methods or classes), as well as when running with a security manager.
+	 * <p>Default is "false", unless the {@link #GENERATED_ACCESSORS_PROPERTY_NAME}
+	 * system property is set to "true".
+	 * @since 5.0.16
+	 */
+	public void setUseGeneratedAccessors(boolean useGeneratedAccessors) {
+		this.useGeneratedAccessors = useGeneratedAccessors;
+	}
+
+	/**
+	 * Return whether property methods are invoked through generated accessors.
+	 * @since 5.0.16
+	 */
+	public boolean isUseGeneratedAccessors() {
+		return this.useGeneratedAccessors;
+	}
+
+	/**
+	 * Return the generated accessors to use for the given property method,
+	 * or {@code null} if the method is to be invoked via reflection.
+	 */
+	@Nullable
+	private GeneratedPropertyAccessors getGeneratedAccessors(Method method) {
+		if (!this.useGeneratedAccessors || System.getSecurityManager() != null) {
+			return null;
+		}
+		GeneratedPropertyAccessors accessors = getCachedIntrospectionResults().getGeneratedAccessors();
+		return (accessors.isSupported(method) ? accessors : null);
+	}
+
 
 	/**
 	 * Convert the given value for the specified property to the latter's type.
@@ -290,6 +343,10 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 		@Nullable
 		public Object getValue() throws Exception {
 			final Method readMethod = this.pd.getReadMethod();
+			GeneratedPropertyAccessors accessors = getGeneratedAccessors(readMethod);
+			if (accessors != null) {
+				return accessors.invoke(readMethod, getWrappedInstance());
+			}
 			if (System.getSecurityManager() != null) {
 				AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
 					ReflectionUtils.makeAccessible(readMethod);
@@ -314,6 +371,11 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 			final Method writeMethod = (this.pd instanceof GenericTypeAwarePropertyDescriptor ?
 					((GenericTypeAwarePropertyDescriptor) this.pd).getWriteMethodForActualAccess() :
 					this.pd.getWriteMethod());
+			GeneratedPropertyAccessors accessors = getGeneratedAccessors(writeMethod);
+			if (accessors != null) {
+				accessors.invoke(writeMethod, getWrappedInstance(), value);
+				return;
+			}
 			if (System.getSecurityManager() != null) {
 				AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
 					ReflectionUtils.makeAccessible(writeMethod);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -259,6 +259,10 @@ public class CachedIntrospectionResults {
 	/** TypeDescriptor objects keyed by PropertyDescriptor */
 	private final ConcurrentMap<PropertyDescriptor, TypeDescriptor> typeDescriptorCache;
 
+	/** Generated property accessors, lazily initialized */
+	@Nullable
+	private volatile GeneratedPropertyAccessors generatedAccessors;
+
 
 	/**
 	 * Create a new CachedIntrospectionResults instance for the given class.
@@ -363,6 +367,15 @@ public class CachedIntrospectionResults {
 		}
 	}
 
+	GeneratedPropertyAccessors getGeneratedAccessors() {
+		GeneratedPropertyAccessors accessors = this.generatedAccessors;
+		if (accessors == null) {
+			accessors = GeneratedPropertyAccessors.forClass(getBeanClass());
+			this.generatedAccessors = accessors;
+		}
+		return accessors;
+	}
+
 	TypeDescriptor addTypeDescriptor(PropertyDescriptor pd, TypeDescriptor td) {
 		TypeDescriptor existing = this.typeDescriptorCache.putIfAbsent(pd, td);
 		return (existing != null ? existing : td);
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cglib.core.SpringNamingPolicy;
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.lang.Nullable;
+
+/**
+ * Generated accessors for the property read and write methods of a bean class,
+ * invoking the methods through a CGLIB {@link FastClass} instead of reflection.
+ *
+ * <p>Held by {@link CachedIntrospectionResults} and used by {@link BeanWrapperImpl}
+ * if {@link BeanWrapperImpl#setUseGeneratedAccessors generated accessors} are
+ * enabled. Methods which cannot be invoked through the generated class (e.g.
+ * non-public methods, or all methods of a class that could not be generated)
+ * are not supported, for the caller to fall back to reflection.
+ *
+ * @since 5.0.16
+ * @see FastClass
+ */
+final class GeneratedPropertyAccessors {
+
+	private static final Log logger = LogFactory.getLog(GeneratedPropertyAccessors.class);
+
+	private static final Integer NOT_SUPPORTED = -1;
+
+
+	@Nullable
+	private final FastClass fastClass;
+
+	private final Map<Method, Integer> methodIndexCache = new ConcurrentHashMap<>(16);
+
+
+	private GeneratedPropertyAccessors(@Nullable FastClass fastClass) {
+		this.fastClass = fastClass;
+	}
+
+
+	/**
+	 * Return whether the given property method can be invoked through a
+	 * generated accessor.
+	 * @param method the read or write method of a property
+	 */
+	public boolean isSupported(Method method) {
+		return (getMethodIndex(method) >= 0);
+	}
+
+	/**
+	 * Invoke the given property method through its generated accessor.
+	 * @param method the read or write method of a property,
+	 * {@link #isSupported supported} by this instance
+	 * @param target the bean instance to invoke the method on
+	 * @param args the arguments for the method invocation
+	 * @return the return value of the method, if any
+	 * @throws InvocationTargetException if the method threw an exception
+	 */
+	@Nullable
+	public Object invoke(Method method, Object target, @Nullable Object... args) throws InvocationTargetException {
+		FastClass fastClass = this.fastClass;
+		int index = getMethodIndex(method);
+		if (fastClass == null || index < 0) {
+			throw new IllegalStateException("No generated accessor for method [" + method + "]");
+		}
+		return fastClass.invoke(index, target, args);
+	}
+
+	private int getMethodIndex(Method method) {
+		FastClass fastClass = this.fastClass;
+		if (fastClass == null) {
+			return NOT_SUPPORTED;
+		}
+		Integer index = this.methodIndexCache.get(method);
+		if (index == null) {
+			index = NOT_SUPPORTED;
+			if (Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())) {
+				index = fastClass.getIndex(method.getName(), method.getParameterTypes());
+			}
+			this.methodIndexCache.put(method, index);
+		}
+		return index;
+	}
+
+
+	/**
+	 * Generate the accessors for the given bean class.
+	 * @param beanClass the bean class to generate accessors for
+	 * @return the accessors (never {@code null}, but possibly not
+	 * supporting any method if generation failed)
+	 */
+	static GeneratedPropertyAccessors forClass(Class<?> beanClass) {
+		if (!Modifier.isPublic(beanClass.getModifiers()) || beanClass.isInterface() ||
+				beanClass.getClassLoader() == null) {
+			return new GeneratedPropertyAccessors(null);
+		}
+		try {
+			FastClass.Generator generator = new FastClass.Generator();
+			generator.setType(beanClass);
+			generator.setClassLoader(beanClass.getClassLoader());
+			generator.setNamingPolicy(SpringNamingPolicy.INSTANCE);
+			return new GeneratedPropertyAccessors(generator.create());
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not generate property accessors for class [" + beanClass.getName() +
+						"] - falling back to reflection", ex);
+			}
+			return new GeneratedPropertyAccessors(null);
+		}
+	}
+
+}
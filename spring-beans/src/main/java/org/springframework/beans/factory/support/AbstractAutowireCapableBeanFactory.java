@@ -65,6 +65,7 @@ import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.PriorityOrdered;
 import org.springframework.core.ResolvableType;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -452,6 +453,25 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	protected Object createBean(String beanName, RootBeanDefinition mbd, @Nullable Object[] args)
 			throws BeanCreationException {
 
+		StartupStep beanCreation = getApplicationStartup().start("spring.beans.create")
+				.tag("beanName", beanName);
+		try {
+			return doResolveAndCreateBean(beanName, mbd, args);
+		}
+		finally {
+			beanCreation.end();
+		}
+	}
+
+	/**
+	 * Resolve the bean class, prepare method overrides and give
+	 * {@code InstantiationAwareBeanPostProcessors} a chance to return a proxy
+	 * before actually creating the bean through {@link #doCreateBean}.
+	 * @see #createBean
+	 */
+	private Object doResolveAndCreateBean(String beanName, RootBeanDefinition mbd, @Nullable Object[] args)
+			throws BeanCreationException {
+
 		if (logger.isDebugEnabled()) {
 			logger.debug("Creating instance of bean '" + beanName + "'");
 		}
@@ -546,7 +566,13 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		 * 根据指定bean使用对应的策略创建新的实例,如:工厂方法,构造函数自动注入,简单初始化
 		 */
 		if (instanceWrapper == null) {
-			instanceWrapper = createBeanInstance(beanName, mbd, args);
+			StartupStep instantiation = getApplicationStartup().start("spring.beans.instantiate");
+			try {
+				instanceWrapper = createBeanInstance(beanName, mbd, args);
+			}
+			finally {
+				instantiation.end();
+			}
 		}
 		//获取已实例化完成的bean(依赖处理和属性注入还未进行)
 		final Object bean = instanceWrapper.getWrappedInstance();
@@ -608,11 +634,23 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			/**
 			 * 对bean进行填充.将各个属性值注入,其中,可能存在依赖于其他bean的属性,则会递归初始化bean
 			 */
-			populateBean(beanName, mbd, instanceWrapper);
+			StartupStep injection = getApplicationStartup().start("spring.beans.inject");
+			try {
+				populateBean(beanName, mbd, instanceWrapper);
+			}
+			finally {
+				injection.end();
+			}
 			/**
 			 * =========>  调用初始化方法,比如init-method(在调用初始化方法之前执行后处理器)   <===========  重点
 			 */
-			exposedObject = initializeBean(beanName, exposedObject, mbd);
+			StartupStep initialization = getApplicationStartup().start("spring.beans.initialize");
+			try {
+				exposedObject = initializeBean(beanName, exposedObject, mbd);
+			}
+			finally {
+				initialization.end();
+			}
 		}
 		catch (Throwable ex) {
 			if (ex instanceof BeanCreationException && beanName.equals(((BeanCreationException) ex).getBeanName())) {
@@ -975,7 +1013,11 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	 */
 	@Nullable
 	private FactoryBean<?> getSingletonFactoryBeanForTypeCheck(String beanName, RootBeanDefinition mbd) {
-		synchronized (getSingletonMutex()) {
+		if (!acquireSingletonCreationLock(beanName, false)) {
+			// Currently in creation in another thread.
+			return null;
+		}
+		try {
 			BeanWrapper bw = this.factoryBeanInstanceCache.get(beanName);
 			if (bw != null) {
 				return (FactoryBean<?>) bw.getWrappedInstance();
@@ -1011,6 +1053,9 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			}
 			return fb;
 		}
+		finally {
+			releaseSingletonCreationLock(beanName);
+		}
 	}
 
 	/**
@@ -30,6 +30,7 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
@@ -39,11 +40,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.inject.Provider;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCurrentlyInCreationException;
@@ -66,8 +73,10 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
 import org.springframework.beans.factory.config.DependencyDescriptor;
 import org.springframework.beans.factory.config.NamedBeanHolder;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationUtils;
@@ -144,6 +153,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether to allow eager class loading even for lazy-init beans */
 	private boolean allowEagerClassLoading = true;
 
+	/** Number of threads to pre-instantiate singletons with */
+	private int preInstantiationParallelism = 1;
+
 	/** Optional OrderComparator for dependency Lists and arrays */
 	@Nullable
 	private Comparator<Object> dependencyComparator;
@@ -163,6 +175,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Map of singleton-only bean names, keyed by dependency type */
 	private final Map<Class<?>, String[]> singletonBeanNamesByType = new ConcurrentHashMap<>(64);
 
+	/** Map of singleton and non-singleton bean names, keyed by generic dependency type */
+	private final Map<ResolvableType, String[]> allBeanNamesByResolvableType = new ConcurrentHashMap<>(64);
+
+	/** Map of autowire candidate names, keyed by injection point and requesting bean */
+	private final Map<AutowireCandidatesKey, String[]> autowireCandidateNamesCache = new ConcurrentHashMap<>(64);
+
 	/** bean定义名称列表，按注册顺序排列*/
 	private volatile List<String> beanDefinitionNames = new ArrayList<>(256);
 
@@ -260,6 +278,35 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.allowEagerClassLoading;
 	}
 
+	/**
+	 * Set the number of threads to use for pre-instantiating singletons.
+	 * <p>Default is 1, creating all non-lazy singletons one after the other
+	 * on the calling thread, in registration order. A higher value creates
+	 * them in parallel on a dedicated {@link ForkJoinPool}, with each bean
+	 * only started once the beans it is known to depend on (through
+	 * "depends-on", its factory bean, or bean references in its constructor
+	 * arguments and property values) have been created. Autowired dependencies
+	 * are still resolved on demand by the creating thread.
+	 * <p>Only turn this on if singleton initialization is thread-safe and does
+	 * not rely on the creation order of unrelated beans.
+	 * {@link SmartInitializingSingleton} callbacks are invoked on the calling
+	 * thread, in registration order, once all singletons have been created.
+	 * @since 5.0.16
+	 * @see #preInstantiateSingletons()
+	 */
+	public void setPreInstantiationParallelism(int preInstantiationParallelism) {
+		Assert.isTrue(preInstantiationParallelism > 0, "Parallelism must be greater than 0");
+		this.preInstantiationParallelism = preInstantiationParallelism;
+	}
+
+	/**
+	 * Return the number of threads to use for pre-instantiating singletons.
+	 * @since 5.0.16
+	 */
+	public int getPreInstantiationParallelism() {
+		return this.preInstantiationParallelism;
+	}
+
 	/**
 	 * Set a {@link java.util.Comparator} for dependency Lists and arrays.
 	 * @since 4.0
@@ -298,6 +345,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			}
 		}
 		this.autowireCandidateResolver = autowireCandidateResolver;
+		this.autowireCandidateNamesCache.clear();
 	}
 
 	/**
@@ -315,6 +363,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			DefaultListableBeanFactory otherListableFactory = (DefaultListableBeanFactory) otherFactory;
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
+			this.preInstantiationParallelism = otherListableFactory.preInstantiationParallelism;
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware...
 			setAutowireCandidateResolver(BeanUtils.instantiateClass(getAutowireCandidateResolver().getClass()));
@@ -378,7 +427,18 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 	@Override
 	public String[] getBeanNamesForType(ResolvableType type) {
-		return doGetBeanNamesForType(type, true, true);
+		if (!isConfigurationFrozen()) {
+			return doGetBeanNamesForType(type, true, true);
+		}
+		String[] resolvedBeanNames = this.allBeanNamesByResolvableType.get(type);
+		if (resolvedBeanNames != null) {
+			return resolvedBeanNames;
+		}
+		resolvedBeanNames = doGetBeanNamesForType(type, true, true);
+		if (isCacheSafe(type)) {
+			this.allBeanNamesByResolvableType.put(type, resolvedBeanNames);
+		}
+		return resolvedBeanNames;
 	}
 
 	@Override
@@ -409,6 +469,23 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return resolvedBeanNames;
 	}
 
+	/**
+	 * Check whether the given type and its immediate generics are cache-safe
+	 * in the context of this factory's bean ClassLoader.
+	 */
+	private boolean isCacheSafe(ResolvableType type) {
+		Class<?> resolved = type.resolve();
+		if (resolved != null && !ClassUtils.isCacheSafe(resolved, getBeanClassLoader())) {
+			return false;
+		}
+		for (Class<?> generic : type.resolveGenerics()) {
+			if (generic != null && !ClassUtils.isCacheSafe(generic, getBeanClassLoader())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private String[] doGetBeanNamesForType(ResolvableType type, boolean includeNonSingletons, boolean allowEagerInit) {
 		List<String> result = new ArrayList<>();  //存放符合条件的BeanName
 
@@ -620,6 +697,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 						"] does not implement specified dependency type [" + dependencyType.getName() + "]");
 			}
 			this.resolvableDependencies.put(dependencyType, autowiredValue);
+			this.autowireCandidateNamesCache.clear();
 		}
 	}
 
@@ -753,41 +831,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		/**
 		 * 触发所有非惰性单例bean的初始化...
 		 */
-		for (String beanName : beanNames) {
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				/**
-				 * 如果是工厂bean
-				 */
-				if (isFactoryBean(beanName)) {
-					//在beanName前加"&"前缀, 获取到FactoryBean (如果直接通过BeanName获取的则是getObject()方法返回的bean)
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					//判断该bean对象是否是FactoryBean
-					if (bean instanceof FactoryBean) {
-						//如果是的话则进行强转
-						final FactoryBean<?> factory = (FactoryBean<?>) bean;
-						boolean isEagerInit;
-						if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-							isEagerInit = AccessController.doPrivileged((PrivilegedAction<Boolean>)
-											((SmartFactoryBean<?>) factory)::isEagerInit,
-									getAccessControlContext());
-						}
-						else {
-							isEagerInit = (factory instanceof SmartFactoryBean &&
-									((SmartFactoryBean<?>) factory).isEagerInit());
-						}
-						//只有isEagerInit值为true,才会在此时对FactoryBean进行初始化
-						if (isEagerInit) {
-							getBean(beanName);
-						}
-					}
-				}
-				/**
-				 * 如果是普通bean
-				 */
-				else {
-					getBean(beanName);
-				}
+		if (this.preInstantiationParallelism > 1) {
+			preInstantiateSingletonsInParallel(beanNames);
+		}
+		else {
+			for (String beanName : beanNames) {
+				preInstantiateSingleton(beanName);
 			}
 		}
 
@@ -817,6 +866,158 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	}
 
 
+	/**
+	 * Create the given singleton if it is non-lazy, also creating the object
+	 * of an eagerly initialized {@link SmartFactoryBean}.
+	 */
+	private void preInstantiateSingleton(String beanName) {
+		RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+		if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+			/**
+			 * 如果是工厂bean
+			 */
+			if (isFactoryBean(beanName)) {
+				//在beanName前加"&"前缀, 获取到FactoryBean (如果直接通过BeanName获取的则是getObject()方法返回的bean)
+				Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+				//判断该bean对象是否是FactoryBean
+				if (bean instanceof FactoryBean) {
+					//如果是的话则进行强转
+					final FactoryBean<?> factory = (FactoryBean<?>) bean;
+					boolean isEagerInit;
+					if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+						isEagerInit = AccessController.doPrivileged((PrivilegedAction<Boolean>)
+										((SmartFactoryBean<?>) factory)::isEagerInit,
+								getAccessControlContext());
+					}
+					else {
+						isEagerInit = (factory instanceof SmartFactoryBean &&
+								((SmartFactoryBean<?>) factory).isEagerInit());
+					}
+					//只有isEagerInit值为true,才会在此时对FactoryBean进行初始化
+					if (isEagerInit) {
+						getBean(beanName);
+					}
+				}
+			}
+			/**
+			 * 如果是普通bean
+			 */
+			else {
+				getBean(beanName);
+			}
+		}
+	}
+
+	/**
+	 * Create the non-lazy singletons among the given beans on a dedicated
+	 * {@link ForkJoinPool}, starting each bean once the earlier registered beans
+	 * it is known to depend on have been created. Further dependencies are
+	 * resolved on demand by the creating thread, as in sequential creation.
+	 */
+	private void preInstantiateSingletonsInParallel(List<String> beanNames) {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		ForkJoinPool pool = new ForkJoinPool(this.preInstantiationParallelism, forkJoinPool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+			thread.setContextClassLoader(classLoader);
+			return thread;
+		}, null, false);
+		AtomicBoolean failed = new AtomicBoolean();
+		Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>(beanNames.size());
+		try {
+			for (String beanName : beanNames) {
+				RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+				if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+					List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+					for (String dependency : getKnownDependencies(beanName, bd)) {
+						CompletableFuture<Void> dependencyFuture = futures.get(dependency);
+						if (dependencyFuture != null) {
+							dependencies.add(dependencyFuture);
+						}
+					}
+					CompletableFuture<Void> future = CompletableFuture
+							.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+							.thenRunAsync(() -> {
+								if (!failed.get()) {
+									try {
+										preInstantiateSingleton(beanName);
+									}
+									catch (RuntimeException | Error ex) {
+										failed.set(true);
+										throw ex;
+									}
+								}
+							}, pool);
+					futures.put(beanName, future);
+				}
+			}
+
+			// Wait for all beans, then report the first failure in registration order
+			Throwable failure = null;
+			for (CompletableFuture<Void> future : futures.values()) {
+				try {
+					future.join();
+				}
+				catch (CompletionException ex) {
+					if (failure == null) {
+						failure = (ex.getCause() != null ? ex.getCause() : ex);
+					}
+				}
+			}
+			if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			}
+			if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Determine the names of the beans that the given bean is known to depend on
+	 * before its creation: explicit "depends-on" beans, its factory bean, bean
+	 * references in its constructor arguments and property values, as well as
+	 * dependencies registered so far.
+	 */
+	private Set<String> getKnownDependencies(String beanName, RootBeanDefinition mbd) {
+		Set<String> dependencies = new LinkedHashSet<>();
+		String[] dependsOn = mbd.getDependsOn();
+		if (dependsOn != null) {
+			for (String dependency : dependsOn) {
+				dependencies.add(transformedBeanName(dependency));
+			}
+		}
+		String factoryBeanName = mbd.getFactoryBeanName();
+		if (factoryBeanName != null) {
+			dependencies.add(transformedBeanName(factoryBeanName));
+		}
+		if (mbd.hasConstructorArgumentValues()) {
+			ConstructorArgumentValues argumentValues = mbd.getConstructorArgumentValues();
+			for (ConstructorArgumentValues.ValueHolder valueHolder : argumentValues.getIndexedArgumentValues().values()) {
+				addBeanReference(valueHolder.getValue(), dependencies);
+			}
+			for (ConstructorArgumentValues.ValueHolder valueHolder : argumentValues.getGenericArgumentValues()) {
+				addBeanReference(valueHolder.getValue(), dependencies);
+			}
+		}
+		if (mbd.hasPropertyValues()) {
+			for (PropertyValue propertyValue : mbd.getPropertyValues().getPropertyValues()) {
+				addBeanReference(propertyValue.getValue(), dependencies);
+			}
+		}
+		Collections.addAll(dependencies, getDependenciesForBean(beanName));
+		dependencies.remove(beanName);
+		return dependencies;
+	}
+
+	private void addBeanReference(@Nullable Object value, Set<String> dependencies) {
+		if (value instanceof RuntimeBeanReference && !((RuntimeBeanReference) value).isToParent()) {
+			dependencies.add(transformedBeanName(((RuntimeBeanReference) value).getBeanName()));
+		}
+	}
+
 	//---------------------------------------------------------------------
 	// 实现BeanDefinitionRegistry接口
 	//---------------------------------------------------------------------
@@ -928,6 +1129,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		if (existingDefinition != null || containsSingleton(beanName)) {
 			resetBeanDefinition(beanName);
 		}
+		else if (isConfigurationFrozen()) {
+			clearByTypeCache();
+		}
 	}
 
 	@Override
@@ -1037,6 +1241,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	private void clearByTypeCache() {
 		this.allBeanNamesByType.clear();
 		this.singletonBeanNamesByType.clear();
+		this.allBeanNamesByResolvableType.clear();
+		this.autowireCandidateNamesCache.clear();
 	}
 
 
@@ -1345,19 +1551,31 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	protected Map<String, Object> findAutowireCandidates(
 			@Nullable String beanName, Class<?> requiredType, DependencyDescriptor descriptor) {
 
-		String[] candidateNames = BeanFactoryUtils.beanNamesForTypeIncludingAncestors(
-				this, requiredType, true, descriptor.isEager());
+		AutowireCandidatesKey cacheKey = (isAutowireCandidateCachingAllowed(descriptor) ?
+				new AutowireCandidatesKey(beanName, requiredType, descriptor) : null);
+		String[] cachedCandidateNames = (cacheKey != null ? this.autowireCandidateNamesCache.get(cacheKey) : null);
+		String[] candidateNames = (cachedCandidateNames != null ? cachedCandidateNames :
+				BeanFactoryUtils.beanNamesForTypeIncludingAncestors(this, requiredType, true, descriptor.isEager()));
 		Map<String, Object> result = new LinkedHashMap<>(candidateNames.length);
+		String autowiringValueKey = null;
 		for (Class<?> autowiringType : this.resolvableDependencies.keySet()) {
 			if (autowiringType.isAssignableFrom(requiredType)) {
 				Object autowiringValue = this.resolvableDependencies.get(autowiringType);
 				autowiringValue = AutowireUtils.resolveAutowiringValue(autowiringValue, requiredType);
 				if (requiredType.isInstance(autowiringValue)) {
-					result.put(ObjectUtils.identityToString(autowiringValue), autowiringValue);
+					autowiringValueKey = ObjectUtils.identityToString(autowiringValue);
+					result.put(autowiringValueKey, autowiringValue);
 					break;
 				}
 			}
 		}
+		if (cachedCandidateNames != null) {
+			// Candidates matched before, with unchanged bean definitions and resolver
+			for (String candidate : cachedCandidateNames) {
+				addCandidateEntry(result, candidate, descriptor, requiredType);
+			}
+			return result;
+		}
 		for (String candidate : candidateNames) {
 			if (!isSelfReference(beanName, candidate) && isAutowireCandidate(candidate, descriptor)) {
 				addCandidateEntry(result, candidate, descriptor, requiredType);
@@ -1383,9 +1601,38 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 				}
 			}
 		}
+		if (cacheKey != null) {
+			Set<String> matchedNames = new LinkedHashSet<>(result.keySet());
+			if (autowiringValueKey != null) {
+				matchedNames.remove(autowiringValueKey);
+			}
+			this.autowireCandidateNamesCache.put(cacheKey, StringUtils.toStringArray(matchedNames));
+		}
 		return result;
 	}
 
+	/**
+	 * Determine whether the autowire candidates for the given dependency may be
+	 * cached, i.e. whether the configuration of this factory and its parent is
+	 * frozen and the descriptor is fully identified by its injection point.
+	 * Cached candidates are dropped whenever bean definitions, singletons or
+	 * resolvable dependencies are registered or removed.
+	 * @see #freezeConfiguration()
+	 * @see #clearMetadataCache()
+	 */
+	private boolean isAutowireCandidateCachingAllowed(DependencyDescriptor descriptor) {
+		if (!isConfigurationFrozen() || !descriptor.isEager()) {
+			return false;
+		}
+		BeanFactory parent = getParentBeanFactory();
+		if (parent != null && !(parent instanceof ConfigurableListableBeanFactory &&
+				((ConfigurableListableBeanFactory) parent).isConfigurationFrozen())) {
+			return false;
+		}
+		Class<?> descriptorClass = descriptor.getClass();
+		return (descriptorClass == DependencyDescriptor.class || descriptorClass == MultiElementDescriptor.class);
+	}
+
 	/**
 	 * Add an entry to the candidate map: a bean instance if available or just the resolved
 	 * type, preventing early bean initialization ahead of primary candidate selection.
@@ -1716,6 +1963,49 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	}
 
 
+	/**
+	 * Cache key for the autowire candidates of a dependency, holding a copy of
+	 * the (mutable) descriptor.
+	 */
+	private static final class AutowireCandidatesKey {
+
+		@Nullable
+		private final String beanName;
+
+		private final Class<?> requiredType;
+
+		private final DependencyDescriptor descriptor;
+
+		private final boolean multiElement;
+
+		public AutowireCandidatesKey(@Nullable String beanName, Class<?> requiredType, DependencyDescriptor descriptor) {
+			this.beanName = beanName;
+			this.requiredType = requiredType;
+			this.descriptor = new DependencyDescriptor(descriptor);
+			this.multiElement = (descriptor instanceof MultiElementDescriptor);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof AutowireCandidatesKey)) {
+				return false;
+			}
+			AutowireCandidatesKey otherKey = (AutowireCandidatesKey) other;
+			return (ObjectUtils.nullSafeEquals(this.beanName, otherKey.beanName) &&
+					this.requiredType == otherKey.requiredType && this.multiElement == otherKey.multiElement &&
+					this.descriptor.equals(otherKey.descriptor));
+		}
+
+		@Override
+		public int hashCode() {
+			return (ObjectUtils.nullSafeHashCode(this.beanName) * 29 + this.descriptor.hashCode());
+		}
+	}
+
+
 	/**
 	 * Serializable ObjectFactory/ObjectProvider for lazy resolution of a dependency.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,6 +32,7 @@ import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -61,6 +62,13 @@ import org.springframework.util.StringUtils;
  * (which inherit from it). Can alternatively also be used as a nested
  * helper to delegate to.
  *
+ * <p>Singleton creation is guarded by a lock per bean name rather than by the
+ * global {@link #getSingletonMutex() singleton mutex}, so that unrelated singletons
+ * may be created concurrently. A thread requesting a singleton that is currently
+ * in creation in another thread waits for that creation to complete, unless the
+ * other thread is (transitively) waiting for the requesting thread, in which case
+ * the circular reference is resolved through an early singleton reference.
+ *
  * @author Juergen Hoeller
  * @since 2.0
  * @see #registerSingleton
@@ -90,12 +98,18 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private final Set<String> inCreationCheckExclusions =
 			Collections.newSetFromMap(new ConcurrentHashMap<>(16));
 
+	/** Creation locks of singletons currently in creation: bean name --> lock */
+	private final Map<String, SingletonCreationLock> singletonCreationLocks = new HashMap<>(16);
+
+	/** Threads waiting for a singleton creation lock: thread --> bean name */
+	private final Map<Thread, String> threadsWaitingForSingletons = new HashMap<>(16);
+
 	/** List of suppressed Exceptions, available for associating related causes */
-	@Nullable
-	private Set<Exception> suppressedExceptions;
+	private final ThreadLocal<Set<Exception>> suppressedExceptions =
+			new NamedThreadLocal<>("Suppressed exceptions in singleton creation");
 
 	/** Flag that indicates whether we're currently within destroySingletons */
-	private boolean singletonsCurrentlyInDestruction = false;
+	private volatile boolean singletonsCurrentlyInDestruction = false;
 
 	/** Disposable bean instances: bean name --> disposable instance */
 	private final Map<String, Object> disposableBeans = new LinkedHashMap<>();
@@ -187,6 +201,10 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		 */
 		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
 			synchronized (this.singletonObjects) {
+				if (!isSingletonCreationAccessible(beanName)) {
+					// Currently in creation in another thread: not exposing an early reference.
+					return null;
+				}
 				/**
 				 * 如果此bean正在加载,但是可以从二级缓存earlySingletonObjects中获取到目标bean,就返回该对象;否则进行创建
 				 */
@@ -232,13 +250,30 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
 		/**
-		 * 全局变量需要同步
+		 * 首先检查对应的bean是否已经加载过,因为singleton模式其实就是复用已创建的bean,所以这一步是必须的
 		 */
-		synchronized (this.singletonObjects) {
-			/**
-			 * 首先检查对应的bean是否已经加载过,因为singleton模式其实就是复用已创建的bean,所以这一步是必须的
-			 */
-			Object singletonObject = this.singletonObjects.get(beanName);
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject != null) {
+			return singletonObject;
+		}
+		/**
+		 * 获取该bean的创建锁(而非全局变量), 不相关的bean可以并发创建
+		 */
+		if (!acquireSingletonCreationLock(beanName, true)) {
+			// Circular reference between threads: proceed with the early reference, if any.
+			synchronized (this.singletonObjects) {
+				singletonObject = getEarlySingleton(beanName);
+			}
+			if (singletonObject == null) {
+				throw new BeanCurrentlyInCreationException(beanName, "Requested bean is currently in creation " +
+						"in another thread which in turn waits for a bean in creation in the current thread: " +
+						"Is there an unresolvable circular reference?");
+			}
+			return singletonObject;
+		}
+		try {
+			// Might have been created by another thread in the meantime.
+			singletonObject = this.singletonObjects.get(beanName);
 			//如果为空,才进行singleton的bean初始化
 			if (singletonObject == null) {
 				if (this.singletonsCurrentlyInDestruction) {
@@ -254,9 +289,11 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				 */
 				beforeSingletonCreation(beanName);
 				boolean newSingleton = false;
-				boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
+				Set<Exception> suppressedExceptions = this.suppressedExceptions.get();
+				boolean recordSuppressedExceptions = (suppressedExceptions == null);
 				if (recordSuppressedExceptions) {
-					this.suppressedExceptions = new LinkedHashSet<>();
+					suppressedExceptions = new LinkedHashSet<>();
+					this.suppressedExceptions.set(suppressedExceptions);
 				}
 				try {
 					/**
@@ -277,7 +314,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				}
 				catch (BeanCreationException ex) {
 					if (recordSuppressedExceptions) {
-						for (Exception suppressedException : this.suppressedExceptions) {
+						for (Exception suppressedException : suppressedExceptions) {
 							ex.addRelatedCause(suppressedException);
 						}
 					}
@@ -285,7 +322,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				}
 				finally {
 					if (recordSuppressedExceptions) {
-						this.suppressedExceptions = null;
+						this.suppressedExceptions.remove();
 					}
 					//加载单例后的处理方法调用
 					afterSingletonCreation(beanName);
@@ -297,6 +334,139 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			}
 			return singletonObject;
 		}
+		finally {
+			releaseSingletonCreationLock(beanName);
+		}
+	}
+
+	/**
+	 * Return the early reference for the given singleton currently in creation,
+	 * if any, obtaining it from its singleton factory if necessary.
+	 * <p>To be called within synchronization on the singleton mutex.
+	 * @param beanName the name of the bean
+	 * @return the early singleton reference, or {@code null} if none available
+	 */
+	@Nullable
+	private Object getEarlySingleton(String beanName) {
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject == null) {
+			singletonObject = this.earlySingletonObjects.get(beanName);
+			if (singletonObject == null) {
+				ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+				if (singletonFactory != null) {
+					singletonObject = singletonFactory.getObject();
+					this.earlySingletonObjects.put(beanName, singletonObject);
+					this.singletonFactories.remove(beanName);
+				}
+			}
+		}
+		return singletonObject;
+	}
+
+	/**
+	 * Acquire the creation lock for the given singleton, reentrantly for
+	 * the current thread.
+	 * <p>Waiting for a lock held by another thread releases the singleton mutex
+	 * (if held by the current thread) until the lock becomes available, so that
+	 * the other thread is able to complete the creation of its singleton.
+	 * Once the singletons of this registry are in destruction, waiting is no
+	 * longer permitted and results in a {@link BeanCreationNotAllowedException}.
+	 * @param beanName the name of the bean
+	 * @param wait whether to wait for a lock held by another thread
+	 * @return {@code true} if the lock has been acquired, {@code false} if it is
+	 * held by another thread and either {@code wait} is {@code false} or waiting
+	 * would result in a deadlock since the other thread (transitively) waits for
+	 * a lock held by the current thread
+	 */
+	boolean acquireSingletonCreationLock(String beanName, boolean wait) {
+		Thread currentThread = Thread.currentThread();
+		synchronized (this.singletonObjects) {
+			while (true) {
+				SingletonCreationLock lock = this.singletonCreationLocks.get(beanName);
+				if (lock == null) {
+					this.singletonCreationLocks.put(beanName, new SingletonCreationLock(currentThread));
+					return true;
+				}
+				if (lock.owner == currentThread) {
+					lock.holdCount++;
+					return true;
+				}
+				if (!wait || isWaitingForCurrentThread(lock.owner)) {
+					return false;
+				}
+				if (this.singletonsCurrentlyInDestruction) {
+					throw new BeanCreationNotAllowedException(beanName,
+							"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+							"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+				}
+				this.threadsWaitingForSingletons.put(currentThread, beanName);
+				try {
+					this.singletonObjects.wait();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new BeanCreationException(beanName,
+							"Interrupted while waiting for creation of singleton bean in another thread", ex);
+				}
+				finally {
+					this.threadsWaitingForSingletons.remove(currentThread);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Release the creation lock for the given singleton, as acquired through
+	 * {@link #acquireSingletonCreationLock} by the current thread.
+	 * @param beanName the name of the bean
+	 */
+	void releaseSingletonCreationLock(String beanName) {
+		synchronized (this.singletonObjects) {
+			SingletonCreationLock lock = this.singletonCreationLocks.get(beanName);
+			if (lock == null || lock.owner != Thread.currentThread()) {
+				throw new IllegalStateException(
+						"Creation lock for singleton '" + beanName + "' isn't held by the current thread");
+			}
+			if (--lock.holdCount == 0) {
+				this.singletonCreationLocks.remove(beanName);
+				this.singletonObjects.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Determine whether early references to the given singleton, if in creation,
+	 * may be exposed to the current thread: i.e. whether it is created by the
+	 * current thread or by a thread which waits for the current thread.
+	 * <p>To be called within synchronization on the singleton mutex.
+	 * @param beanName the name of the bean
+	 */
+	private boolean isSingletonCreationAccessible(String beanName) {
+		SingletonCreationLock lock = this.singletonCreationLocks.get(beanName);
+		return (lock == null || lock.owner == Thread.currentThread() || isWaitingForCurrentThread(lock.owner));
+	}
+
+	/**
+	 * Determine whether the given thread is (transitively) waiting for a
+	 * singleton creation lock held by the current thread.
+	 * <p>To be called within synchronization on the singleton mutex.
+	 * @param thread the thread to check
+	 */
+	private boolean isWaitingForCurrentThread(Thread thread) {
+		Thread currentThread = Thread.currentThread();
+		Set<Thread> alreadySeen = new HashSet<>();
+		while (alreadySeen.add(thread)) {
+			String beanName = this.threadsWaitingForSingletons.get(thread);
+			SingletonCreationLock lock = (beanName != null ? this.singletonCreationLocks.get(beanName) : null);
+			if (lock == null) {
+				return false;
+			}
+			if (lock.owner == currentThread) {
+				return true;
+			}
+			thread = lock.owner;
+		}
+		return false;
 	}
 
 	/**
@@ -305,10 +475,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @param ex the Exception to register
 	 */
 	protected void onSuppressedException(Exception ex) {
-		synchronized (this.singletonObjects) {
-			if (this.suppressedExceptions != null) {
-				this.suppressedExceptions.add(ex);
-			}
+		Set<Exception> suppressedExceptions = this.suppressedExceptions.get();
+		if (suppressedExceptions != null) {
+			suppressedExceptions.add(ex);
 		}
 	}
 
@@ -541,6 +710,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		}
 		synchronized (this.singletonObjects) {
 			this.singletonsCurrentlyInDestruction = true;
+			// Let threads waiting for a creation lock fail, then await ongoing creations.
+			this.singletonObjects.notifyAll();
+			awaitSingletonCreationsInOtherThreads();
 		}
 
 		String[] disposableBeanNames;
@@ -558,6 +730,36 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		clearSingletonCache();
 	}
 
+	/**
+	 * Wait until singletons currently in creation in other threads have been
+	 * created, so that they are registered for destruction before the caches
+	 * of this registry are cleared.
+	 * <p>To be called within synchronization on the singleton mutex.
+	 */
+	private void awaitSingletonCreationsInOtherThreads() {
+		Thread currentThread = Thread.currentThread();
+		while (true) {
+			boolean inCreation = false;
+			for (SingletonCreationLock lock : this.singletonCreationLocks.values()) {
+				if (lock.owner != currentThread) {
+					inCreation = true;
+					break;
+				}
+			}
+			if (!inCreation) {
+				return;
+			}
+			try {
+				this.singletonObjects.wait();
+			}
+			catch (InterruptedException ex) {
+				// Proceed with destruction, preserving the interrupt status.
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
 	/**
 	 * Clear all cached singleton instances in this registry.
 	 * @since 4.3.15
@@ -656,9 +858,27 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * any sort of extended singleton creation phase. In particular, subclasses
 	 * should <i>not</i> have their own mutexes involved in singleton creation,
 	 * to avoid the potential for deadlocks in lazy-init situations.
+	 * <p>Note that the mutex is not held for the entire creation of a singleton.
+	 * A thread waiting for a singleton in creation in another thread temporarily
+	 * releases the mutex, if held, until that singleton has been created.
 	 */
 	public final Object getSingletonMutex() {
 		return this.singletonObjects;
 	}
 
+
+	/**
+	 * Reentrant creation lock for a singleton, held by a specific thread.
+	 */
+	private static class SingletonCreationLock {
+
+		final Thread owner;
+
+		int holdCount = 1;
+
+		SingletonCreationLock(Thread owner) {
+			this.owner = owner;
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -96,7 +96,12 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 	protected Object getObjectFromFactoryBean(FactoryBean<?> factory, String beanName, boolean shouldPostProcess) {
 		// Bean工厂是单态模式，并且Bean工厂缓存中存在指定名称的Bean实例对象
 		if (factory.isSingleton() && containsSingleton(beanName)) {
-			synchronized (getSingletonMutex()) {
+			if (!acquireSingletonCreationLock(beanName, true)) {
+				throw new BeanCurrentlyInCreationException(beanName, "FactoryBean is currently obtaining its " +
+						"object in another thread which in turn waits for a bean in creation in the current thread: " +
+						"Is there an unresolvable circular reference?");
+			}
+			try {
 				// 直接从Bean工厂缓存中获取指定名称的Bean实例对象
 				Object object = this.factoryBeanObjectCache.get(beanName);
 				// Bean工厂缓存中没有指定名称的实例对象，则生产该实例对象
@@ -140,6 +145,9 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 				}
 				return object;
 			}
+			finally {
+				releaseSingletonCreationLock(beanName);
+			}
 		}
 		//bean工厂不是单例的
 		else {
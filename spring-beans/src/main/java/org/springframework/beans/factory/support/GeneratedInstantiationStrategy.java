@@ -0,0 +1,174 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.cglib.core.SpringNamingPolicy;
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.core.KotlinDetector;
+import org.springframework.lang.Nullable;
+
+/**
+ * Instantiation strategy that invokes the constructors of non-singleton beans
+ * through a generated class instead of via reflection, for beans which are
+ * created over and over again, e.g. prototype or request-scoped beans.
+ *
+ * <p>On first instantiation of a non-singleton bean definition, a CGLIB
+ * {@link FastClass} is generated for the bean class and the resolved constructor
+ * is looked up in it. The resulting instantiator is cached on the merged bean
+ * definition, next to the resolved constructor and arguments, so that further
+ * instances are created through a direct {@code new} invocation.
+ *
+ * <p>Singletons are created once and therefore instantiated as usual. The same
+ * applies to bean definitions with method overrides, to non-public classes or
+ * constructors, to Kotlin classes, and when running with a security manager.
+ *
+ * @since 5.0.16
+ * @see AbstractAutowireCapableBeanFactory#setInstantiationStrategy
+ */
+public class GeneratedInstantiationStrategy extends CglibSubclassingInstantiationStrategy {
+
+	private static final Log logger = LogFactory.getLog(GeneratedInstantiationStrategy.class);
+
+	private static final Object[] EMPTY_ARGS = new Object[0];
+
+
+	@Override
+	public Object instantiate(RootBeanDefinition bd, @Nullable String beanName, BeanFactory owner) {
+		if (isGenerationCandidate(bd)) {
+			Executable constructorToUse;
+			synchronized (bd.constructorArgumentLock) {
+				constructorToUse = bd.resolvedConstructorOrFactoryMethod;
+			}
+			if (constructorToUse instanceof Constructor && constructorToUse.getParameterCount() == 0) {
+				GeneratedInstantiator instantiator = getGeneratedInstantiator(bd, (Constructor<?>) constructorToUse);
+				if (instantiator != null) {
+					return instantiator.newInstance(null);
+				}
+			}
+		}
+		return super.instantiate(bd, beanName, owner);
+	}
+
+	@Override
+	public Object instantiate(RootBeanDefinition bd, @Nullable String beanName, BeanFactory owner,
+			Constructor<?> ctor, @Nullable Object... args) {
+
+		if (isGenerationCandidate(bd)) {
+			GeneratedInstantiator instantiator = getGeneratedInstantiator(bd, ctor);
+			if (instantiator != null) {
+				return instantiator.newInstance(args);
+			}
+		}
+		return super.instantiate(bd, beanName, owner, ctor, args);
+	}
+
+	/**
+	 * Determine whether to generate an instantiator for the given bean definition.
+	 * <p>The default implementation accepts non-singleton bean definitions
+	 * without method overrides. Can be overridden in subclasses, e.g. to
+	 * exclude specific scopes.
+	 * @param bd the bean definition to check
+	 */
+	protected boolean isGenerationCandidate(RootBeanDefinition bd) {
+		return (!bd.isSingleton() && !bd.hasMethodOverrides() && System.getSecurityManager() == null);
+	}
+
+	@Nullable
+	private GeneratedInstantiator getGeneratedInstantiator(RootBeanDefinition bd, Constructor<?> ctor) {
+		Object cached = bd.generatedInstantiator;
+		GeneratedInstantiator instantiator;
+		if (cached instanceof GeneratedInstantiator && ((GeneratedInstantiator) cached).constructor.equals(ctor)) {
+			instantiator = (GeneratedInstantiator) cached;
+		}
+		else {
+			instantiator = generateInstantiator(ctor);
+			bd.generatedInstantiator = instantiator;
+		}
+		return (instantiator.fastClass != null ? instantiator : null);
+	}
+
+	private static GeneratedInstantiator generateInstantiator(Constructor<?> ctor) {
+		Class<?> clazz = ctor.getDeclaringClass();
+		if (!Modifier.isPublic(ctor.getModifiers()) || !Modifier.isPublic(clazz.getModifiers()) ||
+				Modifier.isAbstract(clazz.getModifiers()) || clazz.getClassLoader() == null ||
+				KotlinDetector.isKotlinType(clazz)) {
+			return new GeneratedInstantiator(ctor, null, -1);
+		}
+		try {
+			FastClass.Generator generator = new FastClass.Generator();
+			generator.setType(clazz);
+			generator.setClassLoader(clazz.getClassLoader());
+			generator.setNamingPolicy(SpringNamingPolicy.INSTANCE);
+			FastClass fastClass = generator.create();
+			int index = fastClass.getIndex(ctor.getParameterTypes());
+			return new GeneratedInstantiator(ctor, (index >= 0 ? fastClass : null), index);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not generate instantiator for constructor [" + ctor +
+						"] - falling back to reflection", ex);
+			}
+			return new GeneratedInstantiator(ctor, null, -1);
+		}
+	}
+
+
+	/**
+	 * Generated instantiator for a specific constructor, or a marker for
+	 * a constructor that needs to be invoked via reflection.
+	 */
+	private static final class GeneratedInstantiator {
+
+		final Constructor<?> constructor;
+
+		@Nullable
+		final FastClass fastClass;
+
+		private final int index;
+
+		GeneratedInstantiator(Constructor<?> constructor, @Nullable FastClass fastClass, int index) {
+			this.constructor = constructor;
+			this.fastClass = fastClass;
+			this.index = index;
+		}
+
+		Object newInstance(@Nullable Object[] args) {
+			FastClass fastClass = this.fastClass;
+			if (fastClass == null) {
+				throw new IllegalStateException("No generated instantiator for constructor [" + this.constructor + "]");
+			}
+			try {
+				return fastClass.newInstance(this.index, (args != null ? args : EMPTY_ARGS));
+			}
+			catch (InvocationTargetException ex) {
+				throw new BeanInstantiationException(this.constructor, "Constructor threw exception",
+						ex.getTargetException());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the {@link BeanWrapperTests} with generated property accessors.
+ */
+public class BeanWrapperGeneratedAccessorsTests extends BeanWrapperTests {
+
+	@Override
+	protected BeanWrapperImpl createAccessor(Object target) {
+		BeanWrapperImpl accessor = new BeanWrapperImpl(target);
+		accessor.setUseGeneratedAccessors(true);
+		return accessor;
+	}
+
+
+	@Test
+	public void generatedAccessorsForPublicClass() throws Exception {
+		GeneratedPropertyAccessors accessors =
+				CachedIntrospectionResults.forClass(TestBean.class).getGeneratedAccessors();
+		Method readMethod = TestBean.class.getMethod("getName");
+		Method writeMethod = TestBean.class.getMethod("setName", String.class);
+		assertTrue(accessors.isSupported(readMethod));
+		assertTrue(accessors.isSupported(writeMethod));
+
+		TestBean target = new TestBean();
+		accessors.invoke(writeMethod, target, "tom");
+		assertEquals("tom", accessors.invoke(readMethod, target));
+	}
+
+	@Test
+	public void reflectionForNonPublicClass() throws Exception {
+		GeneratedPropertyAccessors accessors =
+				CachedIntrospectionResults.forClass(NonPublicBean.class).getGeneratedAccessors();
+		assertFalse(accessors.isSupported(NonPublicBean.class.getMethod("getName")));
+
+		NonPublicBean target = new NonPublicBean();
+		BeanWrapperImpl accessor = createAccessor(target);
+		accessor.setPropertyValue("name", "tom");
+		assertEquals("tom", target.getName());
+		assertEquals("tom", accessor.getPropertyValue("name"));
+	}
+
+	@Test
+	public void nestedAccessorsInheritSetting() {
+		TestBean target = new TestBean();
+		target.setSpouse(new TestBean());
+		BeanWrapperImpl accessor = createAccessor(target);
+		accessor.setPropertyValue("spouse.name", "kerry");
+		assertEquals("kerry", target.getSpouse().getName());
+		assertTrue(((BeanWrapperImpl) accessor.getPropertyAccessorForPropertyPath("spouse.name"))
+				.isUseGeneratedAccessors());
+	}
+
+
+	static class NonPublicBean {
+
+		private String name;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+}
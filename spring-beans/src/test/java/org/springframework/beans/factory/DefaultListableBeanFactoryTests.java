@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -76,6 +76,7 @@ import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.beans.factory.xml.ConstructorDependenciesBean;
 import org.springframework.beans.propertyeditors.CustomNumberEditor;
 import org.springframework.core.MethodParameter;
+import org.springframework.core.OverridingClassLoader;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.core.convert.converter.Converter;
@@ -2198,6 +2199,67 @@ public class DefaultListableBeanFactoryTests {
 		assertTrue(factory.initialized);
 	}
 
+	@Test
+	public void testParallelPreInstantiation() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.setPreInstantiationParallelism(4);
+		for (int i = 0; i < 20; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			if (i > 0) {
+				bd.getPropertyValues().add("spouse", new RuntimeBeanReference("bean" + (i - 1)));
+			}
+			lbf.registerBeanDefinition("bean" + i, bd);
+		}
+		lbf.registerBeanDefinition("lazy", new RootBeanDefinition(KnowsIfInstantiated.class));
+		lbf.getBeanDefinition("lazy").setLazyInit(true);
+		lbf.registerBeanDefinition("factory", new RootBeanDefinition(EagerInitFactory.class));
+		KnowsIfInstantiated.clearInstantiationRecord();
+
+		lbf.preInstantiateSingletons();
+		for (int i = 0; i < 20; i++) {
+			assertTrue(lbf.containsSingleton("bean" + i));
+		}
+		assertSame(lbf.getBean("bean3"), ((TestBean) lbf.getBean("bean4")).getSpouse());
+		assertTrue(((EagerInitFactory) lbf.getBean("&factory")).initialized);
+		assertFalse(KnowsIfInstantiated.wasInstantiated());
+	}
+
+	@Test
+	public void testParallelPreInstantiationWithContextClassLoader() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.setPreInstantiationParallelism(2);
+		lbf.registerBeanDefinition("test", new RootBeanDefinition(ContextClassLoaderRecordingBean.class));
+
+		ClassLoader original = Thread.currentThread().getContextClassLoader();
+		ClassLoader classLoader = new OverridingClassLoader(original);
+		Thread.currentThread().setContextClassLoader(classLoader);
+		try {
+			lbf.preInstantiateSingletons();
+		}
+		finally {
+			Thread.currentThread().setContextClassLoader(original);
+		}
+		assertSame(classLoader, lbf.getBean(ContextClassLoaderRecordingBean.class).contextClassLoader);
+	}
+
+	@Test
+	public void testParallelPreInstantiationFailure() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.setPreInstantiationParallelism(4);
+		lbf.registerBeanDefinition("test1", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setInitMethodName("nonExistingMethod");
+		lbf.registerBeanDefinition("test2", bd);
+		lbf.registerBeanDefinition("test3", new RootBeanDefinition(TestBean.class));
+		try {
+			lbf.preInstantiateSingletons();
+			fail("Should have thrown BeanCreationException");
+		}
+		catch (BeanCreationException ex) {
+			assertEquals("test2", ex.getBeanName());
+		}
+	}
+
 	@Test
 	public void testPrototypeFactoryBeanNotEagerlyCalledInCaseOfBeanClassName() {
 		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
@@ -3074,6 +3136,12 @@ public class DefaultListableBeanFactoryTests {
 	}
 
 
+	public static class ContextClassLoaderRecordingBean {
+
+		public final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+	}
+
+
 	public static class TestBeanFactory {
 
 		public static boolean initialized = false;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -329,6 +329,49 @@ public class AutowiredAnnotationBeanPostProcessorTests {
 		assertSame(ntb2, bean.nestedTestBeansField.get(1));
 	}
 
+	@Test
+	public void testOptionalCollectionResourceInjectionWithFrozenConfiguration() {
+		RootBeanDefinition rbd = new RootBeanDefinition(OptionalCollectionResourceInjectionBean.class);
+		rbd.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		bf.registerBeanDefinition("annotatedBean", rbd);
+		TestBean tb = new TestBean();
+		bf.registerSingleton("testBean", tb);
+		IndexedTestBean itb = new IndexedTestBean();
+		bf.registerSingleton("indexedTestBean", itb);
+		NestedTestBean ntb1 = new NestedTestBean();
+		bf.registerSingleton("nestedTestBean1", ntb1);
+		NestedTestBean ntb2 = new NestedTestBean();
+		bf.registerSingleton("nestedTestBean2", ntb2);
+		bf.freezeConfiguration();
+
+		// Repeated calls to verify that cached autowire candidates are used consistently.
+		OptionalCollectionResourceInjectionBean bean = (OptionalCollectionResourceInjectionBean) bf.getBean("annotatedBean");
+		bean = (OptionalCollectionResourceInjectionBean) bf.getBean("annotatedBean");
+		assertSame(tb, bean.getTestBean3());
+		assertSame(tb, bean.getTestBean4());
+		assertSame(itb, bean.getIndexedTestBean());
+		assertEquals(2, bean.getNestedTestBeans().size());
+		assertEquals(2, bean.nestedTestBeansSetter.size());
+		assertEquals(2, bean.nestedTestBeansField.size());
+		assertSame(ntb1, bean.nestedTestBeansField.get(0));
+		assertSame(ntb2, bean.nestedTestBeansField.get(1));
+
+		// Cached autowire candidates need to reflect changes in the bean factory.
+		NestedTestBean ntb3 = new NestedTestBean();
+		bf.registerSingleton("nestedTestBean3", ntb3);
+		bean = (OptionalCollectionResourceInjectionBean) bf.getBean("annotatedBean");
+		assertEquals(3, bean.getNestedTestBeans().size());
+		assertEquals(3, bean.nestedTestBeansSetter.size());
+		assertEquals(3, bean.nestedTestBeansField.size());
+		assertSame(ntb3, bean.nestedTestBeansField.get(2));
+
+		bf.destroySingleton("nestedTestBean1");
+		bean = (OptionalCollectionResourceInjectionBean) bf.getBean("annotatedBean");
+		assertEquals(2, bean.nestedTestBeansField.size());
+		assertSame(ntb2, bean.nestedTestBeansField.get(0));
+		assertSame(ntb3, bean.nestedTestBeansField.get(1));
+	}
+
 	@Test
 	public void testOptionalCollectionResourceInjectionWithSingleElement() {
 		RootBeanDefinition rbd = new RootBeanDefinition(OptionalCollectionResourceInjectionBean.class);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -865,6 +865,33 @@ public class BeanFactoryGenericsTests {
 		assertEquals("store2", floatStoreNames[0]);
 	}
 
+	@Test
+	public void testGenericMatchingWithFullTypeDifferentiationAndFrozenConfiguration() {
+		DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+		bf.setAutowireCandidateResolver(new GenericTypeAwareAutowireCandidateResolver());
+
+		bf.registerBeanDefinition("store1", new RootBeanDefinition(DoubleStore.class));
+		bf.registerBeanDefinition("store2", new RootBeanDefinition(FloatStore.class));
+		bf.freezeConfiguration();
+
+		ResolvableType doubleStoreType = ResolvableType.forClassWithGenerics(NumberStore.class, Double.class);
+		String[] doubleStoreNames = bf.getBeanNamesForType(doubleStoreType);
+		assertArrayEquals(new String[] {"store1"}, doubleStoreNames);
+		assertSame(doubleStoreNames, bf.getBeanNamesForType(
+				ResolvableType.forClassWithGenerics(NumberStore.class, Double.class)));
+		assertArrayEquals(new String[] {"store2"},
+				bf.getBeanNamesForType(ResolvableType.forClassWithGenerics(NumberStore.class, Float.class)));
+		assertArrayEquals(new String[] {"store1", "store2"},
+				bf.getBeanNamesForType(ResolvableType.forClass(NumberStore.class)));
+
+		bf.registerBeanDefinition("store3", new RootBeanDefinition(DoubleStore.class));
+		assertArrayEquals(new String[] {"store1", "store3"}, bf.getBeanNamesForType(doubleStoreType));
+		assertArrayEquals(new String[] {"store1", "store3"}, bf.getBeanNamesForType(DoubleStore.class));
+
+		bf.removeBeanDefinition("store1");
+		assertArrayEquals(new String[] {"store3"}, bf.getBeanNamesForType(doubleStoreType));
+	}
+
 
 	@SuppressWarnings("serial")
 	public static class NamedUrlList extends LinkedList<URL> {
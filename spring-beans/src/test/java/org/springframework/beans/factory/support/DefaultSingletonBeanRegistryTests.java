@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,17 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCreationNotAllowedException;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.tests.sample.beans.DerivedTestBean;
 import org.springframework.tests.sample.beans.TestBean;
@@ -101,4 +109,157 @@ public class DefaultSingletonBeanRegistryTests {
 		assertTrue(beanRegistry.isDependent("c", "c"));
 	}
 
+	@Test
+	public void testConcurrentCreationOfUnrelatedSingletons() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> tb1 = executor.submit(() -> beanRegistry.getSingleton("tb1", () -> {
+				awaitBarrier(barrier);
+				return new TestBean("tb1");
+			}));
+			Future<Object> tb2 = executor.submit(() -> beanRegistry.getSingleton("tb2", () -> {
+				awaitBarrier(barrier);
+				return new TestBean("tb2");
+			}));
+			assertSame(tb1.get(10, TimeUnit.SECONDS), beanRegistry.getSingleton("tb1"));
+			assertSame(tb2.get(10, TimeUnit.SECONDS), beanRegistry.getSingleton("tb2"));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testConcurrentRequestWaitsForSingletonInCreation() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		CountDownLatch inCreation = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> creation = executor.submit(() -> beanRegistry.getSingleton("tb", () -> {
+				TestBean tb = new TestBean("tb");
+				beanRegistry.addSingletonFactory("tb", () -> tb);
+				inCreation.countDown();
+				try {
+					proceed.await();
+				}
+				catch (InterruptedException ex) {
+					throw new IllegalStateException(ex);
+				}
+				return tb;
+			}));
+			assertTrue(inCreation.await(10, TimeUnit.SECONDS));
+
+			// No early reference exposed to other threads
+			assertNull(beanRegistry.getSingleton("tb"));
+			proceed.countDown();
+			Object tb = beanRegistry.getSingleton("tb", () -> {
+				throw new IllegalStateException("Should not have created a second instance");
+			});
+			assertSame(creation.get(10, TimeUnit.SECONDS), tb);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCircularReferenceBetweenThreads() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> tb1 = executor.submit(() ->
+					beanRegistry.getSingleton("tb1", () -> createWithSpouse(beanRegistry, "tb1", "tb2", barrier)));
+			Future<Object> tb2 = executor.submit(() ->
+					beanRegistry.getSingleton("tb2", () -> createWithSpouse(beanRegistry, "tb2", "tb1", barrier)));
+			TestBean bean1 = (TestBean) tb1.get(10, TimeUnit.SECONDS);
+			TestBean bean2 = (TestBean) tb2.get(10, TimeUnit.SECONDS);
+			assertSame(bean2, bean1.getSpouse());
+			assertSame(bean1, bean2.getSpouse());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testDestroySingletonsWaitsForSingletonInCreation() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		CountDownLatch inCreation = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> creation = executor.submit(() -> beanRegistry.getSingleton("tb", () -> {
+				DerivedTestBean tb = new DerivedTestBean();
+				inCreation.countDown();
+				try {
+					proceed.await();
+				}
+				catch (InterruptedException ex) {
+					throw new IllegalStateException(ex);
+				}
+				beanRegistry.registerDisposableBean("tb", tb);
+				return tb;
+			}));
+			assertTrue(inCreation.await(10, TimeUnit.SECONDS));
+
+			Future<?> destruction = executor.submit(beanRegistry::destroySingletons);
+			long deadline = System.currentTimeMillis() + 10000;
+			while (!isCreationNotAllowed(beanRegistry, "other")) {
+				assertTrue("Destruction did not start", System.currentTimeMillis() < deadline);
+				Thread.sleep(10);
+			}
+			assertFalse(destruction.isDone());
+
+			proceed.countDown();
+			destruction.get(10, TimeUnit.SECONDS);
+			DerivedTestBean tb = (DerivedTestBean) creation.get(10, TimeUnit.SECONDS);
+			assertTrue(tb.wasDestroyed());
+			assertEquals(0, beanRegistry.getSingletonCount());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+	private static boolean isCreationNotAllowed(DefaultSingletonBeanRegistry beanRegistry, String beanName) {
+		try {
+			beanRegistry.getSingleton(beanName, TestBean::new);
+			beanRegistry.destroySingleton(beanName);
+			return false;
+		}
+		catch (BeanCreationNotAllowedException ex) {
+			return true;
+		}
+	}
+
+	private static TestBean createWithSpouse(
+			DefaultSingletonBeanRegistry beanRegistry, String name, String spouseName, CyclicBarrier barrier) {
+
+		TestBean tb = new TestBean(name);
+		beanRegistry.addSingletonFactory(name, () -> tb);
+		awaitBarrier(barrier);
+		Object spouse = beanRegistry.getSingleton(spouseName);
+		if (spouse == null) {
+			spouse = beanRegistry.getSingleton(spouseName, () -> {
+				throw new IllegalStateException("Should have waited for or referenced " + spouseName);
+			});
+		}
+		tb.setSpouse((TestBean) spouse);
+		return tb;
+	}
+
+	private static void awaitBarrier(CyclicBarrier barrier) {
+		try {
+			barrier.await(10, TimeUnit.SECONDS);
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link GeneratedInstantiationStrategy}.
+ */
+public class GeneratedInstantiationStrategyTests {
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+
+	@Before
+	public void setup() {
+		this.beanFactory.setInstantiationStrategy(new GeneratedInstantiationStrategy());
+	}
+
+
+	@Test
+	public void prototypeWithDefaultConstructor() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.getPropertyValues().add("name", "tom");
+		this.beanFactory.registerBeanDefinition("test", bd);
+
+		TestBean first = this.beanFactory.getBean("test", TestBean.class);
+		TestBean second = this.beanFactory.getBean("test", TestBean.class);
+		assertNotSame(first, second);
+		assertEquals("tom", second.getName());
+		assertNotNull(getMergedBeanDefinition("test").generatedInstantiator);
+	}
+
+	@Test
+	public void prototypeWithConstructorArguments() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.getConstructorArgumentValues().addGenericArgumentValue("tom");
+		bd.getConstructorArgumentValues().addGenericArgumentValue("42");
+		this.beanFactory.registerBeanDefinition("test", bd);
+
+		for (int i = 0; i < 3; i++) {
+			TestBean bean = this.beanFactory.getBean("test", TestBean.class);
+			assertEquals("tom", bean.getName());
+			assertEquals(42, bean.getAge());
+		}
+		assertNotNull(getMergedBeanDefinition("test").generatedInstantiator);
+	}
+
+	@Test
+	public void prototypeWithExplicitArguments() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		this.beanFactory.registerBeanDefinition("test", bd);
+
+		assertEquals("tom", ((TestBean) this.beanFactory.getBean("test", "tom", 42)).getName());
+		assertEquals("kerry", ((TestBean) this.beanFactory.getBean("test", "kerry", 34)).getName());
+	}
+
+	@Test
+	public void singletonIsNotGenerated() {
+		this.beanFactory.registerBeanDefinition("test", new RootBeanDefinition(TestBean.class));
+		assertNotNull(this.beanFactory.getBean("test"));
+		assertNull(getMergedBeanDefinition("test").generatedInstantiator);
+	}
+
+	@Test
+	public void prototypeWithNonPublicClass() {
+		RootBeanDefinition bd = new RootBeanDefinition(NonPublicBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		this.beanFactory.registerBeanDefinition("test", bd);
+
+		assertNotSame(this.beanFactory.getBean("test"), this.beanFactory.getBean("test"));
+	}
+
+	@Test
+	public void prototypeWithFailingConstructor() {
+		RootBeanDefinition bd = new RootBeanDefinition(FailingBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.getConstructorArgumentValues().addGenericArgumentValue("fail");
+		this.beanFactory.registerBeanDefinition("test", bd);
+
+		for (int i = 0; i < 2; i++) {
+			try {
+				this.beanFactory.getBean("test");
+				fail("Should have thrown BeanCreationException");
+			}
+			catch (BeanCreationException ex) {
+				assertTrue(ex.getCause() instanceof BeanInstantiationException);
+				assertEquals("fail", ex.getCause().getCause().getMessage());
+			}
+		}
+	}
+
+
+	private RootBeanDefinition getMergedBeanDefinition(String beanName) {
+		return (RootBeanDefinition) this.beanFactory.getMergedBeanDefinition(beanName);
+	}
+
+
+	static class NonPublicBean {
+	}
+
+
+	public static class FailingBean {
+
+		public FailingBean(String message) {
+			throw new IllegalStateException(message);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.processing.Completion;
 import javax.annotation.processing.ProcessingEnvironment;
@@ -37,7 +38,8 @@ import javax.lang.model.element.TypeElement;
 
 /**
  * Annotation {@link Processor} that writes {@link CandidateComponentsMetadata}
- * file for spring components.
+ * file for spring components, as well as the class metadata of the candidate
+ * components so that they do not need to be read from their class files at runtime.
  *
  * @author Stephane Nicoll
  * @author Juergen Hoeller
@@ -48,10 +50,14 @@ public class CandidateComponentsIndexer implements Processor {
 	private static final Set<ElementKind> TYPE_KINDS =
 			Collections.unmodifiableSet(EnumSet.of(ElementKind.CLASS, ElementKind.INTERFACE));
 
+	private static final String COMPONENT_ANNOTATION = "org.springframework.stereotype.Component";
+
 	private MetadataStore metadataStore;
 
 	private MetadataCollector metadataCollector;
 
+	private ClassMetadataCollector classMetadataCollector;
+
 	private TypeHelper typeHelper;
 
 	private List<StereotypesProvider> stereotypesProviders;
@@ -78,11 +84,13 @@ public class CandidateComponentsIndexer implements Processor {
 		this.typeHelper = new TypeHelper(env);
 		this.metadataStore = new MetadataStore(env);
 		this.metadataCollector = new MetadataCollector(env, this.metadataStore.readMetadata());
+		this.classMetadataCollector = new ClassMetadataCollector(env, this.metadataStore.readClassMetadata());
 	}
 
 	@Override
 	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
 		this.metadataCollector.processing(roundEnv);
+		this.classMetadataCollector.processing(roundEnv);
 		roundEnv.getRootElements().forEach(this::processElement);
 		if (roundEnv.processingOver()) {
 			writeMetaData();
@@ -117,6 +125,9 @@ public class CandidateComponentsIndexer implements Processor {
 		this.stereotypesProviders.forEach(p -> stereotypes.addAll(p.getStereotypes(element)));
 		if (!stereotypes.isEmpty()) {
 			this.metadataCollector.add(new ItemMetadata(this.typeHelper.getType(element), stereotypes));
+			if (stereotypes.contains(COMPONENT_ANNOTATION) && element instanceof TypeElement) {
+				this.classMetadataCollector.add((TypeElement) element);
+			}
 		}
 	}
 
@@ -130,6 +141,15 @@ public class CandidateComponentsIndexer implements Processor {
 				throw new IllegalStateException("Failed to write metadata", ex);
 			}
 		}
+		Map<String, List<String>> classMetadata = this.classMetadataCollector.getMetadata();
+		if (!classMetadata.isEmpty()) {
+			try {
+				this.metadataStore.writeClassMetadata(classMetadata);
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to write class metadata", ex);
+			}
+		}
 	}
 
 	private static List<TypeElement> staticTypesIn(Iterable<? extends Element> elements) {
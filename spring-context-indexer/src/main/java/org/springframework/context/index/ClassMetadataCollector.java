@@ -0,0 +1,344 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Used by {@link CandidateComponentsIndexer} to collect the class metadata of
+ * candidate components, i.e. the information that would otherwise be read from
+ * their class files at runtime: type modifiers, super types, enclosing and member
+ * classes as well as the annotations declared on the type and on its methods.
+ *
+ * <p>Only annotations that are retained in the class file are recorded, with
+ * their explicitly declared attribute values.
+ *
+ * @since 5.0.16
+ * @see ClassMetadataMarshaller
+ */
+class ClassMetadataCollector {
+
+	private final Map<String, List<String>> metadata = new LinkedHashMap<>();
+
+	private final ProcessingEnvironment processingEnvironment;
+
+	private final Map<String, List<String>> previousMetadata;
+
+	private final Elements elements;
+
+	private final Types types;
+
+	private final Set<String> processedSourceTypes = new HashSet<>();
+
+
+	/**
+	 * Create a new {@code ClassMetadataCollector} instance.
+	 * @param processingEnvironment The processing environment of the build
+	 * @param previousMetadata Any previous class metadata or {@code null}
+	 */
+	public ClassMetadataCollector(ProcessingEnvironment processingEnvironment,
+			Map<String, List<String>> previousMetadata) {
+
+		this.processingEnvironment = processingEnvironment;
+		this.previousMetadata = previousMetadata;
+		this.elements = processingEnvironment.getElementUtils();
+		this.types = processingEnvironment.getTypeUtils();
+	}
+
+
+	public void processing(RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getRootElements()) {
+			markAsProcessed(element);
+		}
+	}
+
+	private void markAsProcessed(Element element) {
+		if (element instanceof TypeElement) {
+			this.processedSourceTypes.add(getBinaryName((TypeElement) element));
+			element.getEnclosedElements().forEach(this::markAsProcessed);
+		}
+	}
+
+	public void add(TypeElement element) {
+		if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.INTERFACE) {
+			return;
+		}
+		String className = getBinaryName(element);
+		List<String> lines = new ArrayList<>();
+
+		StringBuilder declaration = new StringBuilder();
+		declaration.append(element.getKind() == ElementKind.INTERFACE ? "interface " : "class ").append(className);
+		if (element.getKind() == ElementKind.INTERFACE || element.getModifiers().contains(Modifier.ABSTRACT)) {
+			declaration.append(" abstract");
+		}
+		if (element.getModifiers().contains(Modifier.FINAL)) {
+			declaration.append(" final");
+		}
+		lines.add(declaration.toString());
+
+		if (element.getSuperclass().getKind() == TypeKind.DECLARED) {
+			lines.add("extends " + getBinaryName(element.getSuperclass()));
+		}
+		if (!element.getInterfaces().isEmpty()) {
+			StringJoiner interfaces = new StringJoiner(" ", "implements ", "");
+			element.getInterfaces().forEach(type -> interfaces.add(getBinaryName(type)));
+			lines.add(interfaces.toString());
+		}
+		Element enclosingElement = element.getEnclosingElement();
+		if (enclosingElement instanceof TypeElement) {
+			boolean independent = (element.getKind() == ElementKind.INTERFACE ||
+					element.getModifiers().contains(Modifier.STATIC));
+			lines.add("enclosing " + getBinaryName((TypeElement) enclosingElement) +
+					(independent ? " static" : " inner"));
+		}
+		for (Element enclosed : element.getEnclosedElements()) {
+			if (enclosed instanceof TypeElement) {
+				lines.add("member " + getBinaryName((TypeElement) enclosed));
+			}
+		}
+		addAnnotations(element, lines);
+
+		boolean isInterface = (element.getKind() == ElementKind.INTERFACE);
+		for (Element enclosed : element.getEnclosedElements()) {
+			if (enclosed.getKind() == ElementKind.METHOD && hasRetainedAnnotations(enclosed)) {
+				ExecutableElement method = (ExecutableElement) enclosed;
+				lines.add("method " + getModifiers(method, isInterface) + method.getSimpleName() +
+						" " + getDescriptor(method));
+				addAnnotations(method, lines);
+			}
+		}
+		this.metadata.put(className, lines);
+	}
+
+	public Map<String, List<String>> getMetadata() {
+		Map<String, List<String>> result = new LinkedHashMap<>(this.metadata);
+		if (this.previousMetadata != null) {
+			this.previousMetadata.forEach((className, lines) -> {
+				if (shouldBeMerged(className)) {
+					result.putIfAbsent(className, lines);
+				}
+			});
+		}
+		return result;
+	}
+
+	private boolean shouldBeMerged(String className) {
+		return (!this.processedSourceTypes.contains(className) &&
+				this.elements.getTypeElement(className.replace('$', '.')) != null);
+	}
+
+
+	private boolean hasRetainedAnnotations(Element element) {
+		return element.getAnnotationMirrors().stream().anyMatch(a -> getRetention(a) != RetentionPolicy.SOURCE);
+	}
+
+	/**
+	 * Add the annotations retained in the class file, runtime-visible ones first
+	 * as in the class file layout.
+	 */
+	private void addAnnotations(Element element, List<String> lines) {
+		List<AnnotationMirror> invisible = new ArrayList<>();
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			RetentionPolicy retention = getRetention(annotation);
+			if (retention == RetentionPolicy.RUNTIME) {
+				lines.add(formatAnnotation(annotation));
+			}
+			else if (retention == RetentionPolicy.CLASS) {
+				invisible.add(annotation);
+			}
+		}
+		invisible.forEach(annotation -> lines.add(formatAnnotation(annotation)));
+	}
+
+	private RetentionPolicy getRetention(AnnotationMirror annotation) {
+		Element annotationType = annotation.getAnnotationType().asElement();
+		for (AnnotationMirror metaAnnotation : annotationType.getAnnotationMirrors()) {
+			if (Retention.class.getName().equals(getBinaryName(metaAnnotation.getAnnotationType()))) {
+				for (AnnotationValue value : metaAnnotation.getElementValues().values()) {
+					return RetentionPolicy.valueOf(((VariableElement) value.getValue()).getSimpleName().toString());
+				}
+			}
+		}
+		return RetentionPolicy.CLASS;
+	}
+
+	private String getModifiers(ExecutableElement method, boolean declaredOnInterface) {
+		Set<Modifier> modifiers = method.getModifiers();
+		StringBuilder result = new StringBuilder();
+		if (declaredOnInterface && !modifiers.contains(Modifier.PRIVATE)) {
+			result.append("public ");
+		}
+		else if (modifiers.contains(Modifier.PUBLIC)) {
+			result.append("public ");
+		}
+		else if (modifiers.contains(Modifier.PROTECTED)) {
+			result.append("protected ");
+		}
+		else if (modifiers.contains(Modifier.PRIVATE)) {
+			result.append("private ");
+		}
+		if (modifiers.contains(Modifier.STATIC)) {
+			result.append("static ");
+		}
+		if (modifiers.contains(Modifier.FINAL)) {
+			result.append("final ");
+		}
+		if (modifiers.contains(Modifier.ABSTRACT) || (declaredOnInterface && !modifiers.contains(Modifier.DEFAULT) &&
+				!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.PRIVATE))) {
+			result.append("abstract ");
+		}
+		return result.toString();
+	}
+
+	private String getDescriptor(ExecutableElement method) {
+		StringBuilder descriptor = new StringBuilder("(");
+		for (VariableElement parameter : method.getParameters()) {
+			descriptor.append(getDescriptor(parameter.asType()));
+		}
+		return descriptor.append(')').append(getDescriptor(method.getReturnType())).toString();
+	}
+
+	private String getDescriptor(TypeMirror type) {
+		TypeMirror erasedType = this.types.erasure(type);
+		switch (erasedType.getKind()) {
+			case BOOLEAN: return "Z";
+			case BYTE: return "B";
+			case CHAR: return "C";
+			case SHORT: return "S";
+			case INT: return "I";
+			case LONG: return "J";
+			case FLOAT: return "F";
+			case DOUBLE: return "D";
+			case VOID: return "V";
+			case ARRAY: return "[" + getDescriptor(((ArrayType) erasedType).getComponentType());
+			default: return "L" + getBinaryName(erasedType).replace('.', '/') + ";";
+		}
+	}
+
+	private String formatAnnotation(AnnotationMirror annotation) {
+		StringBuilder result = new StringBuilder("@").append(getBinaryName(annotation.getAnnotationType()));
+		Map<? extends ExecutableElement, ? extends AnnotationValue> values = annotation.getElementValues();
+		if (!values.isEmpty()) {
+			StringJoiner attributes = new StringJoiner(",", "(", ")");
+			values.forEach((name, value) ->
+					attributes.add(name.getSimpleName() + "=" + formatValue(value.getValue())));
+			result.append(attributes);
+		}
+		return result.toString();
+	}
+
+	private String formatValue(Object value) {
+		if (value instanceof String) {
+			return quote((String) value);
+		}
+		if (value instanceof Boolean) {
+			return "Z:" + value;
+		}
+		if (value instanceof Byte) {
+			return "B:" + value;
+		}
+		if (value instanceof Character) {
+			return "C:" + (int) (Character) value;
+		}
+		if (value instanceof Short) {
+			return "S:" + value;
+		}
+		if (value instanceof Integer) {
+			return "I:" + value;
+		}
+		if (value instanceof Long) {
+			return "J:" + value;
+		}
+		if (value instanceof Float) {
+			return "F:" + value;
+		}
+		if (value instanceof Double) {
+			return "D:" + value;
+		}
+		if (value instanceof TypeMirror) {
+			return "class:" + getDescriptor((TypeMirror) value);
+		}
+		if (value instanceof VariableElement) {
+			VariableElement constant = (VariableElement) value;
+			return "enum:" + getBinaryName((TypeElement) constant.getEnclosingElement()) + "." + constant.getSimpleName();
+		}
+		if (value instanceof AnnotationMirror) {
+			return formatAnnotation((AnnotationMirror) value);
+		}
+		if (value instanceof List) {
+			StringJoiner elements = new StringJoiner(",", "[", "]");
+			for (Object element : (List<?>) value) {
+				elements.add(formatValue(((AnnotationValue) element).getValue()));
+			}
+			return elements.toString();
+		}
+		throw new IllegalStateException("Unsupported annotation value: " + value);
+	}
+
+	private static String quote(String value) {
+		StringBuilder result = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				result.append('\\').append(c);
+			}
+			else if (c < 0x20 || c == 0x7f) {
+				result.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				result.append(c);
+			}
+		}
+		return result.append('"').toString();
+	}
+
+	private String getBinaryName(TypeMirror type) {
+		if (type instanceof DeclaredType) {
+			return getBinaryName((TypeElement) ((DeclaredType) type).asElement());
+		}
+		return type.toString();
+	}
+
+	private String getBinaryName(TypeElement element) {
+		return this.elements.getBinaryName(element).toString();
+	}
+
+}
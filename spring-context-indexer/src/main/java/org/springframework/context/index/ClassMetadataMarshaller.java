@@ -0,0 +1,86 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Marshaller to write the class metadata collected by {@link ClassMetadataCollector}
+ * as a line-oriented text file.
+ *
+ * <p>Each type is written as a block of lines, starting with a {@code class} or
+ * {@code interface} declaration line and terminated by an {@code end} line.
+ *
+ * @since 5.0.16
+ */
+abstract class ClassMetadataMarshaller {
+
+	static final String END = "end";
+
+
+	public static void write(Map<String, List<String>> metadata, OutputStream out) throws IOException {
+		Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+		for (List<String> lines : metadata.values()) {
+			for (String line : lines) {
+				writer.write(line);
+				writer.write('\n');
+			}
+			writer.write(END);
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	public static Map<String, List<String>> read(InputStream in) throws IOException {
+		Map<String, List<String>> result = new LinkedHashMap<>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		List<String> lines = null;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.isEmpty()) {
+				continue;
+			}
+			if (lines == null) {
+				lines = new ArrayList<>();
+				lines.add(line);
+			}
+			else if (END.equals(line)) {
+				String[] declaration = lines.get(0).split(" ");
+				if (declaration.length > 1) {
+					result.put(declaration[1], lines);
+				}
+				lines = null;
+			}
+			else {
+				lines.add(line);
+			}
+		}
+		return result;
+	}
+
+}
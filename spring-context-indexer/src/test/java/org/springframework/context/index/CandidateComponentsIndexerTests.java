@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,11 @@ package org.springframework.context.index;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import javax.annotation.ManagedBean;
 import javax.inject.Named;
 import javax.persistence.Converter;
@@ -35,6 +40,7 @@ import org.junit.rules.TemporaryFolder;
 import org.springframework.context.index.sample.AbstractController;
 import org.springframework.context.index.sample.MetaControllerIndexed;
 import org.springframework.context.index.sample.SampleComponent;
+import org.springframework.context.index.sample.SampleConfiguration;
 import org.springframework.context.index.sample.SampleController;
 import org.springframework.context.index.sample.SampleMetaController;
 import org.springframework.context.index.sample.SampleMetaIndexedController;
@@ -56,8 +62,13 @@ import org.springframework.context.index.sample.type.SampleSpecializedRepo;
 import org.springframework.context.index.sample.type.SmartRepo;
 import org.springframework.context.index.sample.type.SpecializedRepo;
 import org.springframework.context.index.test.TestCompiler;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
@@ -222,6 +233,89 @@ public class CandidateComponentsIndexerTests {
 		assertThat(metadata.getItems(), hasSize(0));
 	}
 
+	@Test
+	public void classMetadataMatchesClassFile() throws IOException {
+		compile(SampleConfiguration.class);
+		Map<String, List<String>> classMetadata = readGeneratedClassMetadata(this.compiler.getOutputLocation());
+		String nestedType = SampleConfiguration.class.getName() + "$Nested";
+		assertThat(classMetadata.keySet(), containsInAnyOrder(SampleConfiguration.class.getName(), nestedType));
+
+		ClassMetadataIndex index = new ClassMetadataIndex(Collections.singletonList(classMetadata));
+		MetadataReaderFactory indexed = new IndexedMetadataReaderFactory(index, getClass().getClassLoader());
+		MetadataReaderFactory asm = new SimpleMetadataReaderFactory(getClass().getClassLoader());
+		for (String type : classMetadata.keySet()) {
+			assertSameMetadata(asm.getMetadataReader(type).getAnnotationMetadata(),
+					indexed.getMetadataReader(type).getAnnotationMetadata());
+		}
+	}
+
+	@Test
+	public void classMetadataIsOnlyRecordedForComponents() throws IOException {
+		compile(SampleEntity.class, SampleComponent.class);
+		Map<String, List<String>> classMetadata = readGeneratedClassMetadata(this.compiler.getOutputLocation());
+		assertThat(classMetadata.keySet(), contains(SampleComponent.class.getName()));
+	}
+
+	private void assertSameMetadata(AnnotationMetadata expected, AnnotationMetadata actual) {
+		String className = expected.getClassName();
+		assertEquals(className, actual.getClassName());
+		assertEquals(className, expected.isInterface(), actual.isInterface());
+		assertEquals(className, expected.isAbstract(), actual.isAbstract());
+		assertEquals(className, expected.isFinal(), actual.isFinal());
+		assertEquals(className, expected.isIndependent(), actual.isIndependent());
+		assertEquals(className, expected.getEnclosingClassName(), actual.getEnclosingClassName());
+		assertEquals(className, expected.getSuperClassName(), actual.getSuperClassName());
+		assertArrayEquals(className, expected.getInterfaceNames(), actual.getInterfaceNames());
+		assertThat(className, actual.getMemberClassNames(), arrayContainingInAnyOrder(expected.getMemberClassNames()));
+		assertEquals(className, expected.getAnnotationTypes(), actual.getAnnotationTypes());
+		for (String annotationType : expected.getAnnotationTypes()) {
+			assertEquals(annotationType, expected.getMetaAnnotationTypes(annotationType),
+					actual.getMetaAnnotationTypes(annotationType));
+			assertEquals(annotationType, describe(expected.getAnnotationAttributes(annotationType)),
+					describe(actual.getAnnotationAttributes(annotationType)));
+			assertEquals(annotationType, describe(expected.getAnnotationAttributes(annotationType, true)),
+					describe(actual.getAnnotationAttributes(annotationType, true)));
+			Set<MethodMetadata> expectedMethods = expected.getAnnotatedMethods(annotationType);
+			assertEquals(annotationType, expectedMethods.size(), actual.getAnnotatedMethods(annotationType).size());
+		}
+		assertSameMethods(expected.getAnnotatedMethods("org.springframework.context.annotation.Bean"),
+				actual.getAnnotatedMethods("org.springframework.context.annotation.Bean"));
+	}
+
+	private void assertSameMethods(Set<MethodMetadata> expected, Set<MethodMetadata> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (MethodMetadata expectedMethod : expected) {
+			MethodMetadata actualMethod = actual.stream()
+					.filter(m -> m.getMethodName().equals(expectedMethod.getMethodName())).findFirst().get();
+			String methodName = expectedMethod.getMethodName();
+			assertEquals(methodName, expectedMethod.getReturnTypeName(), actualMethod.getReturnTypeName());
+			assertEquals(methodName, expectedMethod.isStatic(), actualMethod.isStatic());
+			assertEquals(methodName, expectedMethod.isFinal(), actualMethod.isFinal());
+			assertEquals(methodName, expectedMethod.isOverridable(), actualMethod.isOverridable());
+			assertEquals(methodName, expectedMethod.isAnnotated("org.springframework.context.annotation.Lazy"),
+					actualMethod.isAnnotated("org.springframework.context.annotation.Lazy"));
+			assertEquals(methodName,
+					describe(expectedMethod.getAnnotationAttributes("org.springframework.context.annotation.Bean")),
+					describe(actualMethod.getAnnotationAttributes("org.springframework.context.annotation.Bean")));
+		}
+	}
+
+	private static String describe(Object value) {
+		if (value instanceof Map) {
+			StringBuilder result = new StringBuilder("{");
+			((Map<?, ?>) value).forEach((k, v) -> result.append(k).append('=').append(describe(v)).append(';'));
+			return result.append('}').toString();
+		}
+		if (value instanceof Object[]) {
+			StringBuilder result = new StringBuilder("[");
+			for (Object element : (Object[]) value) {
+				result.append(describe(element)).append(';');
+			}
+			return result.append(']').toString();
+		}
+		return ObjectUtils.nullSafeToString(value);
+	}
+
 	private void testComponent(Class<?>... classes) throws IOException {
 		CandidateComponentsMetadata metadata = compile(classes);
 		for (Class<?> c : classes) {
@@ -264,4 +358,17 @@ public class CandidateComponentsIndexerTests {
 		}
 	}
 
+	private Map<String, List<String>> readGeneratedClassMetadata(File outputLocation) {
+		File metadataFile = new File(outputLocation, MetadataStore.CLASS_METADATA_PATH);
+		if (!metadataFile.isFile()) {
+			return Collections.emptyMap();
+		}
+		try (InputStream in = new FileInputStream(metadataFile)) {
+			return ClassMetadataMarshaller.read(in);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to read class metadata from disk", ex);
+		}
+	}
+
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.sample;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
+import org.springframework.stereotype.Component;
+
+/**
+ * Test configuration class exercising the recorded class metadata.
+ */
+@Configuration
+@ComponentScan(basePackages = "org.springframework.context.index.sample.cdi", lazyInit = true,
+		excludeFilters = @Filter(type = FilterType.ANNOTATION, classes = {Component.class, Lazy.class}))
+@Import(SampleComponent.class)
+@PropertySource({"classpath:one.properties", "classpath:\"two\"\n.properties"})
+@SampleConfiguration.Values(flags = {true, false}, chars = {'a', '\u0001'}, ints = 42, doubles = {},
+		longValue = Long.MIN_VALUE, floatValue = Float.NaN, types = {int.class, String[].class, void.class})
+@SuppressWarnings("unused")
+public class SampleConfiguration extends AbstractController implements Cloneable {
+
+	@Bean
+	@Scope(proxyMode = ScopedProxyMode.TARGET_CLASS)
+	public SampleService sampleService(List<SampleRepository> repositories) {
+		return new SampleService();
+	}
+
+	@Bean(name = {"first", "second"}, autowire = org.springframework.beans.factory.annotation.Autowire.BY_NAME)
+	@Lazy
+	protected static String[] names() {
+		return new String[0];
+	}
+
+	@Override
+	public String toString() {
+		return super.toString();
+	}
+
+
+	@Configuration
+	@Profile("!test")
+	static final class Nested {
+
+		@Bean
+		private Object nestedBean() {
+			return new Object();
+		}
+	}
+
+
+	@Retention(RetentionPolicy.CLASS)
+	@Target(ElementType.TYPE)
+	public @interface Values {
+
+		boolean[] flags();
+
+		char[] chars();
+
+		int[] ints();
+
+		double[] doubles();
+
+		long longValue();
+
+		float floatValue();
+
+		Class<?>[] types();
+	}
+
+}
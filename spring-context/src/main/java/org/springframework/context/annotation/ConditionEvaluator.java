@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import java.util.List;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.ConfigurationCondition.ConfigurationPhase;
@@ -31,8 +32,12 @@ import org.springframework.core.env.EnvironmentCapable;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotatedTypeMetadata;
 import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.MethodMetadata;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -90,27 +95,52 @@ class ConditionEvaluator {
 			return shouldSkip(metadata, ConfigurationPhase.REGISTER_BEAN);
 		}
 
-		List<Condition> conditions = new ArrayList<>();
-		for (String[] conditionClasses : getConditionClasses(metadata)) {
-			for (String conditionClass : conditionClasses) {
-				Condition condition = getCondition(conditionClass, this.context.getClassLoader());
-				conditions.add(condition);
+		StartupStep conditionEvaluation = getApplicationStartup().start("spring.context.condition.evaluate")
+				.tag("element", () -> getDescription(metadata))
+				.tag("phase", phase.name());
+		try {
+			List<Condition> conditions = new ArrayList<>();
+			for (String[] conditionClasses : getConditionClasses(metadata)) {
+				for (String conditionClass : conditionClasses) {
+					Condition condition = getCondition(conditionClass, this.context.getClassLoader());
+					conditions.add(condition);
+				}
 			}
-		}
 
-		AnnotationAwareOrderComparator.sort(conditions);
+			AnnotationAwareOrderComparator.sort(conditions);
 
-		for (Condition condition : conditions) {
-			ConfigurationPhase requiredPhase = null;
-			if (condition instanceof ConfigurationCondition) {
-				requiredPhase = ((ConfigurationCondition) condition).getConfigurationPhase();
-			}
-			if ((requiredPhase == null || requiredPhase == phase) && !condition.matches(this.context, metadata)) {
-				return true;
+			for (Condition condition : conditions) {
+				ConfigurationPhase requiredPhase = null;
+				if (condition instanceof ConfigurationCondition) {
+					requiredPhase = ((ConfigurationCondition) condition).getConfigurationPhase();
+				}
+				if ((requiredPhase == null || requiredPhase == phase) && !condition.matches(this.context, metadata)) {
+					return true;
+				}
 			}
+
+			return false;
 		}
+		finally {
+			conditionEvaluation.end();
+		}
+	}
+
+	private ApplicationStartup getApplicationStartup() {
+		ConfigurableListableBeanFactory beanFactory = this.context.getBeanFactory();
+		return (beanFactory instanceof AbstractBeanFactory ?
+				((AbstractBeanFactory) beanFactory).getApplicationStartup() : ApplicationStartup.DEFAULT);
+	}
 
-		return false;
+	private static String getDescription(AnnotatedTypeMetadata metadata) {
+		if (metadata instanceof ClassMetadata) {
+			return ((ClassMetadata) metadata).getClassName();
+		}
+		if (metadata instanceof MethodMetadata) {
+			MethodMetadata methodMetadata = (MethodMetadata) metadata;
+			return methodMetadata.getDeclaringClassName() + "." + methodMetadata.getMethodName();
+		}
+		return metadata.toString();
 	}
 
 	@SuppressWarnings("unchecked")
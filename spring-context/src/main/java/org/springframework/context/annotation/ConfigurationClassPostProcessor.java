@@ -45,18 +45,24 @@ import org.springframework.beans.factory.parsing.PassThroughSourceExtractor;
 import org.springframework.beans.factory.parsing.ProblemReporter;
 import org.springframework.beans.factory.parsing.SourceExtractor;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
 import org.springframework.beans.factory.support.BeanNameGenerator;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.ConfigurationClassEnhancer.EnhancedConfiguration;
+import org.springframework.context.index.ClassMetadataIndex;
+import org.springframework.context.index.ClassMetadataIndexLoader;
+import org.springframework.context.index.IndexedMetadataReaderFactory;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
@@ -158,7 +164,10 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	/**
 	 * Set the {@link MetadataReaderFactory} to use.
 	 * <p>Default is a {@link CachingMetadataReaderFactory} for the specified
-	 * {@linkplain #setBeanClassLoader bean class loader}.
+	 * {@linkplain #setBeanClassLoader bean class loader}, or an
+	 * {@link IndexedMetadataReaderFactory} if a class metadata index
+	 * is available on the classpath.
+	 * @see ClassMetadataIndexLoader
 	 */
 	public void setMetadataReaderFactory(MetadataReaderFactory metadataReaderFactory) {
 		Assert.notNull(metadataReaderFactory, "MetadataReaderFactory must not be null");
@@ -201,7 +210,9 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		Assert.notNull(resourceLoader, "ResourceLoader must not be null");
 		this.resourceLoader = resourceLoader;
 		if (!this.setMetadataReaderFactoryCalled) {
-			this.metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
+			ClassMetadataIndex index = ClassMetadataIndexLoader.loadIndex(resourceLoader.getClassLoader());
+			this.metadataReaderFactory = (index != null ? new IndexedMetadataReaderFactory(index, resourceLoader) :
+					new CachingMetadataReaderFactory(resourceLoader));
 		}
 	}
 
@@ -209,7 +220,9 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	public void setBeanClassLoader(ClassLoader beanClassLoader) {
 		this.beanClassLoader = beanClassLoader;
 		if (!this.setMetadataReaderFactoryCalled) {
-			this.metadataReaderFactory = new CachingMetadataReaderFactory(beanClassLoader);
+			ClassMetadataIndex index = ClassMetadataIndexLoader.loadIndex(beanClassLoader);
+			this.metadataReaderFactory = (index != null ? new IndexedMetadataReaderFactory(index, beanClassLoader) :
+					new CachingMetadataReaderFactory(beanClassLoader));
 		}
 	}
 
@@ -255,7 +268,13 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 		//给配置类产生cglib代理
 		//为什么需要产生cglib代理？
-		enhanceConfigurationClasses(beanFactory);
+		StartupStep enhanceConfigClasses = getApplicationStartup(beanFactory).start("spring.context.config-classes.enhance");
+		try {
+			enhanceConfigurationClasses(beanFactory);
+		}
+		finally {
+			enhanceConfigClasses.end();
+		}
 		beanFactory.addBeanPostProcessor(new ImportAwareBeanPostProcessor(beanFactory));
 	}
 
@@ -361,9 +380,16 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			 * 对添加注解(@Configuration, @Component, @ComponentScan, @Import, @ImportResource等)的类进行解析
 			 * 该步骤完成了对所有加注解的bean的解析工作
 			 */
-			parser.parse(candidates);
-			//验证
-			parser.validate();
+			StartupStep processConfig = getApplicationStartup(registry).start("spring.context.config-classes.parse")
+					.tag("classCount", () -> String.valueOf(candidates.size()));
+			try {
+				parser.parse(candidates);
+				//验证
+				parser.validate();
+			}
+			finally {
+				processConfig.end();
+			}
 			//获取所有的配置类
 			Set<ConfigurationClass> configClasses = new LinkedHashSet<>(parser.getConfigurationClasses());
             //移除所有已经解析过的配置类
@@ -385,7 +411,14 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			 */
 
 			//bd 到 map 除却普通
-			this.reader.loadBeanDefinitions(configClasses);
+			StartupStep loadBeanDefs = getApplicationStartup(registry).start("spring.context.config-classes.load")
+					.tag("classCount", () -> String.valueOf(configClasses.size()));
+			try {
+				this.reader.loadBeanDefinitions(configClasses);
+			}
+			finally {
+				loadBeanDefs.end();
+			}
 			alreadyParsed.addAll(configClasses);
 			//清空上面已经解析过的bean
 			candidates.clear();
@@ -487,6 +520,11 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 	}
 
+	private static ApplicationStartup getApplicationStartup(Object registry) {
+		return (registry instanceof AbstractBeanFactory ?
+				((AbstractBeanFactory) registry).getApplicationStartup() : ApplicationStartup.DEFAULT);
+	}
+
 
 	private static class ImportAwareBeanPostProcessor extends InstantiationAwareBeanPostProcessorAdapter {
 
@@ -0,0 +1,387 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+
+/**
+ * Provide access to the class metadata that is defined in
+ * {@code META-INF/spring.class-metadata}, as recorded at build time for
+ * candidate components.
+ *
+ * <p>The recorded metadata can be replayed to an ASM {@link ClassVisitor},
+ * issuing the same visitor calls that reading the corresponding class file
+ * with an ASM {@code ClassReader} would trigger for the class structure,
+ * the class annotations and the annotated methods.
+ *
+ * @since 5.0.16
+ * @see ClassMetadataIndexLoader
+ * @see IndexedMetadataReaderFactory
+ */
+public class ClassMetadataIndex {
+
+	private static final AnnotationVisitor EMPTY_ANNOTATION_VISITOR =
+			new AnnotationVisitor(SpringAsmInfo.ASM_VERSION) {};
+
+	private final Map<String, List<String>> index;
+
+
+	ClassMetadataIndex(List<Map<String, List<String>>> content) {
+		this.index = new LinkedHashMap<>();
+		// First entry wins, consistent with class loading
+		content.forEach(metadata -> metadata.forEach(this.index::putIfAbsent));
+	}
+
+
+	/**
+	 * Specify whether the index holds the metadata of the specified class.
+	 * @param className the fully qualified name of the class
+	 */
+	public boolean hasClassMetadata(String className) {
+		return this.index.containsKey(className);
+	}
+
+	/**
+	 * Replay the recorded metadata of the specified class to the given visitor.
+	 * @param className the fully qualified name of the class
+	 * @param classVisitor the visitor to notify
+	 * @return {@code true} if the metadata of the class has been replayed,
+	 * {@code false} if the index does not hold any metadata for that class
+	 * @throws IllegalStateException if the recorded metadata cannot be parsed
+	 */
+	public boolean accept(String className, ClassVisitor classVisitor) {
+		List<String> lines = this.index.get(className);
+		if (lines == null) {
+			return false;
+		}
+		try {
+			replay(className, lines, classVisitor);
+		}
+		catch (RuntimeException ex) {
+			throw new IllegalStateException("Invalid class metadata index entry for class [" + className + "]", ex);
+		}
+		return true;
+	}
+
+
+	private void replay(String className, List<String> lines, ClassVisitor classVisitor) {
+		String[] declaration = lines.get(0).split(" ");
+		int access = ("interface".equals(declaration[0]) ? Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT : 0);
+		for (int i = 2; i < declaration.length; i++) {
+			if ("abstract".equals(declaration[i])) {
+				access |= Opcodes.ACC_ABSTRACT;
+			}
+			else if ("final".equals(declaration[i])) {
+				access |= Opcodes.ACC_FINAL;
+			}
+		}
+		String internalName = getInternalName(className);
+		String superName = null;
+		String[] interfaces = new String[0];
+		boolean visited = false;
+		MethodVisitor methodVisitor = null;
+
+		for (int i = 1; i < lines.size(); i++) {
+			String line = lines.get(i);
+			if (line.startsWith("extends ")) {
+				superName = getInternalName(line.substring(8));
+				continue;
+			}
+			if (line.startsWith("implements ")) {
+				interfaces = line.substring(11).split(" ");
+				for (int j = 0; j < interfaces.length; j++) {
+					interfaces[j] = getInternalName(interfaces[j]);
+				}
+				continue;
+			}
+			if (!visited) {
+				classVisitor.visit(Opcodes.V1_8, access, internalName, null, superName, interfaces);
+				visited = true;
+			}
+			if (line.startsWith("enclosing ")) {
+				String[] tokens = line.split(" ");
+				classVisitor.visitInnerClass(internalName, getInternalName(tokens[1]),
+						getSimpleName(className), ("static".equals(tokens[2]) ? Opcodes.ACC_STATIC : 0));
+			}
+			else if (line.startsWith("member ")) {
+				String memberClassName = line.substring(7);
+				classVisitor.visitInnerClass(getInternalName(memberClassName), internalName,
+						getSimpleName(memberClassName), 0);
+			}
+			else if (line.startsWith("method ")) {
+				if (methodVisitor != null) {
+					methodVisitor.visitEnd();
+				}
+				String[] tokens = line.split(" ");
+				int methodAccess = 0;
+				for (int j = 1; j < tokens.length - 2; j++) {
+					methodAccess |= getMethodModifier(tokens[j]);
+				}
+				methodVisitor = classVisitor.visitMethod(
+						methodAccess, tokens[tokens.length - 2], tokens[tokens.length - 1], null, null);
+			}
+			else if (line.startsWith("@")) {
+				AnnotationVisitor annotationVisitor;
+				String descriptor = getDescriptor(line.substring(1, getTypeNameEnd(line, 1)));
+				if (methodVisitor != null) {
+					annotationVisitor = methodVisitor.visitAnnotation(descriptor, true);
+				}
+				else {
+					annotationVisitor = classVisitor.visitAnnotation(descriptor, true);
+				}
+				new AnnotationParser(line).parseAnnotation(nonNull(annotationVisitor));
+			}
+			else {
+				throw new IllegalArgumentException("Unexpected line: " + line);
+			}
+		}
+		if (!visited) {
+			classVisitor.visit(Opcodes.V1_8, access, internalName, null, superName, interfaces);
+		}
+		if (methodVisitor != null) {
+			methodVisitor.visitEnd();
+		}
+		classVisitor.visitEnd();
+	}
+
+	private static int getMethodModifier(String modifier) {
+		switch (modifier) {
+			case "public": return Opcodes.ACC_PUBLIC;
+			case "protected": return Opcodes.ACC_PROTECTED;
+			case "private": return Opcodes.ACC_PRIVATE;
+			case "static": return Opcodes.ACC_STATIC;
+			case "final": return Opcodes.ACC_FINAL;
+			case "abstract": return Opcodes.ACC_ABSTRACT;
+			default: throw new IllegalArgumentException("Unknown method modifier: " + modifier);
+		}
+	}
+
+	private static String getInternalName(String className) {
+		return className.replace('.', '/');
+	}
+
+	private static String getDescriptor(String className) {
+		return "L" + getInternalName(className) + ";";
+	}
+
+	private static String getSimpleName(String className) {
+		return className.substring(className.lastIndexOf('$') + 1);
+	}
+
+	private static int getTypeNameEnd(String value, int start) {
+		int index = start;
+		while (index < value.length() && "(),]".indexOf(value.charAt(index)) == -1) {
+			index++;
+		}
+		return index;
+	}
+
+	private static AnnotationVisitor nonNull(@Nullable AnnotationVisitor annotationVisitor) {
+		return (annotationVisitor != null ? annotationVisitor : EMPTY_ANNOTATION_VISITOR);
+	}
+
+
+	/**
+	 * Parser for a recorded annotation, notifying an {@link AnnotationVisitor}
+	 * of its attribute values.
+	 */
+	private static class AnnotationParser {
+
+		private final String value;
+
+		private int position;
+
+		AnnotationParser(String value) {
+			this.value = value;
+		}
+
+		void parseAnnotation(AnnotationVisitor annotationVisitor) {
+			expect('@');
+			this.position = getTypeNameEnd(this.value, this.position);
+			if (peek() == '(') {
+				expect('(');
+				do {
+					int separator = this.value.indexOf('=', this.position);
+					String name = this.value.substring(this.position, separator);
+					this.position = separator + 1;
+					parseValue(annotationVisitor, name);
+				}
+				while (consume(','));
+				expect(')');
+			}
+			annotationVisitor.visitEnd();
+		}
+
+		private void parseValue(AnnotationVisitor annotationVisitor, @Nullable String name) {
+			char c = peek();
+			if (c == '"') {
+				annotationVisitor.visit(name, parseString());
+			}
+			else if (c == '@') {
+				String descriptor = getDescriptor(this.value.substring(
+						this.position + 1, getTypeNameEnd(this.value, this.position + 1)));
+				parseAnnotation(nonNull(annotationVisitor.visitAnnotation(name, descriptor)));
+			}
+			else if (c == '[') {
+				parseArray(annotationVisitor, name);
+			}
+			else {
+				String token = nextToken();
+				if (token.startsWith("class:")) {
+					annotationVisitor.visit(name, Type.getType(token.substring(6)));
+				}
+				else if (token.startsWith("enum:")) {
+					int separator = token.lastIndexOf('.');
+					annotationVisitor.visitEnum(name, getDescriptor(token.substring(5, separator)),
+							token.substring(separator + 1));
+				}
+				else {
+					annotationVisitor.visit(name, parsePrimitive(token));
+				}
+			}
+		}
+
+		private void parseArray(AnnotationVisitor annotationVisitor, @Nullable String name) {
+			expect('[');
+			if (consume(']')) {
+				nonNull(annotationVisitor.visitArray(name)).visitEnd();
+				return;
+			}
+			if (isPrimitive(this.value, this.position)) {
+				// Non-empty primitive arrays are exposed as a single value by ASM
+				List<Object> values = new ArrayList<>();
+				do {
+					values.add(parsePrimitive(nextToken()));
+				}
+				while (consume(','));
+				expect(']');
+				Object array = Array.newInstance(getPrimitiveType(values.get(0)), values.size());
+				for (int i = 0; i < values.size(); i++) {
+					Array.set(array, i, values.get(i));
+				}
+				annotationVisitor.visit(name, array);
+				return;
+			}
+			AnnotationVisitor arrayVisitor = nonNull(annotationVisitor.visitArray(name));
+			do {
+				parseValue(arrayVisitor, null);
+			}
+			while (consume(','));
+			expect(']');
+			arrayVisitor.visitEnd();
+		}
+
+		private String parseString() {
+			expect('"');
+			StringBuilder result = new StringBuilder();
+			while (true) {
+				char c = this.value.charAt(this.position++);
+				if (c == '"') {
+					return result.toString();
+				}
+				if (c == '\\') {
+					c = this.value.charAt(this.position++);
+					if (c == 'u') {
+						c = (char) Integer.parseInt(this.value.substring(this.position, this.position + 4), 16);
+						this.position += 4;
+					}
+				}
+				result.append(c);
+			}
+		}
+
+		private String nextToken() {
+			int start = this.position;
+			this.position = getTypeNameEnd(this.value, start);
+			return this.value.substring(start, this.position);
+		}
+
+		private char peek() {
+			return (this.position < this.value.length() ? this.value.charAt(this.position) : 0);
+		}
+
+		private boolean consume(char c) {
+			if (peek() == c) {
+				this.position++;
+				return true;
+			}
+			return false;
+		}
+
+		private void expect(char c) {
+			if (!consume(c)) {
+				throw new IllegalArgumentException("Expected '" + c + "' at position " + this.position +
+						" in [" + this.value + "]");
+			}
+		}
+
+		private static boolean isPrimitive(String value, int position) {
+			return (position + 1 < value.length() && value.charAt(position + 1) == ':' &&
+					"ZBCSIJFD".indexOf(value.charAt(position)) != -1);
+		}
+
+		private static Object parsePrimitive(String token) {
+			String value = token.substring(2);
+			switch (token.charAt(0)) {
+				case 'Z': return Boolean.valueOf(value);
+				case 'B': return Byte.valueOf(value);
+				case 'C': return (char) Integer.parseInt(value);
+				case 'S': return Short.valueOf(value);
+				case 'I': return Integer.valueOf(value);
+				case 'J': return Long.valueOf(value);
+				case 'F': return Float.valueOf(value);
+				case 'D': return Double.valueOf(value);
+				default: throw new IllegalArgumentException("Unsupported value: " + token);
+			}
+		}
+
+		private static Class<?> getPrimitiveType(Object value) {
+			if (value instanceof Boolean) {
+				return boolean.class;
+			}
+			if (value instanceof Byte) {
+				return byte.class;
+			}
+			if (value instanceof Character) {
+				return char.class;
+			}
+			if (value instanceof Short) {
+				return short.class;
+			}
+			if (value instanceof Integer) {
+				return int.class;
+			}
+			if (value instanceof Long) {
+				return long.class;
+			}
+			return (value instanceof Float ? float.class : double.class);
+		}
+	}
+
+}
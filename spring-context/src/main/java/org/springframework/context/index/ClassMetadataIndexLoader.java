@@ -0,0 +1,145 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.UrlResource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Class metadata index loading mechanism for internal use within the framework.
+ *
+ * <p>Honors the {@value CandidateComponentsIndexLoader#IGNORE_INDEX} system property,
+ * in which case no class metadata index is loaded either.
+ *
+ * @since 5.0.16
+ * @see ClassMetadataIndex
+ */
+public class ClassMetadataIndexLoader {
+
+	/**
+	 * The location to look for class metadata.
+	 * <p>Can be present in multiple JAR files.
+	 */
+	public static final String CLASS_METADATA_RESOURCE_LOCATION = "META-INF/spring.class-metadata";
+
+
+	private static final boolean shouldIgnoreIndex =
+			SpringProperties.getFlag(CandidateComponentsIndexLoader.IGNORE_INDEX);
+
+	private static final Log logger = LogFactory.getLog(ClassMetadataIndexLoader.class);
+
+	private static final ConcurrentMap<ClassLoader, ClassMetadataIndex> cache =
+			new ConcurrentReferenceHashMap<>();
+
+
+	/**
+	 * Load and instantiate the {@link ClassMetadataIndex} from
+	 * {@value #CLASS_METADATA_RESOURCE_LOCATION}, using the given class loader.
+	 * If no index is available, return {@code null}.
+	 * @param classLoader the ClassLoader to use for loading (can be {@code null} to use the default)
+	 * @return the index to use or {@code null} if no index was found
+	 * @throws IllegalStateException if any module index cannot be loaded
+	 */
+	@Nullable
+	public static ClassMetadataIndex loadIndex(@Nullable ClassLoader classLoader) {
+		ClassLoader classLoaderToUse = classLoader;
+		if (classLoaderToUse == null) {
+			classLoaderToUse = ClassMetadataIndexLoader.class.getClassLoader();
+		}
+		return cache.computeIfAbsent(classLoaderToUse, ClassMetadataIndexLoader::doLoadIndex);
+	}
+
+	@Nullable
+	private static ClassMetadataIndex doLoadIndex(ClassLoader classLoader) {
+		if (shouldIgnoreIndex) {
+			return null;
+		}
+
+		try {
+			Enumeration<URL> urls = classLoader.getResources(CLASS_METADATA_RESOURCE_LOCATION);
+			if (!urls.hasMoreElements()) {
+				return null;
+			}
+			List<Map<String, List<String>>> result = new ArrayList<>();
+			while (urls.hasMoreElements()) {
+				URL url = urls.nextElement();
+				try (InputStream in = new UrlResource(url).getInputStream()) {
+					result.add(readIndex(in));
+				}
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Loaded " + result.size() + " class metadata index(es)");
+			}
+			int totalCount = result.stream().mapToInt(Map::size).sum();
+			return (totalCount > 0 ? new ClassMetadataIndex(result) : null);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unable to load indexes from location [" +
+					CLASS_METADATA_RESOURCE_LOCATION + "]", ex);
+		}
+	}
+
+	/**
+	 * Read the blocks of the given index file, keyed by class name: each block
+	 * starts with the type declaration line and is terminated by an "end" line.
+	 */
+	private static Map<String, List<String>> readIndex(InputStream in) throws IOException {
+		Map<String, List<String>> result = new LinkedHashMap<>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		List<String> lines = null;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.isEmpty()) {
+				continue;
+			}
+			if (lines == null) {
+				lines = new ArrayList<>();
+				lines.add(line);
+			}
+			else if ("end".equals(line)) {
+				String[] declaration = lines.get(0).split(" ");
+				if (declaration.length > 1) {
+					result.put(declaration[1], lines);
+				}
+				lines = null;
+			}
+			else {
+				lines.add(line);
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.classreading.AnnotationMetadataReadingVisitor;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link CachingMetadataReaderFactory} that builds the {@link MetadataReader}
+ * for classes contained in a {@link ClassMetadataIndex} from the recorded
+ * metadata, without reading their class files. Other classes as well as
+ * lookups by {@link Resource} are handled by the standard ASM-based support.
+ *
+ * @since 5.0.16
+ * @see ClassMetadataIndexLoader
+ */
+public class IndexedMetadataReaderFactory extends CachingMetadataReaderFactory {
+
+	private final ClassMetadataIndex index;
+
+	private final Map<String, MetadataReader> indexedReaderCache = new ConcurrentHashMap<>(64);
+
+
+	/**
+	 * Create a new IndexedMetadataReaderFactory for the given {@link ClassLoader}.
+	 * @param index the class metadata index to use
+	 * @param classLoader the ClassLoader to use
+	 */
+	public IndexedMetadataReaderFactory(ClassMetadataIndex index, @Nullable ClassLoader classLoader) {
+		super(classLoader);
+		Assert.notNull(index, "ClassMetadataIndex must not be null");
+		this.index = index;
+	}
+
+	/**
+	 * Create a new IndexedMetadataReaderFactory for the given {@link ResourceLoader}.
+	 * @param index the class metadata index to use
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 */
+	public IndexedMetadataReaderFactory(ClassMetadataIndex index, @Nullable ResourceLoader resourceLoader) {
+		super(resourceLoader);
+		Assert.notNull(index, "ClassMetadataIndex must not be null");
+		this.index = index;
+	}
+
+
+	@Override
+	public MetadataReader getMetadataReader(String className) throws IOException {
+		if (!this.index.hasClassMetadata(className)) {
+			return super.getMetadataReader(className);
+		}
+		MetadataReader metadataReader = this.indexedReaderCache.get(className);
+		if (metadataReader == null) {
+			AnnotationMetadataReadingVisitor visitor =
+					new AnnotationMetadataReadingVisitor(getResourceLoader().getClassLoader());
+			this.index.accept(className, visitor);
+			String resourcePath = ResourceLoader.CLASSPATH_URL_PREFIX +
+					ClassUtils.convertClassNameToResourcePath(className) + ClassUtils.CLASS_FILE_SUFFIX;
+			metadataReader = new IndexedMetadataReader(getResourceLoader().getResource(resourcePath), visitor);
+			this.indexedReaderCache.put(className, metadataReader);
+		}
+		return metadataReader;
+	}
+
+	@Override
+	public void clearCache() {
+		super.clearCache();
+		this.indexedReaderCache.clear();
+	}
+
+
+	/**
+	 * {@link MetadataReader} exposing metadata replayed from the index.
+	 */
+	private static class IndexedMetadataReader implements MetadataReader {
+
+		private final Resource resource;
+
+		private final AnnotationMetadataReadingVisitor metadata;
+
+		IndexedMetadataReader(Resource resource, AnnotationMetadataReadingVisitor metadata) {
+			this.resource = resource;
+			this.metadata = metadata;
+		}
+
+		@Override
+		public Resource getResource() {
+			return this.resource;
+		}
+
+		@Override
+		public ClassMetadata getClassMetadata() {
+			return this.metadata;
+		}
+
+		@Override
+		public AnnotationMetadata getAnnotationMetadata() {
+			return this.metadata;
+		}
+	}
+
+}
@@ -80,6 +80,8 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
@@ -223,6 +225,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	@Nullable
 	private Set<ApplicationEvent> earlyApplicationEvents;
 
+	/** Recorder for the steps of the context refresh */
+	private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
 
 	/**
 	 * Create a new AbstractApplicationContext with no parent.
@@ -322,6 +327,30 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		return this.environment;
 	}
 
+	/**
+	 * Set the {@link ApplicationStartup} for this application context.
+	 * <p>This allows the application context to record metrics during startup:
+	 * for the phases of {@link #refresh()} as well as, through the internal
+	 * bean factory, for the processing of configuration classes and the
+	 * creation of beans. Default is {@link ApplicationStartup#DEFAULT},
+	 * not recording anything.
+	 * <p>Should be called <em>before</em> {@link #refresh()}.
+	 * @since 5.0.16
+	 * @see org.springframework.core.metrics.BufferingApplicationStartup
+	 */
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		Assert.notNull(applicationStartup, "ApplicationStartup must not be null");
+		this.applicationStartup = applicationStartup;
+	}
+
+	/**
+	 * Return the {@link ApplicationStartup} for this application context.
+	 * @since 5.0.16
+	 */
+	public ApplicationStartup getApplicationStartup() {
+		return this.applicationStartup;
+	}
+
 	/**
 	 * Create and return a new {@link StandardEnvironment}.
 	 * <p>Subclasses may override this method in order to supply
@@ -527,6 +556,8 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	@Override
 	public void refresh() throws BeansException, IllegalStateException {
 		synchronized (this.startupShutdownMonitor) {
+			StartupStep contextRefresh = this.applicationStartup.start("spring.context.refresh");
+
 			// 准备好刷新上下文(设置一些变量)
 			prepareRefresh();
 
@@ -544,12 +575,15 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 			 * 并对设置的资源位置进行扫描, 解析
 			 * 注意:此方法是使用ClassPathXmlApplicationContext来初始化上下文是解析注册bean的重要入口   <-------------------重要
 			 */
+			StartupStep beanDefsLoad = this.applicationStartup.start("spring.context.beandefs.load");
 			ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
+			beanDefsLoad.end();
 
 			//对beanFactory进行属性设置
 			prepareBeanFactory(beanFactory);
 
 			try {
+				StartupStep beanPostProcess = this.applicationStartup.start("spring.context.beans.post-process");
 				//允许在子类中对bean工厂进行后处理。
 				postProcessBeanFactory(beanFactory);
 
@@ -578,6 +612,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 				 * 注册bean后处理处理器
 				 */
 				registerBeanPostProcessors(beanFactory);
+				beanPostProcess.end();
 
 				//为上下文初始化Message源,即不同的语言体,国际化处理
 				initMessageSource();
@@ -592,7 +627,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 				registerListeners();
 
 				// 初始化剩下的单例(非延迟加载的,延迟加载的单例在第一次调用的时候初始化)
+				StartupStep singletonsInstantiate = this.applicationStartup.start("spring.context.singletons.instantiate");
 				finishBeanFactoryInitialization(beanFactory);
+				singletonsInstantiate.end();
 
 				/**
 				 * 最后一步:完成刷新过程,通知生命周期处理器lifecycleProcessor刷新过程,同时发出ContextRefreshEvent通知别人
@@ -620,6 +657,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 				// Reset common introspection caches in Spring's core, since we
 				// might not ever need metadata for singleton beans anymore...
 				resetCommonCaches();
+				contextRefresh.end();
 			}
 		}
 	}
@@ -722,6 +760,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	protected void prepareBeanFactory(ConfigurableListableBeanFactory beanFactory) {
 		// 告诉内部bean工厂使用上下文的类加载器等等。
 		beanFactory.setBeanClassLoader(getClassLoader());
+		if (beanFactory instanceof AbstractBeanFactory) {
+			((AbstractBeanFactory) beanFactory).setApplicationStartup(getApplicationStartup());
+		}
 		//设置beanFactory的表达式语言处理器,Spring3增加了表达式语言的支持
 		//默认可以使用#{bean.xxx}的形式来调用相关属性值
 		beanFactory.setBeanExpressionResolver(new StandardBeanExpressionResolver(beanFactory.getBeanClassLoader()));
@@ -1441,6 +1482,20 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		return this.resourcePatternResolver.getResources(locationPattern);
 	}
 
+	/**
+	 * Also clears the jar entry index of this context's {@link ResourcePatternResolver},
+	 * once the pattern resolutions during refresh are done.
+	 * @since 5.0.16
+	 * @see PathMatchingResourcePatternResolver#clearCache()
+	 */
+	@Override
+	public void clearResourceCaches() {
+		super.clearResourceCaches();
+		if (this.resourcePatternResolver instanceof PathMatchingResourcePatternResolver) {
+			((PathMatchingResourcePatternResolver) this.resourcePatternResolver).clearCache();
+		}
+	}
+
 
 	//---------------------------------------------------------------------
 	// Implementation of Lifecycle interface
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,10 @@
 
 package org.springframework.context.annotation;
 
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 
@@ -29,6 +31,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation6.ComponentForScanning;
 import org.springframework.context.annotation6.ConfigForScanning;
 import org.springframework.context.annotation6.Jsr330NamedForScanning;
+import org.springframework.core.metrics.BufferingApplicationStartup;
 
 import static java.lang.String.*;
 import static org.hamcrest.Matchers.*;
@@ -324,6 +327,31 @@ public class AnnotationConfigApplicationContextTests {
 		assertSame(context, context.getBean("b", BeanB.class).applicationContext);
 	}
 
+	@Test
+	public void refreshWithApplicationStartup() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(1000);
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setApplicationStartup(applicationStartup);
+		context.register(AutowiredConfig.class);
+		context.refresh();
+
+		List<String> stepNames = applicationStartup.getBufferedSteps().stream()
+				.map(step -> (String) step.get("name")).collect(Collectors.toList());
+		assertThat(stepNames, hasItems("spring.context.refresh", "spring.context.beandefs.load",
+				"spring.context.beans.post-process", "spring.context.beandef-registry.post-process",
+				"spring.context.config-classes.parse", "spring.context.config-classes.enhance",
+				"spring.context.singletons.instantiate", "spring.beans.create", "spring.beans.instantiate",
+				"spring.beans.inject", "spring.beans.initialize"));
+		assertEquals(0, applicationStartup.getDroppedStepCount());
+
+		String foldedStacks = applicationStartup.getFoldedStacks();
+		assertThat(foldedStacks, containsString("spring.context.refresh;spring.context.singletons.instantiate;" +
+				"spring.beans.create[beanName=testBean];spring.beans.instantiate "));
+		assertThat(foldedStacks, containsString("spring.context.refresh;spring.context.beans.post-process;" +
+				"spring.context.beandef-registry.post-process[postProcessor=" +
+				ConfigurationClassPostProcessor.class.getName() + "];spring.context.config-classes.parse[classCount=1] "));
+	}
+
 
 	@Configuration
 	static class Config {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,8 +18,10 @@ package org.springframework.context.annotation;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import example.profilescan.DevComponent;
 import example.profilescan.ProfileAnnotatedComponent;
@@ -43,6 +45,7 @@ import org.junit.Test;
 import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.index.CandidateComponentsTestClassLoader;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.ClassPathResource;
@@ -104,6 +107,41 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		assertBeanDefinitionType(candidates, expectedBeanDefinitionType);
 	}
 
+	@Test
+	public void defaultsWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		List<String> expected = getBeanClassNames(provider.findCandidateComponents(TEST_BASE_PACKAGE));
+
+		provider.setScanParallelism(4);
+		testDefault(provider, ScannedGenericBeanDefinition.class);
+		assertEquals(expected, getBeanClassNames(provider.findCandidateComponents(TEST_BASE_PACKAGE)));
+		assertEquals(expected, getBeanClassNames(provider.findCandidateComponents(TEST_BASE_PACKAGE + ".**")));
+	}
+
+	@Test
+	public void scanParallelismFromProperty() {
+		try {
+			SpringProperties.setProperty(ClassPathScanningCandidateComponentProvider.SCAN_PARALLELISM_PROPERTY_NAME, "4");
+			assertEquals(4, new ClassPathScanningCandidateComponentProvider(true).getScanParallelism());
+			SpringProperties.setProperty(ClassPathScanningCandidateComponentProvider.SCAN_PARALLELISM_PROPERTY_NAME, "bogus");
+			assertEquals(1, new ClassPathScanningCandidateComponentProvider(true).getScanParallelism());
+		}
+		finally {
+			SpringProperties.setProperty(ClassPathScanningCandidateComponentProvider.SCAN_PARALLELISM_PROPERTY_NAME, null);
+		}
+	}
+
+	@Test
+	public void antStylePackageWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.setScanParallelism(4);
+		testAntStyle(provider, ScannedGenericBeanDefinition.class);
+	}
+
 	@Test
 	public void antStylePackageWithScan() {
 		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
@@ -501,6 +539,10 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		}
 	}
 
+	private List<String> getBeanClassNames(Set<BeanDefinition> candidates) {
+		return candidates.stream().map(BeanDefinition::getBeanClassName).collect(Collectors.toList());
+	}
+
 	private boolean containsBeanClass(Set<BeanDefinition> candidates, Class<?> beanClass) {
 		for (BeanDefinition candidate : candidates) {
 			if (beanClass.getName().equals(candidate.getBeanClassName())) {
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for {@link ResolvableType} creation and resolution.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ResolvableTypeBenchmark {
+
+	@Benchmark
+	public ResolvableType forClassWithGenerics() {
+		return ResolvableType.forClassWithGenerics(Map.class, String.class, Integer.class);
+	}
+
+	@Benchmark
+	public Class<?> forFieldResolveGeneric(BenchmarkData data) {
+		return ResolvableType.forField(data.field).resolveGeneric(1, 0);
+	}
+
+	@Benchmark
+	public Class<?> forMethodParameterResolve(BenchmarkData data) {
+		return ResolvableType.forMethodParameter(data.methodParameter).getGeneric(0).resolve();
+	}
+
+	@Benchmark
+	public boolean isAssignableFrom(BenchmarkData data) {
+		return data.listOfCharSequence.isAssignableFrom(data.arrayListOfString);
+	}
+
+	@Benchmark
+	public ResolvableType asSuperType(BenchmarkData data) {
+		return data.arrayListOfString.as(Iterable.class);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public Field field;
+
+		public MethodParameter methodParameter;
+
+		public ResolvableType listOfCharSequence;
+
+		public ResolvableType arrayListOfString;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			this.field = Sample.class.getField("values");
+			Method method = Sample.class.getMethod("process", List.class);
+			this.methodParameter = new MethodParameter(method, 0);
+			this.listOfCharSequence = ResolvableType.forClassWithGenerics(List.class, CharSequence.class);
+			this.arrayListOfString = ResolvableType.forClassWithGenerics(ArrayList.class, String.class);
+		}
+	}
+
+
+	public static class Sample {
+
+		public Map<String, List<Integer>> values;
+
+		public void process(List<String> items) {
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for merged annotation lookups in {@link AnnotatedElementUtils}
+ * and for attribute access on synthesized annotations.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class AnnotatedElementUtilsBenchmark {
+
+	@Benchmark
+	public Mapping findMergedAnnotationOnMethodHit(BenchmarkData data) {
+		return AnnotatedElementUtils.findMergedAnnotation(data.annotatedMethod, Mapping.class);
+	}
+
+	@Benchmark
+	public Mapping findMergedAnnotationOnMethodMiss(BenchmarkData data) {
+		return AnnotatedElementUtils.findMergedAnnotation(data.plainMethod, Mapping.class);
+	}
+
+	@Benchmark
+	public boolean hasAnnotationOnClassHit(BenchmarkData data) {
+		return AnnotatedElementUtils.hasAnnotation(SampleController.class, Component.class);
+	}
+
+	@Benchmark
+	public boolean hasAnnotationOnClassMiss(BenchmarkData data) {
+		return AnnotatedElementUtils.hasAnnotation(SampleController.class, Mapping.class);
+	}
+
+	@Benchmark
+	public AnnotationAttributes getMergedAnnotationAttributes(BenchmarkData data) {
+		return AnnotatedElementUtils.getMergedAnnotationAttributes(data.annotatedMethod, Mapping.class);
+	}
+
+	@Benchmark
+	public String synthesizedAttributeAccess(BenchmarkData data) {
+		return data.synthesized.path()[0];
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public Method annotatedMethod;
+
+		public Method plainMethod;
+
+		public Mapping synthesized;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			this.annotatedMethod = SampleController.class.getMethod("handle");
+			this.plainMethod = SampleController.class.getMethod("toString");
+			this.synthesized = AnnotatedElementUtils.findMergedAnnotation(this.annotatedMethod, Mapping.class);
+		}
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ElementType.TYPE, ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+	public @interface Component {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+	@Component
+	public @interface Controller {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+	public @interface Mapping {
+
+		@AliasFor("path")
+		String[] value() default {};
+
+		@AliasFor("value")
+		String[] path() default {};
+
+		String method() default "";
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.METHOD)
+	@Mapping(method = "GET")
+	public @interface GetMapping {
+
+		@AliasFor(annotation = Mapping.class)
+		String[] value() default {};
+	}
+
+	public interface SampleApi {
+
+		@GetMapping("/sample")
+		void handle();
+	}
+
+	@Controller
+	public static class SampleController implements SampleApi {
+
+		@Override
+		public void handle() {
+		}
+	}
+
+}
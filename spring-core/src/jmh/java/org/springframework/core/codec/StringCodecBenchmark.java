@@ -0,0 +1,111 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Benchmarks for {@link CharSequenceEncoder} and {@link StringDecoder} throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class StringCodecBenchmark {
+
+	private static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
+
+
+	@Benchmark
+	public List<DataBuffer> encode(BenchmarkData data) {
+		List<DataBuffer> result = data.encoder.encode(Flux.fromIterable(data.lines), data.bufferFactory,
+				STRING_TYPE, MimeTypeUtils.TEXT_PLAIN, Collections.emptyMap()).collectList().block();
+		result.forEach(DataBufferUtils::release);
+		return result;
+	}
+
+	@Benchmark
+	public List<String> decodeLines(BenchmarkData data) {
+		Flux<DataBuffer> input = Flux.fromIterable(data.chunks).map(data.bufferFactory::wrap);
+		return data.decoder.decode(input, STRING_TYPE, MimeTypeUtils.TEXT_PLAIN, Collections.emptyMap())
+				.collectList().block();
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"10", "1000"})
+		public int lineCount;
+
+		@Param({"64"})
+		public int lineLength;
+
+		public DataBufferFactory bufferFactory;
+
+		public CharSequenceEncoder encoder;
+
+		public StringDecoder decoder;
+
+		public List<String> lines;
+
+		public List<byte[]> chunks;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.bufferFactory = new DefaultDataBufferFactory();
+			this.encoder = CharSequenceEncoder.textPlainOnly();
+			this.decoder = StringDecoder.textPlainOnly();
+			this.lines = new ArrayList<>(this.lineCount);
+			StringBuilder text = new StringBuilder();
+			for (int i = 0; i < this.lineCount; i++) {
+				StringBuilder line = new StringBuilder();
+				while (line.length() < this.lineLength) {
+					line.append((char) ('a' + (line.length() % 26)));
+				}
+				this.lines.add(line.toString());
+				text.append(line).append('\n');
+			}
+			// Split into fixed-size chunks so that lines straddle buffer boundaries
+			byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+			this.chunks = new ArrayList<>();
+			for (int offset = 0; offset < bytes.length; offset += 1000) {
+				byte[] chunk = new byte[Math.min(1000, bytes.length - offset)];
+				System.arraycopy(bytes, offset, chunk, 0, chunk.length);
+				this.chunks.add(chunk);
+			}
+		}
+	}
+
+}
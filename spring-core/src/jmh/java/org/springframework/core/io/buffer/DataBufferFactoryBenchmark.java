@@ -0,0 +1,69 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Benchmarks for allocating, filling and releasing buffers through
+ * {@link DefaultDataBufferFactory} and {@link PooledDataBufferFactory}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Threads(4)
+public class DataBufferFactoryBenchmark {
+
+	@Benchmark
+	public boolean allocateWriteRelease(BenchmarkData data) {
+		DataBuffer buffer = data.factory.allocateBuffer(data.capacity);
+		buffer.write(data.content);
+		return DataBufferUtils.release(buffer);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"default", "pooled"})
+		public String factoryType;
+
+		@Param({"false", "true"})
+		public boolean direct;
+
+		@Param({"1024", "16384"})
+		public int capacity;
+
+		public DataBufferFactory factory;
+
+		public byte[] content;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.factory = ("pooled".equals(this.factoryType) ?
+					new PooledDataBufferFactory(this.direct) : new DefaultDataBufferFactory(this.direct));
+			this.content = new byte[this.capacity];
+		}
+	}
+
+}
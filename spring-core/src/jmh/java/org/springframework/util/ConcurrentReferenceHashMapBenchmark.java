@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Benchmarks for concurrent read access to {@link ConcurrentReferenceHashMap},
+ * with and without purging on read, compared to {@link ConcurrentHashMap} and
+ * {@link ConcurrentLruHashMap}. The "Contended" variants run with as many
+ * threads as there are available processors, in order to show how lookups
+ * scale with the number of cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ConcurrentReferenceHashMapBenchmark {
+
+	@Benchmark
+	@Threads(1)
+	public Object get(BenchmarkData data) {
+		return data.map.get(data.randomKey());
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Object getContended(BenchmarkData data) {
+		return data.map.get(data.randomKey());
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Object getWithOccasionalPutContended(BenchmarkData data) {
+		Integer key = data.randomKey();
+		if ((key & 63) == 0) {
+			return data.map.put(key, key);
+		}
+		return data.map.get(key);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"concurrentHashMap", "purgeOnRead", "lockFreeRead", "lru"})
+		public String mapType;
+
+		@Param("1024")
+		public int size;
+
+		public Map<Integer, Integer> map;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			switch (this.mapType) {
+				case "concurrentHashMap":
+					this.map = new ConcurrentHashMap<>(256);
+					break;
+				case "purgeOnRead":
+					this.map = new ConcurrentReferenceHashMap<>(256);
+					break;
+				case "lockFreeRead":
+					this.map = new ConcurrentReferenceHashMap<>(256, 0.75f, 16,
+							ConcurrentReferenceHashMap.ReferenceType.SOFT, false);
+					break;
+				case "lru":
+					this.map = new ConcurrentLruHashMap<>(this.size * 2);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown map type: " + this.mapType);
+			}
+			for (int i = 0; i < this.size; i++) {
+				this.map.put(i, i);
+			}
+		}
+
+		Integer randomKey() {
+			return ThreadLocalRandom.current().nextInt(this.size);
+		}
+	}
+
+}
@@ -43,6 +43,7 @@ import org.springframework.core.ResolvableType;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentLruHashMap;
 import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
@@ -119,10 +120,10 @@ public abstract class AnnotationUtils {
 	public static final String VALUE = "value";
 
 	private static final Map<AnnotationCacheKey, Annotation> findAnnotationCache =
-			new ConcurrentReferenceHashMap<>(256);
+			ConcurrentLruHashMap.createCache("AnnotationUtils.findAnnotation", 256);
 
 	private static final Map<AnnotationCacheKey, Boolean> metaPresentCache =
-			new ConcurrentReferenceHashMap<>(256);
+			ConcurrentLruHashMap.createCache("AnnotationUtils.metaPresent", 256);
 
 	private static final Map<Class<?>, Set<Method>> annotatedBaseTypeCache =
 			new ConcurrentReferenceHashMap<>(256);
@@ -131,6 +132,9 @@ public abstract class AnnotationUtils {
 	@Deprecated  // just here for older tool versions trying to reflectively clear the cache
 	private static final Map<Class<?>, ?> annotatedInterfaceCache = annotatedBaseTypeCache;
 
+	private static final Map<Class<?>, Set<String>> annotationTypeIndexCache =
+			new ConcurrentReferenceHashMap<>(256);
+
 	private static final Map<Class<? extends Annotation>, Boolean> synthesizableCache =
 			new ConcurrentReferenceHashMap<>(256);
 
@@ -669,6 +673,80 @@ public abstract class AnnotationUtils {
 		return annotatedMethods;
 	}
 
+	/**
+	 * Determine whether an annotation of the specified type may be found on
+	 * the supplied element with <em>find semantics</em>, i.e. whether it is
+	 * directly present or meta-present on the class hierarchy of a class
+	 * element, or of the declaring class of a method element (including all
+	 * of its methods). A {@code false} result is definitive, allowing for a
+	 * full search to be skipped; {@code true} only indicates a candidate.
+	 * @param element the annotated element
+	 * @param annotationName the fully qualified class name of the annotation type
+	 * @since 5.0.16
+	 * @see #getAnnotationTypeIndex(Class)
+	 */
+	static boolean isCandidateAnnotationType(AnnotatedElement element, String annotationName) {
+		Class<?> clazz;
+		if (element instanceof Class) {
+			clazz = (Class<?>) element;
+		}
+		else if (element instanceof Method) {
+			clazz = ((Method) element).getDeclaringClass();
+		}
+		else {
+			return true;
+		}
+		try {
+			return getAnnotationTypeIndex(clazz).contains(annotationName);
+		}
+		catch (Throwable ex) {
+			// Leave any introspection failure up to the actual search
+			return true;
+		}
+	}
+
+	/**
+	 * Return the names of all annotation types which are directly present or
+	 * meta-present on the given class, its methods, and (recursively) its
+	 * superclasses and interfaces.
+	 * @param clazz the class to introspect
+	 * @since 5.0.16
+	 */
+	private static Set<String> getAnnotationTypeIndex(Class<?> clazz) {
+		Set<String> index = annotationTypeIndexCache.get(clazz);
+		if (index != null) {
+			return index;
+		}
+		Set<String> annotationTypes = new HashSet<>();
+		Set<Class<?>> visited = new HashSet<>();
+		addAnnotationTypes(clazz.getDeclaredAnnotations(), annotationTypes, visited);
+		for (Method method : clazz.getDeclaredMethods()) {
+			addAnnotationTypes(method.getDeclaredAnnotations(), annotationTypes, visited);
+		}
+		for (Class<?> ifc : clazz.getInterfaces()) {
+			annotationTypes.addAll(getAnnotationTypeIndex(ifc));
+		}
+		Class<?> superclass = clazz.getSuperclass();
+		if (superclass != null && superclass != Object.class) {
+			annotationTypes.addAll(getAnnotationTypeIndex(superclass));
+		}
+		index = (annotationTypes.isEmpty() ? Collections.emptySet() : annotationTypes);
+		annotationTypeIndexCache.put(clazz, index);
+		return index;
+	}
+
+	private static void addAnnotationTypes(Annotation[] annotations, Set<String> annotationTypes, Set<Class<?>> visited) {
+		for (Annotation annotation : annotations) {
+			Class<? extends Annotation> annotationType = annotation.annotationType();
+			if (visited.add(annotationType)) {
+				annotationTypes.add(annotationType.getName());
+				if (!isInJavaLangAnnotationPackage(annotationType)) {
+					addAnnotationTypes(annotationType.getDeclaredAnnotations(), annotationTypes, visited);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Determine whether the specified method has searchable annotations,
 	 * i.e. not just {@code java.lang} or {@code org.springframework.lang}
@@ -1965,6 +2043,7 @@ public abstract class AnnotationUtils {
 		findAnnotationCache.clear();
 		metaPresentCache.clear();
 		annotatedBaseTypeCache.clear();
+		annotationTypeIndexCache.clear();
 		synthesizableCache.clear();
 		attributeAliasesCache.clear();
 		attributeMethodsCache.clear();
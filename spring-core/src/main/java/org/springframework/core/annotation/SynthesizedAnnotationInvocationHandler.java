@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,9 +21,8 @@ import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
@@ -35,6 +34,10 @@ import org.springframework.util.StringUtils;
  * <em>synthesized</em> (i.e., wrapped in a dynamic proxy) with additional
  * functionality.
  *
+ * <p>Each attribute value is resolved on first access and held in an array
+ * indexed by attribute, so that subsequent attribute invocations only need to
+ * identify the attribute by name and read the resolved value.
+ *
  * @author Sam Brannen
  * @since 4.2
  * @see Annotation
@@ -45,7 +48,9 @@ class SynthesizedAnnotationInvocationHandler implements InvocationHandler {
 
 	private final AnnotationAttributeExtractor<?> attributeExtractor;
 
-	private final Map<String, Object> valueCache = new ConcurrentHashMap<>(8);
+	private final List<Method> attributeMethods;
+
+	private final AtomicReferenceArray<Object> attributeValues;
 
 
 	/**
@@ -56,11 +61,17 @@ class SynthesizedAnnotationInvocationHandler implements InvocationHandler {
 	SynthesizedAnnotationInvocationHandler(AnnotationAttributeExtractor<?> attributeExtractor) {
 		Assert.notNull(attributeExtractor, "AnnotationAttributeExtractor must not be null");
 		this.attributeExtractor = attributeExtractor;
+		this.attributeMethods = AnnotationUtils.getAttributeMethods(attributeExtractor.getAnnotationType());
+		this.attributeValues = new AtomicReferenceArray<>(this.attributeMethods.size());
 	}
 
 
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		int attributeIndex = getAttributeIndex(method);
+		if (attributeIndex != -1) {
+			return getAttributeValue(attributeIndex);
+		}
 		if (ReflectionUtils.isEqualsMethod(method)) {
 			return annotationEquals(args[0]);
 		}
@@ -73,38 +84,36 @@ class SynthesizedAnnotationInvocationHandler implements InvocationHandler {
 		if (AnnotationUtils.isAnnotationTypeMethod(method)) {
 			return annotationType();
 		}
-		if (!AnnotationUtils.isAttributeMethod(method)) {
-			throw new AnnotationConfigurationException(String.format(
-					"Method [%s] is unsupported for synthesized annotation type [%s]", method, annotationType()));
+		throw new AnnotationConfigurationException(String.format(
+				"Method [%s] is unsupported for synthesized annotation type [%s]", method, annotationType()));
+	}
+
+	/**
+	 * Determine the index of the given attribute method, or -1 if the method
+	 * does not declare an attribute of the annotation type.
+	 * <p>Attributes cannot declare parameters or override {@code Object} and
+	 * {@code Annotation} methods, so that the method name uniquely identifies
+	 * an attribute.
+	 */
+	private int getAttributeIndex(Method method) {
+		if (method.getParameterCount() == 0) {
+			String name = method.getName();
+			List<Method> attributeMethods = this.attributeMethods;
+			for (int i = 0; i < attributeMethods.size(); i++) {
+				if (name.equals(attributeMethods.get(i).getName())) {
+					return i;
+				}
+			}
 		}
-		return getAttributeValue(method);
+		return -1;
 	}
 
 	private Class<? extends Annotation> annotationType() {
 		return this.attributeExtractor.getAnnotationType();
 	}
 
-	private Object getAttributeValue(Method attributeMethod) {
-		String attributeName = attributeMethod.getName();
-		Object value = this.valueCache.get(attributeName);
-		if (value == null) {
-			value = this.attributeExtractor.getAttributeValue(attributeMethod);
-			if (value == null) {
-				String msg = String.format("%s returned null for attribute name [%s] from attribute source [%s]",
-						this.attributeExtractor.getClass().getName(), attributeName, this.attributeExtractor.getSource());
-				throw new IllegalStateException(msg);
-			}
-
-			// Synthesize nested annotations before returning them.
-			if (value instanceof Annotation) {
-				value = AnnotationUtils.synthesizeAnnotation((Annotation) value, this.attributeExtractor.getAnnotatedElement());
-			}
-			else if (value instanceof Annotation[]) {
-				value = AnnotationUtils.synthesizeAnnotationArray((Annotation[]) value, this.attributeExtractor.getAnnotatedElement());
-			}
-
-			this.valueCache.put(attributeName, value);
-		}
+	private Object getAttributeValue(int attributeIndex) {
+		Object value = getResolvedAttributeValue(attributeIndex);
 
 		// Clone arrays so that users cannot alter the contents of values in our cache.
 		if (value.getClass().isArray()) {
@@ -114,6 +123,40 @@ class SynthesizedAnnotationInvocationHandler implements InvocationHandler {
 		return value;
 	}
 
+	/**
+	 * Obtain the cached value of the attribute at the given index, resolving
+	 * it on first access. Only this attribute is resolved, so that a failure
+	 * to resolve one attribute does not affect access to the others.
+	 * <p>The returned value is shared and must not be exposed to callers.
+	 */
+	private Object getResolvedAttributeValue(int attributeIndex) {
+		Object value = this.attributeValues.get(attributeIndex);
+		if (value == null) {
+			value = resolveAttributeValue(this.attributeMethods.get(attributeIndex));
+			this.attributeValues.set(attributeIndex, value);
+		}
+		return value;
+	}
+
+	private Object resolveAttributeValue(Method attributeMethod) {
+		Object value = this.attributeExtractor.getAttributeValue(attributeMethod);
+		if (value == null) {
+			String msg = String.format("%s returned null for attribute name [%s] from attribute source [%s]",
+					this.attributeExtractor.getClass().getName(), attributeMethod.getName(),
+					this.attributeExtractor.getSource());
+			throw new IllegalStateException(msg);
+		}
+
+		// Synthesize nested annotations before returning them.
+		if (value instanceof Annotation) {
+			value = AnnotationUtils.synthesizeAnnotation((Annotation) value, this.attributeExtractor.getAnnotatedElement());
+		}
+		else if (value instanceof Annotation[]) {
+			value = AnnotationUtils.synthesizeAnnotationArray((Annotation[]) value, this.attributeExtractor.getAnnotatedElement());
+		}
+		return value;
+	}
+
 	/**
 	 * Clone the provided array, ensuring that original component type is
 	 * retained.
@@ -161,8 +204,9 @@ class SynthesizedAnnotationInvocationHandler implements InvocationHandler {
 			return false;
 		}
 
-		for (Method attributeMethod : AnnotationUtils.getAttributeMethods(annotationType())) {
-			Object thisValue = getAttributeValue(attributeMethod);
+		for (int i = 0; i < this.attributeMethods.size(); i++) {
+			Method attributeMethod = this.attributeMethods.get(i);
+			Object thisValue = getResolvedAttributeValue(i);
 			Object otherValue = ReflectionUtils.invokeMethod(attributeMethod, other);
 			if (!ObjectUtils.nullSafeEquals(thisValue, otherValue)) {
 				return false;
@@ -178,8 +222,9 @@ class SynthesizedAnnotationInvocationHandler implements InvocationHandler {
 	private int annotationHashCode() {
 		int result = 0;
 
-		for (Method attributeMethod : AnnotationUtils.getAttributeMethods(annotationType())) {
-			Object value = getAttributeValue(attributeMethod);
+		for (int i = 0; i < this.attributeMethods.size(); i++) {
+			Method attributeMethod = this.attributeMethods.get(i);
+			Object value = getResolvedAttributeValue(i);
 			int hashCode;
 			if (value.getClass().isArray()) {
 				hashCode = hashCodeForArray(value);
@@ -236,13 +281,11 @@ class SynthesizedAnnotationInvocationHandler implements InvocationHandler {
 	private String annotationToString() {
 		StringBuilder sb = new StringBuilder("@").append(annotationType().getName()).append("(");
 
-		Iterator<Method> iterator = AnnotationUtils.getAttributeMethods(annotationType()).iterator();
-		while (iterator.hasNext()) {
-			Method attributeMethod = iterator.next();
-			sb.append(attributeMethod.getName());
+		for (int i = 0; i < this.attributeMethods.size(); i++) {
+			sb.append(this.attributeMethods.get(i).getName());
 			sb.append('=');
-			sb.append(attributeValueToString(getAttributeValue(attributeMethod)));
-			sb.append(iterator.hasNext() ? ", " : "");
+			sb.append(attributeValueToString(getResolvedAttributeValue(i)));
+			sb.append(i < this.attributeMethods.size() - 1 ? ", " : "");
 		}
 
 		return sb.append(")").toString();
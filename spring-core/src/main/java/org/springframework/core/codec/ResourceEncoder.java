@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,10 @@
 
 package org.springframework.core.codec;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
 
 import reactor.core.publisher.Flux;
@@ -41,8 +45,13 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 
 	public static final int DEFAULT_BUFFER_SIZE = StreamUtils.BUFFER_SIZE;
 
+	private static final int MAPPED_BUFFER_SIZE = 1024 * 1024;
+
+
 	private final int bufferSize;
 
+	private long mappedFileThreshold = -1;
+
 
 	public ResourceEncoder() {
 		this(DEFAULT_BUFFER_SIZE);
@@ -55,6 +64,30 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 	}
 
 
+	/**
+	 * Set the file size from which on file-based resources are written as
+	 * memory-mapped buffers, rather than read into allocated buffers.
+	 * <p>By default this is set to -1, i.e. resources are always read into
+	 * allocated buffers.
+	 * @param mappedFileThreshold the minimum file size in bytes,
+	 * or -1 to disable memory-mapping
+	 * @since 5.0.16
+	 * @see DataBufferUtils#readMappedFileChannel
+	 */
+	public void setMappedFileThreshold(long mappedFileThreshold) {
+		this.mappedFileThreshold = mappedFileThreshold;
+	}
+
+	/**
+	 * Return the configured file size from which on resources are
+	 * memory-mapped.
+	 * @since 5.0.16
+	 */
+	public long getMappedFileThreshold() {
+		return this.mappedFileThreshold;
+	}
+
+
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		Class<?> clazz = elementType.resolve(Object.class);
@@ -65,6 +98,19 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 	protected Flux<DataBuffer> encode(Resource resource, DataBufferFactory dataBufferFactory,
 			ResolvableType type, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
+		if (this.mappedFileThreshold >= 0 && resource.isFile()) {
+			try {
+				File file = resource.getFile();
+				if (file.length() >= this.mappedFileThreshold) {
+					return DataBufferUtils.readMappedFileChannel(
+							() -> FileChannel.open(file.toPath(), StandardOpenOption.READ),
+							0, Long.MAX_VALUE, dataBufferFactory, MAPPED_BUFFER_SIZE);
+				}
+			}
+			catch (IOException ignore) {
+				// fallback to DataBufferUtils.read, below
+			}
+		}
 		return DataBufferUtils.read(resource, dataBufferFactory, this.bufferSize);
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,12 @@
 
 package org.springframework.core.codec;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
 import java.util.OptionalLong;
 
@@ -51,8 +54,13 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 
 	public static final String BOUNDARY_STRING_HINT = ResourceRegionEncoder.class.getName() + ".boundaryString";
 
+	private static final int MAPPED_BUFFER_SIZE = 1024 * 1024;
+
+
 	private final int bufferSize;
 
+	private long mappedFileThreshold = -1;
+
 
 	public ResourceRegionEncoder() {
 		this(DEFAULT_BUFFER_SIZE);
@@ -64,6 +72,31 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 		this.bufferSize = bufferSize;
 	}
 
+
+	/**
+	 * Set the region size from which on regions of file-based resources are
+	 * written as memory-mapped buffers, rather than read into allocated buffers.
+	 * <p>By default this is set to -1, i.e. regions are always read into
+	 * allocated buffers.
+	 * @param mappedFileThreshold the minimum region size in bytes,
+	 * or -1 to disable memory-mapping
+	 * @since 5.0.16
+	 * @see DataBufferUtils#readMappedFileChannel
+	 */
+	public void setMappedFileThreshold(long mappedFileThreshold) {
+		this.mappedFileThreshold = mappedFileThreshold;
+	}
+
+	/**
+	 * Return the configured region size from which on file regions are
+	 * memory-mapped.
+	 * @since 5.0.16
+	 */
+	public long getMappedFileThreshold() {
+		return this.mappedFileThreshold;
+	}
+
+
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		return super.canEncode(elementType, mimeType)
@@ -115,8 +148,20 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 	private Flux<DataBuffer> writeResourceRegion(ResourceRegion region, DataBufferFactory bufferFactory) {
 		Resource resource = region.getResource();
 		long position = region.getPosition();
+		long count = region.getCount();
+		if (this.mappedFileThreshold >= 0 && count >= this.mappedFileThreshold && resource.isFile()) {
+			try {
+				File file = resource.getFile();
+				return DataBufferUtils.readMappedFileChannel(
+						() -> FileChannel.open(file.toPath(), StandardOpenOption.READ),
+						position, count, bufferFactory, MAPPED_BUFFER_SIZE);
+			}
+			catch (IOException ignore) {
+				// fallback to DataBufferUtils.read, below
+			}
+		}
 		Flux<DataBuffer> in = DataBufferUtils.read(resource, position, bufferFactory, this.bufferSize);
-		return DataBufferUtils.takeUntilByteCount(in, region.getCount());
+		return DataBufferUtils.takeUntilByteCount(in, count);
 	}
 
 	private Flux<DataBuffer> getRegionSuffix(DataBufferFactory bufferFactory, String boundaryString) {
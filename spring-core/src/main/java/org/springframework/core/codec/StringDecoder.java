@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,12 @@
 
 package org.springframework.core.codec;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -30,6 +34,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.CompositeDataBuffer;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
@@ -201,11 +206,67 @@ public class StringDecoder extends AbstractDataBufferDecoder<String> {
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
 		Charset charset = getCharset(mimeType);
-		CharBuffer charBuffer = charset.decode(dataBuffer.asByteBuffer());
+		CharBuffer charBuffer = (dataBuffer instanceof CompositeDataBuffer ?
+				decode(((CompositeDataBuffer) dataBuffer).asByteBuffers(), dataBuffer.readableByteCount(), charset) :
+				charset.decode(dataBuffer.asByteBuffer()));
 		DataBufferUtils.release(dataBuffer);
 		return charBuffer.toString();
 	}
 
+	/**
+	 * Decode the given buffers as one contiguous input, without copying them
+	 * into a single buffer first. Characters that span two buffers are decoded
+	 * through a small carry-over buffer.
+	 */
+	private static CharBuffer decode(ByteBuffer[] byteBuffers, int byteCount, Charset charset) {
+		CharsetDecoder decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer result = CharBuffer.allocate((int) (byteCount * (double) decoder.averageCharsPerByte()) + 1);
+		ByteBuffer carry = ByteBuffer.allocate(16);
+		for (ByteBuffer byteBuffer : byteBuffers) {
+			while (carry.position() > 0 && byteBuffer.hasRemaining()) {
+				carry = ensureRemaining(carry, 1).put(byteBuffer.get());
+				((Buffer) carry).flip();
+				result = decode(decoder, carry, result, false);
+				carry.compact();
+			}
+			result = decode(decoder, byteBuffer, result, false);
+			if (byteBuffer.hasRemaining()) {
+				carry = ensureRemaining(carry, byteBuffer.remaining()).put(byteBuffer);
+			}
+		}
+		((Buffer) carry).flip();
+		result = decode(decoder, carry, result, true);
+		while (decoder.flush(result).isOverflow()) {
+			result = grow(result);
+		}
+		((Buffer) result).flip();
+		return result;
+	}
+
+	private static CharBuffer decode(CharsetDecoder decoder, ByteBuffer input, CharBuffer output, boolean endOfInput) {
+		while (decoder.decode(input, output, endOfInput).isOverflow()) {
+			output = grow(output);
+		}
+		return output;
+	}
+
+	private static CharBuffer grow(CharBuffer charBuffer) {
+		CharBuffer result = CharBuffer.allocate(charBuffer.capacity() * 2 + 1);
+		((Buffer) charBuffer).flip();
+		return result.put(charBuffer);
+	}
+
+	private static ByteBuffer ensureRemaining(ByteBuffer byteBuffer, int length) {
+		if (byteBuffer.remaining() >= length) {
+			return byteBuffer;
+		}
+		ByteBuffer result = ByteBuffer.allocate(byteBuffer.position() + length);
+		((Buffer) byteBuffer).flip();
+		return result.put(byteBuffer);
+	}
+
 	private static Charset getCharset(@Nullable MimeType mimeType) {
 		if (mimeType != null && mimeType.getCharset() != null) {
 			return mimeType.getCharset();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -95,6 +95,7 @@ public abstract class AbstractPropertyResolver implements ConfigurablePropertyRe
 	public void setPlaceholderPrefix(String placeholderPrefix) {
 		Assert.notNull(placeholderPrefix, "'placeholderPrefix' must not be null");
 		this.placeholderPrefix = placeholderPrefix;
+		resetPlaceholderHelpers();
 	}
 
 	/**
@@ -106,6 +107,7 @@ public abstract class AbstractPropertyResolver implements ConfigurablePropertyRe
 	public void setPlaceholderSuffix(String placeholderSuffix) {
 		Assert.notNull(placeholderSuffix, "'placeholderSuffix' must not be null");
 		this.placeholderSuffix = placeholderSuffix;
+		resetPlaceholderHelpers();
 	}
 
 	/**
@@ -118,6 +120,7 @@ public abstract class AbstractPropertyResolver implements ConfigurablePropertyRe
 	@Override
 	public void setValueSeparator(@Nullable String valueSeparator) {
 		this.valueSeparator = valueSeparator;
+		resetPlaceholderHelpers();
 	}
 
 	/**
@@ -228,6 +231,11 @@ public abstract class AbstractPropertyResolver implements ConfigurablePropertyRe
 				resolvePlaceholders(value) : resolveRequiredPlaceholders(value));
 	}
 
+	private void resetPlaceholderHelpers() {
+		this.nonStrictHelper = null;
+		this.strictHelper = null;
+	}
+
 	private PropertyPlaceholderHelper createPlaceholderHelper(boolean ignoreUnresolvablePlaceholders) {
 		return new PropertyPlaceholderHelper(this.placeholderPrefix, this.placeholderSuffix,
 				this.valueSeparator, ignoreUnresolvablePlaceholders);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.core.env;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -45,6 +46,8 @@ public class MutablePropertySources implements PropertySources {
 
 	private final List<PropertySource<?>> propertySourceList = new CopyOnWriteArrayList<>();
 
+	private final AtomicInteger modificationCount = new AtomicInteger();
+
 
 	/**
 	 * Create a new {@link MutablePropertySources} object.
@@ -100,6 +103,7 @@ public class MutablePropertySources implements PropertySources {
 		}
 		removeIfPresent(propertySource);
 		this.propertySourceList.add(0, propertySource);
+		this.modificationCount.incrementAndGet();
 	}
 
 	/**
@@ -111,6 +115,7 @@ public class MutablePropertySources implements PropertySources {
 		}
 		removeIfPresent(propertySource);
 		this.propertySourceList.add(propertySource);
+		this.modificationCount.incrementAndGet();
 	}
 
 	/**
@@ -160,7 +165,12 @@ public class MutablePropertySources implements PropertySources {
 			logger.debug("Removing PropertySource '" + name + "'");
 		}
 		int index = this.propertySourceList.indexOf(PropertySource.named(name));
-		return (index != -1 ? this.propertySourceList.remove(index) : null);
+		if (index == -1) {
+			return null;
+		}
+		PropertySource<?> removed = this.propertySourceList.remove(index);
+		this.modificationCount.incrementAndGet();
+		return removed;
 	}
 
 	/**
@@ -176,6 +186,30 @@ public class MutablePropertySources implements PropertySources {
 		}
 		int index = assertPresentAndGetIndex(name);
 		this.propertySourceList.set(index, propertySource);
+		this.modificationCount.incrementAndGet();
+	}
+
+	/**
+	 * Signal that the content of a contained property source has changed,
+	 * e.g. after modifying the underlying {@code Map} of a {@link MapPropertySource}.
+	 * <p>This invalidates any property values which a {@link PropertySourcesPropertyResolver}
+	 * may have cached for these property sources. Structural changes through the
+	 * methods of this class are tracked automatically.
+	 * @since 5.0.16
+	 * @see #getModificationCount()
+	 */
+	public void markChanged() {
+		this.modificationCount.incrementAndGet();
+	}
+
+	/**
+	 * Return a counter which changes whenever property sources are added, removed
+	 * or replaced, or a change of their content is signalled via {@link #markChanged()}.
+	 * @since 5.0.16
+	 * @see PropertySourcesPropertyResolver#setCachePropertyValues
+	 */
+	public int getModificationCount() {
+		return this.modificationCount.get();
 	}
 
 	/**
@@ -214,6 +248,7 @@ public class MutablePropertySources implements PropertySources {
 	private void addAtIndex(int index, PropertySource<?> propertySource) {
 		removeIfPresent(propertySource);
 		this.propertySourceList.add(index, propertySource);
+		this.modificationCount.incrementAndGet();
 	}
 
 	/**
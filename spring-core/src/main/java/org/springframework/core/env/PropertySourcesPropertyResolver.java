@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,20 @@
 
 package org.springframework.core.env;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.SpringProperties;
 import org.springframework.lang.Nullable;
 
 /**
  * {@link PropertyResolver} implementation that resolves property values against
  * an underlying set of {@link PropertySources}.
  *
+ * <p>Resolved property values may optionally be cached per property name,
+ * turning repeated lookups into a single hash lookup: see
+ * {@link #setCachePropertyValues}.
+ *
  * @author Chris Beams
  * @author Juergen Hoeller
  * @since 3.1
@@ -31,9 +39,30 @@ import org.springframework.lang.Nullable;
  */
 public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 
+	/**
+	 * System property that instructs Spring to cache resolved property values
+	 * in all {@code PropertySourcesPropertyResolver} instances, including the
+	 * ones used by standard {@link Environment} implementations: {@value}.
+	 * <p>The default is "false". Only switch this flag to "true" if the content
+	 * of property sources does not change at runtime, or if such changes are
+	 * signalled via {@link MutablePropertySources#markChanged()}.
+	 * @since 5.0.16
+	 * @see #setCachePropertyValues
+	 */
+	public static final String CACHE_PROPERTY_VALUES_PROPERTY_NAME = "spring.core.env.cache-property-values";
+
+	private static final Object NOT_FOUND = new Object();
+
+
 	@Nullable
 	private final PropertySources propertySources;
 
+	private volatile boolean cachePropertyValues =
+			SpringProperties.getFlag(CACHE_PROPERTY_VALUES_PROPERTY_NAME);
+
+	@Nullable
+	private volatile PropertyValueCache propertyValueCache;
+
 
 	/**
 	 * Create a new resolver against the given property sources.
@@ -44,6 +73,55 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 	}
 
 
+	/**
+	 * Specify whether to cache resolved property values per property name,
+	 * including the absence of a property.
+	 * <p>Default is "false", unless the {@value #CACHE_PROPERTY_VALUES_PROPERTY_NAME}
+	 * system property has been set to "true". The cache is invalidated whenever
+	 * {@link MutablePropertySources} are modified, or a change of the content of a
+	 * property source is signalled via {@link MutablePropertySources#markChanged()};
+	 * other {@link PropertySources} implementations are assumed to be immutable.
+	 * Type conversion is still applied on every lookup.
+	 * @since 5.0.16
+	 */
+	public void setCachePropertyValues(boolean cachePropertyValues) {
+		this.cachePropertyValues = cachePropertyValues;
+		this.propertyValueCache = null;
+	}
+
+	/**
+	 * Return whether resolved property values are cached per property name.
+	 * @since 5.0.16
+	 */
+	public boolean isCachePropertyValues() {
+		return this.cachePropertyValues;
+	}
+
+	@Override
+	public void setPlaceholderPrefix(String placeholderPrefix) {
+		super.setPlaceholderPrefix(placeholderPrefix);
+		this.propertyValueCache = null;
+	}
+
+	@Override
+	public void setPlaceholderSuffix(String placeholderSuffix) {
+		super.setPlaceholderSuffix(placeholderSuffix);
+		this.propertyValueCache = null;
+	}
+
+	@Override
+	public void setValueSeparator(@Nullable String valueSeparator) {
+		super.setValueSeparator(valueSeparator);
+		this.propertyValueCache = null;
+	}
+
+	@Override
+	public void setIgnoreUnresolvableNestedPlaceholders(boolean ignoreUnresolvableNestedPlaceholders) {
+		super.setIgnoreUnresolvableNestedPlaceholders(ignoreUnresolvableNestedPlaceholders);
+		this.propertyValueCache = null;
+	}
+
+
 	@Override
 	public boolean containsProperty(String key) {
 		if (this.propertySources != null) {
@@ -77,19 +155,12 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 	@Nullable
 	protected <T> T getProperty(String key, Class<T> targetValueType, boolean resolveNestedPlaceholders) {
 		if (this.propertySources != null) {
-			for (PropertySource<?> propertySource : this.propertySources) {
-				if (logger.isTraceEnabled()) {
-					logger.trace("Searching for key '" + key + "' in PropertySource '" +
-							propertySource.getName() + "'");
-				}
-				Object value = propertySource.getProperty(key);
-				if (value != null) {
-					if (resolveNestedPlaceholders && value instanceof String) {
-						value = resolveNestedPlaceholders((String) value);
-					}
-					logKeyFound(key, propertySource, value);
-					return convertValueIfNecessary(value, targetValueType);
-				}
+			PropertyValue propertyValue = (this.cachePropertyValues ?
+					getCachedPropertyValue(this.propertySources, key, resolveNestedPlaceholders) :
+					findPropertyValue(this.propertySources, key, resolveNestedPlaceholders));
+			if (propertyValue != null) {
+				logKeyFound(key, propertyValue.propertySource, propertyValue.value);
+				return convertValueIfNecessary(propertyValue.value, targetValueType);
 			}
 		}
 		if (logger.isDebugEnabled()) {
@@ -98,6 +169,47 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 		return null;
 	}
 
+	@Nullable
+	private PropertyValue getCachedPropertyValue(
+			PropertySources propertySources, String key, boolean resolveNestedPlaceholders) {
+
+		int modificationCount = (propertySources instanceof MutablePropertySources ?
+				((MutablePropertySources) propertySources).getModificationCount() : 0);
+		PropertyValueCache cache = this.propertyValueCache;
+		if (cache == null || cache.modificationCount != modificationCount) {
+			cache = new PropertyValueCache(modificationCount);
+			this.propertyValueCache = cache;
+		}
+		Map<String, Object> values = (resolveNestedPlaceholders ? cache.resolvedValues : cache.rawValues);
+		Object cached = values.get(key);
+		if (cached == null) {
+			PropertyValue propertyValue = findPropertyValue(propertySources, key, resolveNestedPlaceholders);
+			cached = (propertyValue != null ? propertyValue : NOT_FOUND);
+			values.put(key, cached);
+		}
+		return (cached != NOT_FOUND ? (PropertyValue) cached : null);
+	}
+
+	@Nullable
+	private PropertyValue findPropertyValue(
+			PropertySources propertySources, String key, boolean resolveNestedPlaceholders) {
+
+		for (PropertySource<?> propertySource : propertySources) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Searching for key '" + key + "' in PropertySource '" +
+						propertySource.getName() + "'");
+			}
+			Object value = propertySource.getProperty(key);
+			if (value != null) {
+				if (resolveNestedPlaceholders && value instanceof String) {
+					value = resolveNestedPlaceholders((String) value);
+				}
+				return new PropertyValue(propertySource, value);
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Log the given key as found in the given {@link PropertySource}, resulting in
 	 * the given value.
@@ -117,4 +229,37 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 		}
 	}
 
+
+	/**
+	 * A property value along with the property source it has been found in.
+	 */
+	private static final class PropertyValue {
+
+		final PropertySource<?> propertySource;
+
+		final Object value;
+
+		PropertyValue(PropertySource<?> propertySource, Object value) {
+			this.propertySource = propertySource;
+			this.value = value;
+		}
+	}
+
+
+	/**
+	 * Resolved property values for a given state of the property sources.
+	 */
+	private static final class PropertyValueCache {
+
+		final int modificationCount;
+
+		final Map<String, Object> resolvedValues = new ConcurrentHashMap<>(64);
+
+		final Map<String, Object> rawValues = new ConcurrentHashMap<>(64);
+
+		PropertyValueCache(int modificationCount) {
+			this.modificationCount = modificationCount;
+		}
+	}
+
 }
@@ -0,0 +1,677 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link DataBuffer} that presents a number of component buffers as a single
+ * buffer, without copying their contents. Used by
+ * {@link DefaultDataBufferFactory#join(List)}.
+ *
+ * <p>Reading, {@linkplain #slice(int, int) slicing} and
+ * {@linkplain #asInputStream() streaming} operate on the component buffers
+ * directly. Writing beyond the current capacity appends a new component
+ * allocated from the {@linkplain #factory() factory}. Note that
+ * {@link #asByteBuffer(int, int)} can only return a shared view if the given
+ * range lies within a single component; otherwise, the range is copied into a
+ * new buffer. Use {@link #asByteBuffers()} to obtain shared views of all
+ * readable components.
+ *
+ * <p>Inspired by Netty's {@code CompositeByteBuf}. Component buffers are
+ * released once this buffer, as well as all of its slices, have been released.
+ *
+ * @since 5.0.16
+ * @see DefaultDataBufferFactory#join(List)
+ */
+public class CompositeDataBuffer implements PooledDataBuffer {
+
+	private static final int MIN_COMPONENT_CAPACITY = 256;
+
+	private static final int MAX_COMPONENT_CAPACITY = 1024 * 1024 * 4;
+
+
+	private final DataBufferFactory dataBufferFactory;
+
+	private final Components components;
+
+	private final boolean slice;
+
+	private ByteBuffer[] views = new ByteBuffer[4];
+
+	private int[] offsets = new int[4];
+
+	private int componentCount;
+
+	private int capacity;
+
+	private int readPosition;
+
+	private int writePosition;
+
+
+	/**
+	 * Create a new {@code CompositeDataBuffer} that contains the readable bytes
+	 * of the given buffers. The given buffers are
+	 * {@linkplain DataBufferUtils#release(DataBuffer) released} when the
+	 * returned buffer is released.
+	 * @param dataBufferFactory the factory to allocate additional capacity with
+	 * @param dataBuffers the component buffers
+	 */
+	public CompositeDataBuffer(DataBufferFactory dataBufferFactory, List<? extends DataBuffer> dataBuffers) {
+		Assert.notNull(dataBufferFactory, "DataBufferFactory must not be null");
+		Assert.notNull(dataBuffers, "DataBuffer List must not be null");
+		this.dataBufferFactory = dataBufferFactory;
+		this.components = new Components(new ArrayList<>(dataBuffers));
+		this.slice = false;
+		for (DataBuffer dataBuffer : dataBuffers) {
+			if (dataBuffer instanceof CompositeDataBuffer) {
+				for (ByteBuffer byteBuffer : ((CompositeDataBuffer) dataBuffer).asByteBuffers()) {
+					addComponent(byteBuffer);
+				}
+			}
+			else {
+				addComponent(dataBuffer.asByteBuffer());
+			}
+		}
+		this.writePosition = this.capacity;
+	}
+
+	private CompositeDataBuffer(CompositeDataBuffer parent, List<ByteBuffer> views, int length) {
+		this.dataBufferFactory = parent.dataBufferFactory;
+		this.components = parent.components;
+		this.slice = true;
+		views.forEach(this::addComponent);
+		this.writePosition = length;
+	}
+
+
+	private void addComponent(ByteBuffer byteBuffer) {
+		ByteBuffer view = byteBuffer.slice();
+		int length = view.remaining();
+		if (length == 0) {
+			return;
+		}
+		if (this.componentCount == this.views.length) {
+			this.views = Arrays.copyOf(this.views, this.componentCount * 2);
+			this.offsets = Arrays.copyOf(this.offsets, this.componentCount * 2);
+		}
+		this.views[this.componentCount] = view;
+		this.offsets[this.componentCount] = this.capacity;
+		this.componentCount++;
+		this.capacity += length;
+	}
+
+	/**
+	 * Return the index of the component that contains the given index.
+	 */
+	private int componentIndex(int index) {
+		int i = Arrays.binarySearch(this.offsets, 0, this.componentCount, index);
+		return (i >= 0 ? i : -i - 2);
+	}
+
+	/**
+	 * Return the number of component buffers.
+	 */
+	public int getComponentCount() {
+		return this.componentCount;
+	}
+
+
+	@Override
+	public DataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	@Override
+	public int indexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "'predicate' must not be null");
+
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		else if (fromIndex >= this.writePosition) {
+			return -1;
+		}
+		for (int c = componentIndex(fromIndex); c < this.componentCount; c++) {
+			ByteBuffer view = this.views[c];
+			int offset = this.offsets[c];
+			int end = Math.min(view.limit(), this.writePosition - offset);
+			for (int i = Math.max(fromIndex - offset, 0); i < end; i++) {
+				if (predicate.test(view.get(i))) {
+					return offset + i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "'predicate' must not be null");
+		int index = Math.min(fromIndex, this.writePosition - 1);
+		if (index < 0) {
+			return -1;
+		}
+		for (int c = componentIndex(index); c >= 0; c--) {
+			ByteBuffer view = this.views[c];
+			int offset = this.offsets[c];
+			for (int i = Math.min(index - offset, view.limit() - 1); i >= 0; i--) {
+				if (predicate.test(view.get(i))) {
+					return offset + i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int readableByteCount() {
+		return this.writePosition - this.readPosition;
+	}
+
+	@Override
+	public int writableByteCount() {
+		return this.capacity - this.writePosition;
+	}
+
+	@Override
+	public int readPosition() {
+		return this.readPosition;
+	}
+
+	@Override
+	public CompositeDataBuffer readPosition(int readPosition) {
+		assertIndex(readPosition >= 0, "'readPosition' %d must be >= 0", readPosition);
+		assertIndex(readPosition <= this.writePosition, "'readPosition' %d must be <= %d",
+				readPosition, this.writePosition);
+
+		this.readPosition = readPosition;
+		return this;
+	}
+
+	@Override
+	public int writePosition() {
+		return this.writePosition;
+	}
+
+	@Override
+	public CompositeDataBuffer writePosition(int writePosition) {
+		assertIndex(writePosition >= this.readPosition, "'writePosition' %d must be >= %d",
+				writePosition, this.readPosition);
+		assertIndex(writePosition <= this.capacity, "'writePosition' %d must be <= %d",
+				writePosition, this.capacity);
+
+		this.writePosition = writePosition;
+		return this;
+	}
+
+	@Override
+	public int capacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>This implementation appends a new component when growing, and
+	 * truncates the trailing components when shrinking.
+	 */
+	@Override
+	public CompositeDataBuffer capacity(int newCapacity) {
+		Assert.isTrue(newCapacity > 0,
+				String.format("'newCapacity' %d must be higher than 0", newCapacity));
+		if (this.slice) {
+			throw new UnsupportedOperationException("Changing the capacity of a sliced buffer is not supported");
+		}
+
+		if (newCapacity > this.capacity) {
+			int length = newCapacity - this.capacity;
+			DataBuffer dataBuffer = this.dataBufferFactory.allocateBuffer(length);
+			this.components.add(dataBuffer);
+			addComponent(dataBuffer.asByteBuffer(0, length));
+		}
+		else if (newCapacity < this.capacity) {
+			if (this.readPosition < newCapacity) {
+				this.writePosition = Math.min(this.writePosition, newCapacity);
+			}
+			else {
+				this.readPosition = newCapacity;
+				this.writePosition = newCapacity;
+			}
+			int last = componentIndex(newCapacity - 1);
+			for (int c = last + 1; c < this.componentCount; c++) {
+				this.views[c] = null;
+			}
+			this.componentCount = last + 1;
+			this.views[last] = view(last, 0, newCapacity - this.offsets[last]);
+			this.capacity = newCapacity;
+		}
+		return this;
+	}
+
+	@Override
+	public byte getByte(int index) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(index <= this.writePosition - 1, "index %d must be <= %d",
+				index, this.writePosition - 1);
+
+		int c = componentIndex(index);
+		return this.views[c].get(index - this.offsets[c]);
+	}
+
+	@Override
+	public byte read() {
+		assertIndex(this.readPosition <= this.writePosition - 1, "readPosition %d must be <= %d",
+				this.readPosition, this.writePosition - 1);
+		int pos = this.readPosition;
+		int c = componentIndex(pos);
+		byte b = this.views[c].get(pos - this.offsets[c]);
+		this.readPosition = pos + 1;
+		return b;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination) {
+		Assert.notNull(destination, "'destination' must not be null");
+		read(destination, 0, destination.length);
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination, int offset, int length) {
+		Assert.notNull(destination, "'destination' must not be null");
+		assertIndex(this.readPosition <= this.writePosition - length,
+				"readPosition %d and length %d should be smaller than writePosition %d",
+				this.readPosition, length, this.writePosition);
+
+		getBytes(this.readPosition, ByteBuffer.wrap(destination, offset, length));
+		this.readPosition += length;
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte b) {
+		ensureCapacity(1);
+		int pos = this.writePosition;
+		int c = componentIndex(pos);
+		this.views[c].put(pos - this.offsets[c], b);
+		this.writePosition = pos + 1;
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source) {
+		Assert.notNull(source, "'source' must not be null");
+		write(source, 0, source.length);
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source, int offset, int length) {
+		Assert.notNull(source, "'source' must not be null");
+		ensureCapacity(length);
+		setBytes(this.writePosition, ByteBuffer.wrap(source, offset, length));
+		this.writePosition += length;
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(DataBuffer... buffers) {
+		if (!ObjectUtils.isEmpty(buffers)) {
+			List<ByteBuffer> byteBuffers = new ArrayList<>(buffers.length);
+			for (DataBuffer buffer : buffers) {
+				if (buffer instanceof CompositeDataBuffer) {
+					byteBuffers.addAll(Arrays.asList(((CompositeDataBuffer) buffer).asByteBuffers()));
+				}
+				else {
+					byteBuffers.add(buffer.asByteBuffer());
+				}
+			}
+			if (!byteBuffers.isEmpty()) {
+				write(byteBuffers.toArray(new ByteBuffer[0]));
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(ByteBuffer... byteBuffers) {
+		Assert.notEmpty(byteBuffers, "'byteBuffers' must not be empty");
+		int capacity = Arrays.stream(byteBuffers).mapToInt(ByteBuffer::remaining).sum();
+		ensureCapacity(capacity);
+		for (ByteBuffer byteBuffer : byteBuffers) {
+			int length = byteBuffer.remaining();
+			setBytes(this.writePosition, byteBuffer);
+			this.writePosition += length;
+		}
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The returned buffer shares the memory of this buffer, as well as
+	 * its reference count.
+	 */
+	@Override
+	public CompositeDataBuffer slice(int index, int length) {
+		checkIndex(index, length);
+		return new CompositeDataBuffer(this, views(index, length), length);
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer() {
+		return asByteBuffer(this.readPosition, readableByteCount());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>If the given range spans multiple components, this implementation
+	 * copies the range into a new buffer. Changes to the returned buffer are
+	 * then <strong>not</strong> reflected in this buffer.
+	 * @see #asByteBuffers()
+	 */
+	@Override
+	public ByteBuffer asByteBuffer(int index, int length) {
+		checkIndex(index, length);
+		if (length == 0) {
+			return ByteBuffer.allocate(0);
+		}
+		int c = componentIndex(index);
+		int start = index - this.offsets[c];
+		if (start + length <= this.views[c].limit()) {
+			return view(c, start, length);
+		}
+		ByteBuffer copy = (this.views[c].isDirect() ?
+				ByteBuffer.allocateDirect(length) : ByteBuffer.allocate(length));
+		getBytes(index, copy);
+		((Buffer) copy).flip();
+		return copy;
+	}
+
+	/**
+	 * Expose the readable bytes of this buffer as a number of {@link ByteBuffer}
+	 * views, one per component, without copying. Changes to the returned
+	 * buffers are reflected in this buffer, but changes to their position and
+	 * limit are not.
+	 * @return the readable components of this buffer
+	 */
+	public ByteBuffer[] asByteBuffers() {
+		return views(this.readPosition, readableByteCount()).toArray(new ByteBuffer[0]);
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return new CompositeDataBufferInputStream(false);
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		return new CompositeDataBufferInputStream(releaseOnClose);
+	}
+
+	@Override
+	public OutputStream asOutputStream() {
+		return new CompositeDataBufferOutputStream();
+	}
+
+	@Override
+	public CompositeDataBuffer retain() {
+		this.components.retain();
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		return this.components.release();
+	}
+
+	private void ensureCapacity(int length) {
+		if (length <= writableByteCount()) {
+			return;
+		}
+		int needed = this.writePosition + length - this.capacity;
+		int growth = Math.min(Math.max(this.capacity, MIN_COMPONENT_CAPACITY), MAX_COMPONENT_CAPACITY);
+		capacity(this.capacity + Math.min(Math.max(needed, growth), Integer.MAX_VALUE - this.capacity));
+	}
+
+	/**
+	 * Return views of the components that make up the given range.
+	 */
+	private List<ByteBuffer> views(int index, int length) {
+		List<ByteBuffer> result = new ArrayList<>();
+		for (int c = (length > 0 ? componentIndex(index) : 0); length > 0; c++) {
+			int start = index - this.offsets[c];
+			int count = Math.min(length, this.views[c].limit() - start);
+			result.add(view(c, start, count));
+			index += count;
+			length -= count;
+		}
+		return result;
+	}
+
+	private ByteBuffer view(int component, int index, int length) {
+		ByteBuffer duplicate = this.views[component].duplicate();
+		// Explicit access via Buffer base type for compatibility
+		// with covariant return type on JDK 9's ByteBuffer...
+		Buffer buffer = duplicate;
+		buffer.position(index);
+		buffer.limit(index + length);
+		return duplicate.slice();
+	}
+
+	/**
+	 * Copy bytes starting at the given index into the given destination,
+	 * until it has no remaining space.
+	 */
+	private void getBytes(int index, ByteBuffer destination) {
+		int length = destination.remaining();
+		for (int c = (length > 0 ? componentIndex(index) : 0); length > 0; c++) {
+			int start = index - this.offsets[c];
+			int count = Math.min(length, this.views[c].limit() - start);
+			destination.put(view(c, start, count));
+			index += count;
+			length -= count;
+		}
+	}
+
+	/**
+	 * Copy the remaining bytes of the given source into this buffer,
+	 * starting at the given index.
+	 */
+	private void setBytes(int index, ByteBuffer source) {
+		int length = source.remaining();
+		for (int c = (length > 0 ? componentIndex(index) : 0); length > 0; c++) {
+			int start = index - this.offsets[c];
+			int count = Math.min(length, this.views[c].limit() - start);
+			ByteBuffer part = source.duplicate();
+			((Buffer) part).limit(part.position() + count);
+			view(c, start, count).put(part);
+			((Buffer) source).position(source.position() + count);
+			index += count;
+			length -= count;
+		}
+	}
+
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof CompositeDataBuffer)) {
+			return false;
+		}
+		CompositeDataBuffer otherBuffer = (CompositeDataBuffer) other;
+		if (this.readPosition != otherBuffer.readPosition || this.writePosition != otherBuffer.writePosition) {
+			return false;
+		}
+		for (int i = this.readPosition; i < this.writePosition; i++) {
+			if (getByte(i) != otherBuffer.getByte(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hashCode = 1;
+		for (int i = this.readPosition; i < this.writePosition; i++) {
+			hashCode = 31 * hashCode + getByte(i);
+		}
+		return hashCode;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CompositeDataBuffer (r: %d, w: %d, c: %d, components: %d)",
+				this.readPosition, this.writePosition, this.capacity, this.componentCount);
+	}
+
+
+	private void checkIndex(int index, int length) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(length >= 0, "length %d must be >= 0", length);
+		assertIndex(index + length <= this.capacity, "index %d and length %d must be <= %d",
+				index, length, this.capacity);
+	}
+
+	private static void assertIndex(boolean expression, String format, Object... args) {
+		if (!expression) {
+			String message = String.format(format, args);
+			throw new IndexOutOfBoundsException(message);
+		}
+	}
+
+
+	/**
+	 * The component buffers of a composite, and the reference count shared by
+	 * the composite and its slices.
+	 */
+	private static final class Components {
+
+		private final List<DataBuffer> dataBuffers;
+
+		private final AtomicInteger refCount = new AtomicInteger(1);
+
+		Components(List<DataBuffer> dataBuffers) {
+			this.dataBuffers = dataBuffers;
+		}
+
+		void add(DataBuffer dataBuffer) {
+			this.dataBuffers.add(dataBuffer);
+		}
+
+		void retain() {
+			for (;;) {
+				int refCount = this.refCount.get();
+				if (refCount <= 0) {
+					throw new IllegalStateException("DataBuffer has already been released");
+				}
+				if (this.refCount.compareAndSet(refCount, refCount + 1)) {
+					return;
+				}
+			}
+		}
+
+		boolean release() {
+			for (;;) {
+				int refCount = this.refCount.get();
+				if (refCount <= 0) {
+					throw new IllegalStateException("DataBuffer has already been released");
+				}
+				if (this.refCount.compareAndSet(refCount, refCount - 1)) {
+					if (refCount == 1) {
+						this.dataBuffers.forEach(DataBufferUtils::release);
+						return true;
+					}
+					return false;
+				}
+			}
+		}
+	}
+
+
+	private class CompositeDataBufferInputStream extends InputStream {
+
+		private final boolean releaseOnClose;
+
+		private boolean closed;
+
+		CompositeDataBufferInputStream(boolean releaseOnClose) {
+			this.releaseOnClose = releaseOnClose;
+		}
+
+		@Override
+		public int available() {
+			return readableByteCount();
+		}
+
+		@Override
+		public int read() {
+			return available() > 0 ? CompositeDataBuffer.this.read() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) throws IOException {
+			int available = available();
+			if (available > 0) {
+				len = Math.min(len, available);
+				CompositeDataBuffer.this.read(bytes, off, len);
+				return len;
+			}
+			else {
+				return -1;
+			}
+		}
+
+		@Override
+		public void close() {
+			if (this.releaseOnClose && !this.closed) {
+				this.closed = true;
+				release();
+			}
+		}
+	}
+
+
+	private class CompositeDataBufferOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) throws IOException {
+			CompositeDataBuffer.this.write((byte) b);
+		}
+
+		@Override
+		public void write(byte[] bytes, int off, int len) throws IOException {
+			CompositeDataBuffer.this.write(bytes, off, len);
+		}
+	}
+
+}
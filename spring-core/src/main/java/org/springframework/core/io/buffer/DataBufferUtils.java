@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,10 +21,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.StandardOpenOption;
@@ -234,6 +236,39 @@ public abstract class DataBufferUtils {
 				DataBufferUtils::closeChannel);
 	}
 
+	/**
+	 * Obtain a {@code FileChannel} from the given supplier, and map the given region of it
+	 * into a {@code Flux} of memory-mapped {@code DataBuffer}s. Closes the channel when the
+	 * flux is terminated.
+	 * <p>As opposed to {@link #readAsynchronousFileChannel(Callable, long, DataBufferFactory, int)},
+	 * the file contents are not copied into allocated buffers: the returned buffers
+	 * {@linkplain DataBufferFactory#wrap(ByteBuffer) wrap} regions mapped via
+	 * {@link FileChannel#map}. Since mapping a region is more expensive than reading it, and
+	 * mapped regions are only unmapped when garbage collected, this variant is meant for
+	 * large files, with a correspondingly large {@code bufferSize}.
+	 * @param channelSupplier the supplier for the channel to map
+	 * @param position the position to start mapping from
+	 * @param count the maximum number of bytes to map, bounded by the size of the file
+	 * @param dataBufferFactory the factory to wrap the mapped regions with
+	 * @param bufferSize the maximum size of the data buffers, i.e. of each mapped region
+	 * @return a flux of memory-mapped data buffers
+	 * @since 5.0.16
+	 */
+	public static Flux<DataBuffer> readMappedFileChannel(Callable<FileChannel> channelSupplier,
+			long position, long count, DataBufferFactory dataBufferFactory, int bufferSize) {
+
+		Assert.notNull(channelSupplier, "'channelSupplier' must not be null");
+		Assert.notNull(dataBufferFactory, "'dataBufferFactory' must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(count >= 0, "'count' must be >= 0");
+		Assert.isTrue(bufferSize > 0, "'bufferSize' must be > 0");
+
+		return Flux.using(channelSupplier,
+				channel -> Flux.generate(
+						new MappedFileChannelGenerator(channel, position, count, dataBufferFactory, bufferSize)),
+				DataBufferUtils::closeChannel);
+	}
+
 	/**
 	 * Read the given {@code Resource} into a {@code Flux} of {@code DataBuffer}s.
 	 * <p>If the resource is a file, it is read into an
@@ -570,6 +605,48 @@ public abstract class DataBufferUtils {
 	}
 
 
+	private static class MappedFileChannelGenerator implements Consumer<SynchronousSink<DataBuffer>> {
+
+		private final FileChannel channel;
+
+		private final DataBufferFactory dataBufferFactory;
+
+		private final int bufferSize;
+
+		private long position;
+
+		private final long end;
+
+		public MappedFileChannelGenerator(FileChannel channel, long position, long count,
+				DataBufferFactory dataBufferFactory, int bufferSize) {
+
+			this.channel = channel;
+			this.dataBufferFactory = dataBufferFactory;
+			this.bufferSize = bufferSize;
+			this.position = position;
+			this.end = (count > Long.MAX_VALUE - position ? Long.MAX_VALUE : position + count);
+		}
+
+		@Override
+		public void accept(SynchronousSink<DataBuffer> sink) {
+			try {
+				long length = Math.min(Math.min(this.end, this.channel.size()) - this.position, this.bufferSize);
+				if (length > 0) {
+					MappedByteBuffer byteBuffer = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, length);
+					this.position += length;
+					sink.next(this.dataBufferFactory.wrap(byteBuffer));
+				}
+				else {
+					sink.complete();
+				}
+			}
+			catch (IOException ex) {
+				sink.error(ex);
+			}
+		}
+	}
+
+
 	private static class AsynchronousFileChannelReadCompletionHandler
 			implements CompletionHandler<Integer, DataBuffer> {
 
@@ -0,0 +1,674 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Variant of {@link DefaultDataBufferFactory} that recycles the {@link ByteBuffer}s
+ * backing its data buffers, for runtimes that do not use Netty's pooled allocator,
+ * e.g. Servlet containers and Undertow through
+ * {@code ServletHttpHandlerAdapter#setDataBufferFactory} and
+ * {@code UndertowHttpHandlerAdapter#setDataBufferFactory}.
+ *
+ * <p>Buffers allocated by this factory implement {@link PooledDataBuffer}. They
+ * start out with a reference count of 1 and return their memory to the pool once
+ * the count drops to 0 through {@link DataBufferUtils#release(DataBuffer)}.
+ * Requested capacities are rounded up to power-of-two size classes from
+ * {@value #MIN_POOLED_CAPACITY} bytes up to the maximum pooled capacity. Each size class
+ * is served from a small per-thread cache first, then from a bounded queue shared by
+ * all threads. Per-thread caches are additionally bounded by their total capacity.
+ * Larger buffers, and buffers that grow beyond the maximum pooled capacity, are
+ * allocated and dropped as with {@link DefaultDataBufferFactory}.
+ *
+ * <p>Recycled memory is zeroed before it is handed out again, so that the contents
+ * of a released buffer cannot be observed through a subsequent allocation.
+ *
+ * <p>Buffers that are never released are garbage collected and do not exhaust the
+ * pool. To find the code paths responsible for such buffers, turn on
+ * {@linkplain #setLeakDetection leak detection}. It logs a warning with the
+ * allocation stack trace for every buffer that was collected without being released.
+ *
+ * <p><b>Note:</b> once released, a buffer (and any slice of it) must not be
+ * accessed anymore, since its memory may already have been handed out again.
+ * Buffers created through {@link #wrap} are not pooled.
+ *
+ * @since 5.0.16
+ * @see DataBufferUtils#release(DataBuffer)
+ */
+public class PooledDataBufferFactory extends DefaultDataBufferFactory {
+
+	/**
+	 * The capacity of the smallest size class.
+	 */
+	public static final int MIN_POOLED_CAPACITY = 64;
+
+	/**
+	 * The default capacity of the largest size class.
+	 */
+	public static final int DEFAULT_MAX_POOLED_CAPACITY = 64 * 1024;
+
+	/**
+	 * The default number of buffers kept in the shared queue of each size class.
+	 */
+	public static final int DEFAULT_MAX_BUFFERS_PER_SIZE_CLASS = 256;
+
+	/**
+	 * The default number of buffers kept per thread for each size class.
+	 */
+	public static final int DEFAULT_THREAD_LOCAL_CACHE_SIZE = 8;
+
+	/**
+	 * The default total capacity of the buffers kept per thread, in bytes.
+	 */
+	public static final int DEFAULT_MAX_THREAD_LOCAL_CACHE_CAPACITY = 256 * 1024;
+
+
+	private static final Log logger = LogFactory.getLog(PooledDataBufferFactory.class);
+
+
+	private final boolean preferDirect;
+
+	private final int maxPooledCapacity;
+
+	private final SizeClass[] sizeClasses;
+
+	private final int threadLocalCacheSize;
+
+	private final ThreadLocal<ThreadCache> threadCache;
+
+	private final Set<ThreadCache> threadCaches = Collections.synchronizedSet(
+			Collections.newSetFromMap(new WeakHashMap<>()));
+
+	private volatile int maxThreadLocalCacheCapacity = DEFAULT_MAX_THREAD_LOCAL_CACHE_CAPACITY;
+
+	private final LongAdder activeAllocations = new LongAdder();
+
+	private volatile boolean leakDetection;
+
+	private final Set<LeakTracker> leakTrackers = ConcurrentHashMap.newKeySet();
+
+	private final ReferenceQueue<Object> leakQueue = new ReferenceQueue<>();
+
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with default settings,
+	 * pooling heap buffers.
+	 */
+	public PooledDataBufferFactory() {
+		this(false);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory}, indicating whether direct
+	 * buffers should be pooled.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 */
+	public PooledDataBufferFactory(boolean preferDirect) {
+		this(preferDirect, DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_POOLED_CAPACITY,
+				DEFAULT_MAX_BUFFERS_PER_SIZE_CLASS, DEFAULT_THREAD_LOCAL_CACHE_SIZE);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with the given pool settings.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 * @param defaultInitialCapacity the capacity used for {@link #allocateBuffer()}
+	 * @param maxPooledCapacity the capacity of the largest size class, which must be
+	 * a power of two not smaller than {@value #MIN_POOLED_CAPACITY}
+	 * @param maxBuffersPerSizeClass the maximum number of buffers to keep in the
+	 * shared queue of each size class
+	 * @param threadLocalCacheSize the maximum number of buffers to keep per thread
+	 * and size class, or 0 to disable thread-local caching
+	 */
+	public PooledDataBufferFactory(boolean preferDirect, int defaultInitialCapacity,
+			int maxPooledCapacity, int maxBuffersPerSizeClass, int threadLocalCacheSize) {
+
+		super(preferDirect, defaultInitialCapacity);
+		Assert.isTrue(maxPooledCapacity >= MIN_POOLED_CAPACITY && Integer.bitCount(maxPooledCapacity) == 1,
+				"'maxPooledCapacity' must be a power of two >= " + MIN_POOLED_CAPACITY);
+		Assert.isTrue(maxBuffersPerSizeClass >= 0, "'maxBuffersPerSizeClass' must be >= 0");
+		Assert.isTrue(threadLocalCacheSize >= 0, "'threadLocalCacheSize' must be >= 0");
+		this.preferDirect = preferDirect;
+		this.maxPooledCapacity = maxPooledCapacity;
+		this.sizeClasses = new SizeClass[sizeClassIndex(maxPooledCapacity) + 1];
+		for (int i = 0; i < this.sizeClasses.length; i++) {
+			this.sizeClasses[i] = new SizeClass(MIN_POOLED_CAPACITY << i, maxBuffersPerSizeClass);
+		}
+		this.threadLocalCacheSize = threadLocalCacheSize;
+		int sizeClassCount = this.sizeClasses.length;
+		this.threadCache = ThreadLocal.withInitial(() -> {
+			ThreadCache threadCache = new ThreadCache(sizeClassCount, threadLocalCacheSize);
+			this.threadCaches.add(threadCache);
+			return threadCache;
+		});
+	}
+
+
+	/**
+	 * Enable or disable tracking of allocated buffers that are garbage collected
+	 * without having been released, logging a warning with the allocation stack
+	 * trace for each of them.
+	 * <p>Default is {@code false}. Since leak detection captures a stack trace
+	 * per allocation, it is meant for development and testing.
+	 */
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+
+	/**
+	 * Return whether leak detection is enabled.
+	 */
+	public boolean isLeakDetection() {
+		return this.leakDetection;
+	}
+
+	/**
+	 * Set the maximum total capacity of the buffers kept per thread, in bytes,
+	 * across all size classes. Buffers beyond that are returned to the shared
+	 * queues instead.
+	 * <p>Default is {@value #DEFAULT_MAX_THREAD_LOCAL_CACHE_CAPACITY}.
+	 */
+	public void setMaxThreadLocalCacheCapacity(int maxThreadLocalCacheCapacity) {
+		Assert.isTrue(maxThreadLocalCacheCapacity >= 0, "'maxThreadLocalCacheCapacity' must be >= 0");
+		this.maxThreadLocalCacheCapacity = maxThreadLocalCacheCapacity;
+	}
+
+	/**
+	 * Return the maximum total capacity of the buffers kept per thread.
+	 */
+	public int getMaxThreadLocalCacheCapacity() {
+		return this.maxThreadLocalCacheCapacity;
+	}
+
+	/**
+	 * Return the number of buffers allocated by this factory that have not been
+	 * released yet.
+	 */
+	public long getActiveAllocations() {
+		return this.activeAllocations.sum();
+	}
+
+	/**
+	 * Return the number of buffers currently held in the shared queues of all
+	 * size classes, not counting thread-local caches.
+	 */
+	public int getPooledBufferCount() {
+		int count = 0;
+		for (SizeClass sizeClass : this.sizeClasses) {
+			count += sizeClass.size.get();
+		}
+		return count;
+	}
+
+	/**
+	 * Drop all buffers held in the shared queues and in the thread-local caches,
+	 * e.g. after a load peak.
+	 */
+	public void clear() {
+		for (SizeClass sizeClass : this.sizeClasses) {
+			while (sizeClass.poll() != null) {
+				// drop
+			}
+		}
+		synchronized (this.threadCaches) {
+			for (ThreadCache threadCache : this.threadCaches) {
+				threadCache.clear();
+			}
+		}
+	}
+
+
+	@Override
+	public DefaultDataBuffer allocateBuffer(int initialCapacity) {
+		Assert.isTrue(initialCapacity >= 0, "'initialCapacity' must be >= 0");
+		if (this.leakDetection) {
+			reportLeaks();
+		}
+		ByteBuffer chunk = acquire(initialCapacity, this.preferDirect);
+		PooledDefaultDataBuffer dataBuffer = new PooledDefaultDataBuffer(this, chunk, initialCapacity);
+		this.activeAllocations.increment();
+		return dataBuffer;
+	}
+
+	/**
+	 * Obtain a native buffer with at least the given capacity, either from the
+	 * pool or freshly allocated.
+	 */
+	ByteBuffer acquire(int capacity, boolean direct) {
+		if (capacity > this.maxPooledCapacity || direct != this.preferDirect) {
+			return allocateChunk(capacity, direct);
+		}
+		int index = sizeClassIndex(capacity);
+		ByteBuffer chunk = null;
+		if (this.threadLocalCacheSize > 0) {
+			chunk = this.threadCache.get().poll(index);
+		}
+		if (chunk == null) {
+			chunk = this.sizeClasses[index].poll();
+		}
+		if (chunk == null) {
+			return allocateChunk(this.sizeClasses[index].capacity, direct);
+		}
+		wipe(chunk);
+		return chunk;
+	}
+
+	/**
+	 * Return the given native buffer to the pool, unless it does not match any
+	 * size class or the pool for its size class is full.
+	 */
+	void recycle(ByteBuffer chunk) {
+		int capacity = chunk.capacity();
+		if (chunk.isDirect() != this.preferDirect || capacity < MIN_POOLED_CAPACITY ||
+				capacity > this.maxPooledCapacity || Integer.bitCount(capacity) != 1) {
+			return;
+		}
+		int index = sizeClassIndex(capacity);
+		if (this.threadLocalCacheSize > 0 &&
+				this.threadCache.get().offer(index, chunk, this.maxThreadLocalCacheCapacity)) {
+			return;
+		}
+		this.sizeClasses[index].offer(chunk);
+	}
+
+	private void deallocate(PooledDefaultDataBuffer dataBuffer) {
+		this.activeAllocations.decrement();
+		LeakTracker leakTracker = dataBuffer.leakTracker;
+		if (leakTracker != null) {
+			this.leakTrackers.remove(leakTracker);
+			leakTracker.clear();
+		}
+		recycle(dataBuffer.chunk);
+		List<ByteBuffer> retiredChunks = dataBuffer.retiredChunks;
+		if (retiredChunks != null) {
+			for (ByteBuffer retiredChunk : retiredChunks) {
+				recycle(retiredChunk);
+			}
+		}
+	}
+
+	@Nullable
+	private LeakTracker track(PooledDefaultDataBuffer dataBuffer) {
+		if (!this.leakDetection) {
+			return null;
+		}
+		LeakTracker leakTracker = new LeakTracker(dataBuffer, this.leakQueue);
+		this.leakTrackers.add(leakTracker);
+		return leakTracker;
+	}
+
+	private void reportLeaks() {
+		LeakTracker leakTracker;
+		while ((leakTracker = (LeakTracker) this.leakQueue.poll()) != null) {
+			if (this.leakTrackers.remove(leakTracker)) {
+				this.activeAllocations.decrement();
+				logger.warn("DataBuffer was garbage collected without having been released: " +
+						"make sure to call DataBufferUtils.release(DataBuffer) once done with it.",
+						leakTracker.allocationTrace);
+			}
+		}
+	}
+
+
+	@Override
+	public String toString() {
+		return "PooledDataBufferFactory (preferDirect=" + this.preferDirect +
+				", maxPooledCapacity=" + this.maxPooledCapacity + ")";
+	}
+
+
+	private static int sizeClassIndex(int capacity) {
+		if (capacity <= MIN_POOLED_CAPACITY) {
+			return 0;
+		}
+		return (Integer.SIZE - Integer.numberOfLeadingZeros(capacity - 1)) -
+				(Integer.SIZE - Integer.numberOfLeadingZeros(MIN_POOLED_CAPACITY - 1));
+	}
+
+	private static ByteBuffer allocateChunk(int capacity, boolean direct) {
+		return (direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+	}
+
+	/**
+	 * Zero the entire contents of the given recycled native buffer.
+	 */
+	private static void wipe(ByteBuffer chunk) {
+		int capacity = chunk.capacity();
+		if (chunk.hasArray()) {
+			int offset = chunk.arrayOffset();
+			Arrays.fill(chunk.array(), offset, offset + capacity, (byte) 0);
+		}
+		else {
+			// Pooled capacities are powers of two >= MIN_POOLED_CAPACITY
+			for (int i = 0; i < capacity; i += Long.BYTES) {
+				chunk.putLong(i, 0L);
+			}
+		}
+	}
+
+	/**
+	 * Return a view of the given native buffer limited to the given capacity.
+	 */
+	static ByteBuffer view(ByteBuffer chunk, int capacity) {
+		ByteBuffer duplicate = chunk.duplicate();
+		// Explicit access via Buffer base type for compatibility
+		// with covariant return type on JDK 9's ByteBuffer...
+		((Buffer) duplicate).clear().limit(capacity);
+		return duplicate.slice();
+	}
+
+
+	/**
+	 * Shared, bounded queue of native buffers for one size class.
+	 */
+	private static final class SizeClass {
+
+		final int capacity;
+
+		private final int maxSize;
+
+		private final Queue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+
+		final AtomicInteger size = new AtomicInteger();
+
+		SizeClass(int capacity, int maxSize) {
+			this.capacity = capacity;
+			this.maxSize = maxSize;
+		}
+
+		@Nullable
+		ByteBuffer poll() {
+			ByteBuffer chunk = this.queue.poll();
+			if (chunk != null) {
+				this.size.decrementAndGet();
+			}
+			return chunk;
+		}
+
+		void offer(ByteBuffer chunk) {
+			if (this.size.incrementAndGet() <= this.maxSize) {
+				this.queue.offer(chunk);
+			}
+			else {
+				this.size.decrementAndGet();
+			}
+		}
+	}
+
+
+	/**
+	 * Per-thread stacks of native buffers, one per size class.
+	 * <p>Synchronized since {@link #clear()} may be called from other threads,
+	 * which is uncontended otherwise.
+	 */
+	private static final class ThreadCache {
+
+		private final ByteBuffer[][] stacks;
+
+		private final int[] sizes;
+
+		private long totalCapacity;
+
+		ThreadCache(int sizeClassCount, int cacheSize) {
+			this.stacks = new ByteBuffer[sizeClassCount][cacheSize];
+			this.sizes = new int[sizeClassCount];
+		}
+
+		@Nullable
+		synchronized ByteBuffer poll(int index) {
+			int size = this.sizes[index];
+			if (size == 0) {
+				return null;
+			}
+			size--;
+			ByteBuffer chunk = this.stacks[index][size];
+			this.stacks[index][size] = null;
+			this.sizes[index] = size;
+			this.totalCapacity -= chunk.capacity();
+			return chunk;
+		}
+
+		synchronized boolean offer(int index, ByteBuffer chunk, int maxTotalCapacity) {
+			ByteBuffer[] stack = this.stacks[index];
+			int size = this.sizes[index];
+			if (size == stack.length || this.totalCapacity + chunk.capacity() > maxTotalCapacity) {
+				return false;
+			}
+			stack[size] = chunk;
+			this.sizes[index] = size + 1;
+			this.totalCapacity += chunk.capacity();
+			return true;
+		}
+
+		synchronized void clear() {
+			for (int i = 0; i < this.stacks.length; i++) {
+				Arrays.fill(this.stacks[i], null);
+				this.sizes[i] = 0;
+			}
+			this.totalCapacity = 0;
+		}
+	}
+
+
+	/**
+	 * Weak reference to an allocated buffer, capturing its allocation stack trace.
+	 */
+	private static final class LeakTracker extends WeakReference<Object> {
+
+		final Throwable allocationTrace = new Throwable("DataBuffer allocation");
+
+		LeakTracker(Object referent, ReferenceQueue<Object> queue) {
+			super(referent, queue);
+		}
+	}
+
+
+	/**
+	 * Reference-counted {@link DefaultDataBuffer} backed by a pooled native buffer.
+	 */
+	private static final class PooledDefaultDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private static final AtomicIntegerFieldUpdater<PooledDefaultDataBuffer> REF_COUNT_UPDATER =
+				AtomicIntegerFieldUpdater.newUpdater(PooledDefaultDataBuffer.class, "refCount");
+
+		private final PooledDataBufferFactory pool;
+
+		private ByteBuffer chunk;
+
+		@Nullable
+		private ByteBuffer nextChunk;
+
+		/**
+		 * Chunks replaced through {@link #capacity(int)}, which may still be
+		 * referenced by slices and views, hence only recycled on final release.
+		 */
+		@Nullable
+		private List<ByteBuffer> retiredChunks;
+
+		@Nullable
+		private final LeakTracker leakTracker;
+
+		private volatile int refCount = 1;
+
+		PooledDefaultDataBuffer(PooledDataBufferFactory pool, ByteBuffer chunk, int capacity) {
+			super(pool, view(chunk, capacity));
+			this.pool = pool;
+			this.chunk = chunk;
+			this.leakTracker = pool.track(this);
+		}
+
+		@Override
+		ByteBuffer allocate(int capacity, boolean direct) {
+			ByteBuffer chunk = this.pool.acquire(capacity, direct);
+			this.nextChunk = chunk;
+			return view(chunk, capacity);
+		}
+
+		@Override
+		public DefaultDataBuffer capacity(int newCapacity) {
+			super.capacity(newCapacity);
+			ByteBuffer nextChunk = this.nextChunk;
+			if (nextChunk != null) {
+				this.nextChunk = null;
+				if (this.retiredChunks == null) {
+					this.retiredChunks = new ArrayList<>(2);
+				}
+				this.retiredChunks.add(this.chunk);
+				this.chunk = nextChunk;
+			}
+			return this;
+		}
+
+		@Override
+		public DefaultDataBuffer slice(int index, int length) {
+			DefaultDataBuffer slice = super.slice(index, length);
+			return new PooledSlicedDataBuffer(slice.getNativeBuffer(), this, length);
+		}
+
+		@Override
+		public InputStream asInputStream(boolean releaseOnClose) {
+			InputStream inputStream = asInputStream();
+			return (releaseOnClose ? new ReleasingInputStream(inputStream, this) : inputStream);
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			for (;;) {
+				int refCount = this.refCount;
+				if (refCount <= 0) {
+					throw new IllegalStateException("DataBuffer has already been released");
+				}
+				if (REF_COUNT_UPDATER.compareAndSet(this, refCount, refCount + 1)) {
+					return this;
+				}
+			}
+		}
+
+		@Override
+		public boolean release() {
+			for (;;) {
+				int refCount = this.refCount;
+				if (refCount <= 0) {
+					throw new IllegalStateException("DataBuffer has already been released");
+				}
+				if (REF_COUNT_UPDATER.compareAndSet(this, refCount, refCount - 1)) {
+					if (refCount == 1) {
+						this.pool.deallocate(this);
+						return true;
+					}
+					return false;
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return String.format("PooledDataBuffer (r: %d, w: %d, c: %d, refCount: %d)",
+					readPosition(), writePosition(), capacity(), this.refCount);
+		}
+	}
+
+
+	/**
+	 * Slice of a {@link PooledDefaultDataBuffer}, sharing its memory as well as
+	 * its reference count.
+	 */
+	private static final class PooledSlicedDataBuffer extends DefaultDataBuffer.SlicedDefaultDataBuffer
+			implements PooledDataBuffer {
+
+		private final PooledDefaultDataBuffer parent;
+
+		PooledSlicedDataBuffer(ByteBuffer byteBuffer, PooledDefaultDataBuffer parent, int length) {
+			super(byteBuffer, parent.factory(), length);
+			this.parent = parent;
+		}
+
+		@Override
+		public DefaultDataBuffer slice(int index, int length) {
+			DefaultDataBuffer slice = super.slice(index, length);
+			return new PooledSlicedDataBuffer(slice.getNativeBuffer(), this.parent, length);
+		}
+
+		@Override
+		public InputStream asInputStream(boolean releaseOnClose) {
+			InputStream inputStream = asInputStream();
+			return (releaseOnClose ? new ReleasingInputStream(inputStream, this) : inputStream);
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			this.parent.retain();
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return this.parent.release();
+		}
+	}
+
+
+	/**
+	 * {@code InputStream} that releases the underlying buffer when closed.
+	 */
+	private static final class ReleasingInputStream extends FilterInputStream {
+
+		private final PooledDataBuffer dataBuffer;
+
+		private boolean closed;
+
+		ReleasingInputStream(InputStream inputStream, PooledDataBuffer dataBuffer) {
+			super(inputStream);
+			this.dataBuffer = dataBuffer;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.closed) {
+				this.closed = true;
+				this.dataBuffer.release();
+			}
+		}
+	}
+
+}
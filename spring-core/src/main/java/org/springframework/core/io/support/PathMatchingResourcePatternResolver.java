@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,18 +27,25 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLConnection;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.stream.IntStream;
 import java.util.zip.ZipException;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.core.SpringProperties;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
@@ -168,6 +175,17 @@ import org.springframework.util.StringUtils;
  * Ant-style pattern in such a case, which will search <i>all</i> class path
  * locations that contain the root package.
  *
+ * <p><b>Jar entry index:</b>
+ *
+ * <p>The names of the entries in a jar file are indexed in sorted order the
+ * first time the jar file is traversed, so that further patterns against the
+ * same jar file only look up the entries below their root directory instead
+ * of walking the entire jar file again. The index is held per resolver
+ * (i.e. per application context) until {@link #clearCache()} is called, or
+ * shared across the JVM if the {@link #SHARED_JAR_ENTRY_INDEX_PROPERTY_NAME}
+ * property is set to "true". Indexed jar files are checked for modifications
+ * through their size and last-modified timestamp.
+ *
  * @author Juergen Hoeller
  * @author Colin Sampaleanu
  * @author Marius Bogoevici
@@ -181,8 +199,19 @@ import org.springframework.util.StringUtils;
  */
 public class PathMatchingResourcePatternResolver implements ResourcePatternResolver {
 
+	/**
+	 * System property that instructs Spring to share the jar entry index
+	 * across all resolvers in the JVM: "spring.core.io.jar-entry-index.shared".
+	 * <p>The default is "false", keeping the index per resolver instance.
+	 * @since 5.0.16
+	 * @see #setCacheJarEntries
+	 */
+	public static final String SHARED_JAR_ENTRY_INDEX_PROPERTY_NAME = "spring.core.io.jar-entry-index.shared";
+
 	private static final Log logger = LogFactory.getLog(PathMatchingResourcePatternResolver.class);
 
+	private static final Map<String, JarEntryIndex> sharedJarEntryIndexCache = new ConcurrentHashMap<>(64);
+
 	@Nullable
 	private static Method equinoxResolveMethod;
 
@@ -204,6 +233,11 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 
 	private PathMatcher pathMatcher = new AntPathMatcher();
 
+	@Nullable
+	private Map<String, JarEntryIndex> jarEntryIndexCache =
+			(SpringProperties.getFlag(SHARED_JAR_ENTRY_INDEX_PROPERTY_NAME) ?
+					sharedJarEntryIndexCache : new ConcurrentHashMap<>(16));
+
 
 	/**
 	 * Create a new PathMatchingResourcePatternResolver with a DefaultResourceLoader.
@@ -267,6 +301,46 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Specify whether to keep an index of the entries of each traversed jar
+	 * file, turning further pattern resolutions against the same jar file
+	 * into prefix lookups. Default is "true".
+	 * <p>Switch this flag off to walk the jar file entries for every pattern.
+	 * @since 5.0.16
+	 * @see #SHARED_JAR_ENTRY_INDEX_PROPERTY_NAME
+	 * @see #clearCache()
+	 */
+	public void setCacheJarEntries(boolean cacheJarEntries) {
+		if (!cacheJarEntries) {
+			this.jarEntryIndexCache = null;
+		}
+		else if (this.jarEntryIndexCache == null) {
+			this.jarEntryIndexCache = (SpringProperties.getFlag(SHARED_JAR_ENTRY_INDEX_PROPERTY_NAME) ?
+					sharedJarEntryIndexCache : new ConcurrentHashMap<>(16));
+		}
+	}
+
+	/**
+	 * Return whether an index of jar file entries is kept.
+	 * @since 5.0.16
+	 */
+	public boolean isCacheJarEntries() {
+		return (this.jarEntryIndexCache != null);
+	}
+
+	/**
+	 * Clear the jar entry index held by this resolver, if any.
+	 * <p>A JVM-wide index shared through {@link #SHARED_JAR_ENTRY_INDEX_PROPERTY_NAME}
+	 * is not affected by this method.
+	 * @since 5.0.16
+	 */
+	public void clearCache() {
+		Map<String, JarEntryIndex> cache = this.jarEntryIndexCache;
+		if (cache != null && cache != sharedJarEntryIndexCache) {
+			cache.clear();
+		}
+	}
+
 
 	@Override
 	public Resource getResource(String location) {
@@ -643,6 +717,16 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 				rootEntryPath = rootEntryPath + "/";
 			}
 			Set<Resource> result = new LinkedHashSet<>(8);
+			Map<String, JarEntryIndex> cache = this.jarEntryIndexCache;
+			if (cache != null) {
+				for (String entryPath : getJarEntryIndex(cache, jarFile, jarFileUrl).getEntryPaths(rootEntryPath)) {
+					String relativePath = entryPath.substring(rootEntryPath.length());
+					if (getPathMatcher().match(subPattern, relativePath)) {
+						result.add(rootDirResource.createRelative(relativePath));
+					}
+				}
+				return result;
+			}
 			for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
 				JarEntry entry = entries.nextElement();
 				String entryPath = entry.getName();
@@ -662,6 +746,22 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		}
 	}
 
+	/**
+	 * Return the entry index for the given jar file, building it on first access
+	 * or if the jar file has been modified since.
+	 */
+	private JarEntryIndex getJarEntryIndex(Map<String, JarEntryIndex> cache, JarFile jarFile, String jarFileUrl) {
+		File file = new File(jarFile.getName());
+		long length = file.length();
+		long lastModified = file.lastModified();
+		JarEntryIndex index = cache.get(jarFileUrl);
+		if (index == null || index.length != length || index.lastModified != lastModified) {
+			index = new JarEntryIndex(jarFile, length, lastModified);
+			cache.put(jarFileUrl, index);
+		}
+		return index;
+	}
+
 	/**
 	 * Resolve the given jar file URL into a JarFile object.
 	 */
@@ -818,6 +918,65 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 	}
 
 
+	/**
+	 * Sorted entry names of a jar file, allowing for prefix lookups.
+	 */
+	private static final class JarEntryIndex {
+
+		/** Entry paths in the order of the jar file */
+		private final String[] entryPaths;
+
+		/** Indexes into {@link #entryPaths}, sorted by entry path */
+		private final int[] sortedIndexes;
+
+		final long length;
+
+		final long lastModified;
+
+		JarEntryIndex(JarFile jarFile, long length, long lastModified) {
+			List<String> entryPaths = new ArrayList<>(jarFile.size());
+			for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+				entryPaths.add(entries.nextElement().getName());
+			}
+			this.entryPaths = StringUtils.toStringArray(entryPaths);
+			this.sortedIndexes = IntStream.range(0, this.entryPaths.length).boxed()
+					.sorted(Comparator.comparing(i -> this.entryPaths[i]))
+					.mapToInt(Integer::intValue).toArray();
+			this.length = length;
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * Return the entry paths that start with the given prefix,
+		 * in the order of the jar file.
+		 */
+		public List<String> getEntryPaths(String prefix) {
+			int low = 0;
+			int high = this.sortedIndexes.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (this.entryPaths[this.sortedIndexes[mid]].compareTo(prefix) < 0) {
+					low = mid + 1;
+				}
+				else {
+					high = mid;
+				}
+			}
+			int end = low;
+			while (end < this.sortedIndexes.length && this.entryPaths[this.sortedIndexes[end]].startsWith(prefix)) {
+				end++;
+			}
+			int[] matches = Arrays.copyOfRange(this.sortedIndexes, low, end);
+			Arrays.sort(matches);
+			List<String> result = new ArrayList<>(matches.length);
+			for (int index : matches) {
+				result.add(this.entryPaths[index]);
+			}
+			return result;
+		}
+	}
+
+
 	/**
 	 * Inner delegate class, avoiding a hard JBoss VFS API dependency at runtime.
 	 */
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ApplicationStartup} implementation that buffers {@link StartupStep steps}
+ * in memory once they have ended, up to a given capacity.
+ *
+ * <p>Recorded steps can be retrieved as a timeline through {@link #getBufferedSteps()},
+ * each step represented as a {@code Map} of JDK types so that it can also be
+ * consumed by remote JMX clients,
+ * or as a report in "folded stacks" format through {@link #writeFoldedStacks(Writer)},
+ * i.e. one line per distinct stack of nested steps followed by the time spent in
+ * the innermost step itself, in microseconds. That format is directly consumable
+ * by common flame graph tools.
+ *
+ * <p>Instances can also be exported as a JMX MBean, e.g. through Spring's
+ * {@code MBeanExporter}, exposing the report as its {@code FoldedStacks} attribute
+ * next to the {@code BufferedStepCount} and {@code DroppedStepCount} attributes.
+ *
+ * @since 5.0.16
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+
+	private final int capacity;
+
+	private final long startTime = System.nanoTime();
+
+	private final AtomicLong idGenerator = new AtomicLong();
+
+	private final ThreadLocal<BufferedStartupStep> currentStep =
+			new NamedThreadLocal<>("Current startup step");
+
+	private final Queue<BufferedStartupStep> bufferedSteps = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger bufferedStepCount = new AtomicInteger();
+
+	private final AtomicLong droppedStepCount = new AtomicLong();
+
+
+	/**
+	 * Create a new buffered {@link ApplicationStartup} with a limited capacity.
+	 * @param capacity the maximum number of ended steps to buffer
+	 */
+	public BufferingApplicationStartup(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.capacity = capacity;
+	}
+
+
+	@Override
+	public StartupStep start(String name) {
+		BufferedStartupStep parent = this.currentStep.get();
+		BufferedStartupStep step = new BufferedStartupStep(
+				this.idGenerator.incrementAndGet(), name, parent, System.nanoTime() - this.startTime);
+		this.currentStep.set(step);
+		return step;
+	}
+
+	private void record(BufferedStartupStep step) {
+		// Restore the parent as current step, also if nested steps have not been ended
+		for (BufferedStartupStep current = this.currentStep.get(); current != null; current = current.parent) {
+			if (current == step) {
+				if (step.parent != null) {
+					this.currentStep.set(step.parent);
+				}
+				else {
+					this.currentStep.remove();
+				}
+				break;
+			}
+		}
+		if (this.bufferedStepCount.incrementAndGet() <= this.capacity) {
+			this.bufferedSteps.add(step);
+		}
+		else {
+			this.bufferedStepCount.decrementAndGet();
+			this.droppedStepCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Return the maximum number of ended steps to buffer.
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Return the number of steps currently buffered.
+	 */
+	public int getBufferedStepCount() {
+		return this.bufferedStepCount.get();
+	}
+
+	/**
+	 * Return the number of ended steps that have not been buffered
+	 * since the capacity had been reached.
+	 */
+	public long getDroppedStepCount() {
+		return this.droppedStepCount.get();
+	}
+
+	/**
+	 * Return a snapshot of the buffered steps, in the order of their end.
+	 * <p>Each step is represented as a {@code Map} with the following entries:
+	 * <ul>
+	 * <li>"id": the {@code Long} id of the step</li>
+	 * <li>"parentId": the {@code Long} id of the parent step, or {@code null}</li>
+	 * <li>"name": the {@code String} name of the step</li>
+	 * <li>"tags": a {@code Map} of {@code String} tags, in the order they have been added</li>
+	 * <li>"startTime": the {@code Long} start time in nanoseconds, relative to the
+	 * creation of this {@code BufferingApplicationStartup}</li>
+	 * <li>"duration": the {@code Long} time spent in the step in nanoseconds,
+	 * including nested steps</li>
+	 * </ul>
+	 */
+	public List<Map<String, Object>> getBufferedSteps() {
+		List<Map<String, Object>> steps = new ArrayList<>(this.bufferedSteps.size());
+		for (BufferedStartupStep step : this.bufferedSteps) {
+			steps.add(step.toMap());
+		}
+		return steps;
+	}
+
+	/**
+	 * Remove all buffered steps, e.g. in order to record a subsequent phase.
+	 */
+	public void clear() {
+		this.bufferedSteps.clear();
+		this.bufferedStepCount.set(0);
+		this.droppedStepCount.set(0);
+	}
+
+	/**
+	 * Write the buffered steps to the given {@code Writer} in "folded stacks"
+	 * format: one line per distinct stack of nested steps, with its frames
+	 * separated by ';', followed by a space and the time spent in the innermost
+	 * step itself (i.e. excluding nested steps) in microseconds.
+	 * @param writer the {@code Writer} to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeFoldedStacks(Writer writer) throws IOException {
+		List<BufferedStartupStep> steps = new ArrayList<>(this.bufferedSteps);
+		Map<Long, Long> nestedNanos = new HashMap<>(steps.size());
+		for (BufferedStartupStep step : steps) {
+			if (step.parent != null) {
+				nestedNanos.merge(step.parent.id, step.durationNanos, Long::sum);
+			}
+		}
+		Map<String, Long> stacks = new LinkedHashMap<>();
+		for (BufferedStartupStep step : steps) {
+			long selfNanos = step.durationNanos - nestedNanos.getOrDefault(step.id, 0L);
+			stacks.merge(getStack(step), Math.max(selfNanos, 0L), Long::sum);
+		}
+		for (Map.Entry<String, Long> entry : stacks.entrySet()) {
+			writer.write(entry.getKey());
+			writer.write(' ');
+			writer.write(Long.toString(entry.getValue() / 1000));
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Return the buffered steps in "folded stacks" format.
+	 * @see #writeFoldedStacks(Writer)
+	 */
+	public String getFoldedStacks() {
+		StringWriter writer = new StringWriter();
+		try {
+			writeFoldedStacks(writer);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return writer.toString();
+	}
+
+	private static String getStack(BufferedStartupStep step) {
+		LinkedList<String> frames = new LinkedList<>();
+		for (BufferedStartupStep current = step; current != null; current = current.parent) {
+			frames.addFirst(current.getFrame());
+		}
+		return String.join(";", frames);
+	}
+
+
+	/**
+	 * {@link StartupStep} recorded by a {@link BufferingApplicationStartup}.
+	 */
+	private final class BufferedStartupStep implements StartupStep {
+
+		private final long id;
+
+		private final String name;
+
+		@Nullable
+		private final BufferedStartupStep parent;
+
+		private final long startNanos;
+
+		private final Map<String, String> tags = new LinkedHashMap<>(4);
+
+		private volatile long durationNanos = -1;
+
+		BufferedStartupStep(long id, String name, @Nullable BufferedStartupStep parent, long startNanos) {
+			this.id = id;
+			this.name = name;
+			this.parent = parent;
+			this.startNanos = startNanos;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public long getId() {
+			return this.id;
+		}
+
+		@Override
+		@Nullable
+		public Long getParentId() {
+			return (this.parent != null ? this.parent.id : null);
+		}
+
+		@Override
+		public StartupStep tag(String key, String value) {
+			Assert.state(this.durationNanos < 0, "StartupStep has already ended");
+			this.tags.put(key, value);
+			return this;
+		}
+
+		@Override
+		public StartupStep tag(String key, Supplier<String> value) {
+			return tag(key, value.get());
+		}
+
+		@Override
+		public void end() {
+			Assert.state(this.durationNanos < 0, "StartupStep has already ended");
+			this.durationNanos = System.nanoTime() - BufferingApplicationStartup.this.startTime - this.startNanos;
+			BufferingApplicationStartup.this.record(this);
+		}
+
+		Map<String, Object> toMap() {
+			Map<String, Object> map = new LinkedHashMap<>(8);
+			map.put("id", this.id);
+			map.put("parentId", getParentId());
+			map.put("name", this.name);
+			map.put("tags", new LinkedHashMap<>(this.tags));
+			map.put("startTime", this.startNanos);
+			map.put("duration", this.durationNanos);
+			return map;
+		}
+
+		private String getFrame() {
+			if (this.tags.isEmpty()) {
+				return sanitize(this.name);
+			}
+			StringBuilder sb = new StringBuilder(sanitize(this.name)).append('[');
+			for (Map.Entry<String, String> tag : this.tags.entrySet()) {
+				if (sb.charAt(sb.length() - 1) != '[') {
+					sb.append(',');
+				}
+				sb.append(sanitize(tag.getKey())).append('=').append(sanitize(tag.getValue()));
+			}
+			return sb.append(']').toString();
+		}
+
+		private String sanitize(String value) {
+			return value.replace(';', '_').replace(' ', '_').replace('\n', '_');
+		}
+
+		@Override
+		public String toString() {
+			long durationNanos = this.durationNanos;
+			return this.name + this.tags + " (" + (durationNanos >= 0 ? Duration.ofNanos(durationNanos) : null) + ")";
+		}
+	}
+
+}
@@ -0,0 +1,603 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+
+/**
+ * Records the ASM visitor calls that are relevant for class and annotation
+ * metadata into a compact binary form, and replays them to another visitor
+ * later on, without having to read the class file again.
+ *
+ * <p>Only the class declaration, enclosing and inner classes, annotations
+ * and annotated methods are recorded; fields, method bodies and debug
+ * information are not relevant for {@link AnnotationMetadataReadingVisitor}.
+ *
+ * <p>Package-visible in order to allow for repackaging the ASM library
+ * without effect on users of the {@code core.type} package.
+ *
+ * @since 5.0.16
+ * @see PersistentMetadataReaderFactory
+ */
+final class MetadataRecorder {
+
+	private static final byte END = 0;
+
+	private static final byte CLASS = 1;
+
+	private static final byte OUTER_CLASS = 2;
+
+	private static final byte INNER_CLASS = 3;
+
+	private static final byte ANNOTATION = 4;
+
+	private static final byte METHOD = 5;
+
+	private static final byte METHOD_END = 6;
+
+	private static final byte VALUE = 10;
+
+	private static final byte ENUM = 11;
+
+	private static final byte NESTED_ANNOTATION = 12;
+
+	private static final byte ARRAY = 13;
+
+	private static final byte ANNOTATION_END = 14;
+
+	private static final AnnotationVisitor EMPTY_ANNOTATION_VISITOR =
+			new AnnotationVisitor(SpringAsmInfo.ASM_VERSION) {};
+
+
+	private MetadataRecorder() {
+	}
+
+
+	/**
+	 * Read the given class with the given visitor, recording the calls.
+	 * @param classReader the reader for the class file
+	 * @param classVisitor the visitor to notify while reading
+	 * @return the recorded calls
+	 */
+	static byte[] record(ClassReader classReader, ClassVisitor classVisitor) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+		DataOutputStream out = new DataOutputStream(bytes);
+		classReader.accept(new RecordingClassVisitor(classVisitor, out), ClassReader.SKIP_DEBUG);
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Replay recorded calls to the given visitor.
+	 * @param data the recorded calls, as returned from {@link #record}
+	 * @param classVisitor the visitor to notify
+	 * @throws IOException if the recorded data is not readable
+	 */
+	static void replay(byte[] data, ClassVisitor classVisitor) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		MethodVisitor methodVisitor = null;
+		while (true) {
+			byte event = in.readByte();
+			switch (event) {
+				case CLASS:
+					int version = in.readInt();
+					int access = in.readInt();
+					String name = in.readUTF();
+					String superName = readNullableString(in);
+					String[] interfaces = new String[in.readUnsignedShort()];
+					for (int i = 0; i < interfaces.length; i++) {
+						interfaces[i] = in.readUTF();
+					}
+					classVisitor.visit(version, access, name, null, superName, interfaces);
+					break;
+				case OUTER_CLASS:
+					classVisitor.visitOuterClass(in.readUTF(), readNullableString(in), readNullableString(in));
+					break;
+				case INNER_CLASS:
+					classVisitor.visitInnerClass(
+							in.readUTF(), readNullableString(in), readNullableString(in), in.readInt());
+					break;
+				case ANNOTATION:
+					String desc = in.readUTF();
+					boolean visible = in.readBoolean();
+					AnnotationVisitor annotationVisitor = (methodVisitor != null ?
+							methodVisitor.visitAnnotation(desc, visible) : classVisitor.visitAnnotation(desc, visible));
+					replayAnnotation(in, annotationVisitor);
+					break;
+				case METHOD:
+					int methodAccess = in.readInt();
+					methodVisitor = classVisitor.visitMethod(methodAccess, in.readUTF(), in.readUTF(), null, null);
+					if (methodVisitor == null) {
+						methodVisitor = new MethodVisitor(SpringAsmInfo.ASM_VERSION) {};
+					}
+					break;
+				case METHOD_END:
+					if (methodVisitor != null) {
+						methodVisitor.visitEnd();
+						methodVisitor = null;
+					}
+					break;
+				case END:
+					classVisitor.visitEnd();
+					return;
+				default:
+					throw new IOException("Unexpected event in recorded class metadata: " + event);
+			}
+		}
+	}
+
+	private static void replayAnnotation(DataInputStream in, @Nullable AnnotationVisitor annotationVisitor)
+			throws IOException {
+
+		AnnotationVisitor visitor = (annotationVisitor != null ? annotationVisitor : EMPTY_ANNOTATION_VISITOR);
+		while (true) {
+			byte event = in.readByte();
+			switch (event) {
+				case VALUE:
+					visitor.visit(readNullableString(in), readValue(in));
+					break;
+				case ENUM:
+					visitor.visitEnum(readNullableString(in), in.readUTF(), in.readUTF());
+					break;
+				case NESTED_ANNOTATION:
+					String name = readNullableString(in);
+					replayAnnotation(in, visitor.visitAnnotation(name, in.readUTF()));
+					break;
+				case ARRAY:
+					replayAnnotation(in, visitor.visitArray(readNullableString(in)));
+					break;
+				case ANNOTATION_END:
+					visitor.visitEnd();
+					return;
+				default:
+					throw new IOException("Unexpected event in recorded annotation metadata: " + event);
+			}
+		}
+	}
+
+	private static Object readValue(DataInputStream in) throws IOException {
+		char tag = (char) in.readByte();
+		switch (tag) {
+			case 'Z': return in.readBoolean();
+			case 'B': return in.readByte();
+			case 'C': return in.readChar();
+			case 'S': return in.readShort();
+			case 'I': return in.readInt();
+			case 'J': return in.readLong();
+			case 'F': return in.readFloat();
+			case 'D': return in.readDouble();
+			case 's': return in.readUTF();
+			case 'T': return Type.getType(in.readUTF());
+			case '[': return readArray(in);
+			default: throw new IOException("Unexpected value tag in recorded annotation metadata: " + tag);
+		}
+	}
+
+	private static Object readArray(DataInputStream in) throws IOException {
+		char tag = (char) in.readByte();
+		int length = in.readInt();
+		switch (tag) {
+			case 'Z':
+				boolean[] booleans = new boolean[length];
+				for (int i = 0; i < length; i++) {
+					booleans[i] = in.readBoolean();
+				}
+				return booleans;
+			case 'B':
+				byte[] bytes = new byte[length];
+				in.readFully(bytes);
+				return bytes;
+			case 'C':
+				char[] chars = new char[length];
+				for (int i = 0; i < length; i++) {
+					chars[i] = in.readChar();
+				}
+				return chars;
+			case 'S':
+				short[] shorts = new short[length];
+				for (int i = 0; i < length; i++) {
+					shorts[i] = in.readShort();
+				}
+				return shorts;
+			case 'I':
+				int[] ints = new int[length];
+				for (int i = 0; i < length; i++) {
+					ints[i] = in.readInt();
+				}
+				return ints;
+			case 'J':
+				long[] longs = new long[length];
+				for (int i = 0; i < length; i++) {
+					longs[i] = in.readLong();
+				}
+				return longs;
+			case 'F':
+				float[] floats = new float[length];
+				for (int i = 0; i < length; i++) {
+					floats[i] = in.readFloat();
+				}
+				return floats;
+			case 'D':
+				double[] doubles = new double[length];
+				for (int i = 0; i < length; i++) {
+					doubles[i] = in.readDouble();
+				}
+				return doubles;
+			default:
+				throw new IOException("Unexpected array tag in recorded annotation metadata: " + tag);
+		}
+	}
+
+	@Nullable
+	private static String readNullableString(DataInputStream in) throws IOException {
+		return (in.readBoolean() ? in.readUTF() : null);
+	}
+
+
+	/**
+	 * Writes recorded events, rethrowing {@link IOException IOExceptions}
+	 * as unchecked since the visitor callbacks cannot declare them.
+	 */
+	private static class EventWriter {
+
+		private final DataOutputStream out;
+
+		EventWriter(DataOutputStream out) {
+			this.out = out;
+		}
+
+		void writeByte(int value) {
+			try {
+				this.out.writeByte(value);
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		void writeInt(int value) {
+			try {
+				this.out.writeInt(value);
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		void writeString(String value) {
+			try {
+				this.out.writeUTF(value);
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		void writeNullableString(@Nullable String value) {
+			writeByte(value != null ? 1 : 0);
+			if (value != null) {
+				writeString(value);
+			}
+		}
+
+		void writeValue(Object value) {
+			try {
+				if (value instanceof Boolean) {
+					this.out.writeByte('Z');
+					this.out.writeBoolean((Boolean) value);
+				}
+				else if (value instanceof Byte) {
+					this.out.writeByte('B');
+					this.out.writeByte((Byte) value);
+				}
+				else if (value instanceof Character) {
+					this.out.writeByte('C');
+					this.out.writeChar((Character) value);
+				}
+				else if (value instanceof Short) {
+					this.out.writeByte('S');
+					this.out.writeShort((Short) value);
+				}
+				else if (value instanceof Integer) {
+					this.out.writeByte('I');
+					this.out.writeInt((Integer) value);
+				}
+				else if (value instanceof Long) {
+					this.out.writeByte('J');
+					this.out.writeLong((Long) value);
+				}
+				else if (value instanceof Float) {
+					this.out.writeByte('F');
+					this.out.writeFloat((Float) value);
+				}
+				else if (value instanceof Double) {
+					this.out.writeByte('D');
+					this.out.writeDouble((Double) value);
+				}
+				else if (value instanceof String) {
+					this.out.writeByte('s');
+					this.out.writeUTF((String) value);
+				}
+				else if (value instanceof Type) {
+					this.out.writeByte('T');
+					this.out.writeUTF(((Type) value).getDescriptor());
+				}
+				else {
+					writeArray(value);
+				}
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		private void writeArray(Object value) throws IOException {
+			this.out.writeByte('[');
+			if (value instanceof boolean[]) {
+				boolean[] booleans = (boolean[]) value;
+				this.out.writeByte('Z');
+				this.out.writeInt(booleans.length);
+				for (boolean element : booleans) {
+					this.out.writeBoolean(element);
+				}
+			}
+			else if (value instanceof byte[]) {
+				byte[] bytes = (byte[]) value;
+				this.out.writeByte('B');
+				this.out.writeInt(bytes.length);
+				this.out.write(bytes);
+			}
+			else if (value instanceof char[]) {
+				char[] chars = (char[]) value;
+				this.out.writeByte('C');
+				this.out.writeInt(chars.length);
+				for (char element : chars) {
+					this.out.writeChar(element);
+				}
+			}
+			else if (value instanceof short[]) {
+				short[] shorts = (short[]) value;
+				this.out.writeByte('S');
+				this.out.writeInt(shorts.length);
+				for (short element : shorts) {
+					this.out.writeShort(element);
+				}
+			}
+			else if (value instanceof int[]) {
+				int[] ints = (int[]) value;
+				this.out.writeByte('I');
+				this.out.writeInt(ints.length);
+				for (int element : ints) {
+					this.out.writeInt(element);
+				}
+			}
+			else if (value instanceof long[]) {
+				long[] longs = (long[]) value;
+				this.out.writeByte('J');
+				this.out.writeInt(longs.length);
+				for (long element : longs) {
+					this.out.writeLong(element);
+				}
+			}
+			else if (value instanceof float[]) {
+				float[] floats = (float[]) value;
+				this.out.writeByte('F');
+				this.out.writeInt(floats.length);
+				for (float element : floats) {
+					this.out.writeFloat(element);
+				}
+			}
+			else if (value instanceof double[]) {
+				double[] doubles = (double[]) value;
+				this.out.writeByte('D');
+				this.out.writeInt(doubles.length);
+				for (double element : doubles) {
+					this.out.writeDouble(element);
+				}
+			}
+			else {
+				throw new IllegalArgumentException("Unsupported annotation value: " + value);
+			}
+		}
+	}
+
+
+	private static class RecordingClassVisitor extends ClassVisitor {
+
+		private final EventWriter writer;
+
+		RecordingClassVisitor(ClassVisitor classVisitor, DataOutputStream out) {
+			super(SpringAsmInfo.ASM_VERSION, classVisitor);
+			this.writer = new EventWriter(out);
+		}
+
+		@Override
+		public void visit(int version, int access, String name, String signature,
+				@Nullable String superName, @Nullable String[] interfaces) {
+
+			this.writer.writeByte(CLASS);
+			this.writer.writeInt(version);
+			this.writer.writeInt(access);
+			this.writer.writeString(name);
+			this.writer.writeNullableString(superName);
+			String[] interfacesToWrite = (interfaces != null ? interfaces : new String[0]);
+			this.writer.writeByte(interfacesToWrite.length >> 8);
+			this.writer.writeByte(interfacesToWrite.length);
+			for (String ifc : interfacesToWrite) {
+				this.writer.writeString(ifc);
+			}
+			super.visit(version, access, name, signature, superName, interfacesToWrite);
+		}
+
+		@Override
+		public void visitOuterClass(String owner, @Nullable String name, @Nullable String desc) {
+			this.writer.writeByte(OUTER_CLASS);
+			this.writer.writeString(owner);
+			this.writer.writeNullableString(name);
+			this.writer.writeNullableString(desc);
+			super.visitOuterClass(owner, name, desc);
+		}
+
+		@Override
+		public void visitInnerClass(String name, @Nullable String outerName, @Nullable String innerName, int access) {
+			this.writer.writeByte(INNER_CLASS);
+			this.writer.writeString(name);
+			this.writer.writeNullableString(outerName);
+			this.writer.writeNullableString(innerName);
+			this.writer.writeInt(access);
+			super.visitInnerClass(name, outerName, innerName, access);
+		}
+
+		@Override
+		public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+			this.writer.writeByte(ANNOTATION);
+			this.writer.writeString(desc);
+			this.writer.writeByte(visible ? 1 : 0);
+			return new RecordingAnnotationVisitor(super.visitAnnotation(desc, visible), this.writer);
+		}
+
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+			MethodVisitor methodVisitor = super.visitMethod(access, name, desc, signature, exceptions);
+			if ((access & Opcodes.ACC_BRIDGE) != 0) {
+				// Not exposed as method metadata
+				return methodVisitor;
+			}
+			return new RecordingMethodVisitor(methodVisitor, this.writer, access, name, desc);
+		}
+
+		@Override
+		public void visitEnd() {
+			this.writer.writeByte(END);
+			super.visitEnd();
+		}
+	}
+
+
+	/**
+	 * Records a method only once it turns out to be annotated, since methods
+	 * without annotations do not contribute any metadata.
+	 */
+	private static class RecordingMethodVisitor extends MethodVisitor {
+
+		private final EventWriter writer;
+
+		private final int access;
+
+		private final String name;
+
+		private final String desc;
+
+		private boolean recorded;
+
+		RecordingMethodVisitor(@Nullable MethodVisitor methodVisitor, EventWriter writer,
+				int access, String name, String desc) {
+
+			super(SpringAsmInfo.ASM_VERSION, methodVisitor);
+			this.writer = writer;
+			this.access = access;
+			this.name = name;
+			this.desc = desc;
+		}
+
+		@Override
+		public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+			if (!this.recorded) {
+				this.writer.writeByte(METHOD);
+				this.writer.writeInt(this.access);
+				this.writer.writeString(this.name);
+				this.writer.writeString(this.desc);
+				this.recorded = true;
+			}
+			this.writer.writeByte(ANNOTATION);
+			this.writer.writeString(desc);
+			this.writer.writeByte(visible ? 1 : 0);
+			return new RecordingAnnotationVisitor(super.visitAnnotation(desc, visible), this.writer);
+		}
+
+		@Override
+		public void visitEnd() {
+			if (this.recorded) {
+				this.writer.writeByte(METHOD_END);
+			}
+			super.visitEnd();
+		}
+	}
+
+
+	private static class RecordingAnnotationVisitor extends AnnotationVisitor {
+
+		private final EventWriter writer;
+
+		RecordingAnnotationVisitor(@Nullable AnnotationVisitor annotationVisitor, EventWriter writer) {
+			super(SpringAsmInfo.ASM_VERSION, annotationVisitor);
+			this.writer = writer;
+		}
+
+		@Override
+		public void visit(String name, Object value) {
+			this.writer.writeByte(VALUE);
+			this.writer.writeNullableString(name);
+			this.writer.writeValue(value);
+			super.visit(name, value);
+		}
+
+		@Override
+		public void visitEnum(String name, String desc, String value) {
+			this.writer.writeByte(ENUM);
+			this.writer.writeNullableString(name);
+			this.writer.writeString(desc);
+			this.writer.writeString(value);
+			super.visitEnum(name, desc, value);
+		}
+
+		@Override
+		public AnnotationVisitor visitAnnotation(String name, String desc) {
+			this.writer.writeByte(NESTED_ANNOTATION);
+			this.writer.writeNullableString(name);
+			this.writer.writeString(desc);
+			return new RecordingAnnotationVisitor(super.visitAnnotation(name, desc), this.writer);
+		}
+
+		@Override
+		public AnnotationVisitor visitArray(String name) {
+			this.writer.writeByte(ARRAY);
+			this.writer.writeNullableString(name);
+			return new RecordingAnnotationVisitor(super.visitArray(name), this.writer);
+		}
+
+		@Override
+		public void visitEnd() {
+			this.writer.writeByte(ANNOTATION_END);
+			super.visitEnd();
+		}
+	}
+
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassReader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ResourceUtils;
+
+/**
+ * {@link CachingMetadataReaderFactory} that additionally keeps the metadata of
+ * the classes it reads in a local cache file, so that subsequent runs (e.g.
+ * application restarts or repeated test runs) do not need to read and parse
+ * the class files of unchanged jars again.
+ *
+ * <p>Cached metadata is keyed by the URL of the class file and validated
+ * against a stamp of its container: for classes in a jar file, the size of
+ * the jar and a checksum over the CRCs of its entries (as available from the
+ * jar's central directory, i.e. without reading the entries themselves); for
+ * classes in a directory, the size and the last-modified timestamp of the
+ * class file. Classes from other sources are always read from their class file.
+ *
+ * <p>The cache file is written on {@link #save()}, which is also triggered
+ * by {@link #clearCache()} once the configuration classes of an application
+ * context have been processed. Concurrent runs sharing the same cache file
+ * simply replace each other's file, since it is written atomically.
+ *
+ * @since 5.0.16
+ * @see MetadataRecorder
+ */
+public class PersistentMetadataReaderFactory extends CachingMetadataReaderFactory {
+
+	private static final int MAGIC = 0x53504d52;
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String NO_STAMP = "";
+
+	private static final Log logger = LogFactory.getLog(PersistentMetadataReaderFactory.class);
+
+
+	private final File cacheFile;
+
+	private final Map<String, CacheEntry> cacheEntries = new ConcurrentHashMap<>(256);
+
+	private final Map<String, String> containerStamps = new ConcurrentHashMap<>(64);
+
+	private final Map<Resource, MetadataReader> metadataReaderCache = new ConcurrentHashMap<>(256);
+
+	private volatile boolean modified;
+
+
+	/**
+	 * Create a new PersistentMetadataReaderFactory for the given {@link ResourceLoader}.
+	 * @param cacheFile the file to load the cached metadata from and to save it to
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 */
+	public PersistentMetadataReaderFactory(File cacheFile, @Nullable ResourceLoader resourceLoader) {
+		super(resourceLoader);
+		Assert.notNull(cacheFile, "Cache file must not be null");
+		this.cacheFile = cacheFile;
+		load();
+	}
+
+	/**
+	 * Create a new PersistentMetadataReaderFactory for the given {@link ClassLoader}.
+	 * @param cacheFile the file to load the cached metadata from and to save it to
+	 * @param classLoader the ClassLoader to use
+	 */
+	public PersistentMetadataReaderFactory(File cacheFile, @Nullable ClassLoader classLoader) {
+		super(classLoader);
+		Assert.notNull(cacheFile, "Cache file must not be null");
+		this.cacheFile = cacheFile;
+		load();
+	}
+
+
+	/**
+	 * Return the file that the cached metadata is loaded from and saved to.
+	 */
+	public File getCacheFile() {
+		return this.cacheFile;
+	}
+
+	/**
+	 * Return the number of classes whose metadata is currently held in the
+	 * persistent cache.
+	 */
+	public int getCachedClassCount() {
+		return this.cacheEntries.size();
+	}
+
+	@Override
+	public MetadataReader getMetadataReader(Resource resource) throws IOException {
+		MetadataReader metadataReader = this.metadataReaderCache.get(resource);
+		if (metadataReader == null) {
+			metadataReader = createMetadataReader(resource);
+			this.metadataReaderCache.put(resource, metadataReader);
+		}
+		return metadataReader;
+	}
+
+	/**
+	 * Save the cache file if metadata has been read from class files in the
+	 * meantime, then clear the in-memory MetadataReader cache.
+	 */
+	@Override
+	public void clearCache() {
+		try {
+			save();
+		}
+		catch (IOException ex) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Failed to save class metadata cache to " + this.cacheFile, ex);
+			}
+		}
+		super.clearCache();
+		this.metadataReaderCache.clear();
+	}
+
+	/**
+	 * Write the cached metadata to the cache file, if it has been modified
+	 * since it was loaded or last saved.
+	 * @throws IOException if the cache file cannot be written
+	 */
+	public synchronized void save() throws IOException {
+		if (!this.modified) {
+			return;
+		}
+		File parent = this.cacheFile.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Cannot create directory for class metadata cache: " + parent);
+		}
+		File tempFile = File.createTempFile(this.cacheFile.getName(), ".tmp", parent);
+		try {
+			try (OutputStream os = new FileOutputStream(tempFile)) {
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(os)));
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				Map<String, CacheEntry> entries = new LinkedHashMap<>(this.cacheEntries);
+				// Drop entries for jars and class files that do not exist anymore
+				entries.keySet().removeIf(this::isContainerMissing);
+				out.writeInt(entries.size());
+				for (Map.Entry<String, CacheEntry> entry : entries.entrySet()) {
+					out.writeUTF(entry.getKey());
+					out.writeUTF(entry.getValue().stamp);
+					out.writeInt(entry.getValue().data.length);
+					out.write(entry.getValue().data);
+				}
+				out.flush();
+				out.close();
+			}
+			Files.move(tempFile.toPath(), this.cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			this.modified = false;
+		}
+		finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+
+	private boolean isContainerMissing(String key) {
+		try {
+			URL url = new URL(key);
+			if (ResourceUtils.isJarURL(url)) {
+				url = ResourceUtils.extractArchiveURL(url);
+			}
+			return (ResourceUtils.isFileURL(url) && !ResourceUtils.getFile(url).exists());
+		}
+		catch (IOException ex) {
+			return true;
+		}
+	}
+
+	private void load() {
+		if (!this.cacheFile.isFile()) {
+			return;
+		}
+		try (InputStream is = new FileInputStream(this.cacheFile)) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(is)));
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+				return;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = in.readUTF();
+				String stamp = in.readUTF();
+				byte[] data = new byte[in.readInt()];
+				in.readFully(data);
+				this.cacheEntries.put(key, new CacheEntry(stamp, data));
+			}
+		}
+		catch (IOException ex) {
+			// Unreadable or outdated cache file -> start with an empty cache.
+			this.cacheEntries.clear();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring unreadable class metadata cache " + this.cacheFile, ex);
+			}
+		}
+	}
+
+	private MetadataReader createMetadataReader(Resource resource) throws IOException {
+		ClassLoader classLoader = getResourceLoader().getClassLoader();
+		String key = null;
+		String stamp = NO_STAMP;
+		try {
+			URL url = resource.getURL();
+			key = url.toString();
+			stamp = getStamp(url);
+		}
+		catch (IOException ex) {
+			// No URL available -> read the class file without caching its metadata.
+		}
+
+		AnnotationMetadataReadingVisitor visitor = new AnnotationMetadataReadingVisitor(classLoader);
+		if (key != null && !stamp.isEmpty()) {
+			CacheEntry entry = this.cacheEntries.get(key);
+			if (entry != null && entry.stamp.equals(stamp)) {
+				try {
+					MetadataRecorder.replay(entry.data, visitor);
+					return new SimpleMetadataReader(resource, visitor);
+				}
+				catch (IOException ex) {
+					// Corrupt entry -> read from class file instead.
+					visitor = new AnnotationMetadataReadingVisitor(classLoader);
+				}
+			}
+			ClassReader classReader = SimpleMetadataReader.getClassReader(resource);
+			byte[] data = MetadataRecorder.record(classReader, visitor);
+			this.cacheEntries.put(key, new CacheEntry(stamp, data));
+			this.modified = true;
+			return new SimpleMetadataReader(resource, visitor);
+		}
+		SimpleMetadataReader.getClassReader(resource).accept(visitor, ClassReader.SKIP_DEBUG);
+		return new SimpleMetadataReader(resource, visitor);
+	}
+
+	/**
+	 * Determine the stamp for validating cached metadata of the given class file.
+	 * @return the stamp, or {@link #NO_STAMP} if the metadata is not cacheable
+	 */
+	private String getStamp(URL url) throws IOException {
+		if (ResourceUtils.isJarURL(url)) {
+			URL archiveUrl = ResourceUtils.extractArchiveURL(url);
+			if (!ResourceUtils.isFileURL(archiveUrl)) {
+				return NO_STAMP;
+			}
+			return this.containerStamps.computeIfAbsent(archiveUrl.toString(), key -> getJarStamp(archiveUrl));
+		}
+		if (ResourceUtils.isFileURL(url)) {
+			File file = ResourceUtils.getFile(url);
+			return (file.isFile() ? "file:" + file.length() + ":" + file.lastModified() : NO_STAMP);
+		}
+		return NO_STAMP;
+	}
+
+	private String getJarStamp(URL archiveUrl) {
+		try {
+			File file = ResourceUtils.getFile(archiveUrl);
+			CRC32 checksum = new CRC32();
+			byte[] crcBytes = new byte[8];
+			try (JarFile jarFile = new JarFile(file, false)) {
+				Enumeration<JarEntry> entries = jarFile.entries();
+				while (entries.hasMoreElements()) {
+					JarEntry entry = entries.nextElement();
+					checksum.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+					long crc = entry.getCrc();
+					for (int i = 0; i < 8; i++) {
+						crcBytes[i] = (byte) (crc >>> (i * 8));
+					}
+					checksum.update(crcBytes, 0, crcBytes.length);
+				}
+			}
+			return "jar:" + file.length() + ":" + Long.toHexString(checksum.getValue());
+		}
+		catch (IOException ex) {
+			return NO_STAMP;
+		}
+	}
+
+
+	private static class CacheEntry {
+
+		final String stamp;
+
+		final byte[] data;
+
+		CacheEntry(String stamp, byte[] data) {
+			this.stamp = stamp;
+			this.data = data;
+		}
+	}
+
+}
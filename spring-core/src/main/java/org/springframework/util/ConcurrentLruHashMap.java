@@ -0,0 +1,659 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * A size-bounded {@link ConcurrentMap} which evicts the least recently used
+ * entries once its size limit has been reached, keeping hit, miss and eviction
+ * counts for monitoring purposes.
+ *
+ * <p>Entries are spread across a number of segments, each of which holds its
+ * share of the overall size limit. Reads do not lock: they merely mark the entry
+ * as accessed. Writes lock their segment and, once the segment is full, evict
+ * in "second chance" order: entries in insertion order, skipping (and re-queuing)
+ * those accessed since they were last considered. This approximates least
+ * recently used order without serializing reads. {@code null} keys and values
+ * are supported.
+ *
+ * <p>In contrast to {@link ConcurrentReferenceHashMap}, keys and values are
+ * strongly referenced and therefore never collected all at once under memory
+ * pressure; the size limit is the only bound on the memory held by the map.
+ * Note that this also applies to {@code Class} keys and values, which keep their
+ * {@code ClassLoader} from being garbage collected for as long as they remain in
+ * the map, e.g. after an application has been undeployed.
+ *
+ * <p>The collection views are live, weakly consistent views as with
+ * {@link ConcurrentHashMap}, supporting removal. Iterating over them does not
+ * count as access to the entries.
+ *
+ * <p>Framework-internal caches are created through {@link #createCache}, which
+ * returns an instance of this class if a size limit has been configured through
+ * the {@value #SIZE_LIMIT_PROPERTY_NAME} system property (or the corresponding
+ * property for a specific cache name), and a {@link ConcurrentReferenceHashMap}
+ * with lock-free reads otherwise. Bounded caches created that way are available
+ * for monitoring through {@link #getCaches()}.
+ *
+ * @since 5.0.16
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class ConcurrentLruHashMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+	/**
+	 * System property that instructs Spring to use bounded caches of the given
+	 * size for its framework-internal caches, e.g. "spring.core.cache.size-limit=4096".
+	 * <p>A limit for a specific cache can be configured by appending the cache name,
+	 * e.g. "spring.core.cache.size-limit.ResolvableType=1024"; 0 indicates the
+	 * default (unbounded, soft-reference based) cache for that name.
+	 * <p>Invalid values are logged and ignored, i.e. lead to the default cache.
+	 * @see #createCache
+	 */
+	public static final String SIZE_LIMIT_PROPERTY_NAME = "spring.core.cache.size-limit";
+
+	private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+	private static final Log logger = LogFactory.getLog(ConcurrentLruHashMap.class);
+
+	private static final Map<String, ConcurrentLruHashMap<?, ?>> caches = new ConcurrentHashMap<>(16);
+
+	private static final Object NULL_KEY = new Object();
+
+
+	private final Segment<K, V>[] segments;
+
+	private final int sizeLimit;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+
+	/**
+	 * Create a new {@code ConcurrentLruHashMap} with the given size limit.
+	 * @param sizeLimit the maximum number of entries in the map
+	 */
+	public ConcurrentLruHashMap(int sizeLimit) {
+		this(sizeLimit, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	/**
+	 * Create a new {@code ConcurrentLruHashMap} with the given size limit.
+	 * @param sizeLimit the maximum number of entries in the map
+	 * @param concurrencyLevel the expected number of threads that will
+	 * concurrently write to the map, determining the number of segments
+	 * (rounded to a power of two, and not exceeding the size limit)
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentLruHashMap(int sizeLimit, int concurrencyLevel) {
+		Assert.isTrue(sizeLimit > 0, "Size limit must be positive");
+		Assert.isTrue(concurrencyLevel > 0, "Concurrency level must be positive");
+		int segmentCount = Integer.highestOneBit(Math.min(concurrencyLevel, sizeLimit));
+		int segmentLimit = sizeLimit / segmentCount;
+		int remainder = sizeLimit % segmentCount;
+		this.segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			this.segments[i] = new Segment<>(i < remainder ? segmentLimit + 1 : segmentLimit, this.evictionCount);
+		}
+		this.sizeLimit = sizeLimit;
+	}
+
+
+	/**
+	 * Return the maximum number of entries in the map.
+	 */
+	public int getSizeLimit() {
+		return this.sizeLimit;
+	}
+
+	/**
+	 * Return the number of lookups which found an entry in the map.
+	 */
+	public long getHitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups which did not find an entry in the map.
+	 */
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Return the number of entries which have been evicted in order to stay
+	 * within the size limit.
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.sum();
+	}
+
+
+	@Override
+	@Nullable
+	public V get(@Nullable Object key) {
+		Node<K, V> node = getSegment(key).nodes.get(maskNull(key));
+		if (node != null) {
+			node.accessed = true;
+			this.hitCount.increment();
+			return node.value;
+		}
+		this.missCount.increment();
+		return null;
+	}
+
+	@Override
+	public boolean containsKey(@Nullable Object key) {
+		return getSegment(key).nodes.containsKey(maskNull(key));
+	}
+
+	@Override
+	@Nullable
+	public V put(@Nullable K key, @Nullable V value) {
+		Segment<K, V> segment = getSegment(key);
+		segment.lock();
+		try {
+			Node<K, V> node = segment.nodes.get(maskNull(key));
+			if (node != null) {
+				V oldValue = node.value;
+				node.value = value;
+				node.accessed = true;
+				return oldValue;
+			}
+			segment.add(key, value);
+			return null;
+		}
+		finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	@Nullable
+	public V putIfAbsent(@Nullable K key, @Nullable V value) {
+		Segment<K, V> segment = getSegment(key);
+		segment.lock();
+		try {
+			Node<K, V> node = segment.nodes.get(maskNull(key));
+			if (node != null) {
+				return node.value;
+			}
+			segment.add(key, value);
+			return null;
+		}
+		finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	@Nullable
+	public V remove(@Nullable Object key) {
+		Segment<K, V> segment = getSegment(key);
+		segment.lock();
+		try {
+			Node<K, V> node = segment.nodes.get(maskNull(key));
+			if (node != null) {
+				segment.remove(node);
+				return node.value;
+			}
+			return null;
+		}
+		finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	public boolean remove(@Nullable Object key, @Nullable Object value) {
+		Segment<K, V> segment = getSegment(key);
+		segment.lock();
+		try {
+			Node<K, V> node = segment.nodes.get(maskNull(key));
+			if (node != null && ObjectUtils.nullSafeEquals(node.value, value)) {
+				segment.remove(node);
+				return true;
+			}
+			return false;
+		}
+		finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	public boolean replace(@Nullable K key, @Nullable V oldValue, @Nullable V newValue) {
+		Segment<K, V> segment = getSegment(key);
+		segment.lock();
+		try {
+			Node<K, V> node = segment.nodes.get(maskNull(key));
+			if (node != null && ObjectUtils.nullSafeEquals(node.value, oldValue)) {
+				node.value = newValue;
+				node.accessed = true;
+				return true;
+			}
+			return false;
+		}
+		finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	@Nullable
+	public V replace(@Nullable K key, @Nullable V value) {
+		Segment<K, V> segment = getSegment(key);
+		segment.lock();
+		try {
+			Node<K, V> node = segment.nodes.get(maskNull(key));
+			if (node != null) {
+				V oldValue = node.value;
+				node.value = value;
+				node.accessed = true;
+				return oldValue;
+			}
+			return null;
+		}
+		finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	public void clear() {
+		for (Segment<K, V> segment : this.segments) {
+			segment.lock();
+			try {
+				segment.clear();
+			}
+			finally {
+				segment.unlock();
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for (Segment<K, V> segment : this.segments) {
+			size += segment.nodes.size();
+		}
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		for (Segment<K, V> segment : this.segments) {
+			if (!segment.nodes.isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Return a live view of the entries in this map. Iterating over the view
+	 * does not affect the eviction order of the entries; removal through the
+	 * view and its iterators as well as {@link Map.Entry#setValue} are supported.
+	 */
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		return new EntrySet();
+	}
+
+	private Segment<K, V> getSegment(@Nullable Object key) {
+		int hash = (key != null ? key.hashCode() : 0);
+		hash ^= (hash >>> 16);
+		return this.segments[hash & (this.segments.length - 1)];
+	}
+
+	private static Object maskNull(@Nullable Object key) {
+		return (key != null ? key : NULL_KEY);
+	}
+
+
+	/**
+	 * Create a framework-internal cache with the given name: a bounded
+	 * {@code ConcurrentLruHashMap} if a size limit has been configured for the
+	 * cache through the {@value #SIZE_LIMIT_PROPERTY_NAME} system property,
+	 * or a soft-reference based {@link ConcurrentReferenceHashMap} otherwise.
+	 * <p>The latter does not purge garbage collected entries on read access,
+	 * leaving that up to write operations, since framework-internal caches
+	 * are read far more often than they are written to.
+	 * <p>Note that a bounded cache holds its keys and values strongly: cached
+	 * classes, and therefore their class loaders, are only released once
+	 * evicted or once the cache has been cleared.
+	 * @param cacheName the name of the cache, e.g. the simple name of the
+	 * declaring class
+	 * @param initialCapacity the initial capacity of an unbounded cache
+	 * @return the cache instance
+	 * @see #SIZE_LIMIT_PROPERTY_NAME
+	 * @see #getCaches()
+	 */
+	public static <K, V> ConcurrentMap<K, V> createCache(String cacheName, int initialCapacity) {
+		Assert.hasText(cacheName, "Cache name must not be empty");
+		int sizeLimit = getSizeLimit(cacheName);
+		if (sizeLimit <= 0) {
+			return new ConcurrentReferenceHashMap<>(initialCapacity, ConcurrentReferenceHashMap.DEFAULT_LOAD_FACTOR,
+					ConcurrentReferenceHashMap.DEFAULT_CONCURRENCY_LEVEL, ConcurrentReferenceHashMap.DEFAULT_REFERENCE_TYPE, false);
+		}
+		ConcurrentLruHashMap<K, V> cache = new ConcurrentLruHashMap<>(sizeLimit);
+		caches.put(cacheName, cache);
+		return cache;
+	}
+
+	/**
+	 * Return the bounded framework-internal caches created so far,
+	 * keyed by cache name.
+	 * @see #createCache
+	 */
+	public static Map<String, ConcurrentLruHashMap<?, ?>> getCaches() {
+		return Collections.unmodifiableMap(caches);
+	}
+
+	/**
+	 * Remove the bounded framework-internal cache with the given name from
+	 * the registry exposed through {@link #getCaches()}, if present.
+	 * <p>Mainly intended for tests that create caches of their own.
+	 * @param cacheName the name of the cache
+	 */
+	static void removeCache(String cacheName) {
+		caches.remove(cacheName);
+	}
+
+	private static int getSizeLimit(String cacheName) {
+		String value = System.getProperty(SIZE_LIMIT_PROPERTY_NAME + "." + cacheName);
+		if (value == null) {
+			value = System.getProperty(SIZE_LIMIT_PROPERTY_NAME);
+		}
+		if (!StringUtils.hasText(value)) {
+			return 0;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		}
+		catch (NumberFormatException ex) {
+			// Called from static initializers: fall back rather than failing class initialization
+			logger.warn("Ignoring invalid cache size limit [" + value + "] for cache '" + cacheName +
+					"': not an integer - using the default cache instead");
+			return 0;
+		}
+	}
+
+
+	/**
+	 * An entry of the map. The value and the access flag are read without
+	 * locking; the links of the eviction queue are guarded by the segment lock.
+	 */
+	private static final class Node<K, V> {
+
+		@Nullable
+		final K key;
+
+		@Nullable
+		volatile V value;
+
+		volatile boolean accessed;
+
+		@Nullable
+		Node<K, V> previous;
+
+		@Nullable
+		Node<K, V> next;
+
+		Node(@Nullable K key, @Nullable V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+
+	/**
+	 * A single segment, holding its entries in a concurrently readable map
+	 * and in an eviction queue that is only accessed under the segment lock.
+	 */
+	@SuppressWarnings("serial")
+	private static final class Segment<K, V> extends ReentrantLock {
+
+		final ConcurrentHashMap<Object, Node<K, V>> nodes = new ConcurrentHashMap<>(16);
+
+		private final int sizeLimit;
+
+		private final LongAdder evictionCount;
+
+		@Nullable
+		private Node<K, V> head;
+
+		@Nullable
+		private Node<K, V> tail;
+
+		Segment(int sizeLimit, LongAdder evictionCount) {
+			this.sizeLimit = sizeLimit;
+			this.evictionCount = evictionCount;
+		}
+
+		void add(@Nullable K key, @Nullable V value) {
+			Node<K, V> node = new Node<>(key, value);
+			this.nodes.put(maskNull(key), node);
+			link(node);
+			evictIfNecessary();
+		}
+
+		void remove(Node<K, V> node) {
+			this.nodes.remove(maskNull(node.key));
+			unlink(node);
+		}
+
+		void clear() {
+			this.nodes.clear();
+			this.head = null;
+			this.tail = null;
+		}
+
+		private void evictIfNecessary() {
+			// Bounded number of second chances, in case of concurrent reads
+			int secondChances = this.nodes.size();
+			while (this.nodes.size() > this.sizeLimit) {
+				Node<K, V> node = this.head;
+				Assert.state(node != null, "Inconsistent eviction queue");
+				if (node.accessed && secondChances-- > 0) {
+					node.accessed = false;
+					unlink(node);
+					link(node);
+				}
+				else {
+					remove(node);
+					this.evictionCount.increment();
+				}
+			}
+		}
+
+		private void link(Node<K, V> node) {
+			Node<K, V> tail = this.tail;
+			node.previous = tail;
+			node.next = null;
+			if (tail != null) {
+				tail.next = node;
+			}
+			else {
+				this.head = node;
+			}
+			this.tail = node;
+		}
+
+		private void unlink(Node<K, V> node) {
+			Node<K, V> previous = node.previous;
+			Node<K, V> next = node.next;
+			if (previous != null) {
+				previous.next = next;
+			}
+			else {
+				this.head = next;
+			}
+			if (next != null) {
+				next.previous = previous;
+			}
+			else {
+				this.tail = previous;
+			}
+			node.previous = null;
+			node.next = null;
+		}
+	}
+
+
+	/**
+	 * Live view of the entries of the map.
+	 */
+	private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+		@Override
+		public Iterator<Map.Entry<K, V>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public boolean contains(@Nullable Object o) {
+			if (!(o instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+			Node<K, V> node = getSegment(entry.getKey()).nodes.get(maskNull(entry.getKey()));
+			return (node != null && ObjectUtils.nullSafeEquals(node.value, entry.getValue()));
+		}
+
+		@Override
+		public boolean remove(@Nullable Object o) {
+			if (!(o instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+			return ConcurrentLruHashMap.this.remove(entry.getKey(), entry.getValue());
+		}
+
+		@Override
+		public int size() {
+			return ConcurrentLruHashMap.this.size();
+		}
+
+		@Override
+		public void clear() {
+			ConcurrentLruHashMap.this.clear();
+		}
+	}
+
+
+	/**
+	 * Weakly consistent iterator over the entries of all segments.
+	 */
+	private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+		private int segmentIndex;
+
+		@Nullable
+		private Iterator<Node<K, V>> nodes;
+
+		@Nullable
+		private Node<K, V> next;
+
+		@Nullable
+		private Node<K, V> last;
+
+		@Override
+		public boolean hasNext() {
+			while (this.next == null) {
+				if (this.nodes != null && this.nodes.hasNext()) {
+					this.next = this.nodes.next();
+				}
+				else if (this.segmentIndex < segments.length) {
+					this.nodes = segments[this.segmentIndex++].nodes.values().iterator();
+				}
+				else {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public Map.Entry<K, V> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Node<K, V> node = this.next;
+			Assert.state(node != null, "No next entry");
+			this.next = null;
+			this.last = node;
+			return new WriteThroughEntry(node.key, node.value);
+		}
+
+		@Override
+		public void remove() {
+			Node<K, V> node = this.last;
+			Assert.state(node != null, "No current entry");
+			this.last = null;
+			Segment<K, V> segment = getSegment(node.key);
+			segment.lock();
+			try {
+				if (segment.nodes.get(maskNull(node.key)) == node) {
+					segment.remove(node);
+				}
+			}
+			finally {
+				segment.unlock();
+			}
+		}
+	}
+
+
+	/**
+	 * Entry returned by the iterator, writing value changes through to the map.
+	 */
+	@SuppressWarnings("serial")
+	private final class WriteThroughEntry extends SimpleEntry<K, V> {
+
+		WriteThroughEntry(@Nullable K key, @Nullable V value) {
+			super(key, value);
+		}
+
+		@Override
+		@Nullable
+		public V setValue(@Nullable V value) {
+			super.setValue(value);
+			return put(getKey(), value);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -53,6 +53,12 @@ import org.springframework.lang.Nullable;
  * <p>If not explicitly specified, this implementation will use
  * {@linkplain SoftReference soft entry references}.
  *
+ * <p>By default, garbage collected entries are also purged on read access.
+ * Maps which are read far more often than written to, from many threads,
+ * may be created with {@code purgeOnRead=false} instead: Lookups then never
+ * lock or drain reference queues, leaving purging up to write operations
+ * and {@link #purgeUnreferencedEntries()}.
+ *
  * @author Phillip Webb
  * @author Juergen Hoeller
  * @since 3.2
@@ -63,11 +69,11 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 
 	private static final int DEFAULT_INITIAL_CAPACITY = 16;
 
-	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	static final float DEFAULT_LOAD_FACTOR = 0.75f;
 
-	private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+	static final int DEFAULT_CONCURRENCY_LEVEL = 16;
 
-	private static final ReferenceType DEFAULT_REFERENCE_TYPE = ReferenceType.SOFT;
+	static final ReferenceType DEFAULT_REFERENCE_TYPE = ReferenceType.SOFT;
 
 	private static final int MAXIMUM_CONCURRENCY_LEVEL = 1 << 16;
 
@@ -89,6 +95,11 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 	 */
 	private final ReferenceType referenceType;
 
+	/**
+	 * Whether read operations purge garbage collected entries.
+	 */
+	private final boolean purgeOnRead;
+
 	/**
 	 * The shift value used to calculate the size of the segments array and an index from the hash.
 	 */
@@ -166,10 +177,30 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 	 * write to the map
 	 * @param referenceType the reference type used for entries (soft or weak)
 	 */
-	@SuppressWarnings("unchecked")
 	public ConcurrentReferenceHashMap(
 			int initialCapacity, float loadFactor, int concurrencyLevel, ReferenceType referenceType) {
 
+		this(initialCapacity, loadFactor, concurrencyLevel, referenceType, true);
+	}
+
+	/**
+	 * Create a new {@code ConcurrentReferenceHashMap} instance.
+	 * @param initialCapacity the initial capacity of the map
+	 * @param loadFactor the load factor. When the average number of references per
+	 * table exceeds this value, resize will be attempted.
+	 * @param concurrencyLevel the expected number of threads that will concurrently
+	 * write to the map
+	 * @param referenceType the reference type used for entries (soft or weak)
+	 * @param purgeOnRead whether read operations should purge garbage collected
+	 * entries ({@code true} by default). If {@code false}, reads never acquire a
+	 * lock, and purging is left up to write operations and explicit calls to
+	 * {@link #purgeUnreferencedEntries()}.
+	 * @since 5.0.16
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentReferenceHashMap(int initialCapacity, float loadFactor, int concurrencyLevel,
+			ReferenceType referenceType, boolean purgeOnRead) {
+
 		Assert.isTrue(initialCapacity >= 0, "Initial capacity must not be negative");
 		Assert.isTrue(loadFactor > 0f, "Load factor must be positive");
 		Assert.isTrue(concurrencyLevel > 0, "Concurrency level must be positive");
@@ -178,6 +209,7 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 		this.shift = calculateShift(concurrencyLevel, MAXIMUM_CONCURRENCY_LEVEL);
 		int size = 1 << this.shift;
 		this.referenceType = referenceType;
+		this.purgeOnRead = purgeOnRead;
 		int roundedUpSegmentCapacity = (int) ((initialCapacity + size - 1L) / size);
 		this.segments = (Segment[]) Array.newInstance(Segment.class, size);
 		for (int i = 0; i < this.segments.length; i++) {
@@ -247,7 +279,7 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 
 	@Nullable
 	private Entry<K, V> getEntryIfAvailable(@Nullable Object key) {
-		Reference<K, V> ref = getReference(key, Restructure.WHEN_NECESSARY);
+		Reference<K, V> ref = getReference(key, (this.purgeOnRead ? Restructure.WHEN_NECESSARY : Restructure.NEVER));
 		return (ref != null ? ref.get() : null);
 	}
 
@@ -597,16 +629,13 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 						resizing = true;
 					}
 
-					// Either create a new table or reuse the existing one
-					Reference<K, V>[] restructured =
-							(resizing ? createReferenceArray(restructureSize) : this.references);
+					// Always create a new table, so that concurrent readers never
+					// observe a partially restructured one
+					Reference<K, V>[] restructured = createReferenceArray(restructureSize);
 
 					// Restructure
 					for (int i = 0; i < this.references.length; i++) {
 						ref = this.references[i];
-						if (!resizing) {
-							restructured[i] = null;
-						}
 						while (ref != null) {
 							if (!toPurge.contains(ref)) {
 								Entry<K, V> entry = ref.get();
@@ -621,8 +650,8 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 					}
 
 					// Replace volatile members
+					this.references = restructured;
 					if (resizing) {
-						this.references = restructured;
 						this.resizeThreshold = (int) (this.references.length * getLoadFactor());
 					}
 					this.count = Math.max(countAfterRestructure, 0);
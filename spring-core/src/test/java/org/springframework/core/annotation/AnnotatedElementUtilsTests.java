@@ -569,6 +569,18 @@ public class AnnotatedElementUtilsTests {
 		assertNotNull("Should find @Transactional on bridged ConcreteClassWithInheritedAnnotation.handleParameterized()", attributes);
 	}
 
+	@Test
+	public void findMergedAnnotationAttributesNotPresentInHierarchy() throws NoSuchMethodException {
+		Method method = ConcreteClassWithInheritedAnnotation.class.getMethod("handleFromInterface");
+		assertTrue(AnnotationUtils.isCandidateAnnotationType(method, Order.class.getName()));
+		assertTrue(AnnotationUtils.isCandidateAnnotationType(method, Transactional.class.getName()));
+		assertFalse(AnnotationUtils.isCandidateAnnotationType(method, Component.class.getName()));
+		assertNull(findMergedAnnotationAttributes(method, Component.class));
+		assertNull(findMergedAnnotation(method, Component.class));
+		assertFalse(hasAnnotation(method, Component.class));
+		assertFalse(hasAnnotation(ConcreteClassWithInheritedAnnotation.class, Component.class));
+	}
+
 	/**
 	 * Bridge/bridged method setup code copied from
 	 * {@link org.springframework.core.BridgeMethodResolverTests#testWithGenericParameter()}.
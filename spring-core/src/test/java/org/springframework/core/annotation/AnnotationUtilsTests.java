@@ -23,6 +23,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -1540,6 +1541,97 @@ public class AnnotationUtilsTests {
 		assertArrayEquals(new char[] { 'x', 'y', 'z' }, chars);
 	}
 
+	@Test
+	public void synthesizeAnnotationWithAttributesAccessedByIndex() throws Exception {
+		AnnotationWithDefaults annotation = synthesizeAnnotation(AnnotationWithDefaults.class);
+
+		// Access attributes out of declaration order and repeatedly
+		assertArrayEquals(new char[] { 'a', 'b', 'c' }, annotation.characters());
+		assertTrue(annotation.predicate());
+		assertEquals("enigma", annotation.text());
+		assertEquals("enigma", annotation.text());
+		assertTrue(annotation.predicate());
+		assertArrayEquals(new char[] { 'a', 'b', 'c' }, annotation.characters());
+	}
+
+	@Test
+	public void synthesizeAnnotationClonesArrayValuesOnEachAccess() throws Exception {
+		AnnotationWithDefaults annotation = synthesizeAnnotation(AnnotationWithDefaults.class);
+
+		char[] characters = annotation.characters();
+		char[] other = annotation.characters();
+		assertNotSame(characters, other);
+		assertArrayEquals(characters, other);
+
+		characters[0] = '?';
+		assertArrayEquals(new char[] { 'a', 'b', 'c' }, annotation.characters());
+		assertArrayEquals(new char[] { 'a', 'b', 'c' }, other);
+	}
+
+	@Test
+	public void synthesizeAnnotationWithConsistentEqualsHashCodeAndToString() throws Exception {
+		AnnotationWithDefaults annotation = AnnotationWithDefaultsClass.class.getAnnotation(AnnotationWithDefaults.class);
+		assertNotNull(annotation);
+		AnnotationWithDefaults synthesized = synthesizeAnnotation(
+				getAnnotationAttributes(annotation), AnnotationWithDefaults.class, AnnotationWithDefaultsClass.class);
+		AnnotationWithDefaults synthesizedFromDefaults = synthesizeAnnotation(AnnotationWithDefaults.class);
+		assertThat(synthesized, instanceOf(SynthesizedAnnotation.class));
+
+		assertEquals(annotation, synthesized);
+		assertEquals(synthesized, annotation);
+		assertEquals(synthesized, synthesizedFromDefaults);
+		assertEquals(annotation.hashCode(), synthesized.hashCode());
+		assertEquals(synthesized.hashCode(), synthesizedFromDefaults.hashCode());
+		assertEquals(synthesized.hashCode(), synthesized.hashCode());
+
+		String string = synthesized.toString();
+		assertThat(string, startsWith("@" + AnnotationWithDefaults.class.getName() + "("));
+		assertThat(string, containsString("text=enigma"));
+		assertThat(string, containsString("predicate=true"));
+		assertEquals(string, synthesized.toString());
+
+		// Attribute access after equals/hashCode/toString still sees the same values
+		assertEquals("enigma", synthesized.text());
+		assertArrayEquals(new char[] { 'a', 'b', 'c' }, synthesized.characters());
+	}
+
+	@Test
+	public void synthesizedAnnotationResolvesAttributesIndependently() throws Exception {
+		AnnotationAttributeExtractor<Object> extractor = new AnnotationAttributeExtractor<Object>() {
+			@Override
+			public Class<? extends Annotation> getAnnotationType() {
+				return AnnotationWithDefaults.class;
+			}
+			@Override
+			public Object getAnnotatedElement() {
+				return AnnotationWithDefaultsClass.class;
+			}
+			@Override
+			public Object getSource() {
+				return "broken source";
+			}
+			@Override
+			public Object getAttributeValue(Method attributeMethod) {
+				return ("text".equals(attributeMethod.getName()) ? null : attributeMethod.getDefaultValue());
+			}
+		};
+		AnnotationWithDefaults annotation = (AnnotationWithDefaults) Proxy.newProxyInstance(
+				getClass().getClassLoader(), new Class<?>[] {AnnotationWithDefaults.class, SynthesizedAnnotation.class},
+				new SynthesizedAnnotationInvocationHandler(extractor));
+
+		assertTrue(annotation.predicate());
+		try {
+			annotation.text();
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			assertThat(ex.getMessage(), containsString("attribute name [text]"));
+		}
+		assertTrue(annotation.predicate());
+		assertArrayEquals(new char[] { 'a', 'b', 'c' }, annotation.characters());
+		assertEquals(AnnotationWithDefaults.class, annotation.annotationType());
+	}
+
 	@Test
 	public void interfaceWithAnnotatedMethods() {
 		assertTrue(AnnotationUtils.getAnnotatedMethodsInBaseType(NonAnnotatedInterface.class).isEmpty());
@@ -2373,6 +2465,10 @@ public class AnnotationUtilsTests {
 		char[] characters() default {'a', 'b', 'c'};
 	}
 
+	@AnnotationWithDefaults
+	static class AnnotationWithDefaultsClass {
+	}
+
 	@Retention(RetentionPolicy.RUNTIME)
 	@interface AnnotationWithoutDefaults {
 		String text();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,8 @@
 package org.springframework.core.codec;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 
 import org.junit.Test;
@@ -26,6 +28,7 @@ import reactor.test.StepVerifier;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
@@ -74,4 +77,22 @@ public class ResourceEncoderTests extends AbstractDataBufferAllocatingTestCase {
 				.verify();
 	}
 
+	@Test
+	public void encodeMappedFile() throws Exception {
+		String s = "foo";
+		Path file = Files.createTempFile("ResourceEncoderTests", null);
+		file.toFile().deleteOnExit();
+		Files.write(file, s.getBytes(StandardCharsets.UTF_8));
+		ResourceEncoder encoder = new ResourceEncoder();
+		encoder.setMappedFileThreshold(0);
+
+		Flux<DataBuffer> output = encoder.encode(Mono.just(new FileSystemResource(file.toFile())),
+				this.bufferFactory, ResolvableType.forClass(Resource.class), null, Collections.emptyMap());
+
+		StepVerifier.create(output)
+				.consumeNextWith(stringConsumer(s))
+				.expectComplete()
+				.verify();
+	}
+
 }
\ No newline at end of file
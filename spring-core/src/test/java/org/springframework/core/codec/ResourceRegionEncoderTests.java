@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -79,6 +79,20 @@ public class ResourceRegionEncoderTests extends AbstractDataBufferAllocatingTest
 				new ClassPathResource("ResourceRegionEncoderTests.txt", getClass()));
 	}
 
+	@Test
+	public void shouldEncodeResourceRegionMappedFileResource() throws Exception {
+		this.encoder.setMappedFileThreshold(0);
+		shouldEncodeResourceRegion(
+				new ClassPathResource("ResourceRegionEncoderTests.txt", getClass()));
+	}
+
+	@Test
+	public void shouldEncodeMultipleResourceRegionsMappedFileResource() throws Exception {
+		this.encoder.setMappedFileThreshold(0);
+		shouldEncodeMultipleResourceRegions(
+				new ClassPathResource("ResourceRegionEncoderTests.txt", getClass()));
+	}
+
 	@Test
 	public void shouldEncodeResourceRegionByteArrayResource() throws Exception {
 		String content = "Spring Framework test resource content.";
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.core.codec;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -73,6 +74,22 @@ public class StringDecoderTests extends AbstractDataBufferAllocatingTestCase {
 				.verifyComplete();
 	}
 
+	@Test
+	public void decodeMultibyteCharacterAcrossChunks() {
+		String s = "a\uD83D\uDE00b\u00FC\u20AC";
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		List<DataBuffer> dataBuffers = new ArrayList<>();
+		for (int i = 0; i < bytes.length; i += 3) {
+			dataBuffers.add(this.bufferFactory.wrap(Arrays.copyOfRange(bytes, i, Math.min(i + 3, bytes.length))));
+		}
+
+		Flux<String> output = this.decoder.decode(Flux.fromIterable(dataBuffers),
+				ResolvableType.forClass(String.class), null, Collections.emptyMap());
+		StepVerifier.create(output)
+				.expectNext(s)
+				.verifyComplete();
+	}
+
 	private Flux<DataBuffer> toSingleByteDataBuffers(String s) {
 		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -367,4 +367,52 @@ public class PropertySourcesPropertyResolverTests {
 		}
 	}
 
+	@Test
+	public void getPropertyWithCachedPropertyValues() {
+		PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(propertySources);
+		resolver.setCachePropertyValues(true);
+		testProperties.put("foo", "${bar}");
+		testProperties.put("bar", "42");
+		assertThat(resolver.getProperty("foo"), equalTo("42"));
+		assertThat(resolver.getProperty("foo", Integer.class), equalTo(42));
+		assertThat(resolver.getProperty("baz"), nullValue());
+
+		// Content changes are not visible until signalled
+		testProperties.put("bar", "43");
+		testProperties.put("baz", "value");
+		assertThat(resolver.getProperty("foo"), equalTo("42"));
+		assertThat(resolver.getProperty("baz"), nullValue());
+		propertySources.markChanged();
+		assertThat(resolver.getProperty("foo"), equalTo("43"));
+		assertThat(resolver.getProperty("baz"), equalTo("value"));
+
+		// Structural changes are tracked automatically
+		propertySources.addFirst(new MockPropertySource("override").withProperty("baz", "override"));
+		assertThat(resolver.getProperty("baz"), equalTo("override"));
+		propertySources.remove("override");
+		assertThat(resolver.getProperty("baz"), equalTo("value"));
+	}
+
+	@Test
+	public void getPropertyWithCachedPropertyValuesAfterPlaceholderSyntaxChange() {
+		PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(propertySources);
+		resolver.setCachePropertyValues(true);
+		resolver.setIgnoreUnresolvableNestedPlaceholders(true);
+		testProperties.put("foo", "%{bar}");
+		testProperties.put("bar", "42");
+		testProperties.put("baz", "%{missing:7}");
+		assertThat(resolver.getProperty("foo"), equalTo("%{bar}"));
+		assertThat(resolver.getProperty("baz"), equalTo("%{missing:7}"));
+
+		resolver.setPlaceholderPrefix("%{");
+		assertThat(resolver.getProperty("foo"), equalTo("42"));
+		assertThat(resolver.getProperty("baz"), equalTo("7"));
+
+		resolver.setValueSeparator("|");
+		assertThat(resolver.getProperty("baz"), equalTo("%{missing:7}"));
+
+		resolver.setPlaceholderSuffix("%");
+		assertThat(resolver.getProperty("foo"), equalTo("%{bar}"));
+	}
+
 }
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CompositeDataBuffer}.
+ */
+public class CompositeDataBufferTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(false, 256, 1024, 4, 0);
+
+
+	@After
+	public void verifyAllocations() {
+		assertEquals(0, this.bufferFactory.getActiveAllocations());
+	}
+
+
+	@Test
+	public void joinDoesNotCopy() {
+		DataBuffer first = stringBuffer("abc");
+		CompositeDataBuffer composite = join(first, stringBuffer("de"), stringBuffer("f"));
+		assertEquals(3, composite.getComponentCount());
+		assertEquals(6, composite.readableByteCount());
+		assertEquals(0, composite.writableByteCount());
+
+		first.asByteBuffer().put(0, (byte) 'x');
+		assertEquals('x', composite.getByte(0));
+		assertEquals('d', composite.getByte(3));
+		assertEquals('f', composite.getByte(5));
+
+		assertTrue(composite.release());
+	}
+
+	@Test
+	public void read() {
+		CompositeDataBuffer composite = join(stringBuffer("abc"), stringBuffer("de"), stringBuffer("f"));
+		assertEquals('a', composite.read());
+		byte[] bytes = new byte[4];
+		composite.read(bytes);
+		assertArrayEquals("bcde".getBytes(StandardCharsets.UTF_8), bytes);
+		assertEquals('f', composite.read());
+		assertEquals(0, composite.readableByteCount());
+
+		composite.release();
+	}
+
+	@Test
+	public void indexOf() {
+		CompositeDataBuffer composite = join(stringBuffer("abc"), stringBuffer("de"), stringBuffer("fd"));
+		assertEquals(3, composite.indexOf(b -> b == 'd', 0));
+		assertEquals(6, composite.indexOf(b -> b == 'd', 4));
+		assertEquals(-1, composite.indexOf(b -> b == 'z', 0));
+		assertEquals(6, composite.lastIndexOf(b -> b == 'd', 10));
+		assertEquals(3, composite.lastIndexOf(b -> b == 'd', 5));
+		assertEquals(-1, composite.lastIndexOf(b -> b == 'z', 6));
+
+		composite.release();
+	}
+
+	@Test
+	public void writeAppendsComponent() {
+		CompositeDataBuffer composite = join(stringBuffer("abc"), stringBuffer("de"));
+		composite.write("fgh".getBytes(StandardCharsets.UTF_8));
+		assertEquals(3, composite.getComponentCount());
+		assertEquals(8, composite.readableByteCount());
+		composite.write((byte) 'i');
+
+		assertEquals("abcdefghi", readString(composite));
+		assertTrue(composite.release());
+	}
+
+	@Test
+	public void writeDataBuffers() {
+		CompositeDataBuffer composite = join(stringBuffer("ab"), stringBuffer("c"));
+		CompositeDataBuffer other = join(stringBuffer("de"), stringBuffer("f"));
+		DataBuffer buffer = stringBuffer("g");
+		composite.write(other, buffer);
+
+		assertEquals("abcdefg", readString(composite));
+		composite.release();
+		other.release();
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	public void sliceSharesMemoryAndReferenceCount() {
+		CompositeDataBuffer composite = join(stringBuffer("abc"), stringBuffer("de"), stringBuffer("f"));
+		CompositeDataBuffer slice = composite.slice(2, 3);
+		assertEquals(2, slice.getComponentCount());
+		assertEquals("cde", readString(slice));
+
+		composite.asByteBuffers()[1].put(0, (byte) 'x');
+		assertEquals('x', slice.getByte(1));
+
+		slice.retain();
+		assertFalse(composite.release());
+		assertEquals(3, this.bufferFactory.getActiveAllocations());
+		assertTrue(slice.release());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void sliceCannotGrow() {
+		CompositeDataBuffer composite = join(stringBuffer("abc"), stringBuffer("de"));
+		try {
+			composite.slice(1, 3).write((byte) 'x');
+		}
+		finally {
+			composite.release();
+		}
+	}
+
+	@Test
+	public void asByteBuffer() {
+		CompositeDataBuffer composite = join(stringBuffer("abc"), stringBuffer("de"));
+
+		// Within a single component: shared view
+		ByteBuffer view = composite.asByteBuffer(3, 2);
+		view.put(0, (byte) 'x');
+		assertEquals('x', composite.getByte(3));
+
+		// Across components: copy
+		ByteBuffer copy = composite.asByteBuffer();
+		assertEquals(5, copy.remaining());
+		assertEquals(ByteBuffer.wrap("abcxe".getBytes(StandardCharsets.UTF_8)), copy);
+
+		ByteBuffer[] byteBuffers = composite.asByteBuffers();
+		assertEquals(2, byteBuffers.length);
+		assertEquals(ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8)), byteBuffers[0]);
+
+		composite.release();
+	}
+
+	@Test
+	public void inputStream() throws Exception {
+		CompositeDataBuffer composite = join(stringBuffer("abc"), stringBuffer("de"), stringBuffer("f"));
+		try (InputStream inputStream = composite.asInputStream(true)) {
+			assertEquals('a', inputStream.read());
+			assertEquals("bcdef", StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+			assertEquals(-1, inputStream.read());
+		}
+	}
+
+	@Test
+	public void capacity() {
+		CompositeDataBuffer composite = join(stringBuffer("abc"), stringBuffer("de"), stringBuffer("f"));
+		composite.capacity(4);
+		assertEquals(4, composite.capacity());
+		assertEquals(2, composite.getComponentCount());
+		assertEquals("abcd", readString(composite));
+
+		composite.capacity(10);
+		assertEquals(10, composite.capacity());
+		assertEquals(6, composite.writableByteCount());
+		composite.release();
+	}
+
+	@Test
+	public void joinComposites() {
+		CompositeDataBuffer nested = join(stringBuffer("ab"), stringBuffer("c"));
+		nested.read();
+		CompositeDataBuffer composite = join(nested, stringBuffer("d"));
+		assertEquals(3, composite.getComponentCount());
+		assertEquals("bcd", readString(composite));
+		assertTrue(composite.release());
+	}
+
+	@Test
+	public void joinSingleBuffer() {
+		DataBuffer buffer = stringBuffer("abc");
+		assertSame(buffer, this.bufferFactory.join(Arrays.asList(buffer)));
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void releaseTwice() {
+		CompositeDataBuffer composite = join(stringBuffer("abc"), stringBuffer("de"));
+		composite.release();
+		composite.release();
+	}
+
+	@Test
+	public void equalsAndHashCode() {
+		CompositeDataBuffer composite = join(stringBuffer("abc"), stringBuffer("de"));
+		CompositeDataBuffer other = join(stringBuffer("a"), stringBuffer("bcde"));
+		assertEquals(composite, other);
+		assertEquals(composite.hashCode(), other.hashCode());
+		composite.release();
+		other.release();
+	}
+
+
+	private CompositeDataBuffer join(DataBuffer... dataBuffers) {
+		return (CompositeDataBuffer) this.bufferFactory.join(Arrays.asList(dataBuffers));
+	}
+
+	private DataBuffer stringBuffer(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(bytes.length);
+		buffer.write(bytes);
+		return buffer;
+	}
+
+	private static String readString(DataBuffer buffer) {
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
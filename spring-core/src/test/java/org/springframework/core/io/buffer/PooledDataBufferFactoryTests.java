@@ -0,0 +1,274 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link PooledDataBufferFactory}.
+ */
+public class PooledDataBufferFactoryTests {
+
+	private final PooledDataBufferFactory factory = new PooledDataBufferFactory(false, 256, 1024, 4, 2);
+
+
+	@Test
+	public void allocateExactCapacity() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(100);
+		assertTrue(buffer instanceof PooledDataBuffer);
+		assertEquals(100, buffer.capacity());
+		assertEquals(0, buffer.readableByteCount());
+		assertEquals(1, this.factory.getActiveAllocations());
+		assertTrue(DataBufferUtils.release(buffer));
+		assertEquals(0, this.factory.getActiveAllocations());
+	}
+
+	@Test
+	public void reuseReleasedMemoryWithinSizeClass() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(100);
+		ByteBuffer nativeBuffer = buffer.getNativeBuffer();
+		buffer.write((byte) 'a');
+		DataBufferUtils.release(buffer);
+
+		DefaultDataBuffer other = this.factory.allocateBuffer(120);
+		assertEquals(120, other.capacity());
+		// Shares the same underlying memory
+		other.getNativeBuffer().put(0, (byte) 'b');
+		assertEquals('b', nativeBuffer.get(0));
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	public void recycledMemoryIsWiped() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(100);
+		buffer.write("secret".getBytes(StandardCharsets.UTF_8));
+		DataBufferUtils.release(buffer);
+
+		DefaultDataBuffer other = this.factory.allocateBuffer(100);
+		ByteBuffer byteBuffer = other.asByteBuffer(0, other.capacity());
+		while (byteBuffer.hasRemaining()) {
+			assertEquals(0, byteBuffer.get());
+		}
+		// Growing within the size class must not reveal previous contents either
+		other.capacity(128);
+		assertEquals(0, other.getNativeBuffer().get(127));
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	public void recycledDirectMemoryIsWiped() {
+		PooledDataBufferFactory factory = new PooledDataBufferFactory(true, 256, 1024, 4, 2);
+		DefaultDataBuffer buffer = factory.allocateBuffer(64);
+		buffer.write("secret".getBytes(StandardCharsets.UTF_8));
+		DataBufferUtils.release(buffer);
+
+		DefaultDataBuffer other = factory.allocateBuffer(64);
+		ByteBuffer byteBuffer = other.asByteBuffer(0, other.capacity());
+		while (byteBuffer.hasRemaining()) {
+			assertEquals(0, byteBuffer.get());
+		}
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	public void noReuseAcrossSizeClasses() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(100);
+		ByteBuffer nativeBuffer = buffer.getNativeBuffer();
+		DataBufferUtils.release(buffer);
+
+		DefaultDataBuffer other = this.factory.allocateBuffer(200);
+		other.getNativeBuffer().put(0, (byte) 'b');
+		assertEquals(0, nativeBuffer.get(0));
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	public void sharedPoolWhenThreadCacheIsFull() {
+		DataBuffer[] buffers = new DataBuffer[5];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = this.factory.allocateBuffer(64);
+		}
+		for (DataBuffer buffer : buffers) {
+			DataBufferUtils.release(buffer);
+		}
+		// 2 go into the thread-local cache, the remaining 3 into the shared pool
+		assertEquals(3, this.factory.getPooledBufferCount());
+		this.factory.clear();
+		assertEquals(0, this.factory.getPooledBufferCount());
+	}
+
+	@Test
+	public void threadCacheIsBoundedByCapacity() {
+		PooledDataBufferFactory factory = new PooledDataBufferFactory(false, 256, 1024, 16, 8);
+		factory.setMaxThreadLocalCacheCapacity(1024);
+		DataBuffer[] buffers = new DataBuffer[8];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = factory.allocateBuffer(256);
+		}
+		for (DataBuffer buffer : buffers) {
+			DataBufferUtils.release(buffer);
+		}
+		// 4 x 256 bytes go into the thread-local cache, the remaining 4 into the shared pool
+		assertEquals(4, factory.getPooledBufferCount());
+	}
+
+	@Test
+	public void clearDropsThreadCaches() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(100);
+		ByteBuffer nativeBuffer = buffer.getNativeBuffer();
+		DataBufferUtils.release(buffer);
+		assertEquals(0, this.factory.getPooledBufferCount());
+
+		this.factory.clear();
+		DefaultDataBuffer other = this.factory.allocateBuffer(100);
+		other.getNativeBuffer().put(0, (byte) 'b');
+		assertEquals(0, nativeBuffer.get(0));
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	public void sharedPoolIsBounded() {
+		PooledDataBufferFactory factory = new PooledDataBufferFactory(false, 256, 1024, 2, 0);
+		DataBuffer[] buffers = new DataBuffer[5];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = factory.allocateBuffer(64);
+		}
+		for (DataBuffer buffer : buffers) {
+			DataBufferUtils.release(buffer);
+		}
+		assertEquals(2, factory.getPooledBufferCount());
+	}
+
+	@Test
+	public void releaseOnOtherThread() throws Exception {
+		PooledDataBufferFactory factory = new PooledDataBufferFactory(false, 256, 1024, 4, 0);
+		DataBuffer buffer = factory.allocateBuffer(64);
+		AtomicReference<Boolean> result = new AtomicReference<>();
+		Thread thread = new Thread(() -> result.set(DataBufferUtils.release(buffer)));
+		thread.start();
+		thread.join();
+		assertTrue(result.get());
+		assertEquals(1, factory.getPooledBufferCount());
+	}
+
+	@Test
+	public void largeBuffersAreNotPooled() {
+		DataBuffer buffer = this.factory.allocateBuffer(4096);
+		assertEquals(4096, buffer.capacity());
+		assertTrue(DataBufferUtils.release(buffer));
+		assertEquals(0, this.factory.getPooledBufferCount());
+	}
+
+	@Test
+	public void growBeyondSizeClass() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(64);
+		byte[] bytes = new byte[300];
+		bytes[299] = 'z';
+		buffer.write("abc".getBytes(StandardCharsets.UTF_8));
+		buffer.write(bytes);
+		assertEquals(303, buffer.readableByteCount());
+		assertEquals('a', buffer.read());
+		assertEquals('z', buffer.getByte(302));
+		assertTrue(DataBufferUtils.release(buffer));
+		assertEquals(0, this.factory.getActiveAllocations());
+	}
+
+	@Test
+	public void sliceSharesReferenceCount() {
+		DataBuffer buffer = this.factory.allocateBuffer(64);
+		buffer.write("abcdef".getBytes(StandardCharsets.UTF_8));
+		DataBuffer slice = buffer.slice(2, 2);
+		assertTrue(slice instanceof PooledDataBuffer);
+		assertEquals('c', slice.read());
+
+		DataBufferUtils.retain(slice);
+		assertFalse(DataBufferUtils.release(buffer));
+		assertTrue(DataBufferUtils.release(slice));
+		assertEquals(0, this.factory.getActiveAllocations());
+	}
+
+	@Test
+	public void sliceRemainsValidAfterGrowing() {
+		DataBuffer buffer = this.factory.allocateBuffer(64);
+		buffer.write("abcdef".getBytes(StandardCharsets.UTF_8));
+		DataBuffer slice = buffer.slice(2, 2);
+		buffer.write(new byte[300]);
+
+		// The previous chunk must not be handed out while the buffer is alive
+		DataBuffer other = this.factory.allocateBuffer(64);
+		other.write("xxxxxxxx".getBytes(StandardCharsets.UTF_8));
+		assertEquals('c', slice.getByte(0));
+		assertEquals('d', slice.getByte(1));
+
+		DataBufferUtils.release(other);
+		assertTrue(DataBufferUtils.release(buffer));
+		assertEquals(0, this.factory.getActiveAllocations());
+	}
+
+	@Test
+	public void inputStreamReleasesOnClose() throws Exception {
+		DataBuffer buffer = this.factory.allocateBuffer(64);
+		buffer.write("abc".getBytes(StandardCharsets.UTF_8));
+		try (InputStream inputStream = buffer.asInputStream(true)) {
+			assertEquals('a', inputStream.read());
+		}
+		assertEquals(0, this.factory.getActiveAllocations());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void retainAfterRelease() {
+		PooledDataBuffer buffer = (PooledDataBuffer) this.factory.allocateBuffer(64);
+		buffer.release();
+		buffer.retain();
+	}
+
+	@Test
+	public void wrappedBuffersAreNotPooled() {
+		DataBuffer buffer = this.factory.wrap(new byte[] {'a'});
+		assertFalse(buffer instanceof PooledDataBuffer);
+		assertEquals(0, this.factory.getActiveAllocations());
+	}
+
+	@Test
+	public void leakDetection() throws Exception {
+		PooledDataBufferFactory factory = new PooledDataBufferFactory();
+		factory.setLeakDetection(true);
+		factory.allocateBuffer(64);
+		assertEquals(1, factory.getActiveAllocations());
+
+		for (int i = 0; i < 50 && factory.getActiveAllocations() > 0; i++) {
+			System.gc();
+			Thread.sleep(20);
+			// Leaks are reported on subsequent allocations
+			DataBufferUtils.release(factory.allocateBuffer(64));
+		}
+		assertEquals(0, factory.getActiveAllocations());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void maxPooledCapacityMustBePowerOfTwo() {
+		new PooledDataBufferFactory(false, 256, 1000, 4, 2);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,22 @@
 
 package org.springframework.core.io.support;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import org.springframework.core.io.Resource;
 import org.springframework.util.StringUtils;
@@ -56,6 +64,9 @@ public class PathMatchingResourcePatternResolverTests {
 
 	private PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
 
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 
 	@Test(expected = FileNotFoundException.class)
 	public void invalidPrefixWithPatternElementInIt() throws IOException {
@@ -118,6 +129,49 @@ public class PathMatchingResourcePatternResolverTests {
 		assertTrue("Could not find aspectj_1_5_0.dtd in the root of the aspectjweaver jar", found);
 	}
 
+	@Test
+	public void patternInJarWithJarEntryIndex() throws IOException {
+		PathMatchingResourcePatternResolver uncached = new PathMatchingResourcePatternResolver();
+		uncached.setCacheJarEntries(false);
+		assertTrue(resolver.isCacheJarEntries());
+		assertFalse(uncached.isCacheJarEntries());
+
+		for (String pattern : new String[] {"classpath*:org/reactivestreams/*.class",
+				"classpath*:org/reactivestreams/**/*.class", "classpath*:org/reactive*/*.class",
+				"classpath*:org/reactivestreams/Pub*", "classpath*:org/reactivestreams/none/*.class"}) {
+			assertEquals(pattern, getUrls(uncached.getResources(pattern)), getUrls(resolver.getResources(pattern)));
+		}
+		assertProtocolAndFilenames(resolver.getResources("classpath*:org/reactivestreams/*.class"),
+				"jar", CLASSES_IN_REACTIVESTREAMS);
+
+		resolver.clearCache();
+		assertProtocolAndFilenames(resolver.getResources("classpath:org/reactivestreams/*.class"),
+				"jar", CLASSES_IN_REACTIVESTREAMS);
+	}
+
+	@Test
+	public void patternInJarWithJarEntryIndexKeepsEntryOrder() throws IOException {
+		File jarFile = this.temporaryFolder.newFile("entries.jar");
+		try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(jarFile))) {
+			for (String name : new String[] {"order/", "order/c.txt", "order/a.txt", "order/sub/", "order/b.txt"}) {
+				jar.putNextEntry(new JarEntry(name));
+				jar.closeEntry();
+			}
+		}
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] {jarFile.toURI().toURL()}, null)) {
+			PathMatchingResourcePatternResolver cached = new PathMatchingResourcePatternResolver(classLoader);
+			PathMatchingResourcePatternResolver uncached = new PathMatchingResourcePatternResolver(classLoader);
+			uncached.setCacheJarEntries(false);
+
+			Resource[] resources = cached.getResources("classpath*:order/*.txt");
+			assertEquals(getUrls(uncached.getResources("classpath*:order/*.txt")), getUrls(resources));
+			assertEquals(3, resources.length);
+			assertEquals("c.txt", resources[0].getFilename());
+			assertEquals("a.txt", resources[1].getFilename());
+			assertEquals("b.txt", resources[2].getFilename());
+		}
+	}
+
 
 	private void assertProtocolAndFilenames(Resource[] resources, String protocol, String... filenames)
 			throws IOException {
@@ -148,6 +202,14 @@ public class PathMatchingResourcePatternResolverTests {
 		}
 	}
 
+	private List<String> getUrls(Resource[] resources) throws IOException {
+		List<String> urls = new ArrayList<>(resources.length);
+		for (Resource resource : resources) {
+			urls.add(resource.getURL().toExternalForm());
+		}
+		return urls;
+	}
+
 	private void assertFilenameIn(Resource resource, String... filenames) {
 		String filename = resource.getFilename();
 		assertTrue(resource + " does not have a filename that matches any of the specified names",
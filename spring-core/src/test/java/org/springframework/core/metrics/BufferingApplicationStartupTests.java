@@ -0,0 +1,130 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link BufferingApplicationStartup}.
+ */
+public class BufferingApplicationStartupTests {
+
+	private final BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10);
+
+
+	@Test
+	public void nestedSteps() {
+		StartupStep refresh = this.applicationStartup.start("test.refresh");
+		StartupStep first = this.applicationStartup.start("test.bean").tag("name", "first");
+		StartupStep nested = this.applicationStartup.start("test.bean").tag("name", () -> "nested");
+		nested.end();
+		first.end();
+		StartupStep second = this.applicationStartup.start("test.bean").tag("name", "second");
+		second.end();
+		refresh.end();
+
+		assertNull(refresh.getParentId());
+		assertEquals(Long.valueOf(refresh.getId()), first.getParentId());
+		assertEquals(Long.valueOf(first.getId()), nested.getParentId());
+		assertEquals(Long.valueOf(refresh.getId()), second.getParentId());
+
+		List<Map<String, Object>> steps = this.applicationStartup.getBufferedSteps();
+		assertEquals(4, steps.size());
+		assertEquals(nested.getId(), steps.get(0).get("id"));
+		assertEquals(first.getId(), steps.get(0).get("parentId"));
+		assertEquals("test.bean", steps.get(0).get("name"));
+		assertEquals(refresh.getId(), steps.get(3).get("id"));
+		assertNull(steps.get(3).get("parentId"));
+		assertEquals("nested", ((Map<?, ?>) steps.get(0).get("tags")).get("name"));
+		assertTrue((Long) steps.get(3).get("duration") >= (Long) steps.get(1).get("duration"));
+		assertTrue((Long) steps.get(3).get("startTime") <= (Long) steps.get(1).get("startTime"));
+	}
+
+	@Test
+	public void bufferedStepsAreSerializable() throws Exception {
+		StartupStep refresh = this.applicationStartup.start("test.refresh");
+		this.applicationStartup.start("test.bean").tag("name", "first").end();
+		refresh.end();
+
+		List<Map<String, Object>> steps = this.applicationStartup.getBufferedSteps();
+		assertTrue(steps instanceof Serializable);
+		try (ObjectOutputStream out = new ObjectOutputStream(new ByteArrayOutputStream())) {
+			out.writeObject(steps);
+		}
+	}
+
+	@Test
+	public void foldedStacks() {
+		StartupStep refresh = this.applicationStartup.start("test.refresh");
+		this.applicationStartup.start("test.bean").tag("name", "a;b c").end();
+		this.applicationStartup.start("test.bean").tag("name", "a;b c").end();
+		refresh.end();
+
+		String[] lines = this.applicationStartup.getFoldedStacks().split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].matches("test\\.refresh;test\\.bean\\[name=a_b_c] \\d+"));
+		assertTrue(lines[1].matches("test\\.refresh \\d+"));
+	}
+
+	@Test
+	public void unendedNestedStep() {
+		StartupStep refresh = this.applicationStartup.start("test.refresh");
+		this.applicationStartup.start("test.failed");
+		refresh.end();
+
+		StartupStep next = this.applicationStartup.start("test.next");
+		assertNull(next.getParentId());
+	}
+
+	@Test
+	public void capacity() {
+		for (int i = 0; i < 15; i++) {
+			this.applicationStartup.start("test.step").end();
+		}
+		assertEquals(10, this.applicationStartup.getBufferedStepCount());
+		assertEquals(5, this.applicationStartup.getDroppedStepCount());
+
+		this.applicationStartup.clear();
+		assertTrue(this.applicationStartup.getBufferedSteps().isEmpty());
+		assertEquals(0, this.applicationStartup.getDroppedStepCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void endTwice() {
+		StartupStep step = this.applicationStartup.start("test.step");
+		step.end();
+		step.end();
+	}
+
+	@Test
+	public void defaultApplicationStartup() {
+		StartupStep step = ApplicationStartup.DEFAULT.start("test.step").tag("key", () -> {
+			throw new IllegalStateException("Should not compute tag value");
+		});
+		step.end();
+		assertNull(step.getParentId());
+	}
+
+}
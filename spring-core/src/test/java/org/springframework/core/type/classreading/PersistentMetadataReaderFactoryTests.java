@@ -0,0 +1,162 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.util.FileCopyUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link PersistentMetadataReaderFactory}.
+ */
+public class PersistentMetadataReaderFactoryTests {
+
+	private static final String ANNOTATED_CLASS =
+			"org/springframework/core/type/AnnotationMetadataTests$AnnotatedComponent.class";
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+	@Test
+	public void metadataFromCacheFileMatchesClassFile() throws IOException {
+		File cacheFile = new File(this.temporaryFolder.getRoot(), "metadata.cache");
+		File classFile = copyClassFile(this.temporaryFolder.newFolder());
+		long lastModified = classFile.lastModified();
+		Resource resource = new FileSystemResource(classFile);
+
+		PersistentMetadataReaderFactory factory = createFactory(cacheFile);
+		AnnotationMetadata expected = factory.getMetadataReader(resource).getAnnotationMetadata();
+		factory.clearCache();
+		assertTrue(cacheFile.isFile());
+
+		// Same size and timestamp but unreadable content: only served from the cache file
+		FileCopyUtils.copy(new byte[(int) classFile.length()], classFile);
+		assertTrue(classFile.setLastModified(lastModified));
+		PersistentMetadataReaderFactory cachedFactory = createFactory(cacheFile);
+		assertEquals(1, cachedFactory.getCachedClassCount());
+		assertSameMetadata(expected, cachedFactory.getMetadataReader(resource).getAnnotationMetadata());
+		assertSame(cachedFactory.getMetadataReader(resource), cachedFactory.getMetadataReader(resource));
+	}
+
+	@Test
+	public void modifiedClassFileIsReadAgain() throws IOException {
+		File cacheFile = new File(this.temporaryFolder.getRoot(), "metadata.cache");
+		File classFile = copyClassFile(this.temporaryFolder.newFolder());
+		Resource resource = new FileSystemResource(classFile);
+
+		PersistentMetadataReaderFactory factory = createFactory(cacheFile);
+		factory.getMetadataReader(resource);
+		factory.save();
+
+		FileCopyUtils.copy(new byte[(int) classFile.length()], classFile);
+		assertTrue(classFile.setLastModified(classFile.lastModified() + 10000));
+		try {
+			createFactory(cacheFile).getMetadataReader(resource);
+			fail("Should have read the modified class file");
+		}
+		catch (IOException | ArrayIndexOutOfBoundsException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void metadataForJarEntryIsValidatedAgainstJarContent() throws IOException {
+		File cacheFile = new File(this.temporaryFolder.getRoot(), "metadata.cache");
+		File jarFile = this.temporaryFolder.newFile("classes.jar");
+		writeJar(jarFile, FileCopyUtils.copyToByteArray(new ClassPathResource(ANNOTATED_CLASS).getInputStream()));
+		Resource resource = new UrlResource("jar:" + jarFile.toURI().toURL() + "!/" + ANNOTATED_CLASS);
+
+		PersistentMetadataReaderFactory factory = createFactory(cacheFile);
+		AnnotationMetadata expected = factory.getMetadataReader(resource).getAnnotationMetadata();
+		factory.save();
+
+		PersistentMetadataReaderFactory cachedFactory = createFactory(cacheFile);
+		assertSameMetadata(expected, cachedFactory.getMetadataReader(resource).getAnnotationMetadata());
+		cachedFactory.clearCache();
+
+		// Different entry content changes the checksum of the jar
+		writeJar(jarFile, new byte[16]);
+		try {
+			createFactory(cacheFile).getMetadataReader(resource);
+			fail("Should have read the modified class file");
+		}
+		catch (IOException | ArrayIndexOutOfBoundsException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void unreadableCacheFileIsIgnored() throws IOException {
+		File cacheFile = this.temporaryFolder.newFile("metadata.cache");
+		FileCopyUtils.copy("not a cache".getBytes(), cacheFile);
+		PersistentMetadataReaderFactory factory = createFactory(cacheFile);
+		assertEquals(0, factory.getCachedClassCount());
+		assertNotNull(factory.getMetadataReader(new ClassPathResource(ANNOTATED_CLASS)));
+	}
+
+
+	private PersistentMetadataReaderFactory createFactory(File cacheFile) {
+		return new PersistentMetadataReaderFactory(cacheFile, getClass().getClassLoader());
+	}
+
+	private File copyClassFile(File folder) throws IOException {
+		File classFile = new File(folder, "AnnotatedComponent.class");
+		FileCopyUtils.copy(new ClassPathResource(ANNOTATED_CLASS).getInputStream(), new FileOutputStream(classFile));
+		return classFile;
+	}
+
+	private void writeJar(File jarFile, byte[] content) throws IOException {
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile))) {
+			out.putNextEntry(new JarEntry(ANNOTATED_CLASS));
+			out.write(content);
+			out.closeEntry();
+		}
+	}
+
+	private void assertSameMetadata(AnnotationMetadata expected, AnnotationMetadata actual) {
+		assertEquals(expected.getClassName(), actual.getClassName());
+		assertEquals(expected.isIndependent(), actual.isIndependent());
+		assertEquals(expected.getEnclosingClassName(), actual.getEnclosingClassName());
+		assertArrayEquals(expected.getInterfaceNames(), actual.getInterfaceNames());
+		assertEquals(expected.getAnnotationTypes(), actual.getAnnotationTypes());
+		for (String annotationType : expected.getAnnotationTypes()) {
+			assertEquals(expected.getMetaAnnotationTypes(annotationType), actual.getMetaAnnotationTypes(annotationType));
+			assertEquals(String.valueOf(expected.getAnnotationAttributes(annotationType, true)),
+					String.valueOf(actual.getAnnotationAttributes(annotationType, true)));
+		}
+		String methodAnnotation = "org.springframework.core.type.TestAutowired";
+		assertEquals(1, actual.getAnnotatedMethods(methodAnnotation).size());
+		assertEquals("doWork", actual.getAnnotatedMethods(methodAnnotation).iterator().next().getMethodName());
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ConcurrentLruHashMap}.
+ */
+public class ConcurrentLruHashMapTests {
+
+	private final ConcurrentLruHashMap<String, String> map = new ConcurrentLruHashMap<>(2, 1);
+
+
+	@Test
+	public void putAndGet() {
+		assertEquals(2, this.map.getSizeLimit());
+		assertNull(this.map.put("k1", "v1"));
+		assertEquals("v1", this.map.put("k1", "v1a"));
+		assertEquals("v1a", this.map.get("k1"));
+		assertNull(this.map.get("k2"));
+		assertEquals(1, this.map.size());
+		assertEquals(1, this.map.getHitCount());
+		assertEquals(1, this.map.getMissCount());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() {
+		this.map.put("k1", "v1");
+		this.map.put("k2", "v2");
+		this.map.get("k1");
+		this.map.put("k3", "v3");
+		assertEquals(2, this.map.size());
+		assertTrue(this.map.containsKey("k1"));
+		assertFalse(this.map.containsKey("k2"));
+		assertTrue(this.map.containsKey("k3"));
+		assertEquals(1, this.map.getEvictionCount());
+	}
+
+	@Test
+	public void nullKeysAndValues() {
+		this.map.put(null, "v1");
+		this.map.put("k2", null);
+		assertEquals("v1", this.map.get(null));
+		assertNull(this.map.get("k2"));
+		assertTrue(this.map.containsKey("k2"));
+		assertEquals(2, this.map.getHitCount());
+		assertEquals(0, this.map.getMissCount());
+	}
+
+	@Test
+	public void concurrentMapOperations() {
+		assertNull(this.map.putIfAbsent("k1", "v1"));
+		assertEquals("v1", this.map.putIfAbsent("k1", "v2"));
+		assertFalse(this.map.replace("k1", "v2", "v3"));
+		assertTrue(this.map.replace("k1", "v1", "v3"));
+		assertNull(this.map.replace("k2", "v2"));
+		assertFalse(this.map.containsKey("k2"));
+		assertEquals("v4", this.map.computeIfAbsent("k2", key -> "v4"));
+		assertFalse(this.map.remove("k1", "v1"));
+		assertTrue(this.map.remove("k1", "v3"));
+		assertEquals("v4", this.map.remove("k2"));
+		assertTrue(this.map.isEmpty());
+	}
+
+	@Test
+	public void segmentedSizeLimit() {
+		ConcurrentLruHashMap<Integer, Integer> map = new ConcurrentLruHashMap<>(100);
+		for (int i = 0; i < 1000; i++) {
+			map.put(i, i);
+		}
+		assertTrue(map.size() <= 100);
+		assertEquals(1000 - map.size(), map.getEvictionCount());
+		assertEquals(map.size(), map.entrySet().size());
+		map.clear();
+		assertEquals(0, map.size());
+	}
+
+	@Test
+	public void removeThroughViews() {
+		ConcurrentLruHashMap<String, String> map = new ConcurrentLruHashMap<>(10);
+		map.put("k1", "v1");
+		map.put("k2", "v2");
+		map.put("k3", "v3");
+		map.put(null, "v4");
+		assertTrue(map.keySet().remove("k1"));
+		assertTrue(map.values().remove("v2"));
+		assertFalse(map.entrySet().remove(new AbstractMap.SimpleEntry<>("k3", "other")));
+		assertTrue(map.entrySet().remove(new AbstractMap.SimpleEntry<>("k3", "v3")));
+		Iterator<String> iterator = map.keySet().iterator();
+		assertNull(iterator.next());
+		iterator.remove();
+		assertFalse(iterator.hasNext());
+		assertTrue(map.isEmpty());
+	}
+
+	@Test
+	public void viewsAreLive() {
+		ConcurrentLruHashMap<String, String> map = new ConcurrentLruHashMap<>(10);
+		Set<Map.Entry<String, String>> entries = map.entrySet();
+		map.put("k1", "v1");
+		assertEquals(1, entries.size());
+		Map.Entry<String, String> entry = entries.iterator().next();
+		assertEquals("v1", entry.setValue("v1a"));
+		assertEquals("v1a", map.get("k1"));
+		assertTrue(map.keySet().contains("k1"));
+		assertTrue(map.values().contains("v1a"));
+		entries.clear();
+		assertTrue(map.isEmpty());
+	}
+
+	@Test
+	public void iterationDoesNotCountAsAccess() {
+		this.map.put("k1", "v1");
+		this.map.put("k2", "v2");
+		for (Map.Entry<String, String> entry : this.map.entrySet()) {
+			assertNotNull(entry.getValue());
+		}
+		this.map.put("k3", "v3");
+		assertFalse(this.map.containsKey("k1"));
+		assertEquals(0, this.map.getHitCount());
+	}
+
+	@Test
+	public void createCache() {
+		String propertyName = ConcurrentLruHashMap.SIZE_LIMIT_PROPERTY_NAME + ".test";
+		System.setProperty(propertyName, "0");
+		try {
+			ConcurrentMap<String, String> cache = ConcurrentLruHashMap.createCache("test", 16);
+			assertTrue(cache instanceof ConcurrentReferenceHashMap);
+
+			System.setProperty(propertyName, "10");
+			cache = ConcurrentLruHashMap.createCache("test", 16);
+			assertTrue(cache instanceof ConcurrentLruHashMap);
+			assertEquals(10, ((ConcurrentLruHashMap<?, ?>) cache).getSizeLimit());
+			Map<String, ConcurrentLruHashMap<?, ?>> caches = ConcurrentLruHashMap.getCaches();
+			assertSame(cache, caches.get("test"));
+		}
+		finally {
+			System.clearProperty(propertyName);
+			ConcurrentLruHashMap.removeCache("test");
+		}
+		assertFalse(ConcurrentLruHashMap.getCaches().containsKey("test"));
+	}
+
+	@Test
+	public void createCacheWithInvalidSizeLimit() {
+		String propertyName = ConcurrentLruHashMap.SIZE_LIMIT_PROPERTY_NAME + ".test";
+		System.setProperty(propertyName, "many");
+		try {
+			ConcurrentMap<String, String> cache = ConcurrentLruHashMap.createCache("test", 16);
+			assertTrue(cache instanceof ConcurrentReferenceHashMap);
+			assertFalse(ConcurrentLruHashMap.getCaches().containsKey("test"));
+		}
+		finally {
+			System.clearProperty(propertyName);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -239,6 +239,25 @@ public class ConcurrentReferenceHashMapTests {
 		assertThat(this.map.get(5), is("5"));
 	}
 
+	@Test
+	public void shouldNotPurgeOnGetWithoutPurgeOnRead() {
+		this.map = new TestWeakConcurrentCache<>(1, 0.75f, 1, false);
+		for (int i = 1; i <= 5; i++) {
+			this.map.put(i, String.valueOf(i));
+		}
+		this.map.getMockReference(1, Restructure.NEVER).queueForPurge();
+		this.map.getMockReference(3, Restructure.NEVER).queueForPurge();
+		assertThat(this.map.get(1), is("1"));
+		assertThat(this.map.get(2), is("2"));
+		assertThat(this.map.containsKey(3), is(true));
+		assertThat(this.map.size(), is(5));
+		this.map.put(6, "6");
+		assertThat(this.map.get(1), is(nullValue()));
+		assertThat(this.map.get(2), is("2"));
+		assertThat(this.map.containsKey(3), is(false));
+		assertThat(this.map.size(), is(4));
+	}
+
 	@Test
 	public void shouldPergeOnPut() {
 		this.map = new TestWeakConcurrentCache<>(1, 0.75f, 1);
@@ -577,6 +596,10 @@ public class ConcurrentReferenceHashMapTests {
 			super(initialCapacity, loadFactor, concurrencyLevel);
 		}
 
+		public TestWeakConcurrentCache(int initialCapacity, float loadFactor, int concurrencyLevel, boolean purgeOnRead) {
+			super(initialCapacity, loadFactor, concurrencyLevel, ReferenceType.SOFT, purgeOnRead);
+		}
+
 		public TestWeakConcurrentCache(int initialCapacity, int concurrencyLevel) {
 			super(initialCapacity, concurrencyLevel);
 		}
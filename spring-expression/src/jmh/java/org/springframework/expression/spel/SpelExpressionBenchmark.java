@@ -0,0 +1,139 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * Benchmarks for parsing and evaluating {@link org.springframework.expression.spel.standard.SpelExpression}s,
+ * in interpreted as well as in compiled mode.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class SpelExpressionBenchmark {
+
+	@Benchmark
+	public Expression parse(BenchmarkData data) {
+		return data.parser.parseExpression(BenchmarkData.EXPRESSION);
+	}
+
+	@Benchmark
+	public Object evaluate(BenchmarkData data) {
+		return data.expression.getValue(data.context);
+	}
+
+	@Benchmark
+	public Object evaluatePropertyChain(BenchmarkData data) {
+		return data.propertyChain.getValue(data.context);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		static final String EXPRESSION = "name.length() > 3 and attributes['enabled'] == true and age * 2 > 40";
+
+		@Param({"OFF", "IMMEDIATE"})
+		public SpelCompilerMode compilerMode;
+
+		public SpelExpressionParser parser;
+
+		public StandardEvaluationContext context;
+
+		public Expression expression;
+
+		public Expression propertyChain;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.parser = new SpelExpressionParser(
+					new SpelParserConfiguration(this.compilerMode, getClass().getClassLoader()));
+			this.context = new StandardEvaluationContext(new Person("Juergen", 42));
+			this.expression = this.parser.parseExpression(EXPRESSION);
+			this.propertyChain = this.parser.parseExpression("address.city.name");
+			// Evaluate once so that expressions in IMMEDIATE mode get compiled up front
+			this.expression.getValue(this.context);
+			this.propertyChain.getValue(this.context);
+		}
+	}
+
+
+	public static class Person {
+
+		private final String name;
+
+		private final int age;
+
+		private final Map<String, Object> attributes = new HashMap<>();
+
+		private final Address address = new Address();
+
+		public Person(String name, int age) {
+			this.name = name;
+			this.age = age;
+			this.attributes.put("enabled", true);
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public Map<String, Object> getAttributes() {
+			return this.attributes;
+		}
+
+		public Address getAddress() {
+			return this.address;
+		}
+	}
+
+
+	public static class Address {
+
+		private final City city = new City();
+
+		public City getCity() {
+			return this.city;
+		}
+	}
+
+
+	public static class City {
+
+		public String getName() {
+			return "Linz";
+		}
+	}
+
+}
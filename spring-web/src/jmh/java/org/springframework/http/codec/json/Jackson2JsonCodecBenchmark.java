@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+
+/**
+ * Benchmarks for {@link Jackson2JsonEncoder} and {@link Jackson2JsonDecoder}
+ * throughput, for a single JSON array as well as for a stream of elements.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class Jackson2JsonCodecBenchmark {
+
+	private static final ResolvableType ITEM_TYPE = ResolvableType.forClass(Item.class);
+
+
+	@Benchmark
+	public List<DataBuffer> encodeArray(BenchmarkData data) {
+		return release(data.encoder.encode(Flux.fromIterable(data.items), data.bufferFactory,
+				ITEM_TYPE, MediaType.APPLICATION_JSON, Collections.emptyMap()).collectList().block());
+	}
+
+	@Benchmark
+	public List<DataBuffer> encodeStream(BenchmarkData data) {
+		return release(data.encoder.encode(Flux.fromIterable(data.items), data.bufferFactory,
+				ITEM_TYPE, MediaType.APPLICATION_STREAM_JSON, Collections.emptyMap()).collectList().block());
+	}
+
+	@Benchmark
+	public List<Object> decodeArray(BenchmarkData data) {
+		Flux<DataBuffer> input = Flux.fromIterable(data.jsonChunks).map(data.bufferFactory::wrap);
+		return data.decoder.decode(input, ITEM_TYPE, MediaType.APPLICATION_JSON, Collections.emptyMap())
+				.collectList().block();
+	}
+
+	private static List<DataBuffer> release(List<DataBuffer> buffers) {
+		buffers.forEach(DataBufferUtils::release);
+		return buffers;
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"1", "100", "10000"})
+		public int itemCount;
+
+		public DataBufferFactory bufferFactory;
+
+		public Jackson2JsonEncoder encoder;
+
+		public Jackson2JsonDecoder decoder;
+
+		public List<Item> items;
+
+		public List<byte[]> jsonChunks;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.bufferFactory = new DefaultDataBufferFactory();
+			this.encoder = new Jackson2JsonEncoder();
+			this.decoder = new Jackson2JsonDecoder();
+			this.items = new ArrayList<>(this.itemCount);
+			for (int i = 0; i < this.itemCount; i++) {
+				this.items.add(new Item("item" + i, i, i % 2 == 0));
+			}
+			List<DataBuffer> encoded = this.encoder.encode(Mono.just(this.items), this.bufferFactory,
+					ResolvableType.forClassWithGenerics(List.class, Item.class), MediaType.APPLICATION_JSON,
+					Collections.emptyMap()).collectList().block();
+			this.jsonChunks = new ArrayList<>();
+			for (DataBuffer buffer : encoded) {
+				// Re-chunk into 8 KB pieces, as typically received from the network
+				while (buffer.readableByteCount() > 0) {
+					byte[] chunk = new byte[Math.min(8192, buffer.readableByteCount())];
+					buffer.read(chunk);
+					this.jsonChunks.add(chunk);
+				}
+				DataBufferUtils.release(buffer);
+			}
+		}
+	}
+
+
+	public static class Item {
+
+		private String name;
+
+		private long value;
+
+		private boolean active;
+
+		public Item() {
+		}
+
+		public Item(String name, long value, boolean active) {
+			this.name = name;
+			this.value = value;
+			this.active = active;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public long getValue() {
+			return this.value;
+		}
+
+		public void setValue(long value) {
+			this.value = value;
+		}
+
+		public boolean isActive() {
+			return this.active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+	}
+
+}
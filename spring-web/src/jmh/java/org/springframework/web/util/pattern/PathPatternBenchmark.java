@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * Benchmarks for {@link PathPattern} matching compared to {@link AntPathMatcher},
+ * using the same set of request mapping patterns and request paths.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class PathPatternBenchmark {
+
+	@Benchmark
+	public void pathPatternMatch(BenchmarkData data, Blackhole bh) {
+		for (String path : data.paths) {
+			PathContainer pathContainer = PathContainer.parsePath(path);
+			for (PathPattern pattern : data.pathPatterns) {
+				bh.consume(pattern.matches(pathContainer));
+			}
+		}
+	}
+
+	@Benchmark
+	public void pathPatternMatchAndExtract(BenchmarkData data, Blackhole bh) {
+		for (PathContainer pathContainer : data.parsedPaths) {
+			for (PathPattern pattern : data.pathPatterns) {
+				bh.consume(pattern.matchAndExtract(pathContainer));
+			}
+		}
+	}
+
+	@Benchmark
+	public void antPathMatcherMatch(BenchmarkData data, Blackhole bh) {
+		for (String path : data.paths) {
+			for (String pattern : data.patterns) {
+				bh.consume(data.antPathMatcher.match(pattern, path));
+			}
+		}
+	}
+
+	@Benchmark
+	public PathPattern parse(BenchmarkData data) {
+		return data.parser.parse("/api/{version}/users/{id}/orders/{order:[0-9]+}");
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public String[] patterns = {"/", "/static/**", "/api/{version}/users", "/api/{version}/users/{id}",
+				"/api/{version}/users/{id}/orders/{order}", "/api/*/products/**", "/resources/**",
+				"/admin/{section:[a-z]+}/settings"};
+
+		public String[] paths = {"/", "/static/css/site.css", "/api/v1/users", "/api/v1/users/42",
+				"/api/v1/users/42/orders/1337", "/api/v2/products/12/reviews", "/resources/js/lib/app.js",
+				"/admin/security/settings", "/unknown/path"};
+
+		public PathPatternParser parser;
+
+		public List<PathPattern> pathPatterns;
+
+		public List<PathContainer> parsedPaths;
+
+		public AntPathMatcher antPathMatcher;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.parser = new PathPatternParser();
+			this.pathPatterns = new ArrayList<>(this.patterns.length);
+			for (String pattern : this.patterns) {
+				this.pathPatterns.add(this.parser.parse(pattern));
+			}
+			this.parsedPaths = new ArrayList<>(this.paths.length);
+			for (String path : this.paths) {
+				this.parsedPaths.add(PathContainer.parsePath(path));
+			}
+			this.antPathMatcher = new AntPathMatcher();
+		}
+	}
+
+}
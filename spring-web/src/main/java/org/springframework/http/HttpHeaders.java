@@ -27,6 +27,9 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -413,6 +416,12 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 
 	private final boolean readOnly;
 
+	@Nullable
+	private transient Collection<List<String>> readOnlyValues;
+
+	@Nullable
+	private transient Set<Entry<String, List<String>>> readOnlyEntrySet;
+
 
 	/**
 	 * Construct a new, empty instance of the {@code HttpHeaders} object.
@@ -421,18 +430,24 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 		this(new LinkedCaseInsensitiveMap<>(8, Locale.ENGLISH), false);
 	}
 
+	/**
+	 * Construct a new {@code HttpHeaders} instance backed by an existing map.
+	 * <p>This constructor is available as an optimization for adapting to existing
+	 * headers map structures, primarily for internal use within the framework.
+	 * @param headers the headers map (expected to operate with case-insensitive keys)
+	 * @since 5.0.16
+	 */
+	public HttpHeaders(MultiValueMap<String, String> headers) {
+		this(headers, false);
+	}
+
 	/**
 	 * Private constructor that can create read-only {@code HttpHeader} instances.
+	 * <p>A read-only instance is a view onto the given headers, rather than a copy.
 	 */
 	private HttpHeaders(Map<String, List<String>> headers, boolean readOnly) {
-		if (readOnly) {
-			Map<String, List<String>> map = new LinkedCaseInsensitiveMap<>(headers.size(), Locale.ENGLISH);
-			headers.forEach((key, valueList) -> map.put(key, Collections.unmodifiableList(valueList)));
-			this.headers = Collections.unmodifiableMap(map);
-		}
-		else {
-			this.headers = headers;
-		}
+		Assert.notNull(headers, "Headers must not be null");
+		this.headers = (readOnly ? Collections.unmodifiableMap(headers) : headers);
 		this.readOnly = readOnly;
 	}
 
@@ -1496,7 +1511,8 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 	@Override
 	@Nullable
 	public List<String> get(Object key) {
-		return this.headers.get(key);
+		List<String> values = this.headers.get(key);
+		return (this.readOnly && values != null ? Collections.unmodifiableList(values) : values);
 	}
 
 	@Override
@@ -1526,11 +1542,27 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 
 	@Override
 	public Collection<List<String>> values() {
+		if (this.readOnly) {
+			Collection<List<String>> values = this.readOnlyValues;
+			if (values == null) {
+				values = new ReadOnlyValues(this.headers.values());
+				this.readOnlyValues = values;
+			}
+			return values;
+		}
 		return this.headers.values();
 	}
 
 	@Override
 	public Set<Entry<String, List<String>>> entrySet() {
+		if (this.readOnly) {
+			Set<Entry<String, List<String>>> entrySet = this.readOnlyEntrySet;
+			if (entrySet == null) {
+				entrySet = new ReadOnlyEntrySet(this.headers.entrySet());
+				this.readOnlyEntrySet = entrySet;
+			}
+			return entrySet;
+		}
 		return this.headers.entrySet();
 	}
 
@@ -1543,13 +1575,28 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 		if (!(other instanceof HttpHeaders)) {
 			return false;
 		}
+		// Compare by content, since the underlying maps may be read-only views
+		// or adapters to native server headers rather than regular maps
 		HttpHeaders otherHeaders = (HttpHeaders) other;
-		return this.headers.equals(otherHeaders.headers);
+		if (size() != otherHeaders.size()) {
+			return false;
+		}
+		for (Entry<String, List<String>> entry : this.headers.entrySet()) {
+			List<String> otherValues = otherHeaders.get(entry.getKey());
+			if (otherValues == null || !new ArrayList<>(entry.getValue()).equals(otherValues)) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
 	public int hashCode() {
-		return this.headers.hashCode();
+		int hashCode = 0;
+		for (Entry<String, List<String>> entry : this.headers.entrySet()) {
+			hashCode += entry.getKey().hashCode() ^ new ArrayList<>(entry.getValue()).hashCode();
+		}
+		return hashCode;
 	}
 
 	@Override
@@ -1573,4 +1620,72 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 		return DATE_FORMATTER.format(time);
 	}
 
+
+	/**
+	 * Read-only view of the header values of a read-only instance.
+	 */
+	private static class ReadOnlyValues extends AbstractCollection<List<String>> {
+
+		private final Collection<List<String>> values;
+
+		ReadOnlyValues(Collection<List<String>> values) {
+			this.values = values;
+		}
+
+		@Override
+		public Iterator<List<String>> iterator() {
+			Iterator<List<String>> iterator = this.values.iterator();
+			return new Iterator<List<String>>() {
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+				@Override
+				public List<String> next() {
+					return Collections.unmodifiableList(iterator.next());
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return this.values.size();
+		}
+	}
+
+
+	/**
+	 * Read-only view of the header entries of a read-only instance.
+	 */
+	private static class ReadOnlyEntrySet extends AbstractSet<Entry<String, List<String>>> {
+
+		private final Set<Entry<String, List<String>>> entries;
+
+		ReadOnlyEntrySet(Set<Entry<String, List<String>>> entries) {
+			this.entries = entries;
+		}
+
+		@Override
+		public Iterator<Entry<String, List<String>>> iterator() {
+			Iterator<Entry<String, List<String>>> iterator = this.entries.iterator();
+			return new Iterator<Entry<String, List<String>>>() {
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+				@Override
+				public Entry<String, List<String>> next() {
+					Entry<String, List<String>> entry = iterator.next();
+					return new AbstractMap.SimpleImmutableEntry<>(
+							entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return this.entries.size();
+		}
+	}
+
 }
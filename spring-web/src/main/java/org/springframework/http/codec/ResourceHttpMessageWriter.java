@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import javax.servlet.ServletResponse;
 
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
@@ -44,9 +45,11 @@ import org.springframework.http.MediaType;
 import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ReactiveHttpOutputMessage;
 import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.MimeTypeUtils;
 
 /**
@@ -70,6 +73,9 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 
 	private static final ResolvableType REGION_TYPE = ResolvableType.forClass(ResourceRegion.class);
 
+	private static final boolean servletPresent =
+			ClassUtils.isPresent("javax.servlet.ServletResponse", ResourceHttpMessageWriter.class.getClassLoader());
+
 
 	private final ResourceEncoder encoder;
 
@@ -89,6 +95,26 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 	}
 
 
+	/**
+	 * Set the size from which on file-based resources and resource regions are
+	 * written as memory-mapped buffers, when the output message does not support
+	 * {@link ZeroCopyHttpOutputMessage zero-copy} transfers. On Servlet containers,
+	 * where zero-copy is implemented through memory-mapping as well, this also
+	 * determines whether resources are written through zero-copy.
+	 * <p>By default this is set to -1, i.e. resources are always read into
+	 * allocated buffers.
+	 * @param mappedFileThreshold the minimum size in bytes, or -1 to disable
+	 * memory-mapping
+	 * @since 5.0.16
+	 * @see ResourceEncoder#setMappedFileThreshold(long)
+	 * @see ResourceRegionEncoder#setMappedFileThreshold(long)
+	 */
+	public void setMappedFileThreshold(long mappedFileThreshold) {
+		this.encoder.setMappedFileThreshold(mappedFileThreshold);
+		this.regionEncoder.setMappedFileThreshold(mappedFileThreshold);
+	}
+
+
 	@Override
 	public boolean canWrite(ResolvableType elementType, @Nullable MediaType mediaType) {
 		return this.encoder.canEncode(elementType, mediaType);
@@ -152,7 +178,7 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 		return -1;
 	}
 
-	private static Optional<Mono<Void>> zeroCopy(Resource resource, @Nullable ResourceRegion region,
+	private Optional<Mono<Void>> zeroCopy(Resource resource, @Nullable ResourceRegion region,
 			ReactiveHttpOutputMessage message) {
 
 		if (message instanceof ZeroCopyHttpOutputMessage && resource.isFile()) {
@@ -160,6 +186,10 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 				File file = resource.getFile();
 				long pos = region != null ? region.getPosition() : 0;
 				long count = region != null ? region.getCount() : file.length();
+				if (isServletResponse(message) && !isMappedFile(file)) {
+					// Zero-copy on Servlet containers means memory-mapping the file
+					return Optional.empty();
+				}
 				return Optional.of(((ZeroCopyHttpOutputMessage) message).writeWith(file, pos, count));
 			}
 			catch (IOException ex) {
@@ -169,6 +199,16 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 		return Optional.empty();
 	}
 
+	private static boolean isServletResponse(ReactiveHttpOutputMessage message) {
+		return (servletPresent && message instanceof AbstractServerHttpResponse &&
+				((AbstractServerHttpResponse) message).getNativeResponse() instanceof ServletResponse);
+	}
+
+	private boolean isMappedFile(File file) {
+		long threshold = this.encoder.getMappedFileThreshold();
+		return (threshold >= 0 && file.length() >= threshold);
+	}
+
 
 	// Server-side only: single Resource or sub-regions...
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,20 +16,35 @@
 
 package org.springframework.http.server.reactive;
 
+import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import javax.servlet.AsyncContext;
 import javax.servlet.ServletResponse;
+import javax.servlet.ServletResponseWrapper;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.jetty.server.HttpOutput;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.MultiValueMap;
 
 /**
  * {@link ServletHttpHandlerAdapter} extension that uses Jetty APIs for writing
- * to the response with {@link ByteBuffer}.
+ * to the response with {@link ByteBuffer}, as well as for accessing the native
+ * request and response headers directly.
  *
  * @author Violeta Georgieva
  * @since 5.0
@@ -42,20 +57,84 @@ public class JettyHttpHandlerAdapter extends ServletHttpHandlerAdapter {
 	}
 
 
+	@Override
+	protected ServerHttpRequest createRequest(HttpServletRequest request, AsyncContext context)
+			throws IOException, URISyntaxException {
+
+		Assert.notNull(getServletPath(), "Servlet path is not initialized");
+		return new ServletServerHttpRequest(createJettyHttpHeaders(request), request, context,
+				getServletPath(), getDataBufferFactory(), getBufferSize());
+	}
+
 	@Override
 	protected ServerHttpResponse createResponse(HttpServletResponse response,
 			AsyncContext context) throws IOException {
 
-		return new JettyServerHttpResponse(response, context, getDataBufferFactory(), getBufferSize());
+		return new JettyServerHttpResponse(createJettyHttpHeaders(response), response, context,
+				getDataBufferFactory(), getBufferSize());
+	}
+
+	/**
+	 * Adapt the native Jetty request headers, falling back on a copy of the
+	 * headers if the request does not wrap a Jetty {@link Request}.
+	 */
+	private static MultiValueMap<String, String> createJettyHttpHeaders(HttpServletRequest request) {
+		Request jettyRequest = Request.getBaseRequest(request);
+		if (jettyRequest == null) {
+			return ServletServerHttpRequest.createDefaultHttpHeaders(request);
+		}
+		return new JettyHeadersAdapter(jettyRequest.getHttpFields());
+	}
+
+	/**
+	 * Adapt the native Jetty response headers, or return {@code null} if the
+	 * response does not wrap a Jetty {@link Response}.
+	 */
+	@Nullable
+	private static HttpHeaders createJettyHttpHeaders(HttpServletResponse response) {
+		ServletResponse nativeResponse = response;
+		while (nativeResponse instanceof ServletResponseWrapper) {
+			nativeResponse = ((ServletResponseWrapper) nativeResponse).getResponse();
+		}
+		if (!(nativeResponse instanceof Response)) {
+			return null;
+		}
+		return new HttpHeaders(new JettyHeadersAdapter(((Response) nativeResponse).getHttpFields()));
 	}
 
 
-	private static final class JettyServerHttpResponse extends ServletServerHttpResponse {
+	private static final class JettyServerHttpResponse extends ServletServerHttpResponse
+			implements ZeroCopyHttpOutputMessage {
+
+		private final boolean nativeHeaders;
 
-		public JettyServerHttpResponse(HttpServletResponse response, AsyncContext context,
-				DataBufferFactory factory, int bufferSize) throws IOException {
+		public JettyServerHttpResponse(@Nullable HttpHeaders nativeHeaders, HttpServletResponse response,
+				AsyncContext context, DataBufferFactory factory, int bufferSize) throws IOException {
 
-			super(response, context, factory, bufferSize);
+			super((nativeHeaders != null ? nativeHeaders : new HttpHeaders()), response, context, factory, bufferSize);
+			this.nativeHeaders = (nativeHeaders != null);
+		}
+
+		@Override
+		protected void applyHeaders() {
+			if (!this.nativeHeaders) {
+				super.applyHeaders();
+				return;
+			}
+			// Headers are already in place: just sync Jetty's own content type and length
+			HttpServletResponse response = getNativeResponse();
+			MediaType contentType = getHeaders().getContentType();
+			if (response.getContentType() == null && contentType != null) {
+				response.setContentType(contentType.toString());
+			}
+			Charset charset = (contentType != null ? contentType.getCharset() : null);
+			if (response.getCharacterEncoding() == null && charset != null) {
+				response.setCharacterEncoding(charset.name());
+			}
+			long contentLength = getHeaders().getContentLength();
+			if (contentLength != -1) {
+				response.setContentLengthLong(contentLength);
+			}
 		}
 
 		@Override
@@ -66,6 +145,11 @@ public class JettyHttpHandlerAdapter extends ServletHttpHandlerAdapter {
 			((HttpOutput) response.getOutputStream()).write(input);
 			return len;
 		}
+
+		@Override
+		public Mono<Void> writeWith(File file, long position, long count) {
+			return writeMappedFile(file, position, count);
+		}
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,6 +30,7 @@ import reactor.ipc.netty.http.server.HttpServerResponse;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ZeroCopyHttpOutputMessage;
 import org.springframework.util.Assert;
@@ -47,11 +48,15 @@ class ReactorServerHttpResponse extends AbstractServerHttpResponse implements Ze
 
 
 	public ReactorServerHttpResponse(HttpServerResponse response, DataBufferFactory bufferFactory) {
-		super(bufferFactory);
-		Assert.notNull(response, "HttpServerResponse must not be null");
+		super(bufferFactory, initHeaders(response));
 		this.response = response;
 	}
 
+	private static HttpHeaders initHeaders(HttpServerResponse response) {
+		Assert.notNull(response, "HttpServerResponse must not be null");
+		return new HttpHeaders(new NettyHeadersAdapter(response.responseHeaders()));
+	}
+
 
 	@SuppressWarnings("unchecked")
 	@Override
@@ -83,11 +88,7 @@ class ReactorServerHttpResponse extends AbstractServerHttpResponse implements Ze
 
 	@Override
 	protected void applyHeaders() {
-		getHeaders().forEach((headerName, headerValues) -> {
-			for (String value : headerValues) {
-				this.response.responseHeaders().add(headerName, value);
-			}
-		});
+		// Headers are written straight through to the Netty response headers
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -108,6 +108,14 @@ public class ServletHttpHandlerAdapter implements Servlet {
 		return this.servletPath;
 	}
 
+	/**
+	 * Configure the {@code DataBufferFactory} to use for reading the request
+	 * body and for encoding the response body.
+	 * <p>By default this is a {@link DefaultDataBufferFactory} allocating
+	 * a new heap buffer for every read and write. Consider a
+	 * {@link org.springframework.core.io.buffer.PooledDataBufferFactory}
+	 * to recycle buffers instead.
+	 */
 	public void setDataBufferFactory(DataBufferFactory dataBufferFactory) {
 		Assert.notNull(dataBufferFactory, "DataBufferFactory must not be null");
 		this.dataBufferFactory = dataBufferFactory;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -78,7 +78,19 @@ class ServletServerHttpRequest extends AbstractServerHttpRequest {
 			String servletPath, DataBufferFactory bufferFactory, int bufferSize)
 			throws IOException, URISyntaxException {
 
-		super(initUri(request), request.getContextPath() + servletPath, initHeaders(request));
+		this(createDefaultHttpHeaders(request), request, asyncContext, servletPath, bufferFactory, bufferSize);
+	}
+
+	/**
+	 * Constructor with the headers to use for the request, e.g. backed
+	 * directly by the headers of the underlying server request.
+	 * @since 5.0.16
+	 */
+	public ServletServerHttpRequest(MultiValueMap<String, String> headers, HttpServletRequest request,
+			AsyncContext asyncContext, String servletPath, DataBufferFactory bufferFactory, int bufferSize)
+			throws IOException, URISyntaxException {
+
+		super(initUri(request), request.getContextPath() + servletPath, initHeaders(headers, request));
 
 		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
 		Assert.isTrue(bufferSize > 0, "'bufferSize' must be higher than 0");
@@ -105,7 +117,7 @@ class ServletServerHttpRequest extends AbstractServerHttpRequest {
 		return new URI(url.toString());
 	}
 
-	private static HttpHeaders initHeaders(HttpServletRequest request) {
+	static MultiValueMap<String, String> createDefaultHttpHeaders(HttpServletRequest request) {
 		HttpHeaders headers = new HttpHeaders();
 		for (Enumeration<?> names = request.getHeaderNames();
 			 names.hasMoreElements(); ) {
@@ -115,6 +127,12 @@ class ServletServerHttpRequest extends AbstractServerHttpRequest {
 				headers.add(name, (String) values.nextElement());
 			}
 		}
+		return headers;
+	}
+
+	private static HttpHeaders initHeaders(MultiValueMap<String, String> headerValues, HttpServletRequest request) {
+		HttpHeaders headers = (headerValues instanceof HttpHeaders ?
+				(HttpHeaders) headerValues : new HttpHeaders(headerValues));
 		MediaType contentType = headers.getContentType();
 		if (contentType == null) {
 			String requestContentType = request.getContentType();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,12 @@
 
 package org.springframework.http.server.reactive;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import javax.servlet.AsyncContext;
 import javax.servlet.AsyncEvent;
 import javax.servlet.AsyncListener;
@@ -29,12 +32,15 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.reactivestreams.Processor;
 import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseCookie;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
@@ -46,6 +52,9 @@ import org.springframework.util.Assert;
  */
 class ServletServerHttpResponse extends AbstractListenerServerHttpResponse {
 
+	private static final int MAPPED_BUFFER_SIZE = 1024 * 1024;
+
+
 	private final HttpServletResponse response;
 
 	private final ServletOutputStream outputStream;
@@ -64,7 +73,18 @@ class ServletServerHttpResponse extends AbstractListenerServerHttpResponse {
 	public ServletServerHttpResponse(HttpServletResponse response, AsyncContext asyncContext,
 			DataBufferFactory bufferFactory, int bufferSize) throws IOException {
 
-		super(bufferFactory);
+		this(new HttpHeaders(), response, asyncContext, bufferFactory, bufferSize);
+	}
+
+	/**
+	 * Constructor with the headers to use for the response, e.g. backed
+	 * directly by the headers of the underlying server response.
+	 * @since 5.0.16
+	 */
+	public ServletServerHttpResponse(HttpHeaders headers, HttpServletResponse response,
+			AsyncContext asyncContext, DataBufferFactory bufferFactory, int bufferSize) throws IOException {
+
+		super(bufferFactory, headers);
 
 		Assert.notNull(response, "HttpServletResponse must not be null");
 		Assert.notNull(bufferFactory, "DataBufferFactory must not be null");
@@ -140,6 +160,19 @@ class ServletServerHttpResponse extends AbstractListenerServerHttpResponse {
 		return processor;
 	}
 
+	/**
+	 * Write the given region of a file as memory-mapped buffers, rather than
+	 * reading it into allocated buffers. Used by container-specific subclasses
+	 * that write {@code ByteBuffer}s to the container directly, in order to
+	 * implement {@link ZeroCopyHttpOutputMessage}.
+	 * @since 5.0.16
+	 */
+	protected Mono<Void> writeMappedFile(File file, long position, long count) {
+		return writeWith(DataBufferUtils.readMappedFileChannel(
+				() -> FileChannel.open(file.toPath(), StandardOpenOption.READ),
+				position, count, bufferFactory(), MAPPED_BUFFER_SIZE));
+	}
+
 	/**
 	 * Write the DataBuffer to the response body OutputStream.
 	 * Invoked only when {@link ServletOutputStream#isReady()} returns "true"
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.http.server.reactive;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.tomcat.util.http.MimeHeaders;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * {@code MultiValueMap} implementation for wrapping Tomcat HTTP headers,
+ * reading from and writing to the native {@link MimeHeaders} without copying.
+ *
+ * @since 5.0.16
+ */
+class TomcatHeadersAdapter implements MultiValueMap<String, String> {
+
+	private final MimeHeaders headers;
+
+
+	TomcatHeadersAdapter(MimeHeaders headers) {
+		this.headers = headers;
+	}
+
+
+	@Override
+	@Nullable
+	public String getFirst(String key) {
+		return this.headers.getHeader(key);
+	}
+
+	@Override
+	public void add(String key, @Nullable String value) {
+		this.headers.addValue(key).setString(value);
+	}
+
+	@Override
+	public void addAll(String key, List<? extends String> values) {
+		values.forEach(value -> add(key, value));
+	}
+
+	@Override
+	public void addAll(MultiValueMap<String, String> values) {
+		values.forEach(this::addAll);
+	}
+
+	@Override
+	public void set(String key, @Nullable String value) {
+		this.headers.setValue(key).setString(value);
+	}
+
+	@Override
+	public void setAll(Map<String, String> values) {
+		values.forEach(this::set);
+	}
+
+	@Override
+	public Map<String, String> toSingleValueMap() {
+		Map<String, String> singleValueMap = new LinkedHashMap<>(this.headers.size());
+		keySet().forEach(key -> singleValueMap.put(key, getFirst(key)));
+		return singleValueMap;
+	}
+
+	@Override
+	public int size() {
+		Enumeration<String> names = this.headers.names();
+		int size = 0;
+		while (names.hasMoreElements()) {
+			size++;
+			names.nextElement();
+		}
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (this.headers.size() == 0);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return (key instanceof String && this.headers.findHeader((String) key, 0) != -1);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		return (value instanceof List && values().contains(value));
+	}
+
+	@Override
+	@Nullable
+	public List<String> get(Object key) {
+		if (containsKey(key)) {
+			return Collections.list(this.headers.values((String) key));
+		}
+		return null;
+	}
+
+	@Override
+	@Nullable
+	public List<String> put(String key, List<String> value) {
+		List<String> previousValues = get(key);
+		this.headers.removeHeader(key);
+		value.forEach(v -> this.headers.addValue(key).setString(v));
+		return previousValues;
+	}
+
+	@Override
+	@Nullable
+	public List<String> remove(Object key) {
+		if (key instanceof String) {
+			List<String> previousValues = get(key);
+			this.headers.removeHeader((String) key);
+			return previousValues;
+		}
+		return null;
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends List<String>> map) {
+		map.forEach(this::put);
+	}
+
+	@Override
+	public void clear() {
+		this.headers.clear();
+	}
+
+	@Override
+	public Set<String> keySet() {
+		Set<String> keys = new LinkedHashSet<>(8);
+		Enumeration<String> names = this.headers.names();
+		while (names.hasMoreElements()) {
+			keys.add(names.nextElement());
+		}
+		return keys;
+	}
+
+	@Override
+	public Collection<List<String>> values() {
+		List<List<String>> values = new ArrayList<>(8);
+		keySet().forEach(key -> values.add(Collections.list(this.headers.values(key))));
+		return values;
+	}
+
+	@Override
+	public Set<Entry<String, List<String>>> entrySet() {
+		return new AbstractSet<Entry<String, List<String>>>() {
+			@Override
+			public Iterator<Entry<String, List<String>>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return TomcatHeadersAdapter.this.size();
+			}
+		};
+	}
+
+
+	@Override
+	public String toString() {
+		return new LinkedHashMap<>(this).toString();
+	}
+
+
+	private class EntryIterator implements Iterator<Entry<String, List<String>>> {
+
+		private final Enumeration<String> names = headers.names();
+
+		@Override
+		public boolean hasNext() {
+			return this.names.hasMoreElements();
+		}
+
+		@Override
+		public Entry<String, List<String>> next() {
+			return new HeaderEntry(this.names.nextElement());
+		}
+	}
+
+
+	private class HeaderEntry implements Entry<String, List<String>> {
+
+		private final String key;
+
+		HeaderEntry(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public String getKey() {
+			return this.key;
+		}
+
+		@Override
+		public List<String> getValue() {
+			return Collections.list(headers.values(this.key));
+		}
+
+		@Override
+		public List<String> setValue(List<String> value) {
+			return put(this.key, value);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,26 +16,41 @@
 
 package org.springframework.http.server.reactive;
 
+import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import javax.servlet.AsyncContext;
 import javax.servlet.ServletRequest;
+import javax.servlet.ServletRequestWrapper;
 import javax.servlet.ServletResponse;
+import javax.servlet.ServletResponseWrapper;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.catalina.connector.CoyoteInputStream;
 import org.apache.catalina.connector.CoyoteOutputStream;
+import org.apache.catalina.connector.RequestFacade;
+import org.apache.catalina.connector.ResponseFacade;
+import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * {@link ServletHttpHandlerAdapter} extension that uses Tomcat APIs for reading
- * from the request and writing to the response with {@link ByteBuffer}.
+ * from the request and writing to the response with {@link ByteBuffer}, as
+ * well as for accessing the native request and response headers directly.
  *
  * @author Violeta Georgieva
  * @since 5.0
@@ -43,6 +58,12 @@ import org.springframework.util.Assert;
  */
 public class TomcatHttpHandlerAdapter extends ServletHttpHandlerAdapter {
 
+	@Nullable
+	private static final Field COYOTE_REQUEST_FIELD = findFacadeField(RequestFacade.class, "request");
+
+	@Nullable
+	private static final Field COYOTE_RESPONSE_FIELD = findFacadeField(ResponseFacade.class, "response");
+
 
 	public TomcatHttpHandlerAdapter(HttpHandler httpHandler) {
 		super(httpHandler);
@@ -54,25 +75,88 @@ public class TomcatHttpHandlerAdapter extends ServletHttpHandlerAdapter {
 			throws IOException, URISyntaxException {
 
 		Assert.notNull(getServletPath(), "servletPath is not initialized.");
-		return new TomcatServerHttpRequest(request, asyncContext, getServletPath(),
-				getDataBufferFactory(), getBufferSize());
+		return new TomcatServerHttpRequest(createTomcatHttpHeaders(request), request, asyncContext,
+				getServletPath(), getDataBufferFactory(), getBufferSize());
 	}
 
 	@Override
 	protected ServerHttpResponse createResponse(HttpServletResponse response, AsyncContext cxt)
 			throws IOException {
 
-		return new TomcatServerHttpResponse(response, cxt, getDataBufferFactory(), getBufferSize());
+		return new TomcatServerHttpResponse(createTomcatHttpHeaders(response), response, cxt,
+				getDataBufferFactory(), getBufferSize());
+	}
+
+	/**
+	 * Find the given private field of a Tomcat facade, or return {@code null}
+	 * if not available in the Tomcat version at hand.
+	 */
+	@Nullable
+	private static Field findFacadeField(Class<?> facadeClass, String name) {
+		try {
+			Field field = ReflectionUtils.findField(facadeClass, name);
+			if (field != null) {
+				ReflectionUtils.makeAccessible(field);
+			}
+			return field;
+		}
+		catch (Throwable ex) {
+			// Not accessible: fall back on the standard Servlet API for headers
+			return null;
+		}
+	}
+
+	/**
+	 * Adapt the native Tomcat request headers, falling back on a copy of the
+	 * headers if the request does not wrap a Tomcat {@link RequestFacade}
+	 * or if the latter cannot be introspected.
+	 */
+	private static MultiValueMap<String, String> createTomcatHttpHeaders(HttpServletRequest request) {
+		ServletRequest nativeRequest = request;
+		while (nativeRequest instanceof ServletRequestWrapper) {
+			nativeRequest = ((ServletRequestWrapper) nativeRequest).getRequest();
+		}
+		Object connectorRequest = null;
+		if (COYOTE_REQUEST_FIELD != null && nativeRequest instanceof RequestFacade) {
+			connectorRequest = ReflectionUtils.getField(COYOTE_REQUEST_FIELD, nativeRequest);
+		}
+		if (!(connectorRequest instanceof org.apache.catalina.connector.Request)) {
+			return ServletServerHttpRequest.createDefaultHttpHeaders(request);
+		}
+		return new TomcatHeadersAdapter(
+				((org.apache.catalina.connector.Request) connectorRequest).getCoyoteRequest().getMimeHeaders());
+	}
+
+	/**
+	 * Adapt the native Tomcat response headers, or return {@code null} if the
+	 * response does not wrap a Tomcat {@link ResponseFacade} or if the latter
+	 * cannot be introspected.
+	 */
+	@Nullable
+	private static HttpHeaders createTomcatHttpHeaders(HttpServletResponse response) {
+		ServletResponse nativeResponse = response;
+		while (nativeResponse instanceof ServletResponseWrapper) {
+			nativeResponse = ((ServletResponseWrapper) nativeResponse).getResponse();
+		}
+		Object connectorResponse = null;
+		if (COYOTE_RESPONSE_FIELD != null && nativeResponse instanceof ResponseFacade) {
+			connectorResponse = ReflectionUtils.getField(COYOTE_RESPONSE_FIELD, nativeResponse);
+		}
+		if (!(connectorResponse instanceof org.apache.catalina.connector.Response)) {
+			return null;
+		}
+		return new HttpHeaders(new TomcatHeadersAdapter(
+				((org.apache.catalina.connector.Response) connectorResponse).getCoyoteResponse().getMimeHeaders()));
 	}
 
 
 	private final class TomcatServerHttpRequest extends ServletServerHttpRequest {
 
-		public TomcatServerHttpRequest(HttpServletRequest request, AsyncContext context,
-				String servletPath, DataBufferFactory factory, int bufferSize)
+		public TomcatServerHttpRequest(MultiValueMap<String, String> headers, HttpServletRequest request,
+				AsyncContext context, String servletPath, DataBufferFactory factory, int bufferSize)
 				throws IOException, URISyntaxException {
 
-			super(request, context, servletPath, factory, bufferSize);
+			super(headers, request, context, servletPath, factory, bufferSize);
 		}
 
 		@Override
@@ -110,12 +194,41 @@ public class TomcatHttpHandlerAdapter extends ServletHttpHandlerAdapter {
 	}
 
 
-	private static final class TomcatServerHttpResponse extends ServletServerHttpResponse {
+	private static final class TomcatServerHttpResponse extends ServletServerHttpResponse
+			implements ZeroCopyHttpOutputMessage {
 
-		public TomcatServerHttpResponse(HttpServletResponse response, AsyncContext context,
-				DataBufferFactory factory, int bufferSize) throws IOException {
+		private final boolean nativeHeaders;
 
-			super(response, context, factory, bufferSize);
+		public TomcatServerHttpResponse(@Nullable HttpHeaders nativeHeaders, HttpServletResponse response,
+				AsyncContext context, DataBufferFactory factory, int bufferSize) throws IOException {
+
+			super((nativeHeaders != null ? nativeHeaders : new HttpHeaders()), response, context, factory, bufferSize);
+			this.nativeHeaders = (nativeHeaders != null);
+		}
+
+		@Override
+		protected void applyHeaders() {
+			if (!this.nativeHeaders) {
+				super.applyHeaders();
+				return;
+			}
+			// Content type and length are kept in dedicated fields by Tomcat,
+			// so move them out of the native headers that other headers write to
+			HttpServletResponse response = getNativeResponse();
+			MediaType contentType = getHeaders().getContentType();
+			if (response.getContentType() == null && contentType != null) {
+				response.setContentType(contentType.toString());
+			}
+			getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+			Charset charset = (contentType != null ? contentType.getCharset() : null);
+			if (response.getCharacterEncoding() == null && charset != null) {
+				response.setCharacterEncoding(charset.name());
+			}
+			long contentLength = getHeaders().getContentLength();
+			if (contentLength != -1) {
+				response.setContentLengthLong(contentLength);
+			}
+			getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
 		}
 
 		@Override
@@ -126,6 +239,11 @@ public class TomcatHttpHandlerAdapter extends ServletHttpHandlerAdapter {
 			((CoyoteOutputStream) response.getOutputStream()).write(input);
 			return len;
 		}
+
+		@Override
+		public Mono<Void> writeWith(File file, long position, long count) {
+			return writeMappedFile(file, position, count);
+		}
 	}
 
 }
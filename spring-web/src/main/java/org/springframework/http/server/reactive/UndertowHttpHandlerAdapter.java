@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -54,6 +54,14 @@ public class UndertowHttpHandlerAdapter implements io.undertow.server.HttpHandle
 	}
 
 
+	/**
+	 * Configure the {@code DataBufferFactory} to use for encoding the response
+	 * body, and for wrapping the request body buffers pooled by Undertow.
+	 * <p>By default this is a {@link DefaultDataBufferFactory} allocating
+	 * a new heap buffer for every write. Consider a
+	 * {@link org.springframework.core.io.buffer.PooledDataBufferFactory}
+	 * to recycle buffers instead.
+	 */
 	public void setDataBufferFactory(DataBufferFactory bufferFactory) {
 		Assert.notNull(bufferFactory, "DataBufferFactory must not be null");
 		this.bufferFactory = bufferFactory;
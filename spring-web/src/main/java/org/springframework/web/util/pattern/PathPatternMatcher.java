@@ -0,0 +1,296 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.Assert;
+import org.springframework.util.PathMatcher;
+
+/**
+ * {@link PathMatcher} implementation that matches URL paths with precompiled
+ * {@link PathPattern PathPatterns}, allowing Spring MVC handler mappings,
+ * interceptor mappings and resource handlers to benefit from the same
+ * parsed pattern representation as WebFlux.
+ *
+ * <p>Each pattern is parsed once through the configured {@link PathPatternParser}
+ * and cached, and recently matched lookup paths are kept in their parsed
+ * {@link PathContainer} form, so that matching a request against a series
+ * of patterns does not split the path or build regular expressions again.
+ *
+ * <p>Lookup paths are matched exactly as given, i.e. no further URL decoding
+ * or path parameter removal is applied, consistent with {@link AntPathMatcher}
+ * and the lookup paths resolved by {@link org.springframework.web.util.UrlPathHelper}.
+ * Patterns which are not valid {@code PathPattern} syntax (e.g. with "**" in
+ * the middle of the pattern) are matched via {@link AntPathMatcher} instead.
+ * Pattern comparison and combination follow {@code AntPathMatcher} semantics
+ * as well, so the choice of the best matching pattern remains unchanged.
+ *
+ * @since 5.0.16
+ * @see PathPatternParser
+ * @see AntPathMatcher
+ */
+public class PathPatternMatcher implements PathMatcher {
+
+	private static final int PATTERN_CACHE_LIMIT = 65536;
+
+	private static final int PATH_CACHE_SIZE = 256;
+
+
+	private final PathPatternParser parser;
+
+	private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+	private final Map<String, ParsedPattern> patternCache = new ConcurrentHashMap<>(256);
+
+	private final AtomicReferenceArray<ParsedPath> pathCache = new AtomicReferenceArray<>(PATH_CACHE_SIZE);
+
+
+	/**
+	 * Create a new {@code PathPatternMatcher} with a {@link PathPatternParser}
+	 * that does not match optional trailing separators, leaving trailing slash
+	 * matching up to the handler mapping configuration as with {@link AntPathMatcher}.
+	 */
+	public PathPatternMatcher() {
+		this.parser = new PathPatternParser();
+		this.parser.setMatchOptionalTrailingSeparator(false);
+	}
+
+	/**
+	 * Create a new {@code PathPatternMatcher} with the given parser.
+	 * @param parser the parser to use for URL patterns
+	 */
+	public PathPatternMatcher(PathPatternParser parser) {
+		Assert.notNull(parser, "PathPatternParser must not be null");
+		this.parser = parser;
+	}
+
+
+	/**
+	 * Return the parser used for URL patterns.
+	 */
+	public PathPatternParser getParser() {
+		return this.parser;
+	}
+
+
+	@Override
+	public boolean isPattern(String path) {
+		return this.antPathMatcher.isPattern(path);
+	}
+
+	@Override
+	public boolean match(String pattern, String path) {
+		PathPattern pathPattern = getPathPattern(pattern);
+		if (pathPattern == null) {
+			return this.antPathMatcher.match(pattern, path);
+		}
+		return pathPattern.matches(getPathContainer(path));
+	}
+
+	@Override
+	public boolean matchStart(String pattern, String path) {
+		return this.antPathMatcher.matchStart(pattern, path);
+	}
+
+	@Override
+	public String extractPathWithinPattern(String pattern, String path) {
+		PathPattern pathPattern = getPathPattern(pattern);
+		if (pathPattern == null) {
+			return this.antPathMatcher.extractPathWithinPattern(pattern, path);
+		}
+		return unescape(pathPattern.extractPathWithinPattern(getPathContainer(path)).value());
+	}
+
+	@Override
+	public Map<String, String> extractUriTemplateVariables(String pattern, String path) {
+		PathPattern pathPattern = getPathPattern(pattern);
+		if (pathPattern == null) {
+			return this.antPathMatcher.extractUriTemplateVariables(pattern, path);
+		}
+		PathPattern.PathMatchInfo info = pathPattern.matchAndExtract(getPathContainer(path));
+		if (info == null) {
+			throw new IllegalStateException("Pattern \"" + pattern + "\" is not a match for \"" + path + "\"");
+		}
+		return orderVariables(pattern, info.getUriVariables());
+	}
+
+	@Override
+	public Comparator<String> getPatternComparator(String path) {
+		return this.antPathMatcher.getPatternComparator(path);
+	}
+
+	@Override
+	public String combine(String pattern1, String pattern2) {
+		return this.antPathMatcher.combine(pattern1, pattern2);
+	}
+
+
+	/**
+	 * Return the parsed form of the given pattern, or {@code null} if the
+	 * pattern is not supported by the {@link PathPatternParser}.
+	 */
+	@Nullable
+	private PathPattern getPathPattern(String pattern) {
+		ParsedPattern parsed = this.patternCache.get(pattern);
+		if (parsed == null) {
+			parsed = parsePattern(pattern);
+			if (this.patternCache.size() < PATTERN_CACHE_LIMIT) {
+				this.patternCache.put(pattern, parsed);
+			}
+		}
+		return parsed.pathPattern;
+	}
+
+	private ParsedPattern parsePattern(String pattern) {
+		int index = pattern.indexOf("**");
+		if (index != -1 && (index != pattern.length() - 2 || !pattern.endsWith("/**"))) {
+			// "**" is only supported as the trailing segment of a PathPattern
+			return new ParsedPattern(null);
+		}
+		try {
+			return new ParsedPattern(this.parser.parse(pattern));
+		}
+		catch (PatternParseException ex) {
+			return new ParsedPattern(null);
+		}
+	}
+
+	private PathContainer getPathContainer(String path) {
+		int index = (path.hashCode() & (PATH_CACHE_SIZE - 1));
+		ParsedPath parsed = this.pathCache.get(index);
+		if (parsed == null || !parsed.path.equals(path)) {
+			parsed = new ParsedPath(path, PathContainer.parsePath(escape(path)));
+			this.pathCache.lazySet(index, parsed);
+		}
+		return parsed.pathContainer;
+	}
+
+	/**
+	 * Return a mutable copy of the given variables, in the order of declaration
+	 * in the pattern as with {@link AntPathMatcher}.
+	 */
+	private static Map<String, String> orderVariables(String pattern, Map<String, String> variables) {
+		if (variables.size() <= 1) {
+			return new LinkedHashMap<>(variables);
+		}
+		List<String> names = new ArrayList<>(variables.keySet());
+		names.sort(Comparator.comparingInt(name -> getVariableIndex(pattern, name)));
+		Map<String, String> result = new LinkedHashMap<>(variables.size());
+		for (String name : names) {
+			result.put(name, variables.get(name));
+		}
+		return result;
+	}
+
+	private static int getVariableIndex(String pattern, String name) {
+		int index = pattern.indexOf('{');
+		while (index != -1) {
+			int start = (pattern.startsWith("*", index + 1) ? index + 2 : index + 1);
+			int end = start + name.length();
+			if (pattern.startsWith(name, start) && end < pattern.length() &&
+					(pattern.charAt(end) == '}' || pattern.charAt(end) == ':')) {
+				return index;
+			}
+			index = pattern.indexOf('{', index + 1);
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Escape '%' and ';' so that parsing the path neither decodes it nor
+	 * strips path parameters, i.e. each segment is matched as given.
+	 */
+	private static String escape(String path) {
+		if (path.indexOf('%') == -1 && path.indexOf(';') == -1) {
+			return path;
+		}
+		StringBuilder sb = new StringBuilder(path.length() + 8);
+		for (int i = 0; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if (c == '%') {
+				sb.append("%25");
+			}
+			else if (c == ';') {
+				sb.append("%3B");
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Reverse {@link #escape} for a value taken from an escaped path.
+	 */
+	private static String unescape(String value) {
+		if (value.indexOf('%') == -1) {
+			return value;
+		}
+		StringBuilder sb = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '%' && value.startsWith("3B", i + 1)) {
+				sb.append(';');
+				i += 2;
+			}
+			else if (c == '%' && value.startsWith("25", i + 1)) {
+				sb.append('%');
+				i += 2;
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+
+	private static final class ParsedPattern {
+
+		@Nullable
+		final PathPattern pathPattern;
+
+		ParsedPattern(@Nullable PathPattern pathPattern) {
+			this.pathPattern = pathPattern;
+		}
+	}
+
+
+	private static final class ParsedPath {
+
+		final String path;
+
+		final PathContainer pathContainer;
+
+		ParsedPath(String path, PathContainer pathContainer) {
+			this.path = path;
+			this.pathContainer = pathContainer;
+		}
+	}
+
+}
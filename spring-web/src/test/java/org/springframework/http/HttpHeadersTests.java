@@ -29,8 +29,10 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.GregorianCalendar;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.TimeZone;
 
 import org.hamcrest.Matchers;
@@ -522,4 +524,35 @@ public class HttpHeadersTests {
 		assertTrue(headers.getFirstZonedDateTime(HttpHeaders.DATE).isEqual(date));
 	}
 
+	@Test
+	public void readOnlyHttpHeadersViews() {
+		headers.add("TestHeader", "first");
+		HttpHeaders readOnly = HttpHeaders.readOnlyHttpHeaders(headers);
+		assertSame(readOnly.entrySet(), readOnly.entrySet());
+		assertSame(readOnly.values(), readOnly.values());
+
+		headers.add("TestHeader", "second");
+		headers.add("OtherHeader", "other");
+		assertEquals(2, readOnly.entrySet().size());
+		assertEquals(2, readOnly.values().size());
+		Map.Entry<String, List<String>> entry = readOnly.entrySet().iterator().next();
+		assertEquals("TestHeader", entry.getKey());
+		assertEquals(Arrays.asList("first", "second"), entry.getValue());
+		assertEquals(Arrays.asList("first", "second"), readOnly.values().iterator().next());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void readOnlyHttpHeadersEntrySetValuesCannotBeModified() {
+		headers.add("TestHeader", "first");
+		HttpHeaders.readOnlyHttpHeaders(headers).entrySet().iterator().next().getValue().add("second");
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void readOnlyHttpHeadersValuesCannotBeRemoved() {
+		headers.add("TestHeader", "first");
+		Iterator<List<String>> iterator = HttpHeaders.readOnlyHttpHeaders(headers).values().iterator();
+		iterator.next();
+		iterator.remove();
+	}
+
 }
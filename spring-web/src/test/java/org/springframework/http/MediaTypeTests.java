@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -143,6 +143,25 @@ public class MediaTypeTests {
 		assertEquals("Invalid amount of media types", 0, mediaTypes.size());
 	}
 
+	@Test
+	public void parseMediaTypesReturnsMutableCopy() {
+		String s = "text/plain; q=0.5, text/html";
+		List<MediaType> mediaTypes = MediaType.parseMediaTypes(s);
+		MediaType.sortBySpecificityAndQuality(mediaTypes);
+		assertEquals(MediaType.TEXT_HTML, mediaTypes.get(0));
+
+		mediaTypes = MediaType.parseMediaTypes(s);
+		assertEquals(MediaType.TEXT_HTML, mediaTypes.get(1));
+		assertNotSame(mediaTypes, MediaType.parseMediaTypes(s));
+	}
+
+	@Test
+	public void parseMediaTypeCached() {
+		assertSame(MediaType.parseMediaType("text/plain;charset=UTF-8"), MediaType.parseMediaType("text/plain;charset=UTF-8"));
+		assertNotSame(MediaType.parseMediaType("multipart/form-data;boundary=abc"),
+				MediaType.parseMediaType("multipart/form-data;boundary=abc"));
+	}
+
 	@Test
 	public void compareTo() {
 		MediaType audioBasic = new MediaType("audio", "basic");
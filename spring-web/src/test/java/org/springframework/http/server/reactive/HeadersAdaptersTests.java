@@ -0,0 +1,172 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server.reactive;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.undertow.util.HeaderMap;
+import org.apache.tomcat.util.http.MimeHeaders;
+import org.eclipse.jetty.http.HttpFields;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.MultiValueMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@code MultiValueMap} adapters to native server headers.
+ */
+@RunWith(Parameterized.class)
+public class HeadersAdaptersTests {
+
+	@Parameterized.Parameter(0)
+	public String name;
+
+	@Parameterized.Parameter(1)
+	public Supplier<MultiValueMap<String, String>> headersSupplier;
+
+	private MultiValueMap<String, String> headers;
+
+
+	@Parameterized.Parameters(name = "headers [{0}]")
+	public static Object[][] arguments() {
+		return new Object[][] {
+				{"default", (Supplier<MultiValueMap<String, String>>) HttpHeaders::new},
+				{"netty", (Supplier<MultiValueMap<String, String>>) () ->
+						new NettyHeadersAdapter(new DefaultHttpHeaders())},
+				{"undertow", (Supplier<MultiValueMap<String, String>>) () ->
+						new UndertowHeadersAdapter(new HeaderMap())},
+				{"tomcat", (Supplier<MultiValueMap<String, String>>) () ->
+						new TomcatHeadersAdapter(new MimeHeaders())},
+				{"jetty", (Supplier<MultiValueMap<String, String>>) () ->
+						new JettyHeadersAdapter(new HttpFields())}
+		};
+	}
+
+
+	@Before
+	public void createHeaders() {
+		this.headers = this.headersSupplier.get();
+	}
+
+
+	@Test
+	public void getWithUnknownHeaderShouldReturnNull() {
+		assertNull(this.headers.get("Unknown"));
+		assertNull(this.headers.getFirst("Unknown"));
+		assertFalse(this.headers.containsKey("Unknown"));
+	}
+
+	@Test
+	public void getFirstWithMultipleValues() {
+		this.headers.add("TestHeader", "first");
+		this.headers.add("TestHeader", "second");
+		assertEquals("first", this.headers.getFirst("TestHeader"));
+		assertEquals("first", this.headers.getFirst("testheader"));
+		assertEquals(Arrays.asList("first", "second"), this.headers.get("TestHeader"));
+	}
+
+	@Test
+	public void putShouldOverrideExisting() {
+		this.headers.add("TestHeader", "first");
+		this.headers.put("TestHeader", Collections.singletonList("override"));
+		assertEquals("override", this.headers.getFirst("TestHeader"));
+		assertEquals(1, this.headers.get("TestHeader").size());
+	}
+
+	@Test
+	public void setShouldOverrideExisting() {
+		this.headers.add("TestHeader", "first");
+		this.headers.set("TestHeader", "override");
+		assertEquals(Collections.singletonList("override"), this.headers.get("TestHeader"));
+	}
+
+	@Test
+	public void removeShouldReturnPreviousValues() {
+		this.headers.add("TestHeader", "first");
+		this.headers.add("TestHeader", "second");
+		assertEquals(Arrays.asList("first", "second"), this.headers.remove("TestHeader"));
+		assertNull(this.headers.get("TestHeader"));
+		assertTrue(this.headers.isEmpty());
+	}
+
+	@Test
+	public void sizeAndKeySet() {
+		this.headers.add("TestHeader", "first");
+		this.headers.add("TestHeader", "second");
+		this.headers.add("OtherHeader", "value");
+		assertEquals(2, this.headers.size());
+		assertEquals(2, this.headers.keySet().size());
+		assertEquals(2, this.headers.entrySet().size());
+		assertEquals(2, this.headers.values().size());
+		assertTrue(this.headers.containsValue(Collections.singletonList("value")));
+		assertFalse(this.headers.containsValue(Collections.singletonList("second")));
+
+		LinkedCaseInsensitiveMap<String> keys = new LinkedCaseInsensitiveMap<>(Locale.ENGLISH);
+		this.headers.keySet().forEach(key -> keys.put(key, key));
+		assertTrue(keys.containsKey("testheader"));
+		assertTrue(keys.containsKey("otherheader"));
+	}
+
+	@Test
+	public void toSingleValueMap() {
+		this.headers.add("TestHeader", "first");
+		this.headers.add("TestHeader", "second");
+		assertEquals(Collections.singletonMap("TestHeader", "first"), this.headers.toSingleValueMap());
+	}
+
+	@Test
+	public void clear() {
+		this.headers.add("TestHeader", "first");
+		this.headers.clear();
+		assertTrue(this.headers.isEmpty());
+		assertEquals(0, this.headers.size());
+	}
+
+	@Test
+	public void httpHeadersView() {
+		HttpHeaders httpHeaders = new HttpHeaders(this.headers);
+		httpHeaders.setContentLength(42);
+		assertEquals("42", this.headers.getFirst(HttpHeaders.CONTENT_LENGTH));
+
+		HttpHeaders expected = new HttpHeaders();
+		expected.setContentLength(42);
+		assertEquals(expected, httpHeaders);
+		assertEquals(expected, HttpHeaders.readOnlyHttpHeaders(httpHeaders));
+		assertEquals(expected.hashCode(), httpHeaders.hashCode());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void readOnlyHttpHeadersView() {
+		this.headers.add("TestHeader", "first");
+		HttpHeaders readOnly = HttpHeaders.readOnlyHttpHeaders(new HttpHeaders(this.headers));
+		assertEquals("first", readOnly.getFirst("TestHeader"));
+		this.headers.add("TestHeader", "second");
+		assertEquals(2, readOnly.get("TestHeader").size());
+		readOnly.get("TestHeader").add("third");
+	}
+
+}
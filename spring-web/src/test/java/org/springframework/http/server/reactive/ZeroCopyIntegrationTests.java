@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,28 +18,31 @@ package org.springframework.http.server.reactive;
 
 import java.io.File;
 import java.net.URI;
+import java.util.Collections;
 
 import org.junit.Test;
 import reactor.core.publisher.Mono;
 
+import org.springframework.core.ResolvableType;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.ZeroCopyHttpOutputMessage;
-import org.springframework.http.server.reactive.bootstrap.ReactorHttpServer;
-import org.springframework.http.server.reactive.bootstrap.UndertowHttpServer;
+import org.springframework.http.codec.ResourceHttpMessageWriter;
+import org.springframework.util.FileCopyUtils;
 import org.springframework.web.client.RestTemplate;
 
 import static org.junit.Assert.*;
-import static org.junit.Assume.*;
 
 /**
  * @author Arjen Poutsma
  */
 public class ZeroCopyIntegrationTests extends AbstractHttpHandlerIntegrationTests {
 
+	private static final Resource LOGO = new ClassPathResource("spring.png", ZeroCopyIntegrationTests.class);
+
 	private final ZeroCopyHandler handler = new ZeroCopyHandler();
 
 
@@ -51,18 +54,27 @@ public class ZeroCopyIntegrationTests extends AbstractHttpHandlerIntegrationTest
 
 	@Test
 	public void zeroCopy() throws Exception {
-		// Zero-copy only does not support servlet
-		assumeTrue(server instanceof ReactorHttpServer || server instanceof UndertowHttpServer);
+		assertLogo("/zero-copy");
+	}
+
+	@Test
+	public void resourceWriter() throws Exception {
+		assertLogo("/writer");
+	}
 
-		URI url = new URI("http://localhost:" + port);
+	@Test
+	public void resourceWriterWithMappedFiles() throws Exception {
+		assertLogo("/writer-mapped");
+	}
+
+	private void assertLogo(String path) throws Exception {
+		URI url = new URI("http://localhost:" + port + path);
 		RequestEntity<?> request = RequestEntity.get(url).build();
 		ResponseEntity<byte[]> response = new RestTemplate().exchange(request, byte[].class);
 
-		Resource logo = new ClassPathResource("spring.png", ZeroCopyIntegrationTests.class);
-
 		assertTrue(response.hasBody());
-		assertEquals(logo.contentLength(), response.getHeaders().getContentLength());
-		assertEquals(logo.contentLength(), response.getBody().length);
+		assertEquals(LOGO.contentLength(), response.getHeaders().getContentLength());
+		assertArrayEquals(FileCopyUtils.copyToByteArray(LOGO.getInputStream()), response.getBody());
 		assertEquals(MediaType.IMAGE_PNG, response.getHeaders().getContentType());
 	}
 
@@ -71,10 +83,18 @@ public class ZeroCopyIntegrationTests extends AbstractHttpHandlerIntegrationTest
 
 		@Override
 		public Mono<Void> handle(ServerHttpRequest request, ServerHttpResponse response) {
+			String path = request.getURI().getPath();
+			if (path.startsWith("/writer")) {
+				ResourceHttpMessageWriter writer = new ResourceHttpMessageWriter();
+				if (path.equals("/writer-mapped")) {
+					writer.setMappedFileThreshold(0);
+				}
+				return writer.write(Mono.just(LOGO), null, ResolvableType.forClass(Resource.class),
+						MediaType.IMAGE_PNG, request, response, Collections.emptyMap());
+			}
 			try {
 				ZeroCopyHttpOutputMessage zeroCopyResponse = (ZeroCopyHttpOutputMessage) response;
-				Resource logo = new ClassPathResource("spring.png", ZeroCopyIntegrationTests.class);
-				File logoFile = logo.getFile();
+				File logoFile = LOGO.getFile();
 				zeroCopyResponse.getHeaders().setContentType(MediaType.IMAGE_PNG);
 				zeroCopyResponse.getHeaders().setContentLength(logoFile.length());
 				return zeroCopyResponse.writeWith(logoFile, 0, logoFile.length());
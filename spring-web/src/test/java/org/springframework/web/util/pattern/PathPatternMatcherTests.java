@@ -0,0 +1,129 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.util.AntPathMatcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link PathPatternMatcher}.
+ */
+public class PathPatternMatcherTests {
+
+	private final PathPatternMatcher pathMatcher = new PathPatternMatcher();
+
+	private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+
+	@Test
+	public void matchConsistentWithAntPathMatcher() {
+		String[][] cases = {
+				{"/foo", "/foo"}, {"/foo", "/bar"}, {"/foo", "/foo/"}, {"/foo/", "/foo"},
+				{"/foo/*", "/foo/bar"}, {"/foo/*", "/foo/bar/baz"}, {"/foo/**", "/foo"},
+				{"/foo/**", "/foo/bar/baz"}, {"/f?o", "/foo"}, {"/f?o", "/fooo"},
+				{"/foo/{id}", "/foo/42"}, {"/foo/{id}", "/foo/"}, {"/foo/{id:\\d+}", "/foo/abc"},
+				{"/foo/{id}.*", "/foo/42.json"}, {"/*.html", "/index.html"}, {"/foo/*.html", "/foo/x.txt"},
+				{"/Foo", "/foo"}, {"/foo%20bar", "/foo%20bar"}, {"/foo bar", "/foo%20bar"},
+				{"/foo/{id}", "/foo/42;a=b"}, {"/foo/*/bar", "/foo/x/bar"}};
+
+		for (String[] pair : cases) {
+			assertEquals(pair[0] + " vs " + pair[1],
+					this.antPathMatcher.match(pair[0], pair[1]), this.pathMatcher.match(pair[0], pair[1]));
+		}
+	}
+
+	@Test
+	public void matchWithUnsupportedPattern() {
+		assertTrue(this.pathMatcher.match("/foo/**/bar", "/foo/a/b/bar"));
+		assertFalse(this.pathMatcher.match("/foo/**/bar", "/foo/a/b/baz"));
+		assertEquals(Collections.singletonMap("id", "42"),
+				this.pathMatcher.extractUriTemplateVariables("/**/{id}", "/foo/bar/42"));
+	}
+
+	@Test
+	public void matchCaptureTheRest() {
+		assertTrue(this.pathMatcher.match("/resources/{*path}", "/resources/css/main.css"));
+		assertEquals(Collections.singletonMap("path", "/css/main.css"),
+				this.pathMatcher.extractUriTemplateVariables("/resources/{*path}", "/resources/css/main.css"));
+	}
+
+	@Test
+	public void extractUriTemplateVariables() {
+		Map<String, String> expected = new HashMap<>();
+		expected.put("hotel", "1");
+		expected.put("booking", "2");
+		assertEquals(expected,
+				this.pathMatcher.extractUriTemplateVariables("/hotels/{hotel}/bookings/{booking}", "/hotels/1/bookings/2"));
+
+		// Declaration order, as with AntPathMatcher
+		assertEquals(Arrays.asList("hotel", "booking", "other"), new ArrayList<>(this.pathMatcher
+				.extractUriTemplateVariables("/hotels/{hotel}/bookings/{booking}-{other:[a-z]+}", "/hotels/1/bookings/2-x").keySet()));
+
+		// Values are extracted as given, without decoding or removal of path parameters
+		assertEquals(Collections.singletonMap("id", "a%2Fb"),
+				this.pathMatcher.extractUriTemplateVariables("/foo/{id}", "/foo/a%2Fb"));
+		Map<String, String> variables = this.pathMatcher.extractUriTemplateVariables("/foo/{id}", "/foo/42;a=b");
+		assertEquals(Collections.singletonMap("id", "42;a=b"), variables);
+		variables.put("id", "42");
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void extractUriTemplateVariablesNoMatch() {
+		this.pathMatcher.extractUriTemplateVariables("/foo/{id}", "/bar/42");
+	}
+
+	@Test
+	public void extractPathWithinPattern() {
+		String[][] cases = {
+				{"/docs/cvs/commit.html", "/docs/cvs/commit.html"}, {"/docs/*", "/docs/cvs/commit"},
+				{"/docs/cvs/*.html", "/docs/cvs/commit.html"}, {"/docs/**", "/docs/cvs/commit"},
+				{"/resources/**", "/resources/a%20b;c/d.css"}, {"/docs/**/*.html", "/docs/cvs/commit.html"}};
+
+		for (String[] pair : cases) {
+			assertEquals(pair[0] + " vs " + pair[1], this.antPathMatcher.extractPathWithinPattern(pair[0], pair[1]),
+					this.pathMatcher.extractPathWithinPattern(pair[0], pair[1]));
+		}
+	}
+
+	@Test
+	public void matchOptionalTrailingSeparator() {
+		PathPatternParser parser = new PathPatternParser();
+		PathPatternMatcher matcher = new PathPatternMatcher(parser);
+		assertTrue(matcher.match("/foo", "/foo/"));
+		assertFalse(this.pathMatcher.match("/foo", "/foo/"));
+	}
+
+	@Test
+	public void comparatorAndCombine() {
+		assertEquals(-1, this.pathMatcher.getPatternComparator("/hotels/new").compare("/hotels/new", "/hotels/{hotel}"));
+		assertEquals("/hotels/{hotel}/bookings", this.pathMatcher.combine("/hotels/{hotel}", "/bookings"));
+		assertTrue(this.pathMatcher.isPattern("/hotels/*"));
+		assertFalse(this.pathMatcher.isPattern("/hotels"));
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,16 @@
 
 package org.springframework.web.reactive.accept;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.StringUtils;
 import org.springframework.web.server.NotAcceptableStatusException;
 import org.springframework.web.server.ServerWebExchange;
 
@@ -32,12 +37,21 @@ import org.springframework.web.server.ServerWebExchange;
  */
 public class HeaderContentTypeResolver implements RequestedContentTypeResolver {
 
+	private static final ConcurrentLruCache<String, List<MediaType>> sortedMediaTypesCache =
+			new ConcurrentLruCache<>(64, HeaderContentTypeResolver::parseAndSortMediaTypes);
+
+
 	@Override
 	public List<MediaType> resolveMediaTypes(ServerWebExchange exchange) throws NotAcceptableStatusException {
 		try {
-			List<MediaType> mediaTypes = exchange.getRequest().getHeaders().getAccept();
-			MediaType.sortBySpecificityAndQuality(mediaTypes);
-			return (!CollectionUtils.isEmpty(mediaTypes) ? mediaTypes : MEDIA_TYPE_ALL_LIST);
+			List<String> headerValues = exchange.getRequest().getHeaders().get(HttpHeaders.ACCEPT);
+			if (CollectionUtils.isEmpty(headerValues)) {
+				return MEDIA_TYPE_ALL_LIST;
+			}
+			String headerValue = (headerValues.size() == 1 ? headerValues.get(0) :
+					StringUtils.collectionToCommaDelimitedString(headerValues));
+			List<MediaType> mediaTypes = sortedMediaTypesCache.get(headerValue);
+			return (!CollectionUtils.isEmpty(mediaTypes) ? new ArrayList<>(mediaTypes) : MEDIA_TYPE_ALL_LIST);
 		}
 		catch (InvalidMediaTypeException ex) {
 			String value = exchange.getRequest().getHeaders().getFirst("Accept");
@@ -46,4 +60,10 @@ public class HeaderContentTypeResolver implements RequestedContentTypeResolver {
 		}
 	}
 
+	private static List<MediaType> parseAndSortMediaTypes(String headerValue) {
+		List<MediaType> mediaTypes = MediaType.parseMediaTypes(headerValue);
+		MediaType.sortBySpecificityAndQuality(mediaTypes);
+		return Collections.unmodifiableList(mediaTypes);
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -335,7 +335,7 @@ public abstract class RequestPredicates {
 	}
 
 
-	private static class HttpMethodPredicate implements RequestPredicate {
+	static class HttpMethodPredicate implements RequestPredicate {
 
 		private final HttpMethod httpMethod;
 
@@ -344,6 +344,10 @@ public abstract class RequestPredicates {
 			this.httpMethod = httpMethod;
 		}
 
+		HttpMethod getMethod() {
+			return this.httpMethod;
+		}
+
 		@Override
 		public boolean test(ServerRequest request) {
 			boolean match = this.httpMethod == request.method();
@@ -358,7 +362,7 @@ public abstract class RequestPredicates {
 	}
 
 
-	private static class PathPatternPredicate implements RequestPredicate {
+	static class PathPatternPredicate implements RequestPredicate {
 
 		private final PathPattern pattern;
 
@@ -367,6 +371,10 @@ public abstract class RequestPredicates {
 			this.pattern = pattern;
 		}
 
+		PathPattern getPattern() {
+			return this.pattern;
+		}
+
 		@Override
 		public boolean test(ServerRequest request) {
 			PathContainer pathContainer = request.pathContainer();
@@ -491,6 +499,14 @@ public abstract class RequestPredicates {
 			this.right = right;
 		}
 
+		RequestPredicate getLeft() {
+			return this.left;
+		}
+
+		RequestPredicate getRight() {
+			return this.right;
+		}
+
 		@Override
 		public boolean test(ServerRequest t) {
 			return (this.left.test(t) && this.right.test(t));
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,10 @@
 
 package org.springframework.web.reactive.function.server;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,13 +31,18 @@ import org.apache.commons.logging.LogFactory;
 import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.result.view.ViewResolver;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebHandler;
 import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.util.pattern.PathPattern;
 
 /**
  * <strong>Central entry point to Spring's functional web framework.</strong>
@@ -120,6 +128,31 @@ public abstract class RouterFunctions {
 		return new DefaultNestedRouterFunction<>(predicate, routerFunction);
 	}
 
+	/**
+	 * Compile the given router function into an equivalent router function that
+	 * only evaluates the routes which can possibly match a given request.
+	 * <p>The composed routes are indexed by the literal leading segments of their
+	 * {@linkplain RequestPredicates#path(String) path patterns} and by their
+	 * {@linkplain RequestPredicates#method HTTP method}, so that a request is
+	 * matched in time proportional to the depth of its path rather than to the
+	 * number of routes. The remaining routes are still evaluated in their original
+	 * order, with nested and filtered routes compiled recursively.
+	 * <p>Routes with custom predicates are always evaluated, so the result is
+	 * the same as with the given router function, as long as its predicates
+	 * have no side effects beyond those of the built-in predicates.
+	 * @param routerFunction the router function to compile
+	 * @param <T> the type of response returned by the handler functions
+	 * @return the compiled router function
+	 * @since 5.0.16
+	 */
+	public static <T extends ServerResponse> RouterFunction<T> compile(RouterFunction<T> routerFunction) {
+		Assert.notNull(routerFunction, "RouterFunction must not be null");
+		if (routerFunction instanceof CompiledRouterFunction) {
+			return routerFunction;
+		}
+		return new CompiledRouterFunction<>(routerFunction);
+	}
+
 	/**
 	 * Route requests that match the given pattern to resources relative to the given root location.
 	 * For instance
@@ -473,6 +506,261 @@ public abstract class RouterFunctions {
 	}
 
 
+	/**
+	 * Router function that dispatches to the routes of a composed router function
+	 * through an index by literal path segments and HTTP method.
+	 * @see #compile(RouterFunction)
+	 */
+	static final class CompiledRouterFunction<T extends ServerResponse> extends AbstractRouterFunction<T> {
+
+		private static final RouteCondition NO_CONDITION = new RouteCondition(Collections.emptyList(), null);
+
+		private final RouterFunction<T> routerFunction;
+
+		private final RouteNode root = new RouteNode();
+
+		private int routeCount;
+
+		public CompiledRouterFunction(RouterFunction<T> routerFunction) {
+			this.routerFunction = routerFunction;
+			addRoutes(routerFunction);
+		}
+
+		private void addRoutes(RouterFunction<?> routerFunction) {
+			if (routerFunction instanceof SameComposedRouterFunction) {
+				SameComposedRouterFunction<?> composed = (SameComposedRouterFunction<?>) routerFunction;
+				addRoutes(composed.first);
+				addRoutes(composed.second);
+			}
+			else if (routerFunction instanceof DifferentComposedRouterFunction) {
+				DifferentComposedRouterFunction composed = (DifferentComposedRouterFunction) routerFunction;
+				addRoutes(composed.first);
+				addRoutes(composed.second);
+			}
+			else if (routerFunction instanceof CompiledRouterFunction) {
+				addRoutes(((CompiledRouterFunction<?>) routerFunction).routerFunction);
+			}
+			else {
+				RouteCondition condition = getCondition(routerFunction);
+				RouteNode node = this.root;
+				for (String segment : condition.pathSegments) {
+					node = node.children.computeIfAbsent(segment, key -> new RouteNode());
+				}
+				node.entries.add(new RouteEntry(this.routeCount++, compileRoute(routerFunction), condition.method));
+			}
+		}
+
+		@Override
+		public Mono<HandlerFunction<T>> route(ServerRequest request) {
+			return route(request, getCandidates(request), 0);
+		}
+
+		private Mono<HandlerFunction<T>> route(ServerRequest request, List<RouteEntry> candidates, int index) {
+			if (index == candidates.size()) {
+				return Mono.empty();
+			}
+			return candidates.get(index).routerFunction.route(request)
+					.map(RouterFunctions::<T>cast)
+					.switchIfEmpty(Mono.defer(() -> route(request, candidates, index + 1)));
+		}
+
+		private List<RouteEntry> getCandidates(ServerRequest request) {
+			List<RouteEntry> candidates = new ArrayList<>();
+			HttpMethod method = request.method();
+			RouteNode node = this.root;
+			node.addCandidates(method, candidates);
+			int sources = (candidates.isEmpty() ? 0 : 1);
+			for (PathContainer.Element element : request.pathContainer().elements()) {
+				if (element instanceof PathContainer.PathSegment) {
+					String value = ((PathContainer.PathSegment) element).valueToMatch();
+					if (value.isEmpty()) {
+						continue;
+					}
+					node = node.children.get(normalizeSegment(value));
+					if (node == null) {
+						break;
+					}
+					int size = candidates.size();
+					node.addCandidates(method, candidates);
+					if (candidates.size() > size) {
+						sources++;
+					}
+				}
+			}
+			if (sources > 1) {
+				candidates.sort(Comparator.comparingInt(entry -> entry.order));
+			}
+			return candidates;
+		}
+
+		@Override
+		public void accept(Visitor visitor) {
+			this.routerFunction.accept(visitor);
+		}
+
+
+		/**
+		 * Return the given route, with nested and filtered router functions compiled.
+		 */
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		private static RouterFunction<?> compileRoute(RouterFunction<?> routerFunction) {
+			if (routerFunction instanceof DefaultNestedRouterFunction) {
+				DefaultNestedRouterFunction<?> nested = (DefaultNestedRouterFunction<?>) routerFunction;
+				return new DefaultNestedRouterFunction(nested.predicate, compile(nested.routerFunction));
+			}
+			else if (routerFunction instanceof FilteredRouterFunction) {
+				FilteredRouterFunction<?, ?> filtered = (FilteredRouterFunction<?, ?>) routerFunction;
+				return new FilteredRouterFunction(compile(filtered.routerFunction), filtered.filterFunction);
+			}
+			return routerFunction;
+		}
+
+		/**
+		 * Determine the path segments and HTTP method that requests must have
+		 * for the given route to match.
+		 */
+		private static RouteCondition getCondition(RouterFunction<?> routerFunction) {
+			if (routerFunction instanceof DefaultRouterFunction) {
+				return getCondition(((DefaultRouterFunction<?>) routerFunction).predicate, false);
+			}
+			else if (routerFunction instanceof DefaultNestedRouterFunction) {
+				return getCondition(((DefaultNestedRouterFunction<?>) routerFunction).predicate, true);
+			}
+			else if (routerFunction instanceof FilteredRouterFunction) {
+				return getCondition(((FilteredRouterFunction<?, ?>) routerFunction).routerFunction);
+			}
+			return NO_CONDITION;
+		}
+
+		private static RouteCondition getCondition(RequestPredicate predicate, boolean nested) {
+			if (predicate instanceof RequestPredicates.HttpMethodPredicate) {
+				HttpMethod method = ((RequestPredicates.HttpMethodPredicate) predicate).getMethod();
+				return new RouteCondition(Collections.emptyList(), method);
+			}
+			else if (predicate instanceof RequestPredicates.PathPatternPredicate) {
+				PathPattern pattern = ((RequestPredicates.PathPatternPredicate) predicate).getPattern();
+				return new RouteCondition(getLiteralSegments(pattern.getPatternString()), null);
+			}
+			else if (predicate instanceof RequestPredicates.AndRequestPredicate) {
+				RequestPredicate left = ((RequestPredicates.AndRequestPredicate) predicate).getLeft();
+				RequestPredicate right = ((RequestPredicates.AndRequestPredicate) predicate).getRight();
+				RouteCondition leftCondition = getCondition(left, nested);
+				if (!isBuiltIn(left)) {
+					// A custom left predicate must still be evaluated, whatever the right one requires
+					return leftCondition;
+				}
+				RouteCondition rightCondition = getCondition(right, nested);
+				// A nested right path predicate applies to the remaining path only
+				boolean rightPath = !(nested && hasPathPredicate(left));
+				return leftCondition.and(rightCondition, rightPath);
+			}
+			return NO_CONDITION;
+		}
+
+		private static boolean isBuiltIn(RequestPredicate predicate) {
+			if (predicate instanceof RequestPredicates.AndRequestPredicate) {
+				RequestPredicates.AndRequestPredicate and = (RequestPredicates.AndRequestPredicate) predicate;
+				return (isBuiltIn(and.getLeft()) && isBuiltIn(and.getRight()));
+			}
+			return (predicate instanceof RequestPredicates.HttpMethodPredicate ||
+					predicate instanceof RequestPredicates.PathPatternPredicate);
+		}
+
+		private static boolean hasPathPredicate(RequestPredicate predicate) {
+			if (predicate instanceof RequestPredicates.AndRequestPredicate) {
+				RequestPredicates.AndRequestPredicate and = (RequestPredicates.AndRequestPredicate) predicate;
+				return (hasPathPredicate(and.getLeft()) || hasPathPredicate(and.getRight()));
+			}
+			return (predicate instanceof RequestPredicates.PathPatternPredicate);
+		}
+
+		/**
+		 * Return the leading segments of the given pattern that contain neither
+		 * wildcards nor URI variables.
+		 */
+		private static List<String> getLiteralSegments(String pattern) {
+			List<String> segments = new ArrayList<>();
+			for (String token : StringUtils.delimitedListToStringArray(pattern, "/")) {
+				if (token.isEmpty()) {
+					continue;
+				}
+				if (token.indexOf('*') != -1 || token.indexOf('?') != -1 || token.indexOf('{') != -1) {
+					break;
+				}
+				segments.add(normalizeSegment(token));
+			}
+			return segments;
+		}
+
+		/**
+		 * Lower-case the given segment character by character, as a case-insensitive
+		 * {@link PathPattern} does, so that keys match regardless of case sensitivity.
+		 */
+		private static String normalizeSegment(String segment) {
+			char[] chars = segment.toCharArray();
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = Character.toLowerCase(chars[i]);
+			}
+			return new String(chars);
+		}
+	}
+
+
+	private static final class RouteCondition {
+
+		private final List<String> pathSegments;
+
+		@Nullable
+		private final HttpMethod method;
+
+		public RouteCondition(List<String> pathSegments, @Nullable HttpMethod method) {
+			this.pathSegments = pathSegments;
+			this.method = method;
+		}
+
+		public RouteCondition and(RouteCondition other, boolean includePath) {
+			List<String> pathSegments = this.pathSegments;
+			if (includePath && other.pathSegments.size() > pathSegments.size()) {
+				pathSegments = other.pathSegments;
+			}
+			return new RouteCondition(pathSegments, (this.method != null ? this.method : other.method));
+		}
+	}
+
+
+	private static final class RouteNode {
+
+		private final Map<String, RouteNode> children = new HashMap<>();
+
+		private final List<RouteEntry> entries = new ArrayList<>();
+
+		public void addCandidates(@Nullable HttpMethod method, List<RouteEntry> candidates) {
+			for (RouteEntry entry : this.entries) {
+				if (entry.method == null || entry.method == method) {
+					candidates.add(entry);
+				}
+			}
+		}
+	}
+
+
+	private static final class RouteEntry {
+
+		private final int order;
+
+		private final RouterFunction<?> routerFunction;
+
+		@Nullable
+		private final HttpMethod method;
+
+		public RouteEntry(int order, RouterFunction<?> routerFunction, @Nullable HttpMethod method) {
+			this.order = order;
+			this.routerFunction = routerFunction;
+			this.method = method;
+		}
+	}
+
+
 	private static class ResourcesRouterFunction extends  AbstractRouterFunction<ServerResponse> {
 
 		private final Function<ServerRequest, Mono<Resource>> lookupFunction;
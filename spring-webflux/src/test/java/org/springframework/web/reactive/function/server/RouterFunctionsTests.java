@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,19 +16,25 @@
 
 package org.springframework.web.reactive.function.server;
 
+import java.net.URI;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.server.reactive.HttpHandler;
 import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
 import org.springframework.mock.http.server.reactive.test.MockServerHttpResponse;
+import org.springframework.mock.web.test.server.MockServerWebExchange;
+import org.springframework.lang.Nullable;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ResponseStatusException;
@@ -291,5 +297,100 @@ public class RouterFunctionsTests {
 		assertTrue(filterInvoked.get());
 	}
 
+	@Test
+	public void compile() {
+		HandlerFunction<ServerResponse> listUsers = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> createUser = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getOrder = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> fallback = request -> ServerResponse.ok().build();
+		AtomicInteger customPredicateCount = new AtomicInteger();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions
+				.route(RequestPredicates.GET("/users"), listUsers)
+				.andRoute(RequestPredicates.POST("/users"), createUser)
+				.andRoute(request -> customPredicateCount.incrementAndGet() < 0, fallback)
+				.andRoute(RequestPredicates.GET("/orders/{id}"), getOrder)
+				.andRoute(RequestPredicates.path("/**"), fallback);
+		RouterFunction<ServerResponse> compiled = RouterFunctions.compile(routerFunction);
+
+		for (RouterFunction<ServerResponse> function : Arrays.asList(routerFunction, compiled)) {
+			customPredicateCount.set(0);
+			assertRoute(function, HttpMethod.GET, "/users", listUsers);
+			assertRoute(function, HttpMethod.POST, "/users/", createUser);
+			assertRoute(function, HttpMethod.GET, "/orders/42", getOrder);
+			assertRoute(function, HttpMethod.DELETE, "/users", fallback);
+			assertRoute(function, HttpMethod.GET, "/other", fallback);
+			assertEquals(3, customPredicateCount.get());
+		}
+
+		assertSame(compiled, RouterFunctions.compile(compiled));
+		assertEquals(routerFunction.toString(), compiled.toString());
+	}
+
+	@Test
+	public void compilePreservesOrder() {
+		HandlerFunction<ServerResponse> first = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> second = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> compiled = RouterFunctions.compile(RouterFunctions
+				.route(RequestPredicates.path("/api/{type}/**"), first)
+				.andRoute(RequestPredicates.GET("/api/users"), second));
+
+		assertRoute(compiled, HttpMethod.GET, "/api/users", first);
+		assertRoute(compiled, HttpMethod.GET, "/API/users", null);
+	}
+
+	@Test
+	public void compileNested() {
+		HandlerFunction<ServerResponse> getUser = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getOrder = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> compiled = RouterFunctions.compile(RouterFunctions
+				.nest(RequestPredicates.path("/api/{version}"), RouterFunctions
+						.route(RequestPredicates.GET("/users/{id}"), getUser)
+						.andRoute(RequestPredicates.GET("/orders/{id}"), getOrder))
+				.andNest(RequestPredicates.method(HttpMethod.POST).and(RequestPredicates.path("/api")),
+						RouterFunctions.route(RequestPredicates.path("/orders"), getOrder)));
+
+		ServerRequest request = new DefaultServerRequest(
+				MockServerWebExchange.from(MockServerHttpRequest.get("http://localhost/api/v1/orders/42")),
+				HandlerStrategies.withDefaults().messageReaders());
+		StepVerifier.create(compiled.route(request)).expectNext(getOrder).expectComplete().verify();
+		assertEquals("v1", request.pathVariable("version"));
+		assertEquals("42", request.pathVariable("id"));
+
+		assertRoute(compiled, HttpMethod.POST, "/api/orders", getOrder);
+		assertRoute(compiled, HttpMethod.POST, "/api/users", null);
+	}
+
+	@Test
+	public void compileFiltered() {
+		HandlerFunction<ServerResponse> handlerFunction = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> compiled = RouterFunctions.compile(RouterFunctions
+				.route(RequestPredicates.GET("/users"), handlerFunction)
+				.andRoute(RequestPredicates.GET("/orders"), handlerFunction)
+				.filter((request, next) -> ServerResponse.accepted().build()));
+
+		MockServerRequest request = MockServerRequest.builder()
+				.method(HttpMethod.GET).uri(URI.create("http://localhost/orders")).build();
+		StepVerifier.create(compiled.route(request).flatMap(handler -> handler.handle(request)))
+				.consumeNextWith(response -> assertEquals(HttpStatus.ACCEPTED, response.statusCode()))
+				.expectComplete()
+				.verify();
+	}
+
+	private void assertRoute(RouterFunction<ServerResponse> routerFunction, HttpMethod method, String path,
+			@Nullable HandlerFunction<ServerResponse> expected) {
+
+		MockServerRequest request = MockServerRequest.builder()
+				.method(method).uri(URI.create("http://localhost" + path)).build();
+		if (expected != null) {
+			StepVerifier.create(routerFunction.route(request)).expectNext(expected).expectComplete().verify();
+		}
+		else {
+			StepVerifier.create(routerFunction.route(request)).expectComplete().verify();
+		}
+	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,10 +19,12 @@ package org.springframework.web.servlet.config.annotation;
 import org.springframework.lang.Nullable;
 import org.springframework.util.PathMatcher;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPatternMatcher;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
  * Helps with configuring HandlerMappings path matching options such as trailing
- * slash match, suffix registration, path matcher and path helper.
+ * slash match, suffix registration, path matcher, pattern parser and path helper.
  *
  * <p>Configured path matcher and path helper instances are shared for:
  * <ul>
@@ -53,6 +55,9 @@ public class PathMatchConfigurer {
 	@Nullable
 	private PathMatcher pathMatcher;
 
+	@Nullable
+	private PathPatternParser patternParser;
+
 
 	/**
 	 * Whether to use suffix pattern match (".*") when matching patterns to
@@ -111,6 +116,23 @@ public class PathMatchConfigurer {
 	}
 
 
+	/**
+	 * Enable matching URL paths against precompiled
+	 * {@link org.springframework.web.util.pattern.PathPattern PathPatterns}
+	 * created with the given parser, instead of {@code AntPathMatcher}.
+	 * <p>Patterns are parsed once and request lookup paths once per request,
+	 * for request mappings, interceptor mappings and resource handlers alike.
+	 * An explicitly configured {@link #setPathMatcher PathMatcher} takes
+	 * precedence over this setting.
+	 * @since 5.0.16
+	 * @see PathPatternMatcher
+	 */
+	public PathMatchConfigurer setPatternParser(PathPatternParser patternParser) {
+		this.patternParser = patternParser;
+		return this;
+	}
+
+
 	@Nullable
 	public Boolean isUseSuffixPatternMatch() {
 		return this.suffixPatternMatch;
@@ -133,7 +155,19 @@ public class PathMatchConfigurer {
 
 	@Nullable
 	public PathMatcher getPathMatcher() {
+		if (this.pathMatcher == null && this.patternParser != null) {
+			this.pathMatcher = new PathPatternMatcher(this.patternParser);
+		}
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Return the configured {@link PathPatternParser}, if any.
+	 * @since 5.0.16
+	 */
+	@Nullable
+	public PathPatternParser getPatternParser() {
+		return this.patternParser;
+	}
+
 }
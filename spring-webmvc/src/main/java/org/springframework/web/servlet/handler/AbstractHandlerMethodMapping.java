@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -40,6 +41,7 @@ import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.method.HandlerMethod;
@@ -372,8 +374,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			addMatchingMappings(directPathMatches, matches, request);
 		}
 		if (matches.isEmpty()) {
-			// No choice but to go through all mappings...
-			addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, request);
+			// No choice but to go through all mappings that may match...
+			addMatchingMappings(this.mappingRegistry.getMappingsByPathPrefix(lookupPath), matches, request);
 		}
 
 		if (!matches.isEmpty()) {
@@ -492,6 +494,21 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	protected abstract Set<String> getMappingPathPatterns(T mapping);
 
+	/**
+	 * Whether pattern-based lookups may be narrowed down to the mappings whose
+	 * {@link #getMappingPathPatterns path patterns} start with the same literal
+	 * path segments as the lookup path, rather than checking every mapping.
+	 * <p>This is only valid if {@link #getMatchingMapping} never matches a
+	 * mapping with path patterns unless one of them matches the lookup path,
+	 * with "/"-separated segments compared as per
+	 * {@link org.springframework.util.AntPathMatcher}.
+	 * <p>The default implementation returns {@code false}.
+	 * @since 5.0.16
+	 */
+	protected boolean usePathPrefixIndex() {
+		return false;
+	}
+
 	/**
 	 * Check if a mapping matches the current request and return a (potentially
 	 * new) mapping with conditions relevant to the current request.
@@ -524,6 +541,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final MultiValueMap<String, T> urlLookup = new LinkedMultiValueMap<>();
 
+		private final PathPrefixIndex<T> pathPrefixLookup = new PathPrefixIndex<>();
+
 		private final Map<String, List<HandlerMethod>> nameLookup = new ConcurrentHashMap<>();
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
@@ -547,6 +566,18 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.urlLookup.get(urlPath);
 		}
 
+		/**
+		 * Return the mappings that may match the given URL path, in registration
+		 * order: either all mappings, or those whose path patterns start with the
+		 * same literal segments as the URL path. Not thread-safe.
+		 * @see #acquireReadLock()
+		 * @see #usePathPrefixIndex()
+		 */
+		public Collection<T> getMappingsByPathPrefix(String urlPath) {
+			return (usePathPrefixIndex() ?
+					this.pathPrefixLookup.getMappings(urlPath) : this.mappingLookup.keySet());
+		}
+
 		/**
 		 * Return handler methods by mapping name. Thread-safe for concurrent use.
 		 */
@@ -600,6 +631,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					this.urlLookup.add(url, mapping);
 				}
 
+				this.pathPrefixLookup.add(mapping, getMappingPathPatterns(mapping));
+
 				String name = null;
 				if (getNamingStrategy() != null) {
 					name = getNamingStrategy().getName(handlerMethod, mapping);
@@ -687,6 +720,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					}
 				}
 
+				this.pathPrefixLookup.remove(definition.getMapping(), getMappingPathPatterns(definition.getMapping()));
+
 				removeMappingName(definition);
 
 				this.corsLookup.remove(definition.getHandlerMethod());
@@ -762,6 +797,148 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	}
 
 
+	/**
+	 * Index of mappings by the literal path segments their path patterns start
+	 * with, up to the first segment with a wildcard or URI variable. The last
+	 * segment of a pattern is never indexed, since suffix and trailing slash
+	 * matching may still apply to it.
+	 * <p>Segments are trimmed and compared case-insensitively, so the mappings
+	 * returned for a path are a superset of what a path matcher configured
+	 * with {@code trimTokens} or without {@code caseSensitive} would match.
+	 * Mappings without path patterns are always returned.
+	 */
+	private static class PathPrefixIndex<T> {
+
+		private final Node<T> root = new Node<>();
+
+		private int registrationCount;
+
+		public void add(T mapping, Set<String> patterns) {
+			int order = this.registrationCount++;
+			if (patterns.isEmpty()) {
+				this.root.add(mapping, order);
+				return;
+			}
+			for (String pattern : patterns) {
+				Node<T> node = this.root;
+				for (String segment : getLiteralSegments(pattern)) {
+					node = node.children.computeIfAbsent(segment, key -> new Node<>());
+				}
+				node.add(mapping, order);
+			}
+		}
+
+		public void remove(T mapping, Set<String> patterns) {
+			if (patterns.isEmpty()) {
+				this.root.remove(mapping);
+				return;
+			}
+			for (String pattern : patterns) {
+				Node<T> node = this.root;
+				for (String segment : getLiteralSegments(pattern)) {
+					node = node.children.get(segment);
+					if (node == null) {
+						break;
+					}
+				}
+				if (node != null) {
+					node.remove(mapping);
+				}
+			}
+		}
+
+		public Collection<T> getMappings(String path) {
+			List<IndexedMapping<T>> result = new ArrayList<>(this.root.mappings);
+			boolean merged = false;
+			Node<T> node = this.root;
+			int start = 0;
+			while (start < path.length()) {
+				int end = path.indexOf('/', start);
+				if (end == -1) {
+					end = path.length();
+				}
+				String segment = normalizeSegment(path.substring(start, end));
+				start = end + 1;
+				if (segment.isEmpty()) {
+					continue;
+				}
+				node = node.children.get(segment);
+				if (node == null) {
+					break;
+				}
+				if (!node.mappings.isEmpty()) {
+					merged = merged || !result.isEmpty();
+					result.addAll(node.mappings);
+				}
+			}
+			if (merged) {
+				// Restore registration order, dropping mappings indexed under several prefixes
+				result.sort(Comparator.comparingInt(indexedMapping -> indexedMapping.order));
+			}
+			List<T> mappings = new ArrayList<>(result.size());
+			IndexedMapping<T> previous = null;
+			for (IndexedMapping<T> indexedMapping : result) {
+				if (previous == null || previous.order != indexedMapping.order) {
+					mappings.add(indexedMapping.mapping);
+				}
+				previous = indexedMapping;
+			}
+			return mappings;
+		}
+
+		private static List<String> getLiteralSegments(String pattern) {
+			String[] tokens = StringUtils.tokenizeToStringArray(pattern, "/");
+			List<String> segments = new ArrayList<>(tokens.length);
+			for (int i = 0; i < tokens.length - 1; i++) {
+				String segment = normalizeSegment(tokens[i]);
+				if (segment.indexOf('*') != -1 || segment.indexOf('?') != -1 || segment.indexOf('{') != -1) {
+					break;
+				}
+				segments.add(segment);
+			}
+			return segments;
+		}
+
+		private static String normalizeSegment(String segment) {
+			return segment.trim().toLowerCase(Locale.ENGLISH);
+		}
+
+
+		private static class Node<T> {
+
+			private final Map<String, Node<T>> children = new HashMap<>();
+
+			private final List<IndexedMapping<T>> mappings = new ArrayList<>(1);
+
+			public void add(T mapping, int order) {
+				for (IndexedMapping<T> indexedMapping : this.mappings) {
+					if (indexedMapping.mapping.equals(mapping)) {
+						return;
+					}
+				}
+				this.mappings.add(new IndexedMapping<>(mapping, order));
+			}
+
+			public void remove(T mapping) {
+				this.mappings.removeIf(indexedMapping -> indexedMapping.mapping.equals(mapping));
+			}
+		}
+
+
+		private static class IndexedMapping<T> {
+
+			private final T mapping;
+
+			private final int order;
+
+			public IndexedMapping(T mapping, int order) {
+				this.mapping = mapping;
+				this.order = order;
+			}
+		}
+	}
+
+
 	/**
 	 * A thin wrapper around a matched HandlerMethod and its mapping, for the purpose of
 	 * comparing the best match with a comparator in the context of the current request.
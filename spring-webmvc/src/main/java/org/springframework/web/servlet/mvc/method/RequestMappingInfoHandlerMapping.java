@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,6 +32,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
@@ -45,6 +46,7 @@ import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.handler.AbstractHandlerMethodMapping;
 import org.springframework.web.servlet.mvc.condition.NameValueExpression;
 import org.springframework.web.util.WebUtils;
+import org.springframework.web.util.pattern.PathPatternMatcher;
 
 /**
  * Abstract base class for classes for which {@link RequestMappingInfo} defines
@@ -82,6 +84,18 @@ public abstract class RequestMappingInfoHandlerMapping extends AbstractHandlerMe
 		return info.getPatternsCondition().getPatterns();
 	}
 
+	/**
+	 * Narrow down pattern-based lookups by literal path prefix, as long as
+	 * the plain {@link AntPathMatcher} or a {@link PathPatternMatcher} is in
+	 * use for matching path patterns.
+	 * @since 5.0.16
+	 */
+	@Override
+	protected boolean usePathPrefixIndex() {
+		Class<?> pathMatcherClass = getPathMatcher().getClass();
+		return (pathMatcherClass == AntPathMatcher.class || pathMatcherClass == PathPatternMatcher.class);
+	}
+
 	/**
 	 * Check if the given RequestMappingInfo matches the current request and
 	 * return a (potentially new) instance with conditions that match the
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -45,6 +45,8 @@ import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandl
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPatternMatcher;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -227,4 +229,24 @@ public class DelegatingWebMvcConfigurationTests {
 				pathMatcher, handlerMapping.getPathMatcher());
 	}
 
+	@Test
+	public void configurePathMatchWithPatternParser() throws Exception {
+		final PathPatternParser patternParser = new PathPatternParser();
+
+		List<WebMvcConfigurer> configurers = new ArrayList<>();
+		configurers.add(new WebMvcConfigurer() {
+			@Override
+			public void configurePathMatch(PathMatchConfigurer configurer) {
+				configurer.setPatternParser(patternParser);
+			}
+		});
+		delegatingConfig.setConfigurers(configurers);
+
+		RequestMappingHandlerMapping handlerMapping = delegatingConfig.requestMappingHandlerMapping();
+		PathMatcher pathMatcher = handlerMapping.getPathMatcher();
+		assertTrue(pathMatcher instanceof PathPatternMatcher);
+		assertSame(patternParser, ((PathPatternMatcher) pathMatcher).getParser());
+		assertSame(pathMatcher, delegatingConfig.mvcPathMatcher());
+	}
+
 }
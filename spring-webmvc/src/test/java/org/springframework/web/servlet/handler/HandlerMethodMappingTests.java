@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.web.servlet.handler;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -42,6 +43,7 @@ import org.springframework.web.util.UrlPathHelper;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 
 /**
@@ -227,6 +229,55 @@ public class HandlerMethodMappingTests {
 		assertNull(this.mapping.getMappingRegistry().getCorsConfiguration(handlerMethod));
 	}
 
+	@Test
+	public void patternMatchWithPathPrefixIndex() throws Exception {
+		this.mapping = new PathPrefixIndexHandlerMethodMapping();
+		this.mapping.registerMapping("/api/users/{id}", this.handler, this.method1);
+		this.mapping.registerMapping("/api/orders/{id}", this.handler, this.method1);
+		this.mapping.registerMapping("/api/**", this.handler, this.method2);
+		this.mapping.registerMapping("/*/users/{id}", this.handler, this.method2);
+
+		assertEquals(Arrays.asList("/api/users/{id}", "/api/**", "/*/users/{id}"),
+				this.mapping.getMappingRegistry().getMappingsByPathPrefix("/api/users/1"));
+		assertEquals(Arrays.asList("/api/users/{id}", "/api/**", "/*/users/{id}"),
+				this.mapping.getMappingRegistry().getMappingsByPathPrefix("/API//users/1"));
+		assertEquals(Arrays.asList("/api/**", "/*/users/{id}"),
+				this.mapping.getMappingRegistry().getMappingsByPathPrefix("/api"));
+		assertEquals(Collections.singletonList("/*/users/{id}"),
+				this.mapping.getMappingRegistry().getMappingsByPathPrefix("/other/users/1"));
+
+		HandlerMethod result = this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/api/users/1"));
+		assertEquals(method1, result.getMethod());
+		result = this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/api/other/1"));
+		assertEquals(method2, result.getMethod());
+	}
+
+	@Test
+	public void patternMatchWithPathPrefixIndexAndShorterPath() throws Exception {
+		this.mapping = new PathPrefixIndexHandlerMethodMapping();
+		this.mapping.registerMapping("/api/users/**", this.handler, this.method1);
+		this.mapping.registerMapping("/api/users/{id}/orders", this.handler, this.method2);
+
+		assertTrue(this.mapping.getMappingRegistry().getMappingsByPathPrefix("/api/users").contains("/api/users/**"));
+		HandlerMethod result = this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/api/users"));
+		assertEquals(method1, result.getMethod());
+	}
+
+	@Test
+	public void unregisterMappingWithPathPrefixIndex() throws Exception {
+		this.mapping = new PathPrefixIndexHandlerMethodMapping();
+		this.mapping.registerMapping("/api/users/{id}", this.handler, this.method1);
+		this.mapping.registerMapping("/api/{type}/{id}", this.handler, this.method2);
+		assertEquals(Arrays.asList("/api/users/{id}", "/api/{type}/{id}"),
+				this.mapping.getMappingRegistry().getMappingsByPathPrefix("/api/users/1"));
+
+		this.mapping.unregisterMapping("/api/users/{id}");
+		assertEquals(Collections.singletonList("/api/{type}/{id}"),
+				this.mapping.getMappingRegistry().getMappingsByPathPrefix("/api/users/1"));
+		HandlerMethod result = this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/api/users/1"));
+		assertEquals(method2, result.getMethod());
+	}
+
 	@Test
 	public void getCorsConfigWithBeanNameHandler() throws Exception {
 
@@ -295,6 +346,19 @@ public class HandlerMethodMappingTests {
 
 	}
 
+	private static class PathPrefixIndexHandlerMethodMapping extends MyHandlerMethodMapping {
+
+		@Override
+		protected Set<String> getMappingPathPatterns(String key) {
+			return Collections.singleton(key);
+		}
+
+		@Override
+		protected boolean usePathPrefixIndex() {
+			return true;
+		}
+	}
+
 	private static class SimpleMappingNamingStrategy implements HandlerMethodMappingNamingStrategy<String> {
 
 		@Override